@@ -28,4 +28,141 @@ dependencies {
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+// Harness regresi throughput fisika: gagal jika lebih lambat dari baseline atau hasil fisika berubah.
+// Angka throughput bergantung pada mesin, jadi task ini tidak ikut ./gradlew check; checksum
+// baseline (deterministik) sudah dicek oleh test unit PhysicsChecksumTest.
+// Perbarui baseline (di mesin CI yang sama): ./gradlew benchmark -PupdateBaseline
+// Posisi dari pustaka lain (baseline terpisah): ./gradlew benchmark -Plibrary=posisi.b2pl
+tasks.register<JavaExec>("benchmark") {
+    group = "verification"
+    description = "Runs the headless physics scenarios and compares them against benchmark/baseline.csv"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.billiards2d.ThroughputHarness")
+    jvmArgs("-Djava.awt.headless=true")
+    val library = project.findProperty("library")?.toString()
+    args("--output", layout.buildDirectory.file("benchmark/results.csv").get().asFile.path,
+         "--baseline", file(if (library != null) "benchmark/library-baseline.csv" else "benchmark/baseline.csv").path)
+    if (library != null) args("--library", file(library).path)
+    if (project.hasProperty("updateBaseline")) args("--update-baseline")
+}
+
+// Pustaka posisi contoh yang deterministik (64 posisi pertama dari positionLibrary),
+// sumber benchmark/library-baseline.csv
+val benchmarkLibraryFile = layout.buildDirectory.file("benchmark/library-sample.b2pl")
+tasks.register<JavaExec>("benchmarkLibrarySample") {
+    group = "verification"
+    description = "Writes the sample position library used by benchmarkLibrary"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.billiards2d.PositionLibrary")
+    args("write", benchmarkLibraryFile.get().asFile.path, "64")
+    outputs.file(benchmarkLibraryFile)
+}
+
+// Regresi throughput dari pustaka posisi contoh (lewat encode/decode pustaka):
+// ./gradlew benchmarkLibrary [-PupdateBaseline]
+tasks.register<JavaExec>("benchmarkLibrary") {
+    group = "verification"
+    description = "Runs the sample position library and compares it against benchmark/library-baseline.csv"
+    dependsOn("benchmarkLibrarySample")
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.billiards2d.ThroughputHarness")
+    jvmArgs("-Djava.awt.headless=true")
+    args("--output", layout.buildDirectory.file("benchmark/library-results.csv").get().asFile.path,
+         "--baseline", file("benchmark/library-baseline.csv").path,
+         "--library", benchmarkLibraryFile.get().asFile.path)
+    if (project.hasProperty("updateBaseline")) args("--update-baseline")
+}
+
+// Kalibrasi parameter fisika dari rekaman lintasan meja nyata:
+// ./gradlew calibrate -Precordings=rekaman1.csv,rekaman2.csv
+tasks.register<JavaExec>("calibrate") {
+    group = "application"
+    description = "Fits friction and restitution to recorded trajectories and writes physics.properties"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.billiards2d.PhysicsCalibrator")
+    args("--output", file("physics.properties").path)
+    val recordings = project.findProperty("recordings")?.toString() ?: ""
+    args(recordings.split(",").filter { it.isNotBlank() }.map { file(it).path })
+}
+
+// Data latih model pemilih pukulan (format kolom biner, lihat TrainingDataWriter.java):
+// ./gradlew exportTrainingData -Precords=1000000 -Poutput=shots.b2dt -Pcompress
+tasks.register<JavaExec>("exportTrainingData") {
+    group = "application"
+    description = "Simulates random shots in parallel and writes them as columnar training data"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.billiards2d.TrainingDataExporter")
+    args("--records", project.findProperty("records")?.toString() ?: "100000",
+         "--output", file(project.findProperty("output")?.toString() ?: "training.b2dt").path)
+    if (project.hasProperty("compress")) args("--compress")
+    if (project.hasProperty("float")) args("--float")
+}
+
+// Bandingkan simulasi kasar dengan presisi penuh (kecepatan dan kecocokan hasil):
+// ./gradlew compareTiers -Pshots=5000
+tasks.register<JavaExec>("compareTiers") {
+    group = "verification"
+    description = "Measures coarse-tier speed-up and agreement against the full-precision simulator"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.billiards2d.CoarseShotSimulator")
+    args(project.findProperty("shots")?.toString() ?: "2000")
+}
+
+// AI perencana pukulan memainkan run-out dari posisi break:
+// ./gradlew planShots -PbudgetMs=500 -Pshots=8 -PsimulationBudget=0
+tasks.register<JavaExec>("planShots") {
+    group = "application"
+    description = "Plays a run-out from the break position with the shot planner"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.billiards2d.ShotPlanner")
+    args(project.findProperty("budgetMs")?.toString() ?: "500",
+         project.findProperty("shots")?.toString() ?: "8",
+         project.findProperty("simulationBudget")?.toString() ?: "0")
+}
+
+// Akurasi dan kecepatan mode fisika float32 dibanding presisi ganda:
+// ./gradlew floatAccuracy -Pshots=1000
+tasks.register<JavaExec>("floatAccuracy") {
+    group = "verification"
+    description = "Compares the single-precision physics mode against the double-precision engine"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.billiards2d.FloatSimulation")
+    args(project.findProperty("shots")?.toString() ?: "500")
+}
+
+// Layanan HTTP/JSON lokal untuk evaluasi pukulan (hanya loopback):
+// ./gradlew shotService -Pport=8765 -Pthreads=4
+tasks.register<JavaExec>("shotService") {
+    group = "application"
+    description = "Runs the loopback HTTP/JSON shot-evaluation service"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.billiards2d.ShotEvaluationService")
+    args(project.findProperty("port")?.toString() ?: "8765",
+         project.findProperty("threads")?.toString() ?: Runtime.getRuntime().availableProcessors().toString())
+}
+
+// Pustaka posisi contoh (skenario standar + posisi acak):
+// ./gradlew positionLibrary -Ppositions=100000 -Poutput=posisi.b2pl
+tasks.register<JavaExec>("positionLibrary") {
+    group = "application"
+    description = "Writes a sample position library (standard scenarios plus random positions)"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.billiards2d.PositionLibrary")
+    val output = file(project.findProperty("output")?.toString() ?: "positions.b2pl").path
+    args("write", output, project.findProperty("positions")?.toString() ?: "100000")
+}
+
+// Uji diferensial engine yang dioptimasi terhadap PhysicsEngine sebagai referensi:
+// ./gradlew differential -Pcases=5000 -Pvariants=float32 -PmaxMismatch=0.05
+tasks.register<JavaExec>("differential") {
+    group = "verification"
+    description = "Runs optimized engine variants side by side with the reference engine and reports divergence"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.billiards2d.DifferentialHarness")
+    args("--cases", project.findProperty("cases")?.toString() ?: "2000",
+         "--output", layout.buildDirectory.file("differential/results.csv").get().asFile.path)
+    project.findProperty("variants")?.let { args("--variants", it.toString()) }
+    project.findProperty("library")?.let { args("--library", file(it.toString()).path) }
+    project.findProperty("maxMismatch")?.let { args("--max-mismatch", it.toString()) }
+}
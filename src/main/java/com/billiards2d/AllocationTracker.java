@@ -0,0 +1,97 @@
+package com.billiards2d;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Mengukur byte yang dialokasikan thread saat ini di antara {@link #begin()} dan {@link #end()},
+ * memakai {@code ThreadMXBean} (thread-allocated-bytes) dari HotSpot.
+ * <p>
+ * Dipakai Game Loop untuk menampilkan alokasi per frame dan per langkah fisika di HUD, dan oleh
+ * {@link ThroughputHarness} untuk memastikan langkah fisika dan perhitungan prediksi tetap
+ * bebas alokasi (churn {@link Vector2D} adalah penyebab utama GC di game ini). Pengukuran
+ * sendiri tidak mengalokasikan apapun. Satu objek hanya boleh dipakai oleh satu thread.
+ * </p>
+ */
+public class AllocationTracker {
+
+    private static final com.sun.management.ThreadMXBean BEAN = findBean();
+
+    private long startBytes = -1;
+    private long lastBytes = 0;
+    private long maxBytes = 0;
+    private long totalBytes = 0;
+    private long samples = 0;
+
+    private static com.sun.management.ThreadMXBean findBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean;
+            }
+        }
+        return null;
+    }
+
+    /** @return true jika JVM ini bisa mengukur alokasi per thread. */
+    public static boolean isSupported() {
+        return BEAN != null;
+    }
+
+    /** @return Total byte yang sudah dialokasikan thread ini, atau -1 jika JVM tidak mendukung. */
+    public static long threadAllocatedBytes() {
+        return BEAN != null ? BEAN.getCurrentThreadAllocatedBytes() : -1;
+    }
+
+    /**
+     * Menjalankan aksi berulang kali dan mengukur total alokasinya.
+     *
+     * @param action     Aksi yang diukur (objek lambda-nya dibuat oleh pemanggil, di luar pengukuran).
+     * @param iterations Jumlah pengulangan.
+     * @return Total byte yang dialokasikan, atau -1 jika tidak didukung.
+     */
+    public static long measure(Runnable action, int iterations) {
+        long before = threadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) action.run();
+        long after = threadAllocatedBytes();
+        return before < 0 ? -1 : after - before;
+    }
+
+    /** Memulai satu pengukuran. */
+    public void begin() {
+        startBytes = threadAllocatedBytes();
+    }
+
+    /**
+     * Mengakhiri pengukuran yang dimulai dengan {@link #begin()}.
+     *
+     * @return Byte yang dialokasikan sejak begin(), atau -1 jika tidak didukung.
+     */
+    public long end() {
+        if (startBytes < 0) return -1;
+        long bytes = threadAllocatedBytes() - startBytes;
+        startBytes = -1;
+        lastBytes = bytes;
+        if (bytes > maxBytes) maxBytes = bytes;
+        totalBytes += bytes;
+        samples++;
+        return bytes;
+    }
+
+    /** Menghapus statistik (misalnya setelah pemanasan JIT). */
+    public void reset() {
+        lastBytes = 0;
+        maxBytes = 0;
+        totalBytes = 0;
+        samples = 0;
+    }
+
+    /** @return Byte pada pengukuran terakhir. */
+    public long getLastBytes() { return lastBytes; }
+    /** @return Byte terbesar dalam satu pengukuran sejak reset. */
+    public long getMaxBytes() { return maxBytes; }
+    public long getTotalBytes() { return totalBytes; }
+    public long getSamples() { return samples; }
+    /** @return Rata-rata byte per pengukuran sejak reset. */
+    public double getAverageBytes() { return samples == 0 ? 0 : (double) totalBytes / samples; }
+}
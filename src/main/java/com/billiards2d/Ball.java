@@ -11,11 +11,14 @@ import javafx.scene.paint.Color;
  */
 public abstract class Ball implements GameObject {
 
+    // Posisi dan kecepatan disimpan sebagai double biasa (bukan Vector2D) agar langkah fisika
+    // tidak membuat objek baru. Vector2D hanya dibuat jika diminta lewat getPosition()/getVelocity().
+
     /** Posisi bola dalam koordinat 2D (x, y) pada meja. */
-    protected Vector2D position;
+    protected double x, y;
 
-    /** Vektor kecepatan bola yang menentukan arah dan laju pergerakan. */
-    protected Vector2D velocity;
+    /** Kecepatan bola yang menentukan arah dan laju pergerakan (pixel/detik). */
+    protected double vx, vy;
 
     /** Jari-jari bola dalam satuan pixel. */
     protected double radius;
@@ -29,6 +32,15 @@ public abstract class Ball implements GameObject {
     /** Status bola: true jika bola masih ada di meja, false jika sudah masuk lubang. */
     protected boolean active = true;
 
+    /** Parameter fisika meja (gesekan karpet). Diatur oleh {@link PhysicsEngine#setParameters}. */
+    protected PhysicsParameters parameters = PhysicsParameters.DEFAULT;
+
+    // Faktor gesekan terakhir: sub-step hampir selalu sama panjang, jadi pow cukup dihitung ulang
+    // saat koefisien gesekan atau panjang langkah berubah.
+    private double frictionBase = Double.NaN;
+    private double frictionDeltaTime = Double.NaN;
+    private double frictionFactor;
+
     /**
      * Konstruktor untuk membuat objek Ball baru.
      * @param position Posisi awal bola (Vector2D).
@@ -36,8 +48,10 @@ public abstract class Ball implements GameObject {
      * @param radius   Ukuran jari-jari bola.
      */
     public Ball(Vector2D position, Color color, double radius) {
-        this.position = position;
-        this.velocity = new Vector2D(0, 0); // Kecepatan awal selalu 0 (diam)
+        this.x = position.getX();
+        this.y = position.getY();
+        this.vx = 0; // Kecepatan awal selalu 0 (diam)
+        this.vy = 0;
         this.color = color;
         this.radius = radius;
         this.mass = 1.0; // Massa default diset ke 1.0
@@ -53,20 +67,31 @@ public abstract class Ball implements GameObject {
     public void update(double deltaTime) {
         // 1. Integrasi Posisi:
         // Posisi baru = Posisi lama + (Kecepatan * Waktu)
-        position = position.add(velocity.multiply(deltaTime));
+        x = x + vx * deltaTime;
+        y = y + vy * deltaTime;
 
         // 2. Penerapan Gesekan (Time-Based Friction):
         // Mengurangi kecepatan secara bertahap untuk mensimulasikan gesekan karpet meja.
-        // Menggunakan Math.pow agar tingkat perlambatan tetap sama berapapun FPS komputernya.
-        // Angka 0.992 adalah koefisien gesekan (semakin dekat ke 1, semakin licin).
-        double frictionFactor = Math.pow(0.992, deltaTime * 60.0);
-        velocity = velocity.multiply(frictionFactor);
+        // Memakai pangkat agar tingkat perlambatan tetap sama berapapun FPS komputernya.
+        // StrictMath (bukan Math) agar hasilnya sama persis di semua CPU/JVM, sehingga checksum
+        // keadaan akhir (ThroughputHarness, PhysicsChecksumTest) tidak bergantung pada mesin.
+        // Koefisien gesekan diambil dari parameter meja (bawaan 0.992, semakin dekat ke 1, semakin licin).
+        double friction = parameters.getFriction();
+        if (friction != frictionBase || deltaTime != frictionDeltaTime) {
+            frictionBase = friction;
+            frictionDeltaTime = deltaTime;
+            frictionFactor = StrictMath.pow(friction, deltaTime * 60.0);
+        }
+        vx = vx * frictionFactor;
+        vy = vy * frictionFactor;
 
         // 3. Batas Berhenti (Stop Threshold):
         // Jika bola bergerak sangat lambat (kurang dari 5 pixel/detik), paksa berhenti total.
         // Ini mencegah bola bergerak mikro (jitter) dan memungkinkan giliran bermain selesai.
-        if (velocity.length() < 5)
-            velocity = new Vector2D(0, 0); // biar ga gerak ketika sudah tidak ada gaya
+        if (getSpeed() < 5) {
+            vx = 0; // biar ga gerak ketika sudah tidak ada gaya
+            vy = 0;
+        }
     }
 
     /**
@@ -80,26 +105,48 @@ public abstract class Ball implements GameObject {
             return;
         }
 
-        gc.setFill(this.color);
+        drawShape(gc, this.color, this.x, this.y, this.radius);
+    }
+
+    /**
+     * Menggambar bentuk bola di posisi tertentu.
+     * Dipakai oleh {@link #draw(GraphicsContext)} dan oleh renderer yang menggambar
+     * dari snapshot (tanpa objek Ball).
+     */
+    static void drawShape(GraphicsContext gc, Color color, double x, double y, double radius) {
+        gc.setFill(color);
         // Menggambar lingkaran (Oval).
         // JavaFX menggambar dari sudut kiri-atas, jadi kita kurangi posisi dengan radius
         // agar titik (x,y) berada tepat di tengah bola.
         gc.fillOval(
-                this.position.getX() - this.radius,
-                this.position.getY() - this.radius,
-                this.radius * 2, // Lebar
-                this.radius * 2 // Tinggi
+                x - radius,
+                y - radius,
+                radius * 2, // Lebar
+                radius * 2 // Tinggi
         );
     }
 
     // --- Getter dan Setter ---
 
-    public Vector2D getPosition() { return position; }
-    public void setPosition(Vector2D position) { this.position = position; }
-    public Vector2D getVelocity() { return velocity; }
-    public void setVelocity(Vector2D velocity) { this.velocity = velocity; }
+    /** @return Salinan posisi sebagai Vector2D baru (di jalur fisika pakai {@link #getX()}/{@link #getY()}). */
+    public Vector2D getPosition() { return new Vector2D(x, y); }
+    public void setPosition(Vector2D position) { setPosition(position.getX(), position.getY()); }
+    public void setPosition(double x, double y) { this.x = x; this.y = y; }
+    /** @return Salinan kecepatan sebagai Vector2D baru (di jalur fisika pakai {@link #getVx()}/{@link #getVy()}). */
+    public Vector2D getVelocity() { return new Vector2D(vx, vy); }
+    public void setVelocity(Vector2D velocity) { setVelocity(velocity.getX(), velocity.getY()); }
+    public void setVelocity(double vx, double vy) { this.vx = vx; this.vy = vy; }
+    public double getX() { return x; }
+    public double getY() { return y; }
+    public double getVx() { return vx; }
+    public double getVy() { return vy; }
+    /** @return Besar kecepatan (sama dengan {@code getVelocity().length()}, tanpa objek baru). */
+    public double getSpeed() { return Math.sqrt(vx * vx + vy * vy); }
     public double getRadius() { return radius; }
     public double getMass() { return mass; }
+    public Color getColor() { return color; }
     public boolean isActive() { return active; }
     public void setActive(boolean active) { this.active = active; }
+    public PhysicsParameters getParameters() { return parameters; }
+    public void setParameters(PhysicsParameters parameters) { this.parameters = parameters; }
 }
\ No newline at end of file
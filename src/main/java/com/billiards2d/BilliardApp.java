@@ -2,6 +2,7 @@ package com.billiards2d;
 
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
@@ -9,10 +10,16 @@ import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.stage.Stage;
-import javafx.scene.input.MouseEvent;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Kelas utama aplikasi (Main Entry Point) yang mengatur siklus hidup permainan.
@@ -26,8 +33,10 @@ import java.util.List;
 public class BilliardApp extends Application {
 
     // Ukuran area permainan (Area hijau meja, tidak termasuk dinding)
-    private static final int GAME_WIDTH = 800;
-    private static final int GAME_HEIGHT = 450;
+    static final int GAME_WIDTH = 800;
+    static final int GAME_HEIGHT = 450;
+    // Batas waktu menunggu thread simulasi berhenti saat aplikasi ditutup (milidetik)
+    private static final long SIMULATION_STOP_TIMEOUT_MS = 1000;
 
     private GraphicsContext gc;
     // Daftar semua objek game yang perlu di-update setiap frame
@@ -38,6 +47,23 @@ public class BilliardApp extends Application {
     private CueBall cueBall;   // Referensi ke Bola Putih untuk HUD info
     private PhysicsEngine physicsEngine; // Referensi ke Physics Engine
 
+    // Input mouse dikumpulkan di sini lalu diteruskan ke stik sekali per frame
+    private final InputQueue inputQueue = new InputQueue();
+    // Pukulan dari stik, dieksekusi di awal langkah fisika berikutnya
+    private final Queue<ShotCommand> shotQueue = new ConcurrentLinkedQueue<>();
+
+    private Simulation simulation; // Logika per frame (pukulan, sub-step fisika, respawn)
+    // Snapshot render dari simulasi ke Game Loop (lock-free)
+    private final TripleBuffer<RenderSnapshot> snapshots = new TripleBuffer<>(RenderSnapshot::new);
+    // Thread simulasi terpisah (null jika simulasi berjalan di Game Loop)
+    private SimulationThread simulationThread;
+    // Game Loop, berhenti sendiri saat meja idle dan dibangunkan lagi oleh input
+    private final GameLoop gameLoop = new GameLoop();
+    // Menurunkan kualitas saat frame melewati anggarannya (null jika dimatikan)
+    private FrameBudgetGovernor frameBudget;
+    // Thread pembantu untuk sistem frame yang tidak saling bergantung (null = semua di JavaFX thread)
+    private ExecutorService frameSystemPool;
+
     // Variabel debug untuk menampilkan info di HUD (Heads-Up Display)
     private double mouseX, mouseY;
 
@@ -65,21 +91,31 @@ public class BilliardApp extends Application {
         // setelah ketebalan dinding meja.
         double offset = table.getWallThickness();
 
+        // Event hanya dicatat ke antrean (tanpa membuat objek baru), lalu diproses di Game Loop.
+        // Setiap event juga membangunkan Game Loop jika sedang berhenti karena meja idle.
         canvas.setOnMouseMoved(e -> {
             mouseX = e.getX() - offset; // Koordinat relatif terhadap area main
             mouseY = e.getY() - offset;
-            cueStick.handleMouseMoved(offsetEvent(e, -offset));
+            inputQueue.push(InputQueue.MOVED, mouseX, mouseY);
+            gameLoop.wake();
         });
 
-        canvas.setOnMousePressed(e -> cueStick.handleMousePressed(offsetEvent(e, -offset)));
+        canvas.setOnMousePressed(e -> {
+            inputQueue.push(InputQueue.PRESSED, e.getX() - offset, e.getY() - offset);
+            gameLoop.wake();
+        });
 
         canvas.setOnMouseDragged(e -> {
             mouseX = e.getX() - offset;
             mouseY = e.getY() - offset;
-            cueStick.handleMouseDragged(offsetEvent(e, -offset));
+            inputQueue.push(InputQueue.DRAGGED, mouseX, mouseY);
+            gameLoop.wake();
         });
 
-        canvas.setOnMouseReleased(e -> cueStick.handleMouseReleased(offsetEvent(e, -offset)));
+        canvas.setOnMouseReleased(e -> {
+            inputQueue.push(InputQueue.RELEASED, e.getX() - offset, e.getY() - offset);
+            gameLoop.wake();
+        });
 
         // 4. Finalisasi Stage
         primaryStage.setTitle("Billiard Simulation");
@@ -89,43 +125,74 @@ public class BilliardApp extends Application {
 
         // 5. Init Objek Game dan Mulai Loop
         initializeGameObjects();
-        GameLoop gameLoop = new GameLoop();
+        setupFrameBudgetGovernor();
+        setupFrameSystemThreads();
+
+        // Snapshot awal: meja diam tidak mempublikasikan snapshot sampai ada pukulan
+        snapshots.getWriteBuffer().captureFrom(simulation, 0);
+        snapshots.publish();
+
+        // Opsional: -Dbilliards.simThread=true menjalankan fisika di thread tersendiri
+        if (Boolean.getBoolean("billiards.simThread")) {
+            simulationThread = new SimulationThread(simulation, snapshots, 60);
+            // Pukulan dieksekusi di thread simulasi: bangunkan Game Loop di JavaFX thread
+            simulationThread.setOnResume(() -> Platform.runLater(gameLoop::wake));
+            simulationThread.start();
+        }
+
         gameLoop.start();
     }
 
     /**
-     * Helper method untuk membuat event mouse baru dengan koordinat yang sudah digeser.
-     * Ini penting agar posisi mouse di logika game sinkron dengan visual meja.
+     * Dipanggil JavaFX saat aplikasi ditutup: hentikan thread simulasi jika ada,
+     * lalu simpan keadaan meja jika -Dbilliards.saveFile diatur.
      */
-    private MouseEvent offsetEvent(MouseEvent e, double shift) {
-        return new MouseEvent(
-                e.getSource(), e.getTarget(), e.getEventType(),
-                e.getX() + shift, e.getY() + shift, // Koordinat lokal digeser
-                e.getScreenX(), e.getScreenY(),
-                e.getButton(), e.getClickCount(),
-                e.isShiftDown(), e.isControlDown(), e.isAltDown(), e.isMetaDown(),
-                e.isPrimaryButtonDown(), e.isMiddleButtonDown(), e.isSecondaryButtonDown(),
-                e.isSynthesized(), e.isPopupTrigger(), e.isStillSincePress(), e.getPickResult()
-        );
+    @Override
+    public void stop() {
+        // Tunggu thread simulasi benar-benar berhenti: keadaan meja yang disimpan di bawah
+        // tidak boleh terpotong oleh advance() yang masih berjalan
+        boolean simulationStopped = true;
+        if (simulationThread != null) {
+            try {
+                simulationStopped = simulationThread.shutdownAndWait(SIMULATION_STOP_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                simulationStopped = false;
+            }
+        }
+
+        if (frameSystemPool != null) frameSystemPool.shutdownNow();
+
+        // Laporan waktu per sistem selama sesi
+        System.out.print("Frame systems:\n" + gameLoop.frameSystems.formatReport());
+        if (simulation != null) System.out.print("Simulation systems:\n" + simulation.getScheduler().formatReport());
+        if (frameBudget != null) System.out.print("Frame budget:\n" + frameBudget.formatReport());
+
+        String path = System.getProperty("billiards.saveFile");
+        if (path == null || physicsEngine == null) return;
+        if (!simulationStopped) {
+            System.err.println("Table state not saved: simulation thread did not stop");
+            return;
+        }
+        try {
+            new TableStateCodec().save(Path.of(path), TableState.capture(gameObjects, physicsEngine.getPlayerScore()));
+        } catch (IOException e) {
+            System.err.println("Table state not saved: " + e.getMessage());
+        }
     }
 
     /**
      * Membuat dan mendaftarkan semua objek permainan awal (Bola, Stik, Engine).
      */
     private void initializeGameObjects() {
-        // Inisialisasi Bola Putih
-        cueBall = new CueBall(new Vector2D(GAME_WIDTH/4.0, GAME_HEIGHT/2.0));
-
-        // List sementara untuk menampung semua bola (Putih + Warna)
-        List<Ball> allBalls = new ArrayList<>();
-        allBalls.add(cueBall);
-
-        // Inisialisasi Bola Warna (15 bola dalam formasi segitiga)
-        gameObjects.add(cueBall);
-        setupRack(allBalls);
+        // Inisialisasi Bola Putih + Bola Warna (15 bola dalam formasi segitiga)
+        List<Ball> allBalls = loadLibraryPosition();
+        if (allBalls == null) allBalls = createStandardBalls(GAME_WIDTH, GAME_HEIGHT);
+        cueBall = ShotSimulator.findCueBall(allBalls);
 
         // Inisialisasi Stik (Butuh referensi ke bola putih dan semua bola untuk prediksi)
         this.cueStick = new CueStick(cueBall, allBalls, GAME_WIDTH, GAME_HEIGHT);
+        this.cueStick.setShotQueue(shotQueue);
 
         // Inisialisasi Physics Engine (Logika Fisika)
         // PhysicsEngine juga dimasukkan ke gameObjects agar method update()-nya dipanggil di loop
@@ -133,14 +200,234 @@ public class BilliardApp extends Application {
         // Note: physicsEngine butuh akses ke list gameObjects untuk mendeteksi semua bola
         gameObjects.addAll(allBalls); // Pastikan semua bola terdaftar di gameObjects
         gameObjects.add(physicsEngine);
+
+        setupPhysicsParameters();
+        setupContactSolver();
+        setupSharedState(allBalls);
+        loadSaveFile(allBalls);
+
+        this.simulation = new Simulation(table, cueBall, allBalls, gameObjects, physicsEngine, shotQueue);
+        // Rentang sub-step adaptif bisa diatur lewat -Dbilliards.minSubSteps / -Dbilliards.maxSubSteps
+        simulation.setSubStepRange(
+                Integer.getInteger("billiards.minSubSteps", simulation.getMinSubSteps()),
+                Integer.getInteger("billiards.maxSubSteps", simulation.getMaxSubSteps()));
+        // Alokasi memori per langkah fisika dan waktu per sistem ditampilkan di HUD
+        simulation.setAllocationTracker(new AllocationTracker());
+        simulation.getScheduler().setTimingEnabled(true);
+        // Opsional: -Dbilliards.resolveAhead=true menyelesaikan pukulan di depan lalu memutar rekamannya
+        simulation.setResolveAhead(Boolean.getBoolean("billiards.resolveAhead"));
+    }
+
+    /**
+     * Memuat parameter fisika meja hasil kalibrasi jika diminta lewat system property.
+     * <p>
+     * -Dbilliards.physics=&lt;file&gt; : file properties dari {@link PhysicsCalibrator}.
+     * </p>
+     */
+    private void setupPhysicsParameters() {
+        if (System.getProperty("billiards.physics") == null) return;
+
+        try {
+            PhysicsParameters parameters = PhysicsParameters.fromSystemProperty();
+            physicsEngine.setParameters(parameters);
+            System.out.println("Loaded " + parameters);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Physics parameters not loaded, using defaults: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Mengaktifkan solver tumbukan iteratif jika diminta lewat system property.
+     * <p>
+     * -Dbilliards.solver=iterative          : pakai {@link ContactSolver} (bawaan: per pasangan).
+     * -Dbilliards.solverIterations=&lt;n&gt; : jumlah iterasi kecepatan per langkah.
+     * </p>
+     */
+    private void setupContactSolver() {
+        ContactSolver solver = ContactSolver.fromSystemProperty();
+        if (solver != null) physicsEngine.setContactSolver(solver);
+    }
+
+    /**
+     * Mengaktifkan file keadaan meja bersama jika diminta lewat system property.
+     * <p>
+     * -Dbilliards.sharedState=&lt;path&gt; : engine menulis keadaan meja ke file memory-mapped.
+     * -Dbilliards.recover=true           : pulihkan posisi bola dan skor dari file tersebut.
+     * </p>
+     */
+    private void setupSharedState(List<Ball> allBalls) {
+        String path = System.getProperty("billiards.sharedState");
+        if (path == null) return;
+
+        try {
+            SharedTableState sharedState = SharedTableState.openForWriting(Path.of(path), allBalls.size());
+            if (Boolean.getBoolean("billiards.recover") && sharedState.hasData()) {
+                TableState recovered = new TableState(allBalls.size());
+                sharedState.readInto(recovered);
+                recovered.applyTo(allBalls);
+                physicsEngine.setPlayerScore(recovered.getPlayerScore());
+                System.out.println("Session recovered from " + path);
+            }
+            physicsEngine.setSharedState(sharedState);
+        } catch (IOException e) {
+            System.err.println("Shared table state disabled: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Memuat keadaan meja tersimpan jika diminta lewat system property.
+     * <p>
+     * -Dbilliards.saveFile=&lt;path&gt; : keadaan meja dimuat dari file ini saat mulai (jika ada)
+     *                                  dan disimpan kembali saat aplikasi ditutup
+     *                                  (format {@link TableStateCodec}).
+     * </p>
+     */
+    private void loadSaveFile(List<Ball> allBalls) {
+        String path = System.getProperty("billiards.saveFile");
+        if (path == null || !Files.exists(Path.of(path))) return;
+
+        try {
+            TableState saved = new TableStateCodec().load(Path.of(path));
+            if (saved.getBallCount() != allBalls.size()) {
+                System.err.println("Save file ignored: expected " + allBalls.size() + " balls, found " + saved.getBallCount());
+                return;
+            }
+            saved.applyTo(allBalls);
+            physicsEngine.setPlayerScore(saved.getPlayerScore());
+            System.out.println("Table state loaded from " + path);
+        } catch (IOException e) {
+            System.err.println("Save file not loaded: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Menyiapkan {@link FrameBudgetGovernor}: saat frame berulang kali melewati anggarannya,
+     * pekerjaan opsional dikurangi dengan urutan prioritas berikut, lalu dikembalikan saat
+     * frame kembali longgar:
+     * <ol>
+     *   <li>percabangan garis prediksi, lalu ghost ball dan garis putus-putus,</li>
+     *   <li>laju pembaruan teks HUD,</li>
+     *   <li>detail gambar bola (kotak satu warna),</li>
+     *   <li>batas atas sub-step fisika, dibagi dua per langkah sampai batas aman.</li>
+     * </ol>
+     * -Dbilliards.frameBudgetMs=&lt;ms&gt;       : anggaran per frame (default 16.7, 0 = mati).
+     * -Dbilliards.governorMinSubSteps=&lt;n&gt;   : batas aman sub-step (default 8).
+     */
+    private void setupFrameBudgetGovernor() {
+        double budgetMillis = Double.parseDouble(System.getProperty("billiards.frameBudgetMs", "16.7"));
+        if (budgetMillis <= 0) return;
+        frameBudget = new FrameBudgetGovernor(budgetMillis);
+
+        frameBudget.addStep("prediction-branches",
+                () -> cueStick.setPredictionDetail(CueStick.PREDICTION_GHOST),
+                () -> cueStick.setPredictionDetail(CueStick.PREDICTION_FULL));
+        frameBudget.addStep("prediction-ghost",
+                () -> cueStick.setPredictionDetail(CueStick.PREDICTION_LINE),
+                () -> cueStick.setPredictionDetail(CueStick.PREDICTION_GHOST));
+
+        SystemScheduler.SystemEntry hudText = gameLoop.frameSystems.getSystem("hudText");
+        int hudInterval = hudText.getInterval();
+        frameBudget.addStep("hud-rate",
+                () -> hudText.setInterval(hudInterval * GameLoop.HUD_SLOW_FACTOR),
+                () -> hudText.setInterval(hudInterval));
+        frameBudget.addStep("ball-detail",
+                () -> gameLoop.simplifiedBalls = true,
+                () -> gameLoop.simplifiedBalls = false);
+
+        // Sub-step tidak pernah turun di bawah batas aman (bola tidak boleh tembus bola lain)
+        int minSubSteps = simulation.getMinSubSteps();
+        int maxSubSteps = simulation.getMaxSubSteps();
+        int floor = Math.max(Math.max(1, minSubSteps), Integer.getInteger("billiards.governorMinSubSteps", 8));
+        for (int cap = maxSubSteps; cap > floor; ) {
+            int previous = cap;
+            cap = Math.max(floor, cap / 2);
+            int next = cap;
+            frameBudget.addStep("sub-steps-" + next,
+                    () -> simulation.setSubStepRange(minSubSteps, next),
+                    () -> simulation.setSubStepRange(minSubSteps, previous));
+        }
+    }
+
+    /**
+     * Menjalankan sistem frame yang tidak saling bergantung secara paralel jika diminta lewat
+     * system property. Di Game Loop ini berarti "prediction" (raycast dari snapshot) dan
+     * "hudText" (format teks HUD) berjalan bersamaan; sistem yang menggambar ke canvas tetap
+     * di JavaFX thread karena menulis data yang sama ("canvas").
+     * <p>
+     * -Dbilliards.frameSystemThreads=&lt;n&gt; : jumlah thread pembantu (default 0 = mati).
+     * </p>
+     */
+    private void setupFrameSystemThreads() {
+        int threads = Integer.getInteger("billiards.frameSystemThreads", 0);
+        if (threads <= 0) return;
+        frameSystemPool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "frame-systems");
+            t.setDaemon(true);
+            return t;
+        });
+        gameLoop.frameSystems.setExecutor(frameSystemPool);
+    }
+
+    /**
+     * Memuat susunan bola awal dari pustaka posisi jika diminta lewat system property.
+     * <p>
+     * -Dbilliards.positionLibrary=&lt;file&gt; : file {@link PositionLibrary}.
+     * -Dbilliards.position=&lt;nama&gt;        : nama posisi (rak khusus, pukulan terkenal, dll).
+     * </p>
+     *
+     * @return Bola dari posisi tersebut, atau null untuk rack standar.
+     */
+    private static List<Ball> loadLibraryPosition() {
+        String path = System.getProperty("billiards.positionLibrary");
+        String name = System.getProperty("billiards.position");
+        if (path == null || name == null) return null;
+
+        try (PositionLibrary library = PositionLibrary.open(Path.of(path))) {
+            int index = library.indexOf(name);
+            if (index < 0) {
+                System.err.println("Position '" + name + "' not found in " + path + ", using standard rack");
+                return null;
+            }
+            PositionLibrary.Cursor position = library.cursor().seek(index);
+            if (position.getTableWidth() != GAME_WIDTH || position.getTableHeight() != GAME_HEIGHT) {
+                System.err.println("Position '" + name + "' is for a different table size, using standard rack");
+                return null;
+            }
+            List<Ball> balls = position.getState().toBalls();
+            if (ShotSimulator.findCueBall(balls) == null) {
+                System.err.println("Position '" + name + "' has no cue ball, using standard rack");
+                return null;
+            }
+            System.out.println("Loaded position '" + name + "' from " + path);
+            return balls;
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Position library not loaded: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Membuat susunan bola standar: bola putih di Head Spot (indeks 0) diikuti 15 bola rack.
+     * Dipakai oleh permainan dan juga oleh alat headless (renderer, benchmark).
+     *
+     * @param tableWidth  Lebar area permainan.
+     * @param tableHeight Tinggi area permainan.
+     * @return Daftar bola baru.
+     */
+    static List<Ball> createStandardBalls(double tableWidth, double tableHeight) {
+        // List untuk menampung semua bola (Putih + Warna)
+        List<Ball> allBalls = new ArrayList<>();
+        allBalls.add(new CueBall(new Vector2D(tableWidth / 4.0, tableHeight / 2.0)));
+        setupRack(allBalls, tableWidth, tableHeight);
+        return allBalls;
     }
 
     // Method helper untuk menyusun 15 bola dalam formasi segitiga
-    private void setupRack(List<Ball> ballList) {
+    static void setupRack(List<Ball> ballList, double tableWidth, double tableHeight) {
         double radius = 10.0;
         // Posisi puncak segitiga (Foot Spot), kira-kira di 75% lebar meja
-        double startX = GAME_WIDTH * 0.75;
-        double startY = GAME_HEIGHT / 2.0;
+        double startX = tableWidth * 0.75;
+        double startY = tableHeight / 2.0;
 
         // Array warna untuk variasi bola (Siklus warna standar biliar)
         String[] colors = {
@@ -175,9 +462,8 @@ public class BilliardApp extends Application {
                 // Buat Bola
                 ObjectBall ball = new ObjectBall(new Vector2D(x, y), colorName);
 
-                // Tambahkan ke list (PENTING: Tambah ke kedua list)
+                // Tambahkan ke list (didaftarkan ke gameObjects oleh initializeGameObjects)
                 ballList.add(ball);     // Untuk Physics & CueStick
-                gameObjects.add(ball);  // Untuk Rendering & Update Loop
 
                 ballCount++;
             }
@@ -187,100 +473,285 @@ public class BilliardApp extends Application {
     /**
      * Inner Class yang menangani Game Loop utama menggunakan AnimationTimer.
      * Berjalan sekitar 60 kali per detik (tergantung refresh rate monitor).
+     * <p>
+     * Jika {@link SimulationThread} aktif, loop ini hanya memproses input dan menggambar
+     * snapshot terbaru; jika tidak, simulasi juga dijalankan di sini sebelum menggambar.
+     * </p>
+     * Jika meja idle (semua bola diam, tidak ada input, dan tidak ada snapshot baru), tidak ada
+     * yang berubah di layar, jadi loop menghentikan dirinya sendiri. JavaFX lalu berhenti
+     * mengirim pulse sehingga pemakaian CPU saat idle mendekati nol. Event mouse dan
+     * {@link SimulationThread} memanggil {@link #wake()} untuk menjalankannya lagi.
+     * <p>
+     * Setiap bagian frame adalah sistem di {@link SystemScheduler} ("input", "simulation",
+     * "prediction", "hudText", "render", "hud"), sehingga waktunya terukur per sistem dan tampil
+     * di HUD. Sistem ini berjalan di JavaFX thread, kecuali "prediction" dan "hudText" yang boleh
+     * berjalan paralel jika -Dbilliards.frameSystemThreads diatur (keduanya tidak menyentuh canvas).
+     * </p>
      */
     private class GameLoop extends AnimationTimer {
         private long lastNanoTime = System.nanoTime();
+        private long frameNumber = 0;
+
+        /** true selama AnimationTimer berjalan. */
+        private boolean running = false;
+        /** Frame berikutnya tetap digambar walaupun tidak ada perubahan (frame pertama setelah start). */
+        private boolean redraw = true;
+
+        /** Alokasi memori per frame di JavaFX thread (input, simulasi inline, dan render). */
+        private final AllocationTracker frameAllocations = new AllocationTracker();
+
+        /** Sistem per frame di JavaFX thread: input, simulasi inline, prediksi, HUD, render. */
+        private final SystemScheduler frameSystems = new SystemScheduler();
+
+        // Keadaan frame yang sedang berjalan, dibagikan antar sistem
+        private boolean hasInput;
+        private boolean simulated;
+        private RenderSnapshot snapshot;
+        private long renderFrame;
+
+        // Baris debug HUD, diformat ulang setiap HUD_TEXT_INTERVAL frame (bukan setiap frame)
+        private static final int HUD_TEXT_INTERVAL = 6;
+        /** Pengali laju teks HUD saat kualitas diturunkan {@link FrameBudgetGovernor}. */
+        static final int HUD_SLOW_FACTOR = 5;
+        private String hudMouse = "";
+        private String hudInputLag = "";
+        private String hudAlloc = "";
+        private String hudFrameSystems = "";
+        private String hudSimulationSystems = "";
+        private String hudQuality = "";
+
+        // Teks HUD yang berubah jarang: diformat ulang hanya saat nilainya berubah
+        private final Font hudFont = Font.font("Consolas", 14);
+        private final Font scoreFont = Font.font("Consolas", 20);
+        private long hudPowerHundredths = Long.MIN_VALUE;
+        private String hudPower = "";
+        private int hudSubStepsValue = -1;
+        private String hudSubSteps = "";
+        private int hudScoreValue = Integer.MIN_VALUE;
+        private String hudScore = "";
+
+        /** Bola digambar sebagai kotak (diatur {@link FrameBudgetGovernor}). */
+        private boolean simplifiedBalls = false;
+
+        GameLoop() {
+            frameSystems.setTimingEnabled(true);
+            frameSystems.register("input", SystemScheduler.Phase.INPUT, SystemScheduler.PER_FRAME, dt -> dispatchInput())
+                    .writes("stick");
+            frameSystems.register("simulation", SystemScheduler.Phase.PHYSICS, SystemScheduler.PER_FRAME, this::simulate)
+                    .reads("shots").writes("balls", "snapshots");
+            frameSystems.register("prediction", SystemScheduler.Phase.PREDICTION, SystemScheduler.PER_FRAME, dt -> cueStick.update(dt))
+                    .reads("snapshots").writes("stick");
+            frameSystems.register("hudText", SystemScheduler.Phase.PREDICTION, HUD_TEXT_INTERVAL, dt -> formatHudText())
+                    .reads("stats").writes("hudText");
+            frameSystems.register("render", SystemScheduler.Phase.RENDER, SystemScheduler.PER_FRAME, dt -> render())
+                    .reads("snapshots", "stick").writes("canvas");
+            frameSystems.register("hud", SystemScheduler.Phase.RENDER, SystemScheduler.PER_FRAME, dt -> drawHUD())
+                    .reads("snapshots", "hudText").writes("canvas");
+        }
+
+        @Override
+        public void start() {
+            running = true;
+            redraw = true;
+            // Waktu selama berhenti tidak dihitung sebagai delta time
+            lastNanoTime = System.nanoTime();
+            super.start();
+        }
+
+        @Override
+        public void stop() {
+            running = false;
+            super.stop();
+        }
+
+        /** Menjalankan kembali loop jika sedang berhenti karena idle. Dipanggil dari JavaFX thread. */
+        void wake() {
+            if (!running) start();
+        }
 
         @Override
         public void handle(long currentNanoTime) {
+            // Event JFR untuk seluruh pulse (dicatat hanya jika frame benar-benar digambar)
+            SimulationEvents.Frame frameEvent = new SimulationEvents.Frame();
+            frameEvent.begin();
+            frameAllocations.begin();
+
             // 1. Hitung Delta Time (waktu dalam detik sejak frame terakhir)
-            double deltaTime = (currentNanoTime - lastNanoTime) / 1_000_000_000.0;
+            long frameStart = System.nanoTime();
+            long intervalNanos = currentNanoTime - lastNanoTime;
+            double deltaTime = intervalNanos / 1_000_000_000.0;
             lastNanoTime = currentNanoTime;
 
             // Safety Cap: Jika lag parah (dt > 0.05s), batasi dt agar fisika tidak "meledak" (tunneling)
             if (deltaTime > 0.05) deltaTime = 0.05;
 
+            frameSystems.beginFrame();
+            // --- INPUT ---
+            frameSystems.runPhase(SystemScheduler.Phase.INPUT, deltaTime, 0);
             // --- UPDATE LOGIC (PHYSICS) ---
-            // Physics Sub-stepping: Memecah satu update besar menjadi beberapa langkah kecil
-            // untuk meningkatkan akurasi deteksi tabrakan dan mencegah bola tembus dinding.
-            int subSteps = 4;
-            double subDeltaTime = deltaTime / subSteps;
-
-            for (int step = 0; step < subSteps; step++) {
-                for (GameObject obj : gameObjects) {
-                    obj.update(subDeltaTime); // Update posisi & fisika
-                }
+            frameSystems.runPhase(SystemScheduler.Phase.PHYSICS, deltaTime, 0);
+
+            // --- IDLE SKIP ---
+            // Tidak ada input dan tidak ada snapshot baru: layar sama persis dengan frame
+            // sebelumnya, jadi tidak perlu digambar ulang.
+            if (!hasInput && !snapshots.hasFresh() && !redraw) {
+                frameAllocations.end();
+                // Loop hanya dihentikan jika thread simulasi juga diam. Saat bola bergerak,
+                // pulse bisa jatuh di antara dua publish (jitter, layar 120/144 Hz); loop
+                // yang berhenti di sini tidak akan dibangunkan lagi sampai ada input.
+                if (simulationThread == null || simulationThread.isIdle()) stop();
+                return;
             }
+            redraw = false;
+
+            // Ambil snapshot lengkap terbaru (tidak pernah menunggu thread simulasi)
+            snapshot = snapshots.getReadBuffer();
+            renderFrame = snapshot.getFrameNumber();
+            cueStick.setSnapshot(snapshot);
 
-            // Update stik (visual/input) cukup sekali per frame, tidak perlu sub-stepping
-            cueStick.update(deltaTime);
+            // --- PREDIKSI (garis bidik) & TEKS HUD ---
+            frameSystems.runPhase(SystemScheduler.Phase.PREDICTION, deltaTime, 0);
 
             // --- RENDER LOGIC (DRAWING) ---
+            frameSystems.runPhase(SystemScheduler.Phase.RENDER, deltaTime, 0);
+            frameAllocations.end();
+
+            // Hanya frame yang digambar dihitung terhadap anggaran (frame idle tidak mengukur apa-apa)
+            if (frameBudget != null) frameBudget.recordFrame(System.nanoTime() - frameStart, intervalNanos);
+
+            frameEvent.end();
+            if (frameEvent.shouldCommit()) {
+                frameEvent.frameNumber = renderFrame;
+                frameEvent.hadInput = hasInput;
+                frameEvent.simulated = simulated;
+                frameEvent.subSteps = snapshot.getSubSteps();
+                frameEvent.commit();
+            }
+        }
+
+        /** Sistem "input": teruskan input yang terkumpul ke stik. */
+        private void dispatchInput() {
+            // Frame sebelumnya sudah tampil di layar: hitung latensi input-nya
+            inputQueue.onPulse(System.nanoTime());
+            // Gerakan mouse sudah digabung jadi posisi terakhir
+            hasInput = inputQueue.hasPending();
+            // Stik membaca bola dari snapshot frame sebelumnya (masih milik thread ini), bukan
+            // dari objek Ball yang mungkin sedang diubah thread simulasi
+            if (snapshot == null) {
+                snapshot = snapshots.getReadBuffer();
+                cueStick.setSnapshot(snapshot);
+            }
+            inputQueue.dispatchTo(cueStick);
+        }
+
+        /** Sistem "simulation": jalankan simulasi di thread ini jika tidak ada thread simulasi. */
+        private void simulate(double deltaTime) {
+            // Meja diam tanpa pukulan: langkah fisika tidak mengubah apapun, lewati
+            simulated = simulationThread == null && !simulation.isIdle();
+            if (simulated) {
+                simulation.advance(deltaTime);
+                snapshots.getWriteBuffer().captureFrom(simulation, frameNumber++);
+                snapshots.publish();
+            }
+        }
+
+        /** Sistem "render": meja, bola, dan stik. */
+        private void render() {
             // Bersihkan layar sebelum menggambar frame baru
+            SimulationEvents.RenderPhase phase = beginPhase();
             gc.clearRect(0, 0, gc.getCanvas().getWidth(), gc.getCanvas().getHeight());
 
             // 1. Gambar Meja (Background Layer)
             table.draw(gc);
+            endPhase(phase, "table", renderFrame);
+            phase = beginPhase();
 
             // 2. Gambar Objek Game (Middle Layer)
             // Geser koordinat (translate) agar (0,0) game berada di dalam dinding meja
             gc.save();
             gc.translate(table.getWallThickness(), table.getWallThickness());
 
-            for (GameObject obj : gameObjects) {
-                // Hanya gambar bola di sini (PhysicsEngine tidak punya visual)
-                if(obj instanceof Ball) obj.draw(gc);
-            }
+            snapshot.drawBalls(gc, simplifiedBalls);
+            endPhase(phase, "balls", renderFrame);
+            phase = beginPhase();
 
-            // Gambar Stik paling atas agar tidak tertutup bola
-            cueStick.draw(gc);
+            // Gambar Stik paling atas agar tidak tertutup bola (dari snapshot yang sama).
+            if (snapshot.isAllBallsStopped()) cueStick.draw(gc);
 
             gc.restore(); // Kembalikan koordinat normal (termasuk dinding)
+            endPhase(phase, "stick", renderFrame);
+        }
 
-            // --- LOGIKA RESPAWN CUE BALL ---
-            if (cueBall.isPendingRespawn()) {
-                // Cek apakah semua bola LAIN (selain cueball) sudah berhenti
-                boolean allStopped = true;
-                for (GameObject obj : gameObjects) {
-                    if (obj instanceof Ball && obj != cueBall) {
-                        Ball b = (Ball) obj;
-                        // Cek jika bola aktif dan masih bergerak
-                        if (b.isActive() && b.getVelocity().length() > 0.1) {
-                            allStopped = false;
-                            break;
-                        }
-                    }
-                }
-
-                // Jika semua sudah berhenti, baru munculkan bola putih
-                if (allStopped) {
-                    cueBall.setPosition(new Vector2D(GAME_WIDTH / 4.0, GAME_HEIGHT / 2.0)); // Posisi Reset
-                    cueBall.setVelocity(new Vector2D(0, 0));
-                    cueBall.setPendingRespawn(false);
-                    cueBall.setActive(true); // Aktifkan kembali fisikanya
-                }
+        private SimulationEvents.RenderPhase beginPhase() {
+            SimulationEvents.RenderPhase event = new SimulationEvents.RenderPhase();
+            event.begin();
+            return event;
+        }
+
+        private void endPhase(SimulationEvents.RenderPhase event, String name, long frame) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.phase = name;
+                event.frameNumber = frame;
+                event.commit();
             }
+        }
 
-            // 3. Gambar HUD (Overlay Layer) - Info Debug
-            drawHUD();
+        /** Sistem "hudText": memformat baris debug HUD (beberapa frame sekali). */
+        private void formatHudText() {
+            // Menampilkan koordinat mouse relatif terhadap area main
+            hudMouse = String.format("Mouse: (%.0f, %.0f)", mouseX, mouseY);
+            // Latensi input-ke-layar (rata-rata dan maksimum) dan input-ke-eksekusi pukulan terakhir
+            hudInputLag = String.format("Input lag: %.1f ms (max %.1f)",
+                    inputQueue.getAverageLatencyMillis(), inputQueue.getMaxLatencyMillis());
+            if (snapshot.getShotLatencyMillis() >= 0) {
+                hudInputLag += String.format(", shot %.1f ms", snapshot.getShotLatencyMillis());
+            }
+            // Alokasi memori: frame sebelumnya (JavaFX thread) dan per langkah fisika
+            hudAlloc = String.format("Alloc: %d B/frame, %.0f B/step",
+                    frameAllocations.getLastBytes(), snapshot.getAllocatedBytesPerStep());
+            // Sistem termahal (rata-rata ms per frame) di JavaFX thread dan di simulasi
+            hudFrameSystems = "Frame: " + frameSystems.formatSummary(3);
+            hudSimulationSystems = "Sim: " + simulation.getScheduler().formatSummary(3);
+            if (frameBudget != null) hudQuality = frameBudget.formatStatus();
         }
 
+        /** Sistem "hud": overlay info debug dan skor. */
         private void drawHUD() {
+            SimulationEvents.RenderPhase phase = beginPhase();
             gc.setFill(Color.WHITE);
-            gc.setFont(Font.font("Consolas", 14));
-            // Menampilkan koordinat mouse relatif terhadap area main
-            gc.fillText(String.format("Mouse: (%.0f, %.0f)", mouseX, mouseY), 20, 30);
+            gc.setFont(hudFont);
+            gc.fillText(hudMouse, 20, 30);
+
+            // Menampilkan kecepatan bola putih (2 desimal, sama seperti yang terlihat)
+            long powerHundredths = Math.round(snapshot.getCueBallSpeed() * 100);
+            if (powerHundredths != hudPowerHundredths) {
+                hudPowerHundredths = powerHundredths;
+                hudPower = String.format("Power: %.2f", powerHundredths / 100.0);
+            }
+            gc.fillText(hudPower, 20, 50);
 
-            // Menampilkan kecepatan bola putih
-            double speed = cueBall.getVelocity().length();
-            gc.fillText(String.format("Power: %.2f", speed), 20, 50);
+            gc.fillText(hudInputLag, 20, 100);
+            // Jumlah sub-step fisika adaptif di frame terakhir
+            if (snapshot.getSubSteps() != hudSubStepsValue) {
+                hudSubStepsValue = snapshot.getSubSteps();
+                hudSubSteps = "Sub-steps: " + hudSubStepsValue;
+            }
+            gc.fillText(hudSubSteps, 20, 120);
+            gc.fillText(hudAlloc, 20, 140);
+            gc.fillText(hudFrameSystems, 20, 160);
+            gc.fillText(hudSimulationSystems, 20, 180);
+            gc.fillText(hudQuality, 20, 200);
 
             // Tampilkan Skor
-            gc.setFont(Font.font("Consolas", 20)); // Font lebih besar
+            gc.setFont(scoreFont); // Font lebih besar
             gc.setFill(Color.YELLOW);
-            if (physicsEngine != null) {
-                gc.fillText("SCORE: " + physicsEngine.getPlayerScore(), 20, 80);
+            if (snapshot.getPlayerScore() != hudScoreValue) {
+                hudScoreValue = snapshot.getPlayerScore();
+                hudScore = "SCORE: " + hudScoreValue;
             }
+            gc.fillText(hudScore, 20, 80);
+            endPhase(phase, "hud", renderFrame);
         }
     }
 
@@ -0,0 +1,423 @@
+package com.billiards2d;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Simulator pukulan tingkat kasar (coarse tier) untuk menyaring kandidat pukulan dengan cepat
+ * sebelum kandidat terbaik disimulasikan ulang dengan {@link ShotSimulator} (presisi penuh).
+ * <p>
+ * Aturannya sama dengan {@link PhysicsEngine} (gesekan, pantulan dinding, tumbukan lenting,
+ * skor dan foul), tetapi disederhanakan agar jauh lebih murah:
+ * </p>
+ * <ul>
+ *   <li>Langsung bekerja di array primitif, tanpa objek {@link Ball}, {@link Simulation}, atau event JFR.</li>
+ *   <li>Langkah lebih besar dan tidak terikat frame: bola tercepat boleh berpindah satu radius
+ *       per langkah (presisi penuh: setengah), dan saat bola sudah pelan satu langkah boleh
+ *       sampai {@link #MAX_STEP_TIME} detik.</li>
+ *   <li>Setiap pasangan bola hanya diperiksa sekali, dan lubang hanya diperiksa untuk bola
+ *       yang dekat dengan bantalan atas/bawah (semua lubang ada di sana).</li>
+ *   <li>Simulasi berhenti lebih awal begitu hasilnya pasti: tidak ada bola bergerak yang masih
+ *       bisa mencapai lubang atau bola lain sebelum berhenti. Posisi akhir lalu diperkirakan dari
+ *       sisa jarak tempuhnya (dengan pantulan dinding, tanpa kehilangan energi).</li>
+ * </ul>
+ * Karena itu posisi akhir hanya perkiraan, dan kadang hasilnya berbeda dari presisi penuh.
+ * Tingkat kecocokan antar tingkat diukur dengan {@link Agreement}. Objek ini stateless dan
+ * aman dipakai dari banyak thread sekaligus.
+ */
+public class CoarseShotSimulator {
+
+    /** Radius bola standar (sama dengan CueBall dan ObjectBall). */
+    static final double BALL_RADIUS = 10.0;
+    /** Perpindahan maksimal per sub-step dibanding radius (presisi penuh: 0.5). */
+    private static final double MAX_TRAVEL_RATIO = 1.0;
+    /** Langkah terpanjang (detik) saat semua bola bergerak pelan. */
+    static final double MAX_STEP_TIME = 4 * ShotSimulator.FRAME_TIME;
+    /** Pengecekan "hasil sudah pasti" dilakukan setiap sekian langkah (cukup mahal, O(n^2)). */
+    private static final int DECIDED_CHECK_INTERVAL = 4;
+    /** Batas kecepatan berhenti, sama dengan {@link Ball#update(double)}. */
+    private static final double STOP_SPEED = 5.0;
+
+    private final double tableWidth;
+    private final double tableHeight;
+    private final double captureRadius;
+    private final double[] pocketX;
+    private final double[] pocketY;
+    private final PhysicsParameters parameters;
+
+    private double maxSimulatedTime = 30.0;
+    private boolean earlyTermination = true;
+
+    /**
+     * Kecocokan hasil antara tingkat kasar dan presisi penuh: hasil dianggap cocok jika bola yang
+     * masuk lubang dan status foul sama persis. Aman dipakai dari banyak thread.
+     */
+    public static class Agreement {
+        private final AtomicLong comparisons = new AtomicLong();
+        private final AtomicLong agreements = new AtomicLong();
+
+        /**
+         * Mencatat satu perbandingan.
+         *
+         * @return true jika kedua hasil cocok.
+         */
+        public boolean record(ShotOutcome coarse, ShotOutcome full) {
+            boolean agree = agrees(coarse, full);
+            comparisons.incrementAndGet();
+            if (agree) agreements.incrementAndGet();
+            return agree;
+        }
+
+        public long getComparisons() { return comparisons.get(); }
+        public long getAgreements() { return agreements.get(); }
+
+        /** @return Rasio hasil yang cocok (0 jika belum ada perbandingan). */
+        public double getRate() {
+            long total = comparisons.get();
+            return total == 0 ? 0 : (double) agreements.get() / total;
+        }
+    }
+
+    /**
+     * Konstruktor CoarseShotSimulator.
+     *
+     * @param tableWidth  Lebar area permainan.
+     * @param tableHeight Tinggi area permainan.
+     */
+    public CoarseShotSimulator(double tableWidth, double tableHeight) {
+        this(tableWidth, tableHeight, PhysicsParameters.DEFAULT);
+    }
+
+    /**
+     * @param parameters Parameter fisika meja (harus sama dengan simulator presisi penuh).
+     */
+    public CoarseShotSimulator(double tableWidth, double tableHeight, PhysicsParameters parameters) {
+        this.tableWidth = tableWidth;
+        this.tableHeight = tableHeight;
+        this.parameters = parameters;
+
+        Table table = new Table(tableWidth, tableHeight);
+        List<Vector2D> pockets = table.getPockets();
+        captureRadius = table.getPocketCaptureRadius();
+        pocketX = new double[pockets.size()];
+        pocketY = new double[pockets.size()];
+        for (int i = 0; i < pocketX.length; i++) {
+            pocketX[i] = pockets.get(i).getX();
+            pocketY[i] = pockets.get(i).getY();
+        }
+    }
+
+    /**
+     * Menyimulasikan pukulan secara kasar.
+     *
+     * @param start Keadaan awal meja (tidak diubah).
+     * @param shot  Vektor gaya pukulan untuk bola putih.
+     * @return Hasil perkiraan. Waktu dan jumlah langkah adalah yang benar-benar dijalankan
+     *         (lebih kecil dari presisi penuh jika simulasi berhenti lebih awal).
+     */
+    public ShotOutcome simulate(TableState start, Vector2D shot) {
+        int n = start.getBallCount();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        double[] vx = new double[n];
+        double[] vy = new double[n];
+        boolean[] active = new boolean[n];
+        int cue = -1;
+        for (int i = 0; i < n; i++) {
+            x[i] = start.getX(i);
+            y[i] = start.getY(i);
+            vx[i] = start.getVx(i);
+            vy[i] = start.getVy(i);
+            active[i] = start.isActive(i);
+            if (cue < 0 && start.isCue(i)) cue = i;
+        }
+        boolean pendingRespawn = start.isCuePendingRespawn();
+        if (cue >= 0 && active[cue]) {
+            vx[cue] = shot.getX();
+            vy[cue] = shot.getY();
+        }
+
+        double r = BALL_RADIUS;
+        double minDist = 2 * r;
+        double friction = parameters.getFriction();
+        double wallRestitution = parameters.getWallRestitution();
+        double ballRestitution = parameters.getBallRestitution();
+
+        int score = start.getPlayerScore();
+        boolean foul = false;
+        double time = 0;
+        int steps = 0;
+
+        while (time < maxSimulatedTime) {
+            ShotSimulator.checkCancelled();
+            double maxSpeedSq = 0;
+            for (int i = 0; i < n; i++) {
+                if (active[i]) maxSpeedSq = Math.max(maxSpeedSq, vx[i] * vx[i] + vy[i] * vy[i]);
+            }
+            if (maxSpeedSq == 0) break; // Semua bola sudah berhenti
+            double dt = Math.min(MAX_STEP_TIME, r * MAX_TRAVEL_RATIO / Math.sqrt(maxSpeedSq));
+            double frictionFactor = Math.pow(friction, dt * 60.0);
+
+            // Integrasi dan gesekan (seperti Ball.update)
+            for (int i = 0; i < n; i++) {
+                if (!active[i]) continue;
+                x[i] += vx[i] * dt;
+                y[i] += vy[i] * dt;
+                vx[i] *= frictionFactor;
+                vy[i] *= frictionFactor;
+                if (vx[i] * vx[i] + vy[i] * vy[i] < STOP_SPEED * STOP_SPEED) {
+                    vx[i] = 0;
+                    vy[i] = 0;
+                }
+            }
+
+            // Lubang, dinding, lalu tumbukan (seperti PhysicsEngine.update)
+            for (int i = 0; i < n; i++) {
+                if (!active[i]) continue;
+                if ((y[i] < captureRadius || y[i] > tableHeight - captureRadius) && inPocket(x[i], y[i])) {
+                    active[i] = false;
+                    vx[i] = 0;
+                    vy[i] = 0;
+                    if (i == cue) {
+                        score = Math.max(0, score - 10);
+                        foul = true;
+                        pendingRespawn = true;
+                    } else {
+                        score += 10;
+                    }
+                    continue;
+                }
+
+                if (x[i] - r < 0) {
+                    x[i] = r;
+                    vx[i] = -vx[i] * wallRestitution;
+                } else if (x[i] + r > tableWidth) {
+                    x[i] = tableWidth - r;
+                    vx[i] = -vx[i] * wallRestitution;
+                }
+                if (y[i] - r < 0) {
+                    y[i] = r;
+                    vy[i] = -vy[i] * wallRestitution;
+                } else if (y[i] + r > tableHeight) {
+                    y[i] = tableHeight - r;
+                    vy[i] = -vy[i] * wallRestitution;
+                }
+
+                for (int j = i + 1; j < n; j++) {
+                    if (!active[j]) continue;
+                    double dx = x[i] - x[j];
+                    double dy = y[i] - y[j];
+                    double distSq = dx * dx + dy * dy;
+                    if (distSq >= minDist * minDist || distSq == 0) continue;
+
+                    double dist = Math.sqrt(distSq);
+                    double nx = dx / dist;
+                    double ny = dy / dist;
+                    double overlap = 0.5 * (dist - minDist);
+                    x[i] -= nx * overlap;
+                    y[i] -= ny * overlap;
+                    x[j] += nx * overlap;
+                    y[j] += ny * overlap;
+
+                    // Massa sama (1.0): impulse = kecepatan relatif sepanjang normal
+                    double speed = (vx[i] - vx[j]) * nx + (vy[i] - vy[j]) * ny;
+                    if (speed >= 0) continue;
+                    vx[i] = (vx[i] - nx * speed) * ballRestitution;
+                    vy[i] = (vy[i] - ny * speed) * ballRestitution;
+                    vx[j] = (vx[j] + nx * speed) * ballRestitution;
+                    vy[j] = (vy[j] + ny * speed) * ballRestitution;
+                }
+            }
+            steps++;
+            time += dt;
+
+            if (earlyTermination && steps % DECIDED_CHECK_INTERVAL == 0 && isDecided(x, y, vx, vy, active)) {
+                extrapolate(x, y, vx, vy, active);
+                break;
+            }
+        }
+
+        // Bola putih yang masuk dimunculkan kembali di Head Spot setelah semua bola berhenti
+        if (cue >= 0 && pendingRespawn) {
+            x[cue] = tableWidth * 0.25;
+            y[cue] = tableHeight / 2;
+            vx[cue] = 0;
+            vy[cue] = 0;
+            active[cue] = true;
+        }
+
+        TableState end = new TableState(n);
+        int pocketedCount = 0;
+        for (int i = 0; i < n; i++) {
+            end.setBall(i, x[i], y[i], vx[i], vy[i], active[i], start.getType(i));
+            if (i != cue && start.isActive(i) && !active[i]) pocketedCount++;
+        }
+        end.setBallCount(n);
+        end.setPlayerScore(score);
+
+        int[] pocketed = new int[pocketedCount];
+        for (int i = 0, k = 0; i < n; i++) {
+            if (i != cue && start.isActive(i) && !active[i]) pocketed[k++] = i;
+        }
+        return new ShotOutcome(end, pocketed, foul, score - start.getPlayerScore(), time, steps);
+    }
+
+    private boolean inPocket(double bx, double by) {
+        double limit = captureRadius * captureRadius;
+        for (int p = 0; p < pocketX.length; p++) {
+            double dx = bx - pocketX[p];
+            double dy = by - pocketY[p];
+            if (dx * dx + dy * dy < limit) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Batas atas jarak tempuh bola sampai berhenti: setiap frame kecepatan dikali koefisien
+     * gesekan, jadi jaraknya deret geometri v * frameTime / (1 - gesekan).
+     */
+    private double maxReach(double speed) {
+        return speed * ShotSimulator.FRAME_TIME / (1 - parameters.getFriction());
+    }
+
+    /**
+     * Hasil pukulan sudah pasti jika tidak ada bola bergerak yang masih bisa mencapai lubang
+     * atau bola lain (dinding hanya memantulkan, jadi jarak lurus adalah batas aman).
+     */
+    private boolean isDecided(double[] x, double[] y, double[] vx, double[] vy, boolean[] active) {
+        int n = x.length;
+        for (int i = 0; i < n; i++) {
+            if (!active[i] || (vx[i] == 0 && vy[i] == 0)) continue;
+            double reach = maxReach(Math.sqrt(vx[i] * vx[i] + vy[i] * vy[i]));
+
+            for (int p = 0; p < pocketX.length; p++) {
+                double dx = x[i] - pocketX[p];
+                double dy = y[i] - pocketY[p];
+                if (Math.sqrt(dx * dx + dy * dy) - captureRadius <= reach) return false;
+            }
+            for (int j = 0; j < n; j++) {
+                if (j == i || !active[j]) continue;
+                double reachJ = maxReach(Math.sqrt(vx[j] * vx[j] + vy[j] * vy[j]));
+                double dx = x[i] - x[j];
+                double dy = y[i] - y[j];
+                if (Math.sqrt(dx * dx + dy * dy) - 2 * BALL_RADIUS <= reach + reachJ) return false;
+            }
+        }
+        return true;
+    }
+
+    /** Memindahkan bola yang masih bergerak ke perkiraan posisi berhentinya. */
+    private void extrapolate(double[] x, double[] y, double[] vx, double[] vy, boolean[] active) {
+        for (int i = 0; i < x.length; i++) {
+            if (!active[i] || (vx[i] == 0 && vy[i] == 0)) continue;
+            double speed = Math.sqrt(vx[i] * vx[i] + vy[i] * vy[i]);
+            double distance = maxReach(Math.max(0, speed - STOP_SPEED));
+            x[i] = fold(x[i] + vx[i] / speed * distance, BALL_RADIUS, tableWidth - BALL_RADIUS);
+            y[i] = fold(y[i] + vy[i] / speed * distance, BALL_RADIUS, tableHeight - BALL_RADIUS);
+            vx[i] = 0;
+            vy[i] = 0;
+        }
+    }
+
+    /** Memantulkan koordinat ke dalam rentang [min, max] (pantulan dinding berulang). */
+    private static double fold(double value, double min, double max) {
+        double span = max - min;
+        double t = (value - min) % (2 * span);
+        if (t < 0) t += 2 * span;
+        return min + (t <= span ? t : 2 * span - t);
+    }
+
+    /**
+     * @return true jika bola yang masuk lubang dan status foul kedua hasil sama persis.
+     */
+    public static boolean agrees(ShotOutcome a, ShotOutcome b) {
+        return a.isFoul() == b.isFoul() && Arrays.equals(a.getPocketedBalls(), b.getPocketedBalls());
+    }
+
+    public double getMaxSimulatedTime() { return maxSimulatedTime; }
+    public void setMaxSimulatedTime(double maxSimulatedTime) { this.maxSimulatedTime = maxSimulatedTime; }
+    public boolean isEarlyTermination() { return earlyTermination; }
+    public void setEarlyTermination(boolean earlyTermination) { this.earlyTermination = earlyTermination; }
+
+    /**
+     * Membandingkan kedua tingkat pada sapuan pukulan acak: pukulan per detik masing-masing,
+     * tingkat kecocokan hasil, dan rata-rata selisih posisi akhir bola putih.
+     * <pre>
+     * java -cp ... com.billiards2d.CoarseShotSimulator [shots] [seed]
+     * </pre>
+     */
+    public static void main(String[] args) {
+        int shots = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        double w = BilliardApp.GAME_WIDTH;
+        double h = BilliardApp.GAME_HEIGHT;
+
+        ShotSimulator full = new ShotSimulator(w, h);
+        CoarseShotSimulator coarse = new CoarseShotSimulator(w, h, full.getParameters());
+        TableState rack = TableState.capture(BilliardApp.createStandardBalls(w, h), 0);
+
+        // Separuh pukulan dari posisi break, separuh dari meja yang bolanya acak
+        Random random = new Random(seed);
+        TableState[] starts = new TableState[shots];
+        Vector2D[] vectors = new Vector2D[shots];
+        for (int i = 0; i < shots; i++) {
+            starts[i] = i % 2 == 0 ? rack : scatter(rack, random, w, h);
+            double angle = random.nextDouble() * Math.PI * 2;
+            double power = (0.1 + random.nextDouble() * 0.9) * CueStick.MAX_FORCE;
+            vectors[i] = new Vector2D(Math.cos(angle) * power, Math.sin(angle) * power);
+        }
+
+        // Pemanasan JIT untuk kedua tingkat
+        for (int i = 0; i < Math.min(200, shots); i++) {
+            full.simulate(starts[i], vectors[i]);
+            coarse.simulate(starts[i], vectors[i]);
+        }
+
+        ShotOutcome[] fullOutcomes = new ShotOutcome[shots];
+        long begin = System.nanoTime();
+        for (int i = 0; i < shots; i++) fullOutcomes[i] = full.simulate(starts[i], vectors[i]);
+        double fullSeconds = (System.nanoTime() - begin) / 1e9;
+
+        ShotOutcome[] coarseOutcomes = new ShotOutcome[shots];
+        begin = System.nanoTime();
+        for (int i = 0; i < shots; i++) coarseOutcomes[i] = coarse.simulate(starts[i], vectors[i]);
+        double coarseSeconds = (System.nanoTime() - begin) / 1e9;
+
+        Agreement agreement = new Agreement();
+        double cueError = 0;
+        for (int i = 0; i < shots; i++) {
+            agreement.record(coarseOutcomes[i], fullOutcomes[i]);
+            TableState a = coarseOutcomes[i].getFinalState();
+            TableState b = fullOutcomes[i].getFinalState();
+            cueError += Math.hypot(a.getX(0) - b.getX(0), a.getY(0) - b.getY(0));
+        }
+
+        System.out.printf(Locale.ROOT, "full   : %.0f shots/s%n", shots / fullSeconds);
+        System.out.printf(Locale.ROOT, "coarse : %.0f shots/s (%.1fx)%n", shots / coarseSeconds, fullSeconds / coarseSeconds);
+        System.out.printf(Locale.ROOT, "agreement (pocketed balls + foul): %.1f%% of %d shots, mean cue ball error %.1f px%n",
+                agreement.getRate() * 100, shots, cueError / shots);
+    }
+
+    /** Rak standar dengan posisi bola diacak tanpa tumpang tindih. */
+    private static TableState scatter(TableState rack, Random random, double w, double h) {
+        TableState state = new TableState(rack.getBallCount());
+        for (int i = 0; i < rack.getBallCount(); i++) {
+            double px, py;
+            boolean overlap;
+            do {
+                px = BALL_RADIUS * 2 + random.nextDouble() * (w - BALL_RADIUS * 4);
+                py = BALL_RADIUS * 2 + random.nextDouble() * (h - BALL_RADIUS * 4);
+                overlap = false;
+                for (int j = 0; j < i && !overlap; j++) {
+                    overlap = Math.hypot(state.getX(j) - px, state.getY(j) - py) < BALL_RADIUS * 2;
+                }
+            } while (overlap);
+            state.setBall(i, px, py, 0, 0, true, rack.getType(i));
+        }
+        state.setBallCount(rack.getBallCount());
+        return state;
+    }
+}
@@ -0,0 +1,315 @@
+package com.billiards2d;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Solver tumbukan antar bola iteratif (sequential impulses) dengan warm starting.
+ * <p>
+ * Berbeda dengan {@code PhysicsEngine.resolveBallCollision} yang menyelesaikan satu pasang
+ * bola sekali jalan, solver ini mengumpulkan semua kontak dalam satu langkah lalu
+ * menyelesaikannya dalam beberapa putaran ({@link #getVelocityIterations()}). Dorongan bola
+ * putih bisa merambat ke seluruh rack dalam satu langkah, sehingga jumlah sub-step tidak perlu
+ * banyak.
+ * </p>
+ * Setiap putaran memeriksa semua kontak:
+ * <ul>
+ *   <li>Kontak tumbukan (mendekat lebih cepat dari {@code RESTITUTION_THRESHOLD}): impuls
+ *       lenting {@code -(1 + e) * vn} pada komponen normal saja. Rantai bola yang saling
+ *       menempel (rack) meneruskan impuls satu per satu seperti Newton's cradle, bukan
+ *       bergerak sebagai satu blok, dan energi tidak pernah bertambah. Komponen tangensial
+ *       tetap, jadi energi tidak bocor seperti saat seluruh kecepatan dikali restitusi.</li>
+ *   <li>Kontak diam (mendekat pelan, misalnya kluster yang terdorong): impuls diakumulasi dan
+ *       dibatasi agar tidak pernah menarik bola (impuls &gt;= 0), dengan warm starting: impuls
+ *       akhir disimpan, dan jika pasangan bola yang sama masih bersentuhan di langkah
+ *       berikutnya, impuls tersebut dipakai sebagai tebakan awal.</li>
+ * </ul>
+ * Penetrasi diperbaiki terpisah dengan proyeksi posisi (tidak menambah kecepatan).
+ * Kontak disimpan di array primitif yang dipakai ulang, jadi tidak ada objek baru per kontak.
+ */
+public class ContactSolver {
+
+    /** Celah maksimal (pixel) agar dua bola dianggap bersentuhan (rack disusun tepat bersentuhan). */
+    private static final double CONTACT_SLOP = 0.05;
+    /** Di bawah kecepatan mendekat ini (pixel/detik) restitusi diabaikan agar kontak diam tidak bergetar. */
+    private static final double RESTITUTION_THRESHOLD = 1.0;
+
+    private int velocityIterations = 8;
+    private int positionIterations = 2;
+    /** Bagian impuls langkah sebelumnya yang dipakai sebagai tebakan awal (0 = tanpa warm starting). */
+    private double warmStartFactor = 0.8;
+
+    // --- Data bola aktif per langkah (struct of arrays) ---
+    private Ball[] balls = new Ball[16];
+    private int[] ids = new int[16];
+    private double[] px = new double[16];
+    private double[] py = new double[16];
+    private double[] vx = new double[16];
+    private double[] vy = new double[16];
+    private double[] radius = new double[16];
+    private double[] invMass = new double[16];
+    private int ballCount;
+
+    // --- Kontak langkah ini ---
+    private int[] contactA = new int[64];
+    private int[] contactB = new int[64];
+    private long[] contactKey = new long[64];
+    private double[] normalX = new double[64];
+    private double[] normalY = new double[64];
+    private double[] gap = new double[64];
+    private double[] normalMass = new double[64];
+    /** Impuls kontak diam yang diakumulasi (yang disimpan untuk warm starting). */
+    private double[] impulse = new double[64];
+    private int contactCount;
+
+    // --- Kontak langkah sebelumnya (untuk warm starting), terurut menurut kunci ---
+    private long[] previousKey = new long[64];
+    private double[] previousImpulse = new double[64];
+    private int previousCount;
+
+    // --- Statistik ---
+    private long warmStartedContacts;
+    private long pairTests;
+
+    /**
+     * Menyelesaikan semua tumbukan antar bola untuk satu langkah fisika.
+     *
+     * @param gameObjects Semua objek game (hanya bola aktif yang diproses).
+     * @param deltaTime   Waktu langkah (detik).
+     * @param restitution Koefisien restitusi antar bola.
+     */
+    public void solve(List<GameObject> gameObjects, double deltaTime, double restitution) {
+        gather(gameObjects);
+        buildContacts(deltaTime);
+        warmStart();
+
+        for (int iteration = 0; iteration < velocityIterations; iteration++) {
+            for (int c = 0; c < contactCount; c++) {
+                solveContact(c, deltaTime, restitution);
+            }
+        }
+
+        storeImpulses();
+        for (int iteration = 0; iteration < positionIterations; iteration++) {
+            correctPositions();
+        }
+        scatter();
+    }
+
+    /** Menyalin posisi/kecepatan bola aktif ke array primitif. */
+    private void gather(List<GameObject> gameObjects) {
+        ballCount = 0;
+        for (int i = 0; i < gameObjects.size(); i++) {
+            GameObject obj = gameObjects.get(i);
+            if (!(obj instanceof Ball)) continue;
+            Ball ball = (Ball) obj;
+            if (!ball.isActive()) continue;
+
+            ensureBallCapacity(ballCount + 1);
+            balls[ballCount] = ball;
+            ids[ballCount] = i; // Indeks di gameObjects stabil antar langkah, dipakai sebagai kunci kontak
+            px[ballCount] = ball.getX();
+            py[ballCount] = ball.getY();
+            vx[ballCount] = ball.getVx();
+            vy[ballCount] = ball.getVy();
+            radius[ballCount] = ball.getRadius();
+            invMass[ballCount] = 1.0 / ball.getMass();
+            ballCount++;
+        }
+    }
+
+    /** Mencari semua pasangan bola yang bersentuhan atau overlap (kunci kontak otomatis terurut). */
+    private void buildContacts(double deltaTime) {
+        contactCount = 0;
+        pairTests = (long) ballCount * (ballCount - 1) / 2;
+        for (int a = 0; a < ballCount; a++) {
+            for (int b = a + 1; b < ballCount; b++) {
+                double dx = px[a] - px[b];
+                double dy = py[a] - py[b];
+                double minDist = radius[a] + radius[b];
+                double limit = minDist + CONTACT_SLOP;
+                double distSq = dx * dx + dy * dy;
+                if (distSq >= limit * limit || distSq == 0) continue;
+
+                double dist = Math.sqrt(distSq);
+                ensureContactCapacity(contactCount + 1);
+                int c = contactCount++;
+                contactA[c] = a;
+                contactB[c] = b;
+                contactKey[c] = ((long) ids[a] << 32) | ids[b];
+                normalX[c] = dx / dist; // Normal dari b ke a
+                normalY[c] = dy / dist;
+                gap[c] = dist - minDist;
+                normalMass[c] = 1.0 / (invMass[a] + invMass[b]);
+                impulse[c] = 0;
+            }
+        }
+    }
+
+    /** Menerapkan impuls langkah sebelumnya ke kontak yang masih sama (merge dua daftar terurut). */
+    private void warmStart() {
+        if (warmStartFactor <= 0) return;
+        int p = 0;
+        for (int c = 0; c < contactCount && p < previousCount; c++) {
+            while (p < previousCount && previousKey[p] < contactKey[c]) p++;
+            if (p < previousCount && previousKey[p] == contactKey[c]) {
+                double lambda = previousImpulse[p] * warmStartFactor;
+                if (lambda > 0) {
+                    impulse[c] = lambda;
+                    applyImpulse(c, lambda);
+                    warmStartedContacts++;
+                }
+            }
+        }
+    }
+
+    /** Satu iterasi untuk satu kontak. */
+    private void solveContact(int c, double deltaTime, double restitution) {
+        int a = contactA[c];
+        int b = contactB[c];
+        double vn = (vx[a] - vx[b]) * normalX[c] + (vy[a] - vy[b]) * normalY[c];
+
+        // Bola yang masih berjarak boleh saling mendekat sejauh celahnya dalam langkah ini
+        double allowedApproach = gap[c] > 0 ? -gap[c] / deltaTime : 0;
+
+        if (vn < allowedApproach - RESTITUTION_THRESHOLD) {
+            // Tumbukan: impuls lenting langsung (tidak diakumulasi, tidak di-warm-start)
+            applyImpulse(c, -(1 + restitution) * vn * normalMass[c]);
+            return;
+        }
+
+        // Kontak diam: dorong sampai tidak lagi mendekat, impuls akumulasi tidak boleh negatif
+        double lambda = normalMass[c] * (allowedApproach - vn);
+        double accumulated = Math.max(0, impulse[c] + lambda);
+        lambda = accumulated - impulse[c];
+        impulse[c] = accumulated;
+        applyImpulse(c, lambda);
+    }
+
+    private void applyImpulse(int c, double lambda) {
+        int a = contactA[c];
+        int b = contactB[c];
+        double jx = normalX[c] * lambda;
+        double jy = normalY[c] * lambda;
+        vx[a] += jx * invMass[a];
+        vy[a] += jy * invMass[a];
+        vx[b] -= jx * invMass[b];
+        vy[b] -= jy * invMass[b];
+    }
+
+    /** Menyimpan impuls akhir untuk warm starting di langkah berikutnya. */
+    private void storeImpulses() {
+        if (previousKey.length < contactCount) {
+            previousKey = new long[contactKey.length];
+            previousImpulse = new double[contactKey.length];
+        }
+        System.arraycopy(contactKey, 0, previousKey, 0, contactCount);
+        System.arraycopy(impulse, 0, previousImpulse, 0, contactCount);
+        previousCount = contactCount;
+    }
+
+    /** Proyeksi posisi: bola yang overlap digeser menjauh sesuai perbandingan massa. */
+    private void correctPositions() {
+        for (int c = 0; c < contactCount; c++) {
+            int a = contactA[c];
+            int b = contactB[c];
+            double dx = px[a] - px[b];
+            double dy = py[a] - py[b];
+            double dist = Math.sqrt(dx * dx + dy * dy);
+            double overlap = radius[a] + radius[b] - dist;
+            if (overlap <= 0 || dist == 0) continue;
+
+            double share = overlap / (invMass[a] + invMass[b]);
+            double nx = dx / dist;
+            double ny = dy / dist;
+            px[a] += nx * share * invMass[a];
+            py[a] += ny * share * invMass[a];
+            px[b] -= nx * share * invMass[b];
+            py[b] -= ny * share * invMass[b];
+        }
+    }
+
+    /** Menyalin hasil kembali ke objek Ball (hanya bola yang punya kontak yang berubah). */
+    private void scatter() {
+        if (contactCount == 0) return;
+        for (int i = 0; i < ballCount; i++) {
+            Ball ball = balls[i];
+            if (ball.getVx() != vx[i] || ball.getVy() != vy[i]) {
+                ball.setVelocity(vx[i], vy[i]);
+            }
+            if (ball.getX() != px[i] || ball.getY() != py[i]) {
+                ball.setPosition(px[i], py[i]);
+            }
+            balls[i] = null; // Jangan menahan referensi bola setelah langkah selesai
+        }
+    }
+
+    private void ensureBallCapacity(int capacity) {
+        if (balls.length >= capacity) return;
+        int size = Math.max(capacity, balls.length * 2);
+        balls = Arrays.copyOf(balls, size);
+        ids = Arrays.copyOf(ids, size);
+        px = Arrays.copyOf(px, size);
+        py = Arrays.copyOf(py, size);
+        vx = Arrays.copyOf(vx, size);
+        vy = Arrays.copyOf(vy, size);
+        radius = Arrays.copyOf(radius, size);
+        invMass = Arrays.copyOf(invMass, size);
+    }
+
+    private void ensureContactCapacity(int capacity) {
+        if (contactA.length >= capacity) return;
+        int size = Math.max(capacity, contactA.length * 2);
+        contactA = Arrays.copyOf(contactA, size);
+        contactB = Arrays.copyOf(contactB, size);
+        contactKey = Arrays.copyOf(contactKey, size);
+        normalX = Arrays.copyOf(normalX, size);
+        normalY = Arrays.copyOf(normalY, size);
+        gap = Arrays.copyOf(gap, size);
+        normalMass = Arrays.copyOf(normalMass, size);
+        impulse = Arrays.copyOf(impulse, size);
+    }
+
+    /**
+     * Membuat solver baru dengan pengaturan yang sama (iterasi dan warm starting), tanpa data
+     * kontak langkah sebelumnya. Satu solver hanya boleh dipakai oleh satu simulasi.
+     */
+    public ContactSolver copySettings() {
+        ContactSolver copy = new ContactSolver();
+        copy.velocityIterations = velocityIterations;
+        copy.positionIterations = positionIterations;
+        copy.warmStartFactor = warmStartFactor;
+        return copy;
+    }
+
+    /**
+     * Solver yang diminta lewat system property, dipakai game dan alat headless.
+     * <p>
+     * -Dbilliards.solver=iterative          : pakai solver ini (bawaan: per pasangan).
+     * -Dbilliards.solverIterations=&lt;n&gt; : jumlah iterasi kecepatan per langkah.
+     * </p>
+     *
+     * @return Solver baru, atau null jika tumbukan diselesaikan per pasangan.
+     */
+    public static ContactSolver fromSystemProperty() {
+        if (!"iterative".equalsIgnoreCase(System.getProperty("billiards.solver"))) return null;
+        ContactSolver solver = new ContactSolver();
+        solver.setVelocityIterations(Integer.getInteger("billiards.solverIterations", solver.getVelocityIterations()));
+        return solver;
+    }
+
+    // --- Getter dan Setter ---
+
+    public int getVelocityIterations() { return velocityIterations; }
+    public void setVelocityIterations(int velocityIterations) { this.velocityIterations = velocityIterations; }
+    public int getPositionIterations() { return positionIterations; }
+    public void setPositionIterations(int positionIterations) { this.positionIterations = positionIterations; }
+    public double getWarmStartFactor() { return warmStartFactor; }
+    public void setWarmStartFactor(double warmStartFactor) { this.warmStartFactor = warmStartFactor; }
+    /** @return Jumlah pasangan bola yang diperiksa di langkah terakhir. */
+    public long getPairTests() { return pairTests; }
+    /** @return Jumlah kontak di langkah terakhir. */
+    public int getContactCount() { return contactCount; }
+    /** @return Total kontak yang mendapat tebakan awal dari langkah sebelumnya. */
+    public long getWarmStartedContacts() { return warmStartedContacts; }
+}
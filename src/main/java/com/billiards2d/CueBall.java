@@ -42,7 +42,7 @@ public class CueBall extends Ball {
      */
     public void hit(Vector2D force) {
         // Dalam simulasi sederhana ini, gaya impuls langsung menjadi kecepatan sesaat.
-        this.velocity = force;
+        setVelocity(force);
     }
 
     // --- Getter & Setter untuk pendingRespawn ---
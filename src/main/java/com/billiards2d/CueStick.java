@@ -1,9 +1,9 @@
 package com.billiards2d;
 
 import javafx.scene.canvas.GraphicsContext;
-import javafx.scene.input.MouseEvent;
 import javafx.scene.paint.Color;
 import java.util.List;
+import java.util.Queue;
 
 /**
  * Kelas yang merepresentasikan Stik Biliar (Cue Stick).
@@ -20,20 +20,53 @@ public class CueStick implements GameObject {
     private List<Ball> allBalls; // Referensi ke semua bola untuk perhitungan prediksi
     private double tableWidth, tableHeight;
 
+    // Snapshot meja yang sedang dipegang Game Loop. Jika diset, semua posisi dan status bola
+    // dibaca dari sini, bukan dari objek Ball yang bisa sedang diubah thread simulasi.
+    private RenderSnapshot snapshot;
+
+    // Antrean perintah pukulan yang dieksekusi simulasi di batas sub-step (null = pukul langsung)
+    private Queue<ShotCommand> shotQueue;
+
     // --- State Aiming (Status Bidikan) ---
+    // Koordinat disimpan sebagai double (bukan Vector2D) agar event mouse dan gambar per frame
+    // tidak membuat objek baru.
     private boolean isAiming = false;       // Apakah pemain sedang menahan klik mouse?
-    private Vector2D aimStart;              // Posisi mouse saat klik pertama kali
-    private Vector2D aimCurrent;            // Posisi mouse saat ini (saat di-drag)
-    private Vector2D mousePos = new Vector2D(0, 0); // Posisi mouse umum (untuk rotasi stik)
+    private double aimStartX, aimStartY;    // Posisi mouse saat klik pertama kali
+    private double aimCurrentX, aimCurrentY; // Posisi mouse saat ini (saat di-drag)
+    private double mouseX, mouseY;          // Posisi mouse umum (untuk rotasi stik)
     private double lockedAngleRad = 0;      // Sudut stik yang terkunci saat mulai menarih
 
+    // --- Hasil Prediksi Terakhir (diisi oleh predict()) ---
+    private boolean predictionValid = false;        // false jika bola bergerak saat update() terakhir
+    private double predictionStartX, predictionStartY; // Posisi bola putih saat raycast
+    private double predictionHitX, predictionHitY; // Titik akhir garis prediksi (posisi ghost ball)
+    private double predictionDistance;              // Jarak dari bola putih ke titik akhir
+    private int predictionTarget = -1;              // Indeks bola yang akan ditabrak, atau -1 (dinding)
+    private double predictionTargetX, predictionTargetY; // Posisi bola target saat raycast
+    private int predictionBallsTested;
+
+    // --- Detail Garis Prediksi (diturunkan oleh FrameBudgetGovernor saat frame berat) ---
+    /** Garis prediksi saja (solid, tanpa ghost ball dan percabangan). */
+    public static final int PREDICTION_LINE = 0;
+    /** Garis putus-putus dan ghost ball, tanpa percabangan arah bola. */
+    public static final int PREDICTION_GHOST = 1;
+    /** Garis putus-putus, ghost ball, dan percabangan arah bola target/bola putih. */
+    public static final int PREDICTION_FULL = 2;
+    private int predictionDetail = PREDICTION_FULL;
+
     // --- Konstanta Fisika & Visual ---
     // Jarak maksimal stik bisa ditarik mundur secara visual (pixel)
     private static final double MAX_PULL = 300.0;
     // Gaya maksimal yang bisa diberikan ke bola (satuan fisika arbitrer)
-    private static final double MAX_FORCE = 1350.0;
+    public static final double MAX_FORCE = 1350.0;
     // Jarak tarik mouse yang dianggap sebagai kekuatan penuh (pixel)
     private static final double MAX_DRAG_DISTANCE = 300.0;
+    // Ukuran visual stik (pixel)
+    static final double STICK_LENGTH = 300;
+    static final double STICK_WIDTH = 8;
+    static final double TIP_LENGTH = 5;
+    // Jarak default ujung stik dari bola saat tidak ditarik
+    static final double REST_DISTANCE = 20;
 
     /**
      * Konstruktor CueStick.
@@ -50,61 +83,173 @@ public class CueStick implements GameObject {
         this.tableHeight = tableH;
     }
 
-    @Override
-    public void update(double deltaTime) {
-        // Logika update stik bisa ditambahkan di sini (misal animasi idle)
-        // Saat ini kosong karena stik digerakkan murni oleh event mouse
+    /**
+     * Mengatur antrean tujuan perintah pukulan.
+     * Jika diset, pukulan tidak langsung diterapkan ke bola putih melainkan dikirim sebagai
+     * {@link ShotCommand} yang dieksekusi simulasi di awal langkah fisika berikutnya.
+     *
+     * @param shotQueue Antrean perintah pukulan, atau null untuk memukul langsung.
+     */
+    public void setShotQueue(Queue<ShotCommand> shotQueue) {
+        this.shotQueue = shotQueue;
     }
 
     /**
-     * Menggambar stik dan elemen visual pendukung (garis prediksi).
-     * Stik hanya digambar jika bola putih sedang berhenti atau bergerak sangat lambat.
+     * Mengatur snapshot meja yang dibaca stik (gating input, posisi bola putih, dan raycast
+     * prediksi). Snapshot harus milik thread pemanggil (buffer baca {@link TripleBuffer}) dan
+     * tidak diubah selama dipakai. Tanpa snapshot, stik membaca objek Ball secara langsung
+     * (hanya aman jika simulasi berjalan di thread yang sama).
+     *
+     * @param snapshot Snapshot terbaru, atau null untuk membaca bola secara langsung.
+     */
+    public void setSnapshot(RenderSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Menghitung sudut bidikan dan garis prediksi untuk frame ini (sistem "prediction" di
+     * Game Loop). Dipanggil setelah input diteruskan dan sebelum {@link #draw(GraphicsContext)},
+     * sehingga menggambar hanya memakai hasil yang sudah dihitung.
      */
     @Override
-    public void draw(GraphicsContext gc) {
-        // Jangan gambar stik jika bola sedang bergerak
-        if (!areAllBallsStopped()) return;
+    public void update(double deltaTime) {
+        // Stik (dan prediksinya) hanya tampil saat semua bola diam
+        predictionValid = areAllBallsStopped();
+        if (!predictionValid) return;
 
         // 1. Tentukan Sudut Bidikan
-        double angleRad;
         if (!isAiming) {
             // Mode Bebas: Stik mengikuti posisi mouse
-            double dx = mousePos.getX() - cueBall.getPosition().getX();
-            double dy = mousePos.getY() - cueBall.getPosition().getY();
-            angleRad = Math.atan2(dy, dx) + Math.PI;
-            lockedAngleRad = angleRad; // Simpan sudut terakhir
-        } else {
-            // Mode Terkunci: Stik tetap pada sudut saat klik dimulai
-            angleRad = lockedAngleRad;
+            double dx = mouseX - cueX();
+            double dy = mouseY - cueY();
+            lockedAngleRad = Math.atan2(dy, dx) + Math.PI; // Simpan sudut terakhir
         }
+        // Mode Terkunci: Stik tetap pada sudut saat klik dimulai
 
-        // 2. Gambar Garis Prediksi (Raycast)
+        // 2. Raycast Garis Prediksi
         // Arah tembakan adalah kebalikan dari posisi stik (+ 180 derajat / PI radian)
-        double shootAngle = angleRad + Math.PI;
-        Vector2D shootDir = new Vector2D(Math.cos(shootAngle), Math.sin(shootAngle)).normalize();
+        double shootAngle = lockedAngleRad + Math.PI;
+        SimulationEvents.Prediction predictionEvent = new SimulationEvents.Prediction();
+        predictionEvent.begin();
+        predict(cueX(), cueY(), Math.cos(shootAngle), Math.sin(shootAngle));
+        predictionEvent.end();
+        if (predictionEvent.shouldCommit()) {
+            predictionEvent.ballsTested = predictionBallsTested;
+            predictionEvent.hitsBall = predictionTarget >= 0;
+            predictionEvent.distance = predictionDistance;
+            predictionEvent.commit();
+        }
+    }
 
-        drawPredictionRay(gc, cueBall.getPosition(), shootDir);
+    /**
+     * Menggambar stik dan elemen visual pendukung (garis prediksi) dari hasil {@link #update(double)}.
+     * Stik hanya digambar jika semua bola sedang berhenti.
+     */
+    @Override
+    public void draw(GraphicsContext gc) {
+        // Jangan gambar stik jika bola sedang bergerak
+        if (!predictionValid || !areAllBallsStopped()) return;
 
-        // 3. Gambar Stik Fisik
-        drawStickVisual(gc, angleRad);
+        double shootAngle = lockedAngleRad + Math.PI;
+        drawPredictionRay(gc, predictionStartX, predictionStartY, Math.cos(shootAngle), Math.sin(shootAngle));
+        drawStickVisual(gc, lockedAngleRad);
     }
 
     /**
-     * Logika Raycasting untuk memprediksi lintasan bola putih.
-     * Menggambar garis putus-putus dan "Ghost Ball" di titik tabrakan yang diprediksi.
+     * Menggambar hasil raycast prediksi lintasan bola putih:
+     * garis putus-putus dan "Ghost Ball" di titik tabrakan yang diprediksi.
      */
-    private void drawPredictionRay(GraphicsContext gc, Vector2D start, Vector2D dir) {
+    private void drawPredictionRay(GraphicsContext gc, double startX, double startY, double dirX, double dirY) {
+        double hitX = predictionHitX;
+        double hitY = predictionHitY;
+        double radius = cueRadius();
+
+        // --- GAMBAR LINE VISUAL ---
+
+        // 1. Garis Utama (Putih Putus-putus)
+        gc.save();
+        gc.setStroke(Color.WHITE);
+        gc.setLineWidth(1);
+        if (predictionDetail == PREDICTION_LINE) {
+            gc.strokeLine(startX, startY, hitX, hitY);
+            gc.restore();
+            return;
+        }
+        gc.setLineDashes(5); // Efek putus-putus
+        gc.strokeLine(startX, startY, hitX, hitY);
+
+        // Gambar "Ghost Ball" (Lingkaran outline di titik tabrakan, bola atau dinding)
+        gc.setGlobalAlpha(0.3); // Transparan
+        gc.strokeOval(hitX - radius, hitY - radius, radius * 2, radius * 2);
+        gc.setGlobalAlpha(1.0);
+
+        // 2. PERCABANGAN PREDIKSI (Jika kena bola)
+        if (predictionTarget >= 0 && predictionDetail == PREDICTION_FULL) {
+            double targetX = predictionTargetX;
+            double targetY = predictionTargetY;
+            // Vektor Normal: Garis hubung pusat kedua bola saat tabrakan
+            double normalX = targetX - hitX;
+            double normalY = targetY - hitY;
+            double normalLength = Math.sqrt(normalX * normalX + normalY * normalY);
+            if (normalLength > 0) {
+                normalX /= normalLength;
+                normalY /= normalLength;
+            }
+
+            // Vektor Tangent: Garis singgung (tegak lurus dari normal) -> Arah pantul bola putih
+            double tangentX = -normalY;
+            double tangentY = normalX;
+
+            // Pastikan arah tangent searah dengan gerakan asli (forward)
+            if (dirX * tangentX + dirY * tangentY < 0) {
+                tangentX = -tangentX;
+                tangentY = -tangentY;
+            }
+
+            gc.setLineDashes(null); // Garis solid
+
+            double predictionLength = 50.0; // Panjang garis prediksi lanjutan
+
+            // Prediksi Arah Bola Musuh (Merah) - Selalu mengikuti Normal
+            gc.setStroke(Color.RED);
+            gc.strokeLine(targetX, targetY,
+                    targetX + normalX * predictionLength,
+                    targetY + normalY * predictionLength);
+
+            // Prediksi Arah Bola Putih (Cyan) - Selalu mengikuti Tangent (90 derajat)
+            gc.setStroke(Color.CYAN);
+            gc.strokeLine(hitX, hitY,
+                    hitX + tangentX * predictionLength,
+                    hitY + tangentY * predictionLength);
+        }
+        gc.restore();
+    }
+
+    /**
+     * Raycast garis bidik dari bola putih: mencari dinding atau bola pertama yang akan ditabrak.
+     * Hasilnya disimpan di field prediksi (tanpa membuat objek baru), lihat
+     * {@link #getPredictionHitX()}, {@link #getPredictionTarget()}, dan seterusnya.
+     * Bola dibaca dari snapshot jika diset (lihat {@link #setSnapshot(RenderSnapshot)}).
+     *
+     * @param startX Posisi awal (pusat bola putih).
+     * @param startY Posisi awal (pusat bola putih).
+     * @param dirX   Arah tembakan (vektor satuan).
+     * @param dirY   Arah tembakan (vektor satuan).
+     */
+    void predict(double startX, double startY, double dirX, double dirY) {
+        int ballsTested = 0;
         double closestDist = 1000.0;
-        Vector2D hitPoint = start.add(dir.multiply(closestDist));
-        Ball targetBall = null;
-        boolean hitWall = false;
+        int targetBall = -1;
+        double targetX = 0, targetY = 0;
+        double radius = cueRadius();
+        int cueIndex = cueIndex();
 
         // A. Cek Tabrakan Dinding (Wall Intersection)
         // Menghitung jarak ke setiap sisi dinding berdasarkan arah vektor
-        double distToRight = (tableWidth - cueBall.getRadius() - start.getX()) / dir.getX();
-        double distToLeft = (cueBall.getRadius() - start.getX()) / dir.getX();
-        double distToBottom = (tableHeight - cueBall.getRadius() - start.getY()) / dir.getY();
-        double distToTop = (cueBall.getRadius() - start.getY()) / dir.getY();
+        double distToRight = (tableWidth - radius - startX) / dirX;
+        double distToLeft = (radius - startX) / dirX;
+        double distToBottom = (tableHeight - radius - startY) / dirY;
+        double distToTop = (radius - startY) / dirY;
 
         // Cari jarak positif terpendek (dinding yang akan ditabrak pertama kali)
         if (distToRight > 0) closestDist = Math.min(closestDist, distToRight);
@@ -112,26 +257,30 @@ public class CueStick implements GameObject {
         if (distToBottom > 0) closestDist = Math.min(closestDist, distToBottom);
         if (distToTop > 0) closestDist = Math.min(closestDist, distToTop);
 
-        hitWall = true; // Default asumsi kena dinding dulu
-
         // B. Cek Tabrakan Bola (Ray-Circle Intersection)
-        for (Ball other : allBalls) {
-            if (other == cueBall) continue;
+        int ballCount = ballCount();
+        for (int i = 0; i < ballCount; i++) {
+            if (i == cueIndex) continue;
 
             // PENTING: Abaikan bola yang sudah masuk lubang (tidak aktif)
-            if (!other.isActive()) continue;
+            if (!ballActive(i)) continue;
+            ballsTested++;
+            double otherX = ballX(i);
+            double otherY = ballY(i);
 
             // Logika "Ghost Ball": Kita cari titik di mana pusat bola putih berjarak 2*Radius
-            Vector2D toBall = other.getPosition().subtract(start);
-            double t = toBall.dot(dir); // Proyeksi vektor bola ke garis bidikan
+            double toBallX = otherX - startX;
+            double toBallY = otherY - startY;
+            double t = toBallX * dirX + toBallY * dirY; // Proyeksi vektor bola ke garis bidikan
 
             // Jika bola ada di belakang arah bidikan, abaikan
             if (t < 0) continue;
 
             // Jarak tegak lurus dari garis aim ke pusat bola musuh
-            Vector2D projPoint = start.add(dir.multiply(t));
-            double distPerp = other.getPosition().subtract(projPoint).length();
-            double collisionDist = cueBall.getRadius() + other.getRadius();
+            double perpX = otherX - (startX + dirX * t);
+            double perpY = otherY - (startY + dirY * t);
+            double distPerp = Math.sqrt(perpX * perpX + perpY * perpY);
+            double collisionDist = radius + ballRadius(i);
 
             // Jika jarak tegak lurus < 2*Radius, berarti akan terjadi tabrakan
             if (distPerp < collisionDist) {
@@ -142,62 +291,23 @@ public class CueStick implements GameObject {
                 // Jika tabrakan ini lebih dekat dari dinding atau bola sebelumnya, simpan ini
                 if (distToHit > 0 && distToHit < closestDist) {
                     closestDist = distToHit;
-                    targetBall = other;
-                    hitWall = false; // Kena bola, bukan dinding
+                    targetBall = i;
+                    targetX = otherX;
+                    targetY = otherY;
                 }
             }
         }
 
-        // Update titik akhir garis prediksi
-        hitPoint = start.add(dir.multiply(closestDist));
-
-        // --- GAMBAR LINE VISUAL ---
-
-        // 1. Garis Utama (Putih Putus-putus)
-        gc.save();
-        gc.setStroke(Color.WHITE);
-        gc.setLineWidth(1);
-        gc.setLineDashes(5); // Efek putus-putus
-        gc.strokeLine(start.getX(), start.getY(), hitPoint.getX(), hitPoint.getY());
-
-        // Gambar "Ghost Ball" (Lingkaran outline di titik tabrakan)
-        if (targetBall != null || hitWall) {
-            gc.setGlobalAlpha(0.3); // Transparan
-            gc.strokeOval(hitPoint.getX() - cueBall.getRadius(), hitPoint.getY() - cueBall.getRadius(),
-                    cueBall.getRadius()*2, cueBall.getRadius()*2);
-            gc.setGlobalAlpha(1.0);
-        }
-
-        // 2. PERCABANGAN PREDIKSI (Jika kena bola)
-        if (targetBall != null) {
-            // Vektor Normal: Garis hubung pusat kedua bola saat tabrakan
-            Vector2D collisionNormal = targetBall.getPosition().subtract(hitPoint).normalize();
-
-            // Vektor Tangent: Garis singgung (tegak lurus dari normal) -> Arah pantul bola putih
-            Vector2D tangent = new Vector2D(-collisionNormal.getY(), collisionNormal.getX());
-
-            // Pastikan arah tangent searah dengan gerakan asli (forward)
-            if (dir.dot(tangent) < 0) {
-                tangent = tangent.multiply(-1);
-            }
-
-            gc.setLineDashes(null); // Garis solid
-
-            double predictionLength = 50.0; // Panjang garis prediksi lanjutan
-
-            // Prediksi Arah Bola Musuh (Merah) - Selalu mengikuti Normal
-            gc.setStroke(Color.RED);
-            gc.strokeLine(targetBall.getPosition().getX(), targetBall.getPosition().getY(),
-                    targetBall.getPosition().getX() + collisionNormal.getX() * predictionLength,
-                    targetBall.getPosition().getY() + collisionNormal.getY() * predictionLength);
-
-            // Prediksi Arah Bola Putih (Cyan) - Selalu mengikuti Tangent (90 derajat)
-            gc.setStroke(Color.CYAN);
-            gc.strokeLine(hitPoint.getX(), hitPoint.getY(),
-                    hitPoint.getX() + tangent.getX() * predictionLength,
-                    hitPoint.getY() + tangent.getY() * predictionLength);
-        }
-        gc.restore();
+        // Titik awal dan akhir garis prediksi
+        predictionStartX = startX;
+        predictionStartY = startY;
+        predictionHitX = startX + dirX * closestDist;
+        predictionHitY = startY + dirY * closestDist;
+        predictionDistance = closestDist;
+        predictionTarget = targetBall;
+        predictionTargetX = targetX;
+        predictionTargetY = targetY;
+        predictionBallsTested = ballsTested;
     }
 
     /**
@@ -206,58 +316,69 @@ public class CueStick implements GameObject {
      */
     private void drawStickVisual(GraphicsContext gc, double angleRad) {
         double angleDeg = Math.toDegrees(angleRad);
-        double pullDistance = 20; // Jarak default dari bola
+        double pullDistance = REST_DISTANCE; // Jarak default dari bola
 
         // Jika sedang membidik, stik mundur sesuai jarak tarik mouse
         if (isAiming) {
-            double dragDist = aimStart.subtract(aimCurrent).length();
-            pullDistance = Math.min(dragDist, MAX_PULL);
+            pullDistance = Math.min(dragDistance(), MAX_PULL);
         }
 
         gc.save();
         // Pindahkan titik asal (0,0) ke pusat bola putih untuk memudahkan rotasi
-        gc.translate(cueBall.getPosition().getX(), cueBall.getPosition().getY());
+        gc.translate(cueX(), cueY());
         gc.rotate(angleDeg);
 
-        double stickLen = 300;
-        double stickWidth = 8;
-        double tipOffset = cueBall.getRadius() + pullDistance;
+        double stickLen = STICK_LENGTH;
+        double stickWidth = STICK_WIDTH;
+        double tipOffset = cueRadius() + pullDistance;
 
         // Gambar Batang Kayu
         gc.setFill(Color.SADDLEBROWN);
         gc.fillRect(tipOffset, -stickWidth/2, stickLen, stickWidth);
         // Gambar Ujung Stik (Tip)
         gc.setFill(Color.CYAN);
-        gc.fillRect(tipOffset, -stickWidth/2, 5, stickWidth);
+        gc.fillRect(tipOffset, -stickWidth/2, TIP_LENGTH, stickWidth);
 
         gc.restore();
     }
 
     // --- EVENT HANDLERS (Input Mouse) ---
+    // Koordinat yang diterima sudah relatif terhadap area permainan (lihat InputQueue).
 
-    public void handleMouseMoved(MouseEvent e) {
-        if (!isAiming) this.mousePos = new Vector2D(e.getX(), e.getY());
+    public void handleMouseMoved(double x, double y) {
+        if (!isAiming) {
+            this.mouseX = x;
+            this.mouseY = y;
+        }
     }
 
-    public void handleMousePressed(MouseEvent e) {
+    public void handleMousePressed(double x, double y) {
         // Hanya bisa mulai membidik jika bola berhenti
         if (!areAllBallsStopped()) return;
 
         isAiming = true;
-        aimStart = new Vector2D(e.getX(), e.getY());
-        aimCurrent = new Vector2D(e.getX(), e.getY());
+        aimStartX = x;
+        aimStartY = y;
+        aimCurrentX = x;
+        aimCurrentY = y;
     }
 
-    public void handleMouseDragged(MouseEvent e) {
+    public void handleMouseDragged(double x, double y) {
         if (!isAiming) return;
-        aimCurrent = new Vector2D(e.getX(), e.getY());
+        aimCurrentX = x;
+        aimCurrentY = y;
     }
 
-    public void handleMouseReleased(MouseEvent e) {
+    /**
+     * Melepas stik dan menghasilkan pukulan.
+     *
+     * @param timestampNanos Waktu event lepas mouse, disimpan di {@link ShotCommand}.
+     */
+    public void handleMouseReleased(double x, double y, long timestampNanos) {
         if (!isAiming) return;
 
         // 1. Hitung jarak tarik (pixel)
-        double dragDist = aimStart.subtract(aimCurrent).length();
+        double dragDist = dragDistance();
 
         // 2. Batasi jarak tarik visual agar tidak melebihi batas
         if (dragDist > MAX_DRAG_DISTANCE) dragDist = MAX_DRAG_DISTANCE;
@@ -277,16 +398,72 @@ public class CueStick implements GameObject {
 
         // 7. Eksekusi Pukulan (dengan deadzone kecil)
         if (finalForce > 5) {
-            cueBall.hit(direction.multiply(finalForce));
+            Vector2D force = direction.multiply(finalForce);
+            if (shotQueue != null) {
+                shotQueue.add(new ShotCommand(force, timestampNanos));
+            } else {
+                cueBall.hit(force);
+            }
         }
         isAiming = false;
     }
 
+    /**
+     * Menghitung jarak tarik stik (pixel) yang menghasilkan gaya tertentu.
+     * Kebalikan dari kurva kekuatan di {@link #handleMouseReleased(double, double, long)},
+     * dipakai renderer offline untuk menggambar stik sebelum pukulan.
+     */
+    static double pullDistanceForForce(double force) {
+        double dragRatio = Math.sqrt(Math.min(1.0, Math.max(0.0, force / MAX_FORCE)));
+        return Math.min(dragRatio * MAX_DRAG_DISTANCE, MAX_PULL);
+    }
+
+    /** Jarak tarik mouse sejak klik pertama (pixel). */
+    private double dragDistance() {
+        double dx = aimStartX - aimCurrentX;
+        double dy = aimStartY - aimCurrentY;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    // --- Getter Hasil Prediksi ---
+    /**
+     * Mengatur detail garis prediksi yang digambar ({@link #PREDICTION_LINE},
+     * {@link #PREDICTION_GHOST}, atau {@link #PREDICTION_FULL}). Raycast tetap sama.
+     */
+    public void setPredictionDetail(int predictionDetail) {
+        if (predictionDetail < PREDICTION_LINE || predictionDetail > PREDICTION_FULL) {
+            throw new IllegalArgumentException("Detail prediksi tidak valid: " + predictionDetail);
+        }
+        this.predictionDetail = predictionDetail;
+    }
+
+    public int getPredictionDetail() { return predictionDetail; }
+    public double getPredictionHitX() { return predictionHitX; }
+    public double getPredictionHitY() { return predictionHitY; }
+    public double getPredictionDistance() { return predictionDistance; }
+    /** @return Indeks bola target (di daftar bola atau snapshot), atau -1 jika garis berakhir di dinding. */
+    public int getPredictionTarget() { return predictionTarget; }
+
+    // --- Akses Bola (snapshot jika ada, objek Ball jika tidak) ---
+
+    private int ballCount() { return snapshot != null ? snapshot.getBallCount() : allBalls.size(); }
+    private double ballX(int i) { return snapshot != null ? snapshot.getX(i) : allBalls.get(i).getX(); }
+    private double ballY(int i) { return snapshot != null ? snapshot.getY(i) : allBalls.get(i).getY(); }
+    private double ballRadius(int i) { return snapshot != null ? snapshot.getRadius(i) : allBalls.get(i).getRadius(); }
+    private boolean ballActive(int i) { return snapshot != null ? snapshot.isVisible(i) : allBalls.get(i).isActive(); }
+
+    private int cueIndex() { return snapshot != null ? snapshot.getCueIndex() : allBalls.indexOf(cueBall); }
+    private double cueX() { return snapshot != null ? snapshot.getX(snapshot.getCueIndex()) : cueBall.getX(); }
+    private double cueY() { return snapshot != null ? snapshot.getY(snapshot.getCueIndex()) : cueBall.getY(); }
+    private double cueRadius() { return snapshot != null ? snapshot.getRadius(snapshot.getCueIndex()) : cueBall.getRadius(); }
+
     // Helper: Cek apakah SEMUA bola (putih + warna) sudah berhenti
     private boolean areAllBallsStopped() {
-        for (Ball ball : allBalls) {
+        if (snapshot != null) return snapshot.isAllBallsStopped();
+        for (int i = 0; i < allBalls.size(); i++) {
+            Ball ball = allBalls.get(i);
             // Hanya cek bola yang masih aktif di meja
-            if (ball.isActive() && ball.getVelocity().length() > 0.1) {
+            if (ball.isActive() && ball.getSpeed() > 0.1) {
                 return false; // Masih ada yang bergerak
             }
         }
@@ -0,0 +1,430 @@
+package com.billiards2d;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Harness pengujian diferensial: menjalankan {@link PhysicsEngine} (lewat {@link ShotSimulator})
+ * sebagai oracle referensi dan engine yang dioptimasi berdampingan pada kasus yang sama, secara
+ * paralel, lalu melaporkan seberapa jauh hasilnya menyimpang.
+ * <p>
+ * Untuk setiap varian dilaporkan: hasil pukulan yang berbeda (himpunan bola masuk, foul, skor),
+ * selisih posisi akhir per bola (rata-rata, p95, maksimum, dalam pixel, hanya bola yang aktif di
+ * kedua hasil), dan speedup terhadap referensi. Varian baru cukup didaftarkan di
+ * {@link #VARIANTS}.
+ * </p>
+ * Argumen:
+ * <pre>
+ * --cases &lt;n&gt;          Jumlah kasus yang dibuat (default 2000: break, rak acak, bola tersebar)
+ * --seed &lt;n&gt;           Seed pembuat kasus (default 42)
+ * --threads &lt;n&gt;        Jumlah thread (default jumlah core)
+ * --variants &lt;a,b&gt;     Varian yang diuji (default semua)
+ * --library &lt;file&gt;     Tambahkan posisi dari {@link PositionLibrary}
+ * --output &lt;file&gt;      Tulis hasil per kasus ke CSV
+ * --max-mismatch &lt;0..1&gt; Keluar dengan kode 1 jika rasio hasil berbeda melebihi nilai ini
+ * </pre>
+ */
+public class DifferentialHarness {
+
+    /** Engine pukulan yang dibandingkan dengan referensi. */
+    public interface ShotEngine {
+        /**
+         * @param testCase Kasus uji (keadaan awal, pukulan, ukuran meja, batas waktu).
+         * @return Hasil pukulan dengan indeks bola yang sama seperti keadaan awal.
+         */
+        ShotOutcome simulate(TestCase testCase);
+    }
+
+    /** Oracle: engine presisi ganda yang dipakai permainan. */
+    static final ShotEngine REFERENCE = testCase -> {
+        ShotSimulator simulator = new ShotSimulator(testCase.tableWidth, testCase.tableHeight);
+        simulator.setMaxSimulatedTime(testCase.maxSimulatedTime);
+        return simulator.simulate(testCase.start, testCase.shot, null);
+    };
+
+    /** Varian yang tersedia, berdasarkan nama. */
+    static final Map<String, ShotEngine> VARIANTS = new LinkedHashMap<>();
+
+    static {
+        VARIANTS.put("float32", testCase -> FloatSimulation.simulateShot(testCase.start, testCase.shot,
+                testCase.tableWidth, testCase.tableHeight, PhysicsParameters.DEFAULT, testCase.maxSimulatedTime));
+        VARIANTS.put("coarse", testCase -> {
+            CoarseShotSimulator coarse = new CoarseShotSimulator(testCase.tableWidth, testCase.tableHeight);
+            coarse.setMaxSimulatedTime(testCase.maxSimulatedTime);
+            return coarse.simulate(testCase.start, testCase.shot);
+        });
+        VARIANTS.put("iterative-solver", testCase -> {
+            ShotSimulator simulator = new ShotSimulator(testCase.tableWidth, testCase.tableHeight);
+            simulator.setMaxSimulatedTime(testCase.maxSimulatedTime);
+            Simulation simulation = Simulation.fromState(testCase.start, testCase.tableWidth, testCase.tableHeight);
+            simulation.getPhysicsEngine().setContactSolver(new ContactSolver());
+            return simulator.simulate(simulation, testCase.start, testCase.shot, null);
+        });
+    }
+
+    /** Satu kasus uji. */
+    public static class TestCase {
+        final String name;
+        final TableState start;
+        final Vector2D shot;
+        final double tableWidth;
+        final double tableHeight;
+        final double maxSimulatedTime;
+
+        public TestCase(String name, TableState start, Vector2D shot, double tableWidth, double tableHeight,
+                        double maxSimulatedTime) {
+            this.name = name;
+            this.start = start;
+            this.shot = shot;
+            this.tableWidth = tableWidth;
+            this.tableHeight = tableHeight;
+            this.maxSimulatedTime = maxSimulatedTime;
+        }
+
+        public String getName() { return name; }
+        public TableState getStart() { return start; }
+        public Vector2D getShot() { return shot; }
+        public double getTableWidth() { return tableWidth; }
+        public double getTableHeight() { return tableHeight; }
+        public double getMaxSimulatedTime() { return maxSimulatedTime; }
+    }
+
+    /** Perbandingan satu kasus untuk satu varian. */
+    static class Comparison {
+        final String testCase;
+        final boolean samePocketed;
+        final boolean sameFoul;
+        final boolean sameScore;
+        /** Selisih posisi akhir per bola (NaN jika bola tidak aktif di salah satu hasil). */
+        final double[] ballErrors;
+        final long referenceNanos;
+        final long variantNanos;
+
+        Comparison(String testCase, ShotOutcome reference, ShotOutcome variant, long referenceNanos, long variantNanos) {
+            this.testCase = testCase;
+            this.samePocketed = Arrays.equals(reference.getPocketedBalls(), variant.getPocketedBalls());
+            this.sameFoul = reference.isFoul() == variant.isFoul();
+            this.sameScore = reference.getScoreDelta() == variant.getScoreDelta();
+            this.referenceNanos = referenceNanos;
+            this.variantNanos = variantNanos;
+
+            TableState expected = reference.getFinalState();
+            TableState actual = variant.getFinalState();
+            ballErrors = new double[expected.getBallCount()];
+            for (int i = 0; i < ballErrors.length; i++) {
+                boolean comparable = i < actual.getBallCount() && expected.isActive(i) && actual.isActive(i);
+                ballErrors[i] = comparable
+                        ? Math.hypot(expected.getX(i) - actual.getX(i), expected.getY(i) - actual.getY(i))
+                        : Double.NaN;
+            }
+        }
+
+        boolean isMismatch() {
+            return !samePocketed || !sameFoul || !sameScore;
+        }
+
+        double maxError() {
+            double max = 0;
+            for (double error : ballErrors) if (!Double.isNaN(error)) max = Math.max(max, error);
+            return max;
+        }
+
+        double meanError() {
+            double total = 0;
+            int count = 0;
+            for (double error : ballErrors) {
+                if (Double.isNaN(error)) continue;
+                total += error;
+                count++;
+            }
+            return count == 0 ? 0 : total / count;
+        }
+    }
+
+    /** Ringkasan semua kasus untuk satu varian. */
+    static class Summary {
+        final String variant;
+        int cases;
+        int pocketedMismatches;
+        int foulMismatches;
+        int scoreMismatches;
+        int outcomeMismatches;
+        long referenceNanos;
+        long variantNanos;
+        double[] errors = new double[1024];
+        int errorCount;
+        double worstError = -1;
+        String worstCase = "-";
+
+        Summary(String variant) {
+            this.variant = variant;
+        }
+
+        void add(Comparison comparison) {
+            cases++;
+            if (!comparison.samePocketed) pocketedMismatches++;
+            if (!comparison.sameFoul) foulMismatches++;
+            if (!comparison.sameScore) scoreMismatches++;
+            if (comparison.isMismatch()) outcomeMismatches++;
+            referenceNanos += comparison.referenceNanos;
+            variantNanos += comparison.variantNanos;
+            for (double error : comparison.ballErrors) {
+                if (Double.isNaN(error)) continue;
+                if (errorCount == errors.length) errors = Arrays.copyOf(errors, errorCount * 2);
+                errors[errorCount++] = error;
+            }
+            double max = comparison.maxError();
+            if (max > worstError) {
+                worstError = max;
+                worstCase = comparison.testCase;
+            }
+        }
+
+        double getMismatchRate() {
+            return cases == 0 ? 0 : (double) outcomeMismatches / cases;
+        }
+
+        double getSpeedup() {
+            return variantNanos == 0 ? 0 : (double) referenceNanos / variantNanos;
+        }
+
+        /** @return Selisih posisi pada kuantil tertentu (pixel). */
+        double errorQuantile(double quantile) {
+            if (errorCount == 0) return 0;
+            double[] sorted = Arrays.copyOf(errors, errorCount);
+            Arrays.sort(sorted);
+            return sorted[Math.min(errorCount - 1, (int) Math.floor(quantile * (errorCount - 1)))];
+        }
+
+        double meanError() {
+            double total = 0;
+            for (int i = 0; i < errorCount; i++) total += errors[i];
+            return errorCount == 0 ? 0 : total / errorCount;
+        }
+
+        String format() {
+            return String.format(Locale.ROOT,
+                    "%-17s %6d %6.2f%% %6d %6d %6d %9.3f %9.3f %9.3f %7.2fx  %s",
+                    variant, cases, getMismatchRate() * 100, pocketedMismatches, foulMismatches, scoreMismatches,
+                    meanError(), errorQuantile(0.95), Math.max(0, worstError), getSpeedup(), worstCase);
+        }
+    }
+
+    private final List<String> variantNames;
+    private final int threads;
+
+    /**
+     * @param variantNames Nama varian dari {@link #VARIANTS}.
+     * @param threads      Jumlah thread untuk menjalankan kasus secara paralel.
+     */
+    public DifferentialHarness(List<String> variantNames, int threads) {
+        for (String name : variantNames) {
+            if (!VARIANTS.containsKey(name)) {
+                throw new IllegalArgumentException("Varian tidak dikenal: " + name + " (tersedia: " + VARIANTS.keySet() + ")");
+            }
+        }
+        this.variantNames = List.copyOf(variantNames);
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Kasus bawaan: pukulan acak dari posisi break, dari rak yang bolanya diacak, dan dari meja
+     * dengan bola tersebar (dengan sepertiga pukulan berkekuatan di atas batas stik).
+     */
+    public static List<TestCase> generateCases(int count, long seed) {
+        double w = BilliardApp.GAME_WIDTH;
+        double h = BilliardApp.GAME_HEIGHT;
+        double maxTime = new ShotSimulator(w, h).getMaxSimulatedTime();
+        TableState rack = TableState.capture(BilliardApp.createStandardBalls(w, h), 0);
+        Random random = new Random(seed);
+
+        List<TestCase> cases = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TableState start;
+            String kind;
+            switch (i % 3) {
+                case 0 -> {
+                    start = rack;
+                    kind = "break";
+                }
+                case 1 -> {
+                    start = ScenarioGenerator.randomScatter(15, seed + i).getStart();
+                    kind = "scatter";
+                }
+                default -> {
+                    start = ScenarioGenerator.randomScatter(40, seed + i).getStart();
+                    kind = "crowded";
+                }
+            }
+            double angle = random.nextDouble() * Math.PI * 2;
+            double power = (0.1 + random.nextDouble() * (i % 3 == 2 ? 2.9 : 0.9)) * CueStick.MAX_FORCE;
+            cases.add(new TestCase(kind + "-" + i, start, new Vector2D(Math.cos(angle) * power, Math.sin(angle) * power),
+                    w, h, maxTime));
+        }
+        return cases;
+    }
+
+    /** Kasus dari pustaka posisi (pukulan pertama dan batas frame dari posisi tersebut). */
+    public static List<TestCase> libraryCases(PositionLibrary library) {
+        List<TestCase> cases = new ArrayList<>(library.size());
+        for (Scenario scenario : library.scenarios()) {
+            cases.add(new TestCase(scenario.getName(), scenario.getStart(), scenario.getShot(),
+                    scenario.getTableWidth(), scenario.getTableHeight(),
+                    scenario.getMaxFrames() * ShotSimulator.FRAME_TIME));
+        }
+        return cases;
+    }
+
+    /**
+     * Menjalankan referensi dan semua varian pada setiap kasus, paralel per kasus.
+     *
+     * @return Perbandingan per varian (urutan sama dengan {@code variantNames}), per kasus.
+     */
+    Map<String, List<Comparison>> run(List<TestCase> cases) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "differential-harness");
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            // Pemanasan JIT untuk semua engine, tidak dicatat
+            List<Future<Comparison[]>> warmup = new ArrayList<>();
+            for (TestCase testCase : cases.subList(0, Math.min(cases.size(), 60))) {
+                warmup.add(executor.submit(() -> compare(testCase)));
+            }
+            for (Future<Comparison[]> future : warmup) future.get();
+
+            List<Future<Comparison[]>> futures = new ArrayList<>(cases.size());
+            for (TestCase testCase : cases) futures.add(executor.submit(() -> compare(testCase)));
+
+            Map<String, List<Comparison>> results = new LinkedHashMap<>();
+            for (String name : variantNames) results.put(name, new ArrayList<>(cases.size()));
+            for (Future<Comparison[]> future : futures) {
+                Comparison[] comparisons = future.get();
+                for (int v = 0; v < comparisons.length; v++) results.get(variantNames.get(v)).add(comparisons[v]);
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Harness dihentikan", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Kasus gagal dijalankan: " + e.getCause(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Comparison[] compare(TestCase testCase) {
+        long begin = System.nanoTime();
+        ShotOutcome reference = REFERENCE.simulate(testCase);
+        long referenceNanos = System.nanoTime() - begin;
+
+        Comparison[] comparisons = new Comparison[variantNames.size()];
+        for (int v = 0; v < comparisons.length; v++) {
+            begin = System.nanoTime();
+            ShotOutcome variant = VARIANTS.get(variantNames.get(v)).simulate(testCase);
+            long variantNanos = System.nanoTime() - begin;
+            comparisons[v] = new Comparison(testCase.name, reference, variant, referenceNanos, variantNanos);
+        }
+        return comparisons;
+    }
+
+    /** @return Ringkasan per varian. */
+    static List<Summary> summarize(Map<String, List<Comparison>> results) {
+        List<Summary> summaries = new ArrayList<>();
+        for (Map.Entry<String, List<Comparison>> entry : results.entrySet()) {
+            Summary summary = new Summary(entry.getKey());
+            for (Comparison comparison : entry.getValue()) summary.add(comparison);
+            summaries.add(summary);
+        }
+        return summaries;
+    }
+
+    private static void writeCsv(Path output, Map<String, List<Comparison>> results) throws IOException {
+        if (output.getParent() != null) Files.createDirectories(output.getParent());
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(output))) {
+            out.println("variant,case,samePocketed,sameFoul,sameScore,meanErrorPx,maxErrorPx,referenceMicros,variantMicros");
+            for (Map.Entry<String, List<Comparison>> entry : results.entrySet()) {
+                for (Comparison c : entry.getValue()) {
+                    out.printf(Locale.ROOT, "%s,%s,%b,%b,%b,%.4f,%.4f,%.1f,%.1f%n", entry.getKey(), c.testCase,
+                            c.samePocketed, c.sameFoul, c.sameScore, c.meanError(), c.maxError(),
+                            c.referenceNanos / 1e3, c.variantNanos / 1e3);
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int caseCount = 2000;
+        long seed = 42;
+        int threads = Runtime.getRuntime().availableProcessors();
+        List<String> variants = new ArrayList<>(VARIANTS.keySet());
+        Path libraryFile = null;
+        Path output = null;
+        double maxMismatch = -1;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--cases" -> caseCount = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--variants" -> variants = Arrays.asList(args[++i].split(","));
+                case "--library" -> libraryFile = Path.of(args[++i]);
+                case "--output" -> output = Path.of(args[++i]);
+                case "--max-mismatch" -> maxMismatch = Double.parseDouble(args[++i]);
+                default -> {
+                    System.err.println("Unknown argument: " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        List<TestCase> cases = generateCases(caseCount, seed);
+        if (libraryFile != null) {
+            try (PositionLibrary library = PositionLibrary.open(libraryFile)) {
+                cases.addAll(libraryCases(library));
+            }
+        }
+
+        DifferentialHarness harness = new DifferentialHarness(variants, threads);
+        long begin = System.nanoTime();
+        Map<String, List<Comparison>> results = harness.run(cases);
+        System.out.printf(Locale.ROOT, "%d cases x %d variant(s) on %d thread(s) in %.1f s%n%n",
+                cases.size(), variants.size(), harness.threads, (System.nanoTime() - begin) / 1e9);
+
+        System.out.printf(Locale.ROOT, "%-17s %6s %7s %6s %6s %6s %9s %9s %9s %8s  %s%n",
+                "variant", "cases", "differ", "pocket", "foul", "score", "meanErr", "p95Err", "maxErr", "speedup", "worst case");
+        List<String> failures = new ArrayList<>();
+        for (Summary summary : summarize(results)) {
+            System.out.println(summary.format());
+            if (maxMismatch >= 0 && summary.getMismatchRate() > maxMismatch) {
+                failures.add(String.format(Locale.ROOT, "%s: %.2f%% of outcomes differ (limit %.2f%%)",
+                        summary.variant, summary.getMismatchRate() * 100, maxMismatch * 100));
+            }
+        }
+        System.out.println("\nErrors are final-position distances in pixels for balls active in both outcomes.");
+
+        if (output != null) {
+            writeCsv(output, results);
+            System.out.println("Per-case results written to " + output);
+        }
+        if (!failures.isEmpty()) {
+            System.err.println("Differential check failed:");
+            for (String failure : failures) System.err.println("  " + failure);
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.billiards2d;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Mode fisika ringkas presisi tunggal (float32) untuk meja sandbox besar dan simulasi batch.
+ * <p>
+ * Seluruh keadaan disimpan sebagai array primitif {@code float} per atribut (posisi, kecepatan),
+ * bukan objek {@link Ball} berisi {@code double}, sehingga data yang dibaca setiap langkah hanya
+ * setengahnya dan loop integrasi bisa di-vektorisasi otomatis oleh JIT dengan lebar lane dua kali
+ * lipat. Urutan operasinya sama dengan {@link Simulation} + {@link PhysicsEngine} (integrasi
+ * semua bola, lalu per bola: lubang, dinding, tumbukan dengan semua bola lain; sub-step adaptif;
+ * respawn bola putih), jadi perbedaannya murni karena presisi. {@link ContactSolver} tidak
+ * didukung.
+ * </p>
+ * Semua bola dianggap berukuran standar ({@link CoarseShotSimulator#BALL_RADIUS}, massa 1) seperti
+ * bola yang dibuat dari {@link TableState}. Akurasi dibanding engine presisi ganda dilaporkan oleh
+ * {@link #main(String[])}. Satu objek hanya boleh dipakai oleh satu thread.
+ */
+public class FloatSimulation {
+
+    private static final float RADIUS = (float) CoarseShotSimulator.BALL_RADIUS;
+    /** Sama dengan {@code Simulation.MAX_TRAVEL_RATIO}. */
+    private static final float MAX_TRAVEL_RATIO = 0.5f;
+    private static final int MIN_SUB_STEPS = 1;
+    private static final int MAX_SUB_STEPS = 16;
+    /** Batas kecepatan berhenti di {@link Ball#update(double)}. */
+    private static final float STOP_SPEED = 5f;
+
+    private final float width;
+    private final float height;
+    private final float[] pocketX;
+    private final float[] pocketY;
+    private final float captureRadius;
+    private final float friction;
+    private final float wallRestitution;
+    private final float ballRestitution;
+
+    private final int count;
+    private final float[] x;
+    private final float[] y;
+    private final float[] vx;
+    private final float[] vy;
+    private final boolean[] active;
+    private final String[] types;
+    private final int cue; // Indeks bola putih, -1 jika tidak ada
+    private final float headSpotX;
+    private final float headSpotY;
+
+    private boolean cuePendingRespawn;
+    private int playerScore;
+    private int foulCount;
+    private long totalSubSteps;
+
+    /**
+     * Membuat simulasi float dari keadaan meja.
+     *
+     * @param state       Keadaan awal (tidak diubah).
+     * @param tableWidth  Lebar area permainan.
+     * @param tableHeight Tinggi area permainan.
+     * @param parameters  Parameter fisika meja.
+     */
+    public FloatSimulation(TableState state, double tableWidth, double tableHeight, PhysicsParameters parameters) {
+        Table table = new Table(tableWidth, tableHeight);
+        this.width = (float) tableWidth;
+        this.height = (float) tableHeight;
+        List<Vector2D> pockets = table.getPockets();
+        pocketX = new float[pockets.size()];
+        pocketY = new float[pockets.size()];
+        for (int p = 0; p < pockets.size(); p++) {
+            pocketX[p] = (float) pockets.get(p).getX();
+            pocketY[p] = (float) pockets.get(p).getY();
+        }
+        captureRadius = (float) table.getPocketCaptureRadius();
+        headSpotX = (float) table.getHeadSpot().getX();
+        headSpotY = (float) table.getHeadSpot().getY();
+        friction = (float) parameters.getFriction();
+        wallRestitution = (float) parameters.getWallRestitution();
+        ballRestitution = (float) parameters.getBallRestitution();
+
+        count = state.getBallCount();
+        x = new float[count];
+        y = new float[count];
+        vx = new float[count];
+        vy = new float[count];
+        active = new boolean[count];
+        types = new String[count];
+        int cueIndex = -1;
+        for (int i = 0; i < count; i++) {
+            x[i] = (float) state.getX(i);
+            y[i] = (float) state.getY(i);
+            vx[i] = (float) state.getVx(i);
+            vy[i] = (float) state.getVy(i);
+            active[i] = state.isActive(i);
+            types[i] = state.getType(i);
+            if (state.isCue(i) && cueIndex < 0) cueIndex = i;
+        }
+        cue = cueIndex;
+        cuePendingRespawn = state.isCuePendingRespawn();
+        playerScore = state.getPlayerScore();
+    }
+
+    /**
+     * Memukul bola putih (kecepatan langsung diset, seperti {@link CueBall#hit(Vector2D)}).
+     */
+    public void hit(Vector2D force) {
+        if (cue < 0 || !active[cue]) return;
+        vx[cue] = (float) force.getX();
+        vy[cue] = (float) force.getY();
+    }
+
+    /**
+     * Memajukan simulasi satu frame (sub-step adaptif seperti {@link Simulation#advance(double)}).
+     *
+     * @param deltaTime Waktu frame (detik).
+     */
+    public void advance(double deltaTime) {
+        float dt = (float) deltaTime;
+        int subSteps = computeSubSteps(dt);
+        float subDeltaTime = dt / subSteps;
+        // Faktor gesekan sama untuk semua bola di satu sub-step
+        float frictionFactor = (float) Math.pow(friction, subDeltaTime * 60.0f);
+        for (int step = 0; step < subSteps; step++) {
+            integrate(subDeltaTime, frictionFactor);
+            resolveContacts();
+        }
+        totalSubSteps += subSteps;
+        handleCueBallRespawn();
+    }
+
+    private int computeSubSteps(float dt) {
+        float maxTravelRatio = 0;
+        for (int i = 0; i < count; i++) {
+            if (!active[i]) continue;
+            float travel = speed(i) * dt / RADIUS;
+            if (travel > maxTravelRatio) maxTravelRatio = travel;
+        }
+        int steps = (int) Math.ceil(maxTravelRatio / MAX_TRAVEL_RATIO);
+        return Math.max(MIN_SUB_STEPS, Math.min(MAX_SUB_STEPS, steps));
+    }
+
+    /** Integrasi posisi dan gesekan semua bola (loop array sederhana, bisa di-vektorisasi JIT). */
+    private void integrate(float dt, float frictionFactor) {
+        for (int i = 0; i < count; i++) {
+            x[i] += vx[i] * dt;
+            y[i] += vy[i] * dt;
+        }
+        for (int i = 0; i < count; i++) {
+            float nvx = vx[i] * frictionFactor;
+            float nvy = vy[i] * frictionFactor;
+            boolean stop = nvx * nvx + nvy * nvy < STOP_SPEED * STOP_SPEED;
+            vx[i] = stop ? 0 : nvx;
+            vy[i] = stop ? 0 : nvy;
+        }
+    }
+
+    /** Lubang, dinding, dan tumbukan antar bola, dengan urutan yang sama seperti PhysicsEngine. */
+    private void resolveContacts() {
+        for (int i = 0; i < count; i++) {
+            if (!active[i]) continue;
+
+            if (inPocket(i)) {
+                active[i] = false;
+                if (i == cue) {
+                    cuePendingRespawn = true;
+                    vx[i] = 0;
+                    vy[i] = 0;
+                    playerScore = Math.max(0, playerScore - 10);
+                    foulCount++;
+                } else {
+                    playerScore += 10;
+                }
+                continue;
+            }
+
+            checkWallCollision(i);
+
+            // Sama seperti PhysicsEngine: setiap pasangan diperiksa dari kedua sisi, termasuk
+            // bola yang sudah tidak aktif
+            for (int j = 0; j < count; j++) {
+                if (j != i) resolveBallCollision(i, j);
+            }
+        }
+    }
+
+    private boolean inPocket(int i) {
+        for (int p = 0; p < pocketX.length; p++) {
+            float dx = x[i] - pocketX[p];
+            float dy = y[i] - pocketY[p];
+            if ((float) Math.sqrt(dx * dx + dy * dy) < captureRadius) return true;
+        }
+        return false;
+    }
+
+    private void checkWallCollision(int i) {
+        if (x[i] - RADIUS < 0) {
+            x[i] = RADIUS;
+            vx[i] = -vx[i] * wallRestitution;
+        } else if (x[i] + RADIUS > width) {
+            x[i] = width - RADIUS;
+            vx[i] = -vx[i] * wallRestitution;
+        }
+        if (y[i] - RADIUS < 0) {
+            y[i] = RADIUS;
+            vy[i] = -vy[i] * wallRestitution;
+        } else if (y[i] + RADIUS > height) {
+            y[i] = height - RADIUS;
+            vy[i] = -vy[i] * wallRestitution;
+        }
+    }
+
+    private void resolveBallCollision(int a, int b) {
+        float dx = x[a] - x[b];
+        float dy = y[a] - y[b];
+        float minDist = RADIUS + RADIUS;
+        // Tolak cepat tanpa akar: sebagian besar pasangan berjauhan
+        if (Math.abs(dx) >= minDist || Math.abs(dy) >= minDist) return;
+        float dist = (float) Math.sqrt(dx * dx + dy * dy);
+        if (dist == 0 || dist >= minDist) return;
+
+        float nx = dx / dist;
+        float ny = dy / dist;
+
+        float overlap = 0.5f * (dist - minDist);
+        float displacementX = nx * overlap;
+        float displacementY = ny * overlap;
+        x[a] -= displacementX;
+        y[a] -= displacementY;
+        x[b] += displacementX;
+        y[b] += displacementY;
+
+        float speed = (vx[a] - vx[b]) * nx + (vy[a] - vy[b]) * ny;
+        if (speed >= 0) return;
+
+        // Massa sama (1.0): impulse = 2 * speed / (m1 + m2) = speed
+        float impulse = speed;
+        vx[a] = (vx[a] - nx * impulse) * ballRestitution;
+        vy[a] = (vy[a] - ny * impulse) * ballRestitution;
+        vx[b] = (vx[b] + nx * impulse) * ballRestitution;
+        vy[b] = (vy[b] + ny * impulse) * ballRestitution;
+    }
+
+    private void handleCueBallRespawn() {
+        if (cue < 0 || !cuePendingRespawn) return;
+        for (int i = 0; i < count; i++) {
+            if (i != cue && active[i] && speed(i) > 0.1f) return;
+        }
+        x[cue] = headSpotX;
+        y[cue] = headSpotY;
+        vx[cue] = 0;
+        vy[cue] = 0;
+        cuePendingRespawn = false;
+        active[cue] = true;
+    }
+
+    private float speed(int i) {
+        return (float) Math.sqrt(vx[i] * vx[i] + vy[i] * vy[i]);
+    }
+
+    /** @return true jika semua bola aktif sudah berhenti. */
+    public boolean areAllBallsStopped() {
+        for (int i = 0; i < count; i++) {
+            if (active[i] && speed(i) > 0.1f) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Menyalin keadaan saat ini (dikonversi ke double) ke {@code target}.
+     *
+     * @return {@code target}.
+     */
+    public TableState captureTo(TableState target) {
+        target.ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            target.setBall(i, x[i], y[i], vx[i], vy[i], active[i], types[i]);
+        }
+        target.setBallCount(count);
+        target.setPlayerScore(playerScore);
+        target.setCuePendingRespawn(cuePendingRespawn);
+        return target;
+    }
+
+    /**
+     * Menyimulasikan pukulan sampai semua bola berhenti (padanan float dari
+     * {@link ShotSimulator#simulate(TableState, Vector2D)}).
+     *
+     * @param start            Keadaan awal (tidak diubah).
+     * @param shot             Vektor gaya pukulan.
+     * @param tableWidth       Lebar area permainan.
+     * @param tableHeight      Tinggi area permainan.
+     * @param parameters       Parameter fisika meja.
+     * @param maxSimulatedTime Batas waktu simulasi (detik).
+     * @return Hasil pukulan.
+     */
+    public static ShotOutcome simulateShot(TableState start, Vector2D shot, double tableWidth, double tableHeight,
+                                           PhysicsParameters parameters, double maxSimulatedTime) {
+        FloatSimulation simulation = new FloatSimulation(start, tableWidth, tableHeight, parameters);
+        simulation.hit(shot);
+        int frame = 0;
+        int maxFrames = (int) Math.ceil(maxSimulatedTime / ShotSimulator.FRAME_TIME);
+        while (frame < maxFrames) {
+            ShotSimulator.checkCancelled();
+            simulation.advance(ShotSimulator.FRAME_TIME);
+            frame++;
+            if (simulation.areAllBallsStopped() && !simulation.cuePendingRespawn) break;
+        }
+
+        int pocketed = 0;
+        int[] pocketedBalls = new int[simulation.count];
+        for (int i = 0; i < simulation.count; i++) {
+            if (!start.isCue(i) && start.isActive(i) && !simulation.active[i]) pocketedBalls[pocketed++] = i;
+        }
+        TableState finalState = simulation.captureTo(new TableState(simulation.count));
+        return new ShotOutcome(finalState, Arrays.copyOf(pocketedBalls, pocketed), simulation.foulCount > 0,
+                simulation.playerScore - start.getPlayerScore(), frame * ShotSimulator.FRAME_TIME,
+                (int) simulation.totalSubSteps);
+    }
+
+    public int getBallCount() { return count; }
+    public int getPlayerScore() { return playerScore; }
+    public int getFoulCount() { return foulCount; }
+    public long getTotalSubSteps() { return totalSubSteps; }
+    public boolean isCuePendingRespawn() { return cuePendingRespawn; }
+    /** @return Byte keadaan fisika per bola (4 float + flag aktif). */
+    public static int bytesPerBall() { return 4 * Float.BYTES + 1; }
+
+    // --- Laporan akurasi ---
+
+    /**
+     * Laporan akurasi dan kecepatan mode float dibanding engine presisi ganda pada skenario
+     * standar {@link ScenarioGenerator}, ditambah kecocokan hasil pada pukulan acak dari rak.
+     * <pre>
+     * java -cp ... com.billiards2d.FloatSimulation [shots] [seed]
+     * </pre>
+     */
+    public static void main(String[] args) {
+        int shots = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+
+        System.out.printf(Locale.ROOT, "%-22s %6s %7s %9s %9s %9s %10s %10s%n",
+                "scenario", "balls", "frames", "sameState", "meanErr", "maxErr", "double/s", "float/s");
+        List<Scenario> scenarios = ScenarioGenerator.standardScenarios(seed);
+        // Putaran pertama hanya pemanasan JIT (kecepatan putaran kedua yang dilaporkan)
+        for (int pass = 0; pass < 2; pass++) {
+            for (Scenario scenario : scenarios) {
+                if (scenario.isIterativeSolver()) {
+                    if (pass == 1) System.out.printf(Locale.ROOT, "%-22s (skipped: ContactSolver is double-only)%n", scenario.getName());
+                    continue;
+                }
+                String line = compareScenario(scenario);
+                if (pass == 1) System.out.println(line);
+            }
+        }
+
+        // Pukulan acak dari rak: apakah hasil (bola masuk, foul) sama dengan presisi ganda?
+        double w = BilliardApp.GAME_WIDTH;
+        double h = BilliardApp.GAME_HEIGHT;
+        TableState rack = TableState.capture(BilliardApp.createStandardBalls(w, h), 0);
+        ShotSimulator simulator = new ShotSimulator(w, h);
+        java.util.Random random = new java.util.Random(seed);
+        CoarseShotSimulator.Agreement agreement = new CoarseShotSimulator.Agreement();
+        int sameScore = 0;
+        for (int s = 0; s < shots; s++) {
+            double angle = random.nextDouble() * Math.PI * 2;
+            double power = (0.1 + random.nextDouble() * 0.9) * CueStick.MAX_FORCE;
+            Vector2D shot = new Vector2D(Math.cos(angle) * power, Math.sin(angle) * power);
+            ShotOutcome full = simulator.simulate(rack, shot, null);
+            ShotOutcome single = simulateShot(rack, shot, w, h, simulator.getParameters(), simulator.getMaxSimulatedTime());
+            agreement.record(single, full);
+            if (single.getScoreDelta() == full.getScoreDelta()) sameScore++;
+        }
+        System.out.printf(Locale.ROOT, "%nRandom rack shots: %d, same pocketed balls + foul: %.1f%%, same score: %.1f%%%n",
+                shots, agreement.getRate() * 100, 100.0 * sameScore / shots);
+        System.out.printf(Locale.ROOT, "Physics state per ball: float %d bytes vs double %d bytes%n",
+                bytesPerBall(), 4 * Double.BYTES + 1);
+    }
+
+    /** @return Satu baris laporan: kecocokan status bola, galat posisi (pixel), langkah per detik. */
+    private static String compareScenario(Scenario scenario) {
+        // Presisi ganda
+        Simulation reference = scenario.createSimulation();
+        long begin = System.nanoTime();
+        int frames = 0;
+        while (frames < scenario.getMaxFrames()) {
+            reference.advance(ShotSimulator.FRAME_TIME);
+            frames++;
+            if (reference.areAllBallsStopped()) break;
+        }
+        double doubleSteps = reference.getTotalSubSteps() / ((System.nanoTime() - begin) / 1e9);
+
+        // Float, dengan jumlah frame yang sama
+        FloatSimulation single = new FloatSimulation(scenario.getStart(), scenario.getTableWidth(),
+                scenario.getTableHeight(), PhysicsParameters.DEFAULT);
+        if (scenario.getShot().length() > 0) single.hit(scenario.getShot());
+        begin = System.nanoTime();
+        for (int f = 0; f < frames; f++) single.advance(ShotSimulator.FRAME_TIME);
+        double floatSteps = single.getTotalSubSteps() / ((System.nanoTime() - begin) / 1e9);
+
+        TableState expected = TableState.capture(reference.getBalls(), reference.getPhysicsEngine().getPlayerScore());
+        TableState actual = single.captureTo(new TableState(single.getBallCount()));
+        int samePocketed = 0;
+        int compared = 0;
+        double totalError = 0;
+        double maxError = 0;
+        for (int i = 0; i < expected.getBallCount(); i++) {
+            if (expected.isActive(i) == actual.isActive(i)) samePocketed++;
+            if (!expected.isActive(i) || !actual.isActive(i)) continue;
+            double error = Math.hypot(expected.getX(i) - actual.getX(i), expected.getY(i) - actual.getY(i));
+            totalError += error;
+            maxError = Math.max(maxError, error);
+            compared++;
+        }
+        return String.format(Locale.ROOT, "%-22s %6d %7d %8.1f%% %9.3f %9.3f %10.0f %10.0f",
+                scenario.getName(), expected.getBallCount(), frames,
+                100.0 * samePocketed / expected.getBallCount(),
+                compared == 0 ? 0 : totalError / compared, maxError, doubleSteps, floatSteps);
+    }
+}
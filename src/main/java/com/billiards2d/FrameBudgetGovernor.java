@@ -0,0 +1,184 @@
+package com.billiards2d;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Pengatur anggaran waktu frame: jika frame berulang kali melewati anggarannya, pekerjaan
+ * opsional dikurangi satu langkah demi satu langkah sesuai urutan prioritas, dan dikembalikan
+ * lagi (urutan terbalik) setelah frame kembali punya ruang.
+ * <p>
+ * Langkah penurunan kualitas didaftarkan dengan {@link #addStep} dari yang paling murah
+ * dikorbankan (misalnya detail garis prediksi) sampai yang paling mahal (jumlah sub-step fisika).
+ * Setiap frame dilaporkan lewat {@link #recordFrame(long, long)}:
+ * </p>
+ * <ul>
+ *   <li>Frame dianggap melewati anggaran jika waktu kerjanya lebih dari anggaran, atau jarak
+ *       dari frame sebelumnya lebih dari {@link #MISSED_FRAME_RATIO} kali anggaran (vsync
+ *       terlewat karena render atau GC).</li>
+ *   <li>Setelah {@link #SHED_AFTER_FRAMES} frame berturut-turut melewati anggaran, satu langkah
+ *       berikutnya diterapkan.</li>
+ *   <li>Setelah {@link #RESTORE_AFTER_FRAMES} frame berturut-turut dengan waktu kerja di bawah
+ *       {@link #HEADROOM_RATIO} anggaran, langkah terakhir dikembalikan.</li>
+ *   <li>Setelah setiap perubahan, keputusan berikutnya ditunda {@link #COOLDOWN_FRAMES} frame
+ *       agar efeknya terlihat dulu.</li>
+ * </ul>
+ * Setiap perubahan dicetak ke konsol dan dihitung per langkah ({@link #formatReport()}).
+ * Hanya dipakai dari satu thread (Game Loop).
+ */
+public class FrameBudgetGovernor {
+
+    /** Jumlah frame berturut-turut yang melewati anggaran sebelum kualitas diturunkan. */
+    static final int SHED_AFTER_FRAMES = 3;
+    /** Jumlah frame berturut-turut yang longgar sebelum kualitas dinaikkan lagi (2 detik di 60 fps). */
+    static final int RESTORE_AFTER_FRAMES = 120;
+    /** Jeda (frame) setelah setiap perubahan sebelum keputusan berikutnya. */
+    static final int COOLDOWN_FRAMES = 15;
+    /** Waktu kerja di bawah rasio anggaran ini dianggap punya ruang. */
+    static final double HEADROOM_RATIO = 0.5;
+    /** Jarak antar frame di atas rasio anggaran ini berarti frame terlewat. */
+    static final double MISSED_FRAME_RATIO = 1.5;
+
+    /** Satu langkah penurunan kualitas. */
+    private static final class Step {
+        final String name;
+        final Runnable degrade;
+        final Runnable restore;
+        int shedCount;
+
+        Step(String name, Runnable degrade, Runnable restore) {
+            this.name = name;
+            this.degrade = degrade;
+            this.restore = restore;
+        }
+    }
+
+    private final long budgetNanos;
+    private final List<Step> steps = new ArrayList<>();
+    private boolean enabled = true;
+
+    /** Jumlah langkah yang sedang diterapkan (0 = kualitas penuh). */
+    private int level = 0;
+    private int overrunStreak = 0;
+    private int headroomStreak = 0;
+    private int cooldown = 0;
+
+    private long frames = 0;
+    private long overrunFrames = 0;
+    private long degradations = 0;
+    private long restorations = 0;
+    private long lastWorkNanos = 0;
+
+    /**
+     * @param budgetMillis Anggaran waktu per frame (milidetik), misalnya 16.7 untuk 60 fps.
+     */
+    public FrameBudgetGovernor(double budgetMillis) {
+        if (!(budgetMillis > 0)) throw new IllegalArgumentException("Anggaran frame tidak valid: " + budgetMillis);
+        this.budgetNanos = (long) (budgetMillis * 1_000_000);
+    }
+
+    /**
+     * Menambahkan langkah penurunan kualitas di akhir urutan prioritas.
+     *
+     * @param name    Nama langkah (untuk log dan laporan).
+     * @param degrade Menerapkan penurunan kualitas.
+     * @param restore Mengembalikan kualitas seperti sebelum {@code degrade}.
+     */
+    public void addStep(String name, Runnable degrade, Runnable restore) {
+        steps.add(new Step(name, degrade, restore));
+    }
+
+    /**
+     * Mencatat satu frame dan menurunkan/menaikkan kualitas jika perlu.
+     *
+     * @param workNanos     Waktu kerja frame (nanodetik).
+     * @param intervalNanos Jarak dari awal frame sebelumnya (nanodetik, 0 jika tidak diketahui).
+     */
+    public void recordFrame(long workNanos, long intervalNanos) {
+        frames++;
+        lastWorkNanos = workNanos;
+        boolean overrun = workNanos > budgetNanos || intervalNanos > budgetNanos * MISSED_FRAME_RATIO;
+        boolean headroom = workNanos < budgetNanos * HEADROOM_RATIO
+                && intervalNanos <= budgetNanos * MISSED_FRAME_RATIO;
+        if (overrun) overrunFrames++;
+        overrunStreak = overrun ? overrunStreak + 1 : 0;
+        headroomStreak = headroom ? headroomStreak + 1 : 0;
+
+        if (!enabled) return;
+        if (cooldown > 0) {
+            cooldown--;
+            return;
+        }
+        if (overrunStreak >= SHED_AFTER_FRAMES && level < steps.size()) {
+            Step step = steps.get(level++);
+            step.degrade.run();
+            step.shedCount++;
+            degradations++;
+            afterChange();
+            System.out.printf(Locale.ROOT, "Frame budget: shed '%s' (work %.1f ms, interval %.1f ms, budget %.1f ms), level %d/%d%n",
+                    step.name, workNanos / 1e6, intervalNanos / 1e6, budgetNanos / 1e6, level, steps.size());
+        } else if (headroomStreak >= RESTORE_AFTER_FRAMES && level > 0) {
+            Step step = steps.get(--level);
+            step.restore.run();
+            restorations++;
+            afterChange();
+            System.out.printf(Locale.ROOT, "Frame budget: restored '%s' (work %.1f ms), level %d/%d%n",
+                    step.name, workNanos / 1e6, level, steps.size());
+        }
+    }
+
+    private void afterChange() {
+        overrunStreak = 0;
+        headroomStreak = 0;
+        cooldown = COOLDOWN_FRAMES;
+    }
+
+    /** Mengembalikan semua langkah yang sedang diterapkan (kualitas penuh). */
+    public void restoreAll() {
+        while (level > 0) {
+            steps.get(--level).restore.run();
+            restorations++;
+        }
+        afterChange();
+    }
+
+    /** Mengaktifkan/mematikan governor (dimatikan = kualitas penuh dikembalikan). */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (!enabled) restoreAll();
+    }
+
+    public boolean isEnabled() { return enabled; }
+    public int getLevel() { return level; }
+    public int getStepCount() { return steps.size(); }
+    public long getDegradations() { return degradations; }
+    public long getRestorations() { return restorations; }
+    public long getFrames() { return frames; }
+    public long getOverrunFrames() { return overrunFrames; }
+    public double getBudgetMillis() { return budgetNanos / 1e6; }
+
+    /** @return Nama langkah terakhir yang sedang diterapkan, atau "full" jika kualitas penuh. */
+    public String getCurrentStepName() {
+        return level == 0 ? "full" : steps.get(level - 1).name;
+    }
+
+    /** @return Satu baris status untuk HUD. */
+    public String formatStatus() {
+        return String.format(Locale.ROOT, "Quality: %s (%d/%d), %d shed, work %.1f/%.1f ms",
+                getCurrentStepName(), level, steps.size(), degradations, lastWorkNanos / 1e6, budgetNanos / 1e6);
+    }
+
+    /** @return Laporan lengkap: frame yang melewati anggaran dan jumlah penurunan per langkah. */
+    public String formatReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "  %d frames, %d over the %.1f ms budget, %d degradations, %d restorations, final level %d/%d%n",
+                frames, overrunFrames, budgetNanos / 1e6, degradations, restorations, level, steps.size()));
+        for (int i = 0; i < steps.size(); i++) {
+            Step step = steps.get(i);
+            sb.append(String.format(Locale.ROOT, "  %d. %-20s shed %d time(s)%s%n",
+                    i + 1, step.name, step.shedCount, i < level ? " (active)" : ""));
+        }
+        return sb.toString();
+    }
+}
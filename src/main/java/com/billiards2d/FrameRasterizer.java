@@ -0,0 +1,162 @@
+package com.billiards2d;
+
+import javafx.scene.paint.Color;
+
+import java.awt.BasicStroke;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Menggambar keadaan meja ke {@link BufferedImage} menggunakan Java2D, tanpa JavaFX Toolkit.
+ * <p>
+ * Canvas JavaFX hanya bisa digambar di JavaFX Application Thread dan membutuhkan display,
+ * sehingga renderer offline memakai Java2D (bisa berjalan dengan {@code java.awt.headless=true}
+ * dan di banyak thread sekaligus). Ukuran, posisi, dan warna diambil dari {@link Table},
+ * {@link Ball}, dan {@link CueStick} agar hasilnya sama dengan tampilan permainan.
+ * </p>
+ * Background meja digambar sekali lalu disalin ke setiap frame. Kelas ini thread-safe.
+ */
+public class FrameRasterizer {
+
+    /** Radius bola standar (sama dengan CueBall dan ObjectBall). */
+    private static final double BALL_RADIUS = 10.0;
+
+    private final Table table;
+    private final int imageWidth;
+    private final int imageHeight;
+    private final BufferedImage background;
+
+    /** Cache konversi warna JavaFX ke AWT berdasarkan tipe bola. */
+    private final Map<String, java.awt.Color> ballColors = new ConcurrentHashMap<>();
+
+    /**
+     * @param table Meja yang digambar (ukuran gambar = area permainan + dinding).
+     */
+    public FrameRasterizer(Table table) {
+        this.table = table;
+        this.imageWidth = (int) Math.ceil(table.getWidth() + table.getWallThickness() * 2);
+        this.imageHeight = (int) Math.ceil(table.getHeight() + table.getWallThickness() * 2);
+        this.background = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = background.createGraphics();
+        setupQuality(g);
+        drawTable(g);
+        g.dispose();
+    }
+
+    /**
+     * Menggambar satu frame.
+     *
+     * @param state      Keadaan meja.
+     * @param target     Gambar tujuan (boleh null untuk membuat baru, atau dipakai ulang).
+     * @param stickAngle Sudut stik (radian, arah dari bola ke pangkal stik), atau NaN jika stik tidak digambar.
+     * @param stickPull  Jarak tarik stik (pixel).
+     * @return Gambar hasil render.
+     */
+    public BufferedImage render(TableState state, BufferedImage target, double stickAngle, double stickPull) {
+        BufferedImage image = target != null ? target
+                : new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.drawImage(background, 0, 0, null);
+        setupQuality(g);
+        g.translate(table.getWallThickness(), table.getWallThickness());
+
+        Ellipse2D.Double oval = new Ellipse2D.Double();
+        double cueX = 0, cueY = 0, cueRadius = 0;
+        for (int i = 0; i < state.getBallCount(); i++) {
+            if (!state.isActive(i)) continue; // Sama seperti Ball.draw: bola di lubang tidak digambar
+            double radius = BALL_RADIUS;
+            g.setColor(colorOf(state.getType(i)));
+            oval.setFrame(state.getX(i) - radius, state.getY(i) - radius, radius * 2, radius * 2);
+            g.fill(oval);
+            if (state.isCue(i)) {
+                cueX = state.getX(i);
+                cueY = state.getY(i);
+                cueRadius = radius;
+            }
+        }
+
+        if (!Double.isNaN(stickAngle) && cueRadius > 0) {
+            drawStick(g, cueX, cueY, cueRadius, stickAngle, stickPull);
+        }
+        g.dispose();
+        return image;
+    }
+
+    /** Menggambar background meja (lantai, bingkai, karpet, diamond, garis break, lubang). */
+    private void drawTable(Graphics2D g) {
+        double wall = table.getWallThickness();
+        double width = table.getWidth();
+        double height = table.getHeight();
+
+        g.setColor(toAwt(Table.FLOOR_COLOR));
+        g.fillRect(0, 0, imageWidth, imageHeight);
+
+        g.translate(wall, wall);
+        g.setColor(toAwt(Table.FRAME_COLOR));
+        g.fill(new Rectangle2D.Double(-wall, -wall, width + wall * 2, height + wall * 2));
+        g.setColor(toAwt(Table.CLOTH_COLOR));
+        g.fill(new Rectangle2D.Double(0, 0, width, height));
+
+        // Diamond sights (3 titik di sisi kiri dan kanan)
+        double dSize = Table.DIAMOND_SIZE;
+        g.setColor(toAwt(Table.DIAMOND_COLOR));
+        for (int i = 1; i < 4; i++) {
+            g.fill(new Ellipse2D.Double(-wall / 2, (height / 4) * i, dSize, dSize));
+            g.fill(new Ellipse2D.Double(width + wall / 2 - dSize, (height / 4) * i, dSize, dSize));
+        }
+
+        // Garis break (Head String) dan Head Spot
+        Vector2D headSpot = table.getHeadSpot();
+        g.setColor(toAwt(Table.BREAK_LINE_COLOR));
+        g.setStroke(new BasicStroke(2));
+        g.draw(new Line2D.Double(headSpot.getX(), 0, headSpot.getX(), height));
+        double spot = Table.HEAD_SPOT_SIZE;
+        g.setColor(java.awt.Color.WHITE);
+        g.fill(new Ellipse2D.Double(headSpot.getX() - spot / 2, headSpot.getY() - spot / 2, spot, spot));
+
+        // Lubang
+        double pr = table.getPocketRadius();
+        g.setColor(java.awt.Color.BLACK);
+        for (Vector2D p : table.getPockets()) {
+            g.fill(new Ellipse2D.Double(p.getX() - pr, p.getY() - pr, pr * 2, pr * 2));
+        }
+        g.translate(-wall, -wall);
+    }
+
+    /** Menggambar stik dengan bentuk yang sama seperti {@code CueStick.drawStickVisual}. */
+    private void drawStick(Graphics2D g, double cueX, double cueY, double cueRadius, double angle, double pull) {
+        AffineTransform saved = g.getTransform();
+        g.translate(cueX, cueY);
+        g.rotate(angle);
+        double tipOffset = cueRadius + pull;
+        double w = CueStick.STICK_WIDTH;
+        g.setColor(toAwt(Color.SADDLEBROWN));
+        g.fill(new Rectangle2D.Double(tipOffset, -w / 2, CueStick.STICK_LENGTH, w));
+        g.setColor(toAwt(Color.CYAN));
+        g.fill(new Rectangle2D.Double(tipOffset, -w / 2, CueStick.TIP_LENGTH, w));
+        g.setTransform(saved);
+    }
+
+    private java.awt.Color colorOf(String type) {
+        if (type == null) return java.awt.Color.WHITE; // Bola putih
+        return ballColors.computeIfAbsent(type, t -> toAwt(Color.valueOf(t)));
+    }
+
+    private static java.awt.Color toAwt(Color c) {
+        return new java.awt.Color((float) c.getRed(), (float) c.getGreen(), (float) c.getBlue(), (float) c.getOpacity());
+    }
+
+    private static void setupQuality(Graphics2D g) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+    }
+
+    public int getImageWidth() { return imageWidth; }
+    public int getImageHeight() { return imageHeight; }
+}
@@ -0,0 +1,221 @@
+package com.billiards2d;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Renderer offline yang menyimpan pukulan sebagai rangkaian gambar PNG, tanpa display.
+ * <p>
+ * Simulasi berjalan secepat mungkin (bukan waktu nyata) dan setiap frame langsung dikirim
+ * ke thread pool untuk di-rasterisasi ({@link FrameRasterizer}) dan di-encode ke PNG secara
+ * paralel. Jumlah frame yang sedang diproses dibatasi dengan {@link Semaphore}, sehingga
+ * pemakaian memori tetap terbatas berapapun panjang klipnya: jika pool tertinggal,
+ * simulasi menunggu.
+ * </p>
+ * Cara pakai dari command line:
+ * <pre>
+ * java -Djava.awt.headless=true -cp ... com.billiards2d.HeadlessRenderer &lt;outDir&gt; [angleDeg] [power 0..1]
+ * </pre>
+ */
+public class HeadlessRenderer implements AutoCloseable {
+
+    /** Jumlah frame awal (sebelum pukulan) yang menampilkan stik ditarik mundur. */
+    private static final int LEAD_IN_FRAMES = 30;
+
+    /**
+     * Kualitas kompresi PNG untuk ImageWriter (semakin tinggi semakin cepat, file sedikit lebih besar).
+     * Gambar meja didominasi warna datar, jadi kompresi ringan sudah cukup kecil.
+     */
+    private static final float PNG_COMPRESSION_QUALITY = 0.75f;
+
+    private final Table table;
+    private final FrameRasterizer rasterizer;
+    private final ExecutorService pool;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+
+    /** Gambar yang dipakai ulang oleh setiap thread worker (tidak dibuat baru per frame). */
+    private final ThreadLocal<BufferedImage> workerImage;
+
+    /** Error pertama dari worker, dilaporkan ke pemanggil setelah semua frame selesai. */
+    private final AtomicReference<IOException> failure = new AtomicReference<>();
+
+    /**
+     * Konstruktor dengan jumlah thread = jumlah core dan batas 4 frame per thread.
+     */
+    public HeadlessRenderer(Table table) {
+        this(table, Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * @param table       Meja yang digambar.
+     * @param threads     Jumlah thread rasterisasi/encoding.
+     * @param maxInFlight Jumlah maksimal frame yang menunggu atau sedang diproses.
+     */
+    public HeadlessRenderer(Table table, int threads, int maxInFlight) {
+        this.table = table;
+        this.rasterizer = new FrameRasterizer(table);
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "frame-encoder");
+            t.setDaemon(true);
+            return t;
+        });
+        this.workerImage = ThreadLocal.withInitial(() -> new BufferedImage(
+                rasterizer.getImageWidth(), rasterizer.getImageHeight(), BufferedImage.TYPE_INT_RGB));
+    }
+
+    /**
+     * Menyimulasikan pukulan lalu menyimpan setiap frame sebagai PNG. Fisikanya sama dengan
+     * game ({@link ShotSimulator#fromSystemProperties}), jadi klip cocok dengan yang terlihat
+     * di layar.
+     *
+     * @param start  Keadaan awal meja.
+     * @param shot   Vektor gaya pukulan.
+     * @param outDir Folder tujuan (dibuat jika belum ada).
+     * @return Jumlah frame yang ditulis.
+     */
+    public int renderShot(TableState start, Vector2D shot, Path outDir) throws IOException {
+        Files.createDirectories(outDir);
+        ShotSimulator simulator = ShotSimulator.fromSystemProperties(table.getWidth(), table.getHeight());
+
+        // 1. Lead-in: stik ditarik mundur perlahan sampai jarak tarik pukulan
+        double stickAngle = Math.atan2(shot.getY(), shot.getX()) + Math.PI;
+        double targetPull = CueStick.pullDistanceForForce(shot.length());
+        for (int i = 0; i < LEAD_IN_FRAMES; i++) {
+            double t = (double) i / (LEAD_IN_FRAMES - 1);
+            double pull = CueStick.REST_DISTANCE + (targetPull - CueStick.REST_DISTANCE) * t;
+            submit(start.copy(), i, outDir, stickAngle, pull);
+        }
+
+        // 2. Pukulan: setiap frame simulasi langsung dikirim ke pool
+        int[] frames = {LEAD_IN_FRAMES};
+        simulator.simulate(start, shot, (frame, balls) -> {
+            submit(TableState.capture(balls, 0), frames[0]++, outDir, Double.NaN, 0);
+        });
+
+        awaitCompletion();
+        return frames[0];
+    }
+
+    /**
+     * Menyimpan rangkaian keadaan meja yang sudah ada (misalnya hasil rekaman) sebagai PNG.
+     *
+     * @param frames Keadaan meja per frame, berurutan.
+     * @param outDir Folder tujuan.
+     * @return Jumlah frame yang ditulis.
+     */
+    public int renderFrames(Iterable<TableState> frames, Path outDir) throws IOException {
+        Files.createDirectories(outDir);
+        int index = 0;
+        for (TableState state : frames) {
+            submit(state, index++, outDir, Double.NaN, 0);
+        }
+        awaitCompletion();
+        return index;
+    }
+
+    /** Mengirim satu frame ke pool; menunggu jika sudah terlalu banyak frame yang antre. */
+    private void submit(TableState state, int index, Path outDir, double stickAngle, double stickPull) {
+        inFlight.acquireUninterruptibly();
+        pool.execute(() -> {
+            try {
+                SimulationEvents.RenderPhase rasterEvent = new SimulationEvents.RenderPhase();
+                rasterEvent.begin();
+                BufferedImage image = rasterizer.render(state, workerImage.get(), stickAngle, stickPull);
+                rasterEvent.end();
+                if (rasterEvent.shouldCommit()) {
+                    rasterEvent.phase = "rasterize";
+                    rasterEvent.frameNumber = index;
+                    rasterEvent.commit();
+                }
+
+                SimulationEvents.EncodedFrame encodeEvent = new SimulationEvents.EncodedFrame();
+                encodeEvent.begin();
+                Path file = outDir.resolve(String.format("frame_%05d.png", index));
+                writePng(image, file);
+                encodeEvent.end();
+                if (encodeEvent.shouldCommit()) {
+                    encodeEvent.index = index;
+                    encodeEvent.bytes = Files.size(file);
+                    encodeEvent.commit();
+                }
+            } catch (IOException e) {
+                failure.compareAndSet(null, e);
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, new IOException("Gagal merender frame " + index, e));
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    /** Menulis PNG dengan kompresi ringan (encoder default memakai deflate level maksimum yang lambat). */
+    private static void writePng(BufferedImage image, Path file) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(file), 1 << 16);
+             ImageOutputStream out = new MemoryCacheImageOutputStream(stream)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(PNG_COMPRESSION_QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /** Menunggu semua frame selesai ditulis, lalu melaporkan error pertama jika ada. */
+    private void awaitCompletion() throws IOException {
+        inFlight.acquireUninterruptibly(maxInFlight);
+        inFlight.release(maxInFlight);
+        IOException error = failure.getAndSet(null);
+        if (error != null) throw error;
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    public static void main(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        if (args.length < 1) {
+            System.err.println("Usage: HeadlessRenderer <outDir> [angleDeg] [power 0..1]");
+            System.exit(1);
+        }
+        Path outDir = Path.of(args[0]);
+        double angle = Math.toRadians(args.length > 1 ? Double.parseDouble(args[1]) : 0);
+        double power = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+
+        Table table = new Table(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT);
+        TableState start = TableState.capture(
+                BilliardApp.createStandardBalls(table.getWidth(), table.getHeight()), 0);
+        Vector2D shot = new Vector2D(Math.cos(angle), Math.sin(angle)).multiply(power * CueStick.MAX_FORCE);
+
+        long begin = System.nanoTime();
+        int frames;
+        try (HeadlessRenderer renderer = new HeadlessRenderer(table)) {
+            frames = renderer.renderShot(start, shot, outDir);
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        double clipSeconds = frames * ShotSimulator.FRAME_TIME;
+        System.out.printf("Rendered %d frames (%.1f s clip) in %.2f s (%.1fx real time) to %s%n",
+                frames, clipSeconds, seconds, clipSeconds / seconds, outDir);
+    }
+}
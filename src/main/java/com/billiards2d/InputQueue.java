@@ -0,0 +1,156 @@
+package com.billiards2d;
+
+import java.util.Arrays;
+
+/**
+ * Antrean input mouse yang dikumpulkan dari event JavaFX lalu diteruskan ke {@link CueStick}
+ * sekali per frame.
+ * <p>
+ * Event gerak (moved/dragged) yang berurutan digabung (coalesced) menjadi satu posisi terakhir,
+ * sedangkan event tekan/lepas selalu dipertahankan sesuai urutannya. Data disimpan di array
+ * primitif berukuran tetap sehingga tidak ada objek baru per event mouse. Jika antrean penuh,
+ * hanya event {@link #MOVED} yang dibuang (yang tertua lebih dulu); event tekan, drag, dan lepas
+ * tidak pernah hilang (array diperbesar jika tidak ada event MOVED yang bisa dibuang).
+ * </p>
+ * Kelas ini juga mengukur latensi input-ke-layar (input-to-photon): waktu dari event input
+ * pertama dalam sebuah frame sampai pulse berikutnya, yaitu saat frame yang memuat input
+ * tersebut sudah dikirim ke layar. Semua method dipanggil dari JavaFX Application Thread.
+ */
+public class InputQueue {
+
+    public static final int MOVED = 0;
+    public static final int PRESSED = 1;
+    public static final int DRAGGED = 2;
+    public static final int RELEASED = 3;
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] types = new int[INITIAL_CAPACITY];
+    private double[] xs = new double[INITIAL_CAPACITY];
+    private double[] ys = new double[INITIAL_CAPACITY];
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private int size = 0;
+
+    // --- Pengukuran Latensi ---
+    /** Waktu event input tertua yang ikut dirender di frame terakhir (0 jika tidak ada). */
+    private long renderedInputNanos = 0;
+    private long lastLatencyNanos = 0;
+    private double averageLatencyNanos = 0;
+    private long maxLatencyNanos = 0;
+
+    /** Jumlah event mouse yang diterima dan yang benar-benar diteruskan (setelah digabung). */
+    private long receivedEvents = 0;
+    private long dispatchedEvents = 0;
+
+    /**
+     * Menambahkan event mouse ke antrean.
+     *
+     * @param type Jenis event ({@link #MOVED}, {@link #PRESSED}, {@link #DRAGGED}, {@link #RELEASED}).
+     * @param x    Koordinat X relatif terhadap area permainan.
+     * @param y    Koordinat Y relatif terhadap area permainan.
+     */
+    public void push(int type, double x, double y) {
+        long now = System.nanoTime();
+        receivedEvents++;
+
+        // Gabungkan dengan event terakhir jika keduanya event gerak dengan jenis yang sama.
+        // Timestamp event pertama dipertahankan agar latensi diukur dari input paling awal.
+        boolean motion = type == MOVED || type == DRAGGED;
+        if (motion && size > 0 && types[size - 1] == type) {
+            xs[size - 1] = x;
+            ys[size - 1] = y;
+            return;
+        }
+
+        if (size == types.length) {
+            // Antrean penuh (frame macet sangat lama): buang event MOVED tertua. Posisi mouse
+            // tanpa tombol hanya menentukan arah bidik, yang ditimpa oleh event MOVED berikutnya.
+            if (!dropOldestMoved()) {
+                if (type == MOVED) return;
+                grow(); // Tekan, drag, dan lepas menentukan pukulan: tidak boleh dibuang
+            }
+        }
+        types[size] = type;
+        xs[size] = x;
+        ys[size] = y;
+        timestamps[size] = now;
+        size++;
+    }
+
+    /** Menghapus event MOVED tertua dari antrean. @return false jika tidak ada event MOVED. */
+    private boolean dropOldestMoved() {
+        for (int i = 0; i < size; i++) {
+            if (types[i] != MOVED) continue;
+            int tail = size - i - 1;
+            System.arraycopy(types, i + 1, types, i, tail);
+            System.arraycopy(xs, i + 1, xs, i, tail);
+            System.arraycopy(ys, i + 1, ys, i, tail);
+            System.arraycopy(timestamps, i + 1, timestamps, i, tail);
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    private void grow() {
+        int capacity = types.length * 2;
+        types = Arrays.copyOf(types, capacity);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+    }
+
+    /**
+     * Meneruskan semua event yang terkumpul ke stik sesuai urutan, lalu mengosongkan antrean.
+     * Dipanggil sekali di awal setiap frame.
+     *
+     * @param cueStick Stik yang menerima input.
+     */
+    public void dispatchTo(CueStick cueStick) {
+        if (size == 0) return;
+
+        if (renderedInputNanos == 0) renderedInputNanos = timestamps[0];
+        for (int i = 0; i < size; i++) {
+            switch (types[i]) {
+                case MOVED -> cueStick.handleMouseMoved(xs[i], ys[i]);
+                case PRESSED -> cueStick.handleMousePressed(xs[i], ys[i]);
+                case DRAGGED -> cueStick.handleMouseDragged(xs[i], ys[i]);
+                case RELEASED -> cueStick.handleMouseReleased(xs[i], ys[i], timestamps[i]);
+                default -> { }
+            }
+        }
+        dispatchedEvents += size;
+        size = 0;
+    }
+
+    /**
+     * Dipanggil di awal setiap pulse AnimationTimer. Frame sebelumnya (yang memuat input)
+     * sudah dikirim ke layar pada titik ini, sehingga latensinya bisa dihitung.
+     *
+     * @param pulseNanos Waktu pulse saat ini ({@link System#nanoTime()}).
+     */
+    public void onPulse(long pulseNanos) {
+        if (renderedInputNanos == 0) return;
+
+        lastLatencyNanos = pulseNanos - renderedInputNanos;
+        maxLatencyNanos = Math.max(maxLatencyNanos, lastLatencyNanos);
+        // Exponential moving average agar angka di HUD tidak melompat-lompat
+        averageLatencyNanos = averageLatencyNanos == 0
+                ? lastLatencyNanos
+                : averageLatencyNanos * 0.9 + lastLatencyNanos * 0.1;
+        renderedInputNanos = 0;
+    }
+
+    /** @return true jika masih ada event yang belum diteruskan. */
+    public boolean hasPending() {
+        return size > 0;
+    }
+
+    // --- Getter Statistik ---
+
+    public double getLastLatencyMillis() { return lastLatencyNanos / 1_000_000.0; }
+    public double getAverageLatencyMillis() { return averageLatencyNanos / 1_000_000.0; }
+    public double getMaxLatencyMillis() { return maxLatencyNanos / 1_000_000.0; }
+    public long getReceivedEvents() { return receivedEvents; }
+    public long getDispatchedEvents() { return dispatchedEvents; }
+}
@@ -0,0 +1,256 @@
+package com.billiards2d;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parser dan penulis JSON minimal untuk {@link ShotEvaluationService} (proyek ini tidak memakai
+ * library JSON).
+ * <p>
+ * Hasil parse: objek menjadi {@link Map} (urutan kunci dipertahankan), array menjadi
+ * {@link List}, angka menjadi {@link Double}, string, {@link Boolean}, atau null.
+ * Kesalahan sintaks dilaporkan sebagai {@link IllegalArgumentException} beserta posisinya.
+ * </p>
+ */
+final class Json {
+
+    /** Batas kedalaman objek/array bertingkat (melindungi dari stack overflow). */
+    private static final int MAX_DEPTH = 64;
+
+    private final String text;
+    private int pos;
+
+    private Json(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Mem-parse satu nilai JSON (seluruh teks harus berisi tepat satu nilai).
+     *
+     * @throws IllegalArgumentException Jika teks bukan JSON yang valid.
+     */
+    static Object parse(String text) {
+        Json parser = new Json(text);
+        parser.skipWhitespace();
+        Object value = parser.readValue(0);
+        parser.skipWhitespace();
+        if (parser.pos != text.length()) throw parser.error("Data berlebih setelah nilai JSON");
+        return value;
+    }
+
+    private Object readValue(int depth) {
+        if (depth > MAX_DEPTH) throw error("JSON terlalu dalam");
+        if (pos >= text.length()) throw error("JSON terpotong");
+        char c = text.charAt(pos);
+        switch (c) {
+            case '{': return readObject(depth);
+            case '[': return readArray(depth);
+            case '"': return readString();
+            case 't': return readLiteral("true", Boolean.TRUE);
+            case 'f': return readLiteral("false", Boolean.FALSE);
+            case 'n': return readLiteral("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) return readNumber();
+                throw error("Karakter tidak terduga '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> readObject(int depth) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        pos++; // '{'
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return map;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') throw error("Kunci objek harus berupa string");
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            map.put(key, readValue(depth + 1));
+            skipWhitespace();
+            char c = next();
+            if (c == '}') return map;
+            if (c != ',') throw error("Diharapkan ',' atau '}'");
+        }
+    }
+
+    private List<Object> readArray(int depth) {
+        List<Object> list = new ArrayList<>();
+        pos++; // '['
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            return list;
+        }
+        while (true) {
+            skipWhitespace();
+            list.add(readValue(depth + 1));
+            skipWhitespace();
+            char c = next();
+            if (c == ']') return list;
+            if (c != ',') throw error("Diharapkan ',' atau ']'");
+        }
+    }
+
+    private String readString() {
+        pos++; // '"'
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            char c = next();
+            if (c == '"') return sb.toString();
+            if (c < 0x20) throw error("Karakter kontrol di dalam string");
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            char escape = next();
+            switch (escape) {
+                case '"': sb.append('"'); break;
+                case '\\': sb.append('\\'); break;
+                case '/': sb.append('/'); break;
+                case 'b': sb.append('\b'); break;
+                case 'f': sb.append('\f'); break;
+                case 'n': sb.append('\n'); break;
+                case 'r': sb.append('\r'); break;
+                case 't': sb.append('\t'); break;
+                case 'u':
+                    if (pos + 4 > text.length()) throw error("Escape \\u terpotong");
+                    try {
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Escape \\u tidak valid");
+                    }
+                    pos += 4;
+                    break;
+                default: throw error("Escape tidak valid '\\" + escape + "'");
+            }
+        }
+    }
+
+    private Double readNumber() {
+        int start = pos;
+        if (peek() == '-') pos++;
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+                pos++;
+            } else {
+                break;
+            }
+        }
+        try {
+            return Double.valueOf(text.substring(start, pos));
+        } catch (NumberFormatException e) {
+            pos = start;
+            throw error("Angka tidak valid");
+        }
+    }
+
+    private Object readLiteral(String literal, Object value) {
+        if (!text.startsWith(literal, pos)) throw error("Nilai tidak dikenal");
+        pos += literal.length();
+        return value;
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length()) {
+            char c = text.charAt(pos);
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') return;
+            pos++;
+        }
+    }
+
+    private char peek() {
+        if (pos >= text.length()) throw error("JSON terpotong");
+        return text.charAt(pos);
+    }
+
+    private char next() {
+        char c = peek();
+        pos++;
+        return c;
+    }
+
+    private void expect(char c) {
+        if (next() != c) throw error("Diharapkan '" + c + "'");
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " (posisi " + pos + ")");
+    }
+
+    // --- Penulisan ---
+
+    /** Menulis string sebagai literal JSON (dengan tanda kutip dan escape). */
+    static StringBuilder appendString(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"');
+    }
+
+    /** Menulis angka (NaN/tak hingga tidak valid di JSON, ditulis sebagai null). */
+    static StringBuilder appendNumber(StringBuilder sb, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return sb.append("null");
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) return sb.append((long) value);
+        return sb.append(value);
+    }
+
+    // --- Helper membaca hasil parse ---
+
+    /** @return Objek JSON, atau exception jika bukan objek. */
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> asObject(Object value, String name) {
+        if (!(value instanceof Map)) throw new IllegalArgumentException("'" + name + "' harus berupa objek");
+        return (Map<String, Object>) value;
+    }
+
+    /** @return Array JSON, atau exception jika bukan array. */
+    @SuppressWarnings("unchecked")
+    static List<Object> asArray(Object value, String name) {
+        if (!(value instanceof List)) throw new IllegalArgumentException("'" + name + "' harus berupa array");
+        return (List<Object>) value;
+    }
+
+    /** @return Angka berhingga, atau exception jika bukan angka. */
+    static double asNumber(Object value, String name) {
+        if (!(value instanceof Double) || !Double.isFinite((Double) value)) {
+            throw new IllegalArgumentException("'" + name + "' harus berupa angka");
+        }
+        return (Double) value;
+    }
+
+    /** @return Nilai angka kunci, atau {@code defaultValue} jika kunci tidak ada. */
+    static double getNumber(Map<String, Object> object, String key, double defaultValue) {
+        Object value = object.get(key);
+        return value == null ? defaultValue : asNumber(value, key);
+    }
+
+    /** @return Nilai boolean kunci, atau {@code defaultValue} jika kunci tidak ada. */
+    static boolean getBoolean(Map<String, Object> object, String key, boolean defaultValue) {
+        Object value = object.get(key);
+        if (value == null) return defaultValue;
+        if (!(value instanceof Boolean)) throw new IllegalArgumentException("'" + key + "' harus berupa boolean");
+        return (Boolean) value;
+    }
+}
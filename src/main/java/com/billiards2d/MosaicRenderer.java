@@ -0,0 +1,250 @@
+package com.billiards2d;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Menggambar banyak meja sekaligus dalam bentuk grid (mosaik) di satu Canvas JavaFX.
+ * <p>
+ * Dipakai untuk layar penonton ({@link SpectatorWall}) yang menampilkan puluhan meja.
+ * Agar tetap 60 fps, semua meja berbagi cache yang dibuat sekali per ukuran tile:
+ * <ul>
+ *   <li>Background meja di-render sekali ke gambar seukuran tile, lalu hanya disalin per meja.</li>
+ *   <li>Setiap warna bola di-render sekali menjadi sprite, sehingga bola digambar dengan
+ *       {@code drawImage} (bukan path oval baru per bola).</li>
+ * </ul>
+ * Tingkat detail (level of detail) dipilih dari ukuran bola di layar:
+ * {@link #DETAIL_FULL} menggambar stik dan garis bidik, {@link #DETAIL_SPRITES} hanya bola,
+ * dan {@link #DETAIL_DOTS} menggambar bola sebagai kotak kecil satu warna.
+ * </p>
+ * Hanya boleh dipakai dari JavaFX Application Thread (membuat snapshot Canvas).
+ */
+public class MosaicRenderer {
+
+    public static final int DETAIL_DOTS = 0;
+    public static final int DETAIL_SPRITES = 1;
+    public static final int DETAIL_FULL = 2;
+
+    /** Radius bola standar (sama dengan CueBall dan ObjectBall). */
+    private static final double BALL_RADIUS = 10.0;
+    /** Radius bola di layar (pixel) minimal untuk menggambar stik dan garis bidik. */
+    private static final double FULL_DETAIL_RADIUS = 4.0;
+    /** Radius bola di layar (pixel) minimal untuk memakai sprite bulat. */
+    private static final double SPRITE_RADIUS = 1.5;
+    /** Jarak antar tile (pixel). */
+    private static final double GAP = 4.0;
+    /** Panjang garis bidik di depan bola putih (koordinat meja). */
+    private static final double AIM_LINE_LENGTH = 150.0;
+
+    private final Table table;
+    private final double tableWidth;
+    private final double tableHeight;
+
+    // --- Layout (dihitung ulang oleh layout()) ---
+    private int tableCount = -1;
+    private double canvasWidth;
+    private double canvasHeight;
+    private int columns;
+    private int rows;
+    private double scale;
+    private double tileWidth;
+    private double tileHeight;
+    private int detailLevel;
+
+    // --- Cache yang dipakai bersama oleh semua tile ---
+    private Image background;
+    private final Map<String, Image> sprites = new HashMap<>();
+    private final Map<String, Color> colors = new HashMap<>();
+    private Image cueSprite;
+    private double spriteSize;
+
+    /**
+     * @param table Meja yang digambar (semua meja di mosaik berukuran sama).
+     */
+    public MosaicRenderer(Table table) {
+        this.table = table;
+        this.tableWidth = table.getWidth() + table.getWallThickness() * 2;
+        this.tableHeight = table.getHeight() + table.getWallThickness() * 2;
+    }
+
+    /**
+     * Menghitung grid untuk sejumlah meja di canvas berukuran tertentu.
+     * Jumlah kolom dipilih agar meja sebesar mungkin. Cache background dan sprite hanya
+     * dibuat ulang jika ukuran tile berubah.
+     *
+     * @param tableCount   Jumlah meja.
+     * @param canvasWidth  Lebar canvas (pixel).
+     * @param canvasHeight Tinggi canvas (pixel).
+     */
+    public void layout(int tableCount, double canvasWidth, double canvasHeight) {
+        if (tableCount == this.tableCount && canvasWidth == this.canvasWidth
+                && canvasHeight == this.canvasHeight) return;
+        this.tableCount = tableCount;
+        this.canvasWidth = canvasWidth;
+        this.canvasHeight = canvasHeight;
+
+        int count = Math.max(1, tableCount);
+        double bestScale = 0;
+        for (int c = 1; c <= count; c++) {
+            int r = (count + c - 1) / c;
+            double cellW = (canvasWidth - GAP * (c + 1)) / c;
+            double cellH = (canvasHeight - GAP * (r + 1)) / r;
+            double s = Math.min(cellW / tableWidth, cellH / tableHeight);
+            if (s > bestScale) {
+                bestScale = s;
+                columns = c;
+                rows = r;
+            }
+        }
+
+        double newScale = Math.max(bestScale, 0.01);
+        boolean rebuild = newScale != scale || background == null;
+        scale = newScale;
+        tileWidth = Math.floor(tableWidth * scale);
+        tileHeight = Math.floor(tableHeight * scale);
+
+        double ballRadius = BALL_RADIUS * scale;
+        if (ballRadius >= FULL_DETAIL_RADIUS) detailLevel = DETAIL_FULL;
+        else if (ballRadius >= SPRITE_RADIUS) detailLevel = DETAIL_SPRITES;
+        else detailLevel = DETAIL_DOTS;
+
+        if (rebuild) {
+            background = renderBackground();
+            sprites.clear();
+            spriteSize = Math.max(1.0, Math.ceil(ballRadius * 2));
+            cueSprite = detailLevel == DETAIL_DOTS ? null : renderSprite(Color.WHITE);
+        }
+    }
+
+    /**
+     * Menggambar semua meja.
+     *
+     * @param gc         GraphicsContext canvas tujuan (ukuran sesuai {@link #layout}).
+     * @param states     Keadaan setiap meja (elemen null = tile kosong).
+     * @param aimAngles  Sudut stik per meja (radian, arah dari bola ke pangkal stik), NaN jika
+     *                   stik tidak digambar. Boleh null. Hanya dipakai pada {@link #DETAIL_FULL}.
+     * @param frameNumber Nomor frame (untuk event JFR).
+     */
+    public void render(GraphicsContext gc, TableState[] states, double[] aimAngles, long frameNumber) {
+        SimulationEvents.RenderPhase event = new SimulationEvents.RenderPhase();
+        event.begin();
+
+        gc.clearRect(0, 0, canvasWidth, canvasHeight);
+        int count = Math.min(states.length, tableCount);
+        double offsetX = (canvasWidth - columns * tileWidth - GAP * (columns - 1)) / 2;
+        double offsetY = (canvasHeight - rows * tileHeight - GAP * (rows - 1)) / 2;
+
+        for (int t = 0; t < count; t++) {
+            TableState state = states[t];
+            if (state == null) continue;
+            double tileX = offsetX + (t % columns) * (tileWidth + GAP);
+            double tileY = offsetY + (t / columns) * (tileHeight + GAP);
+            gc.drawImage(background, tileX, tileY);
+
+            double aim = aimAngles != null && t < aimAngles.length ? aimAngles[t] : Double.NaN;
+            drawTile(gc, state, tileX, tileY, aim);
+        }
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.phase = "mosaic";
+            event.frameNumber = frameNumber;
+            event.commit();
+        }
+    }
+
+    /** Menggambar bola (dan stik jika detail penuh) di satu tile. */
+    private void drawTile(GraphicsContext gc, TableState state, double tileX, double tileY, double aim) {
+        // Titik (0,0) area permainan di tile ini
+        double originX = tileX + table.getWallThickness() * scale;
+        double originY = tileY + table.getWallThickness() * scale;
+        double half = spriteSize / 2;
+        double cueX = Double.NaN, cueY = Double.NaN;
+
+        for (int i = 0; i < state.getBallCount(); i++) {
+            if (!state.isActive(i)) continue;
+            double x = originX + state.getX(i) * scale;
+            double y = originY + state.getY(i) * scale;
+            if (state.isCue(i)) {
+                cueX = x;
+                cueY = y;
+            }
+
+            if (detailLevel == DETAIL_DOTS) {
+                gc.setFill(state.isCue(i) ? Color.WHITE : colorOf(state.getType(i)));
+                gc.fillRect(x - half, y - half, spriteSize, spriteSize);
+            } else {
+                gc.drawImage(spriteOf(state.getType(i)), x - half, y - half);
+            }
+        }
+
+        if (detailLevel == DETAIL_FULL && !Double.isNaN(aim) && !Double.isNaN(cueX)) {
+            drawAim(gc, cueX, cueY, aim);
+        }
+    }
+
+    /** Stik disederhanakan menjadi satu garis tebal, ditambah garis bidik lurus tanpa raycast. */
+    private void drawAim(GraphicsContext gc, double cueX, double cueY, double angle) {
+        double dx = Math.cos(angle);
+        double dy = Math.sin(angle);
+        double tip = BALL_RADIUS * scale * 1.5;
+        double length = CueStick.STICK_LENGTH * scale;
+
+        gc.setStroke(Color.SADDLEBROWN);
+        gc.setLineWidth(Math.max(1.0, CueStick.STICK_WIDTH * scale));
+        gc.strokeLine(cueX + dx * tip, cueY + dy * tip, cueX + dx * (tip + length), cueY + dy * (tip + length));
+
+        // Garis bidik ke arah berlawanan dengan stik
+        double aim = AIM_LINE_LENGTH * scale;
+        gc.setStroke(Color.WHITE);
+        gc.setLineWidth(1.0);
+        gc.setGlobalAlpha(0.5);
+        gc.strokeLine(cueX, cueY, cueX - dx * aim, cueY - dy * aim);
+        gc.setGlobalAlpha(1.0);
+    }
+
+    /** Me-render meja (dengan {@link Table#draw}) sekali ke gambar seukuran tile. */
+    private Image renderBackground() {
+        Canvas canvas = new Canvas(tileWidth, tileHeight);
+        GraphicsContext g = canvas.getGraphicsContext2D();
+        g.scale(scale, scale);
+        table.draw(g);
+        return canvas.snapshot(null, null);
+    }
+
+    private Image spriteOf(String type) {
+        if (type == null) return cueSprite; // Bola putih
+        Image sprite = sprites.get(type);
+        if (sprite == null) {
+            sprite = renderSprite(colorOf(type));
+            sprites.put(type, sprite);
+        }
+        return sprite;
+    }
+
+    /** Me-render satu bola (dengan {@link Ball#drawShape}) ke gambar transparan. */
+    private Image renderSprite(Color color) {
+        Canvas canvas = new Canvas(spriteSize, spriteSize);
+        double radius = spriteSize / 2;
+        Ball.drawShape(canvas.getGraphicsContext2D(), color, radius, radius, radius);
+        SnapshotParameters params = new SnapshotParameters();
+        params.setFill(Color.TRANSPARENT);
+        return canvas.snapshot(params, new WritableImage((int) spriteSize, (int) spriteSize));
+    }
+
+    private Color colorOf(String type) {
+        return colors.computeIfAbsent(type, Color::valueOf);
+    }
+
+    public int getColumns() { return columns; }
+    public int getRows() { return rows; }
+    public double getScale() { return scale; }
+    public int getDetailLevel() { return detailLevel; }
+}
@@ -0,0 +1,347 @@
+package com.billiards2d;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Alat kalibrasi parameter fisika (gesekan, restitusi dinding, restitusi bola) dari rekaman
+ * lintasan meja nyata.
+ * <p>
+ * Error sebuah set parameter adalah rata-rata kuadrat jarak antara posisi bola hasil simulasi
+ * dan posisi rekaman di setiap frame, untuk semua rekaman. Error ini diminimalkan dengan
+ * Nelder-Mead paralel: setiap iterasi mengevaluasi titik refleksi, ekspansi, dan kedua titik
+ * kontraksi sekaligus (secara spekulatif), dan setiap evaluasi dipecah per rekaman, sehingga
+ * satu iterasi menjadi (4 x jumlah rekaman) simulasi independen yang dijalankan di thread pool.
+ * </p>
+ * Cara pakai dari command line:
+ * <pre>
+ * java -cp ... com.billiards2d.PhysicsCalibrator [--output physics.properties] [--threads N]
+ *      [--iterations N] rekaman1.csv rekaman2.csv ...
+ * </pre>
+ * File hasil bisa dipakai oleh permainan lewat {@code -Dbilliards.physics=physics.properties}.
+ */
+public class PhysicsCalibrator implements AutoCloseable {
+
+    // Batas pencarian setiap parameter: {friction, wallRestitution, ballRestitution}.
+    // Optimasi dilakukan di ruang ternormalisasi [0, 1] agar ketiga parameter punya skala sebanding.
+    private static final double[] LOWER = {0.90, 0.30, 0.30};
+    private static final double[] UPPER = {1.00, 1.00, 1.00};
+    private static final int DIMENSIONS = 3;
+
+    // Koefisien standar Nelder-Mead
+    private static final double REFLECTION = 1.0;
+    private static final double EXPANSION = 2.0;
+    private static final double CONTRACTION = 0.5;
+    private static final double SHRINK = 0.5;
+
+    /** Ukuran simplex awal di ruang ternormalisasi. */
+    private static final double INITIAL_STEP = 0.1;
+
+    private final List<RecordedTrajectory> recordings;
+    private final ExecutorService executor;
+
+    private int maxIterations = 200;
+    /** Berhenti jika selisih error terburuk dan terbaik di simplex di bawah batas relatif ini. */
+    private double tolerance = 1e-6;
+
+    private final AtomicLong simulations = new AtomicLong();
+
+    /** Hasil kalibrasi. */
+    public static class Result {
+        private final PhysicsParameters parameters;
+        private final double rmsError;
+        private final int iterations;
+        private final long simulations;
+
+        Result(PhysicsParameters parameters, double rmsError, int iterations, long simulations) {
+            this.parameters = parameters;
+            this.rmsError = rmsError;
+            this.iterations = iterations;
+            this.simulations = simulations;
+        }
+
+        public PhysicsParameters getParameters() { return parameters; }
+        /** @return Akar rata-rata kuadrat error posisi (pixel). */
+        public double getRmsError() { return rmsError; }
+        public int getIterations() { return iterations; }
+        public long getSimulations() { return simulations; }
+    }
+
+    /**
+     * Konstruktor dengan jumlah thread = jumlah core.
+     */
+    public PhysicsCalibrator(List<RecordedTrajectory> recordings) {
+        this(recordings, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param recordings Rekaman lintasan (minimal satu).
+     * @param threads    Jumlah thread simulasi.
+     */
+    public PhysicsCalibrator(List<RecordedTrajectory> recordings, int threads) {
+        if (recordings.isEmpty()) throw new IllegalArgumentException("Butuh minimal satu rekaman");
+        this.recordings = recordings;
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "physics-calibrator");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Mencari parameter yang paling cocok dengan rekaman.
+     *
+     * @param initial Tebakan awal (misalnya {@link PhysicsParameters#DEFAULT}).
+     */
+    public Result calibrate(PhysicsParameters initial) {
+        long simulationsBefore = simulations.get();
+
+        // 1. Simplex awal: tebakan awal + satu langkah di setiap dimensi (dievaluasi paralel)
+        double[][] simplex = new double[DIMENSIONS + 1][];
+        simplex[0] = normalize(initial);
+        for (int d = 0; d < DIMENSIONS; d++) {
+            double[] vertex = simplex[0].clone();
+            // Langkah ke arah dalam jika tebakan awal sudah dekat batas atas
+            vertex[d] += vertex[d] + INITIAL_STEP <= 1.0 ? INITIAL_STEP : -INITIAL_STEP;
+            simplex[d + 1] = vertex;
+        }
+        double[] costs = evaluate(simplex);
+
+        int iteration = 0;
+        while (iteration < maxIterations) {
+            sort(simplex, costs);
+            double best = costs[0];
+            double worst = costs[DIMENSIONS];
+            if (worst - best <= tolerance * (Math.abs(best) + 1e-12)) break;
+            iteration++;
+
+            // 2. Centroid semua titik kecuali yang terburuk
+            double[] centroid = new double[DIMENSIONS];
+            for (int i = 0; i < DIMENSIONS; i++) {
+                for (int d = 0; d < DIMENSIONS; d++) centroid[d] += simplex[i][d] / DIMENSIONS;
+            }
+            double[] worstPoint = simplex[DIMENSIONS];
+
+            // 3. Evaluasi spekulatif: keempat kandidat dihitung bersamaan
+            double[][] candidates = {
+                    towards(centroid, worstPoint, -REFLECTION),               // refleksi
+                    towards(centroid, worstPoint, -REFLECTION * EXPANSION),   // ekspansi
+                    towards(centroid, worstPoint, -REFLECTION * CONTRACTION), // kontraksi luar
+                    towards(centroid, worstPoint, CONTRACTION)                // kontraksi dalam
+            };
+            double[] candidateCosts = evaluate(candidates);
+            double reflected = candidateCosts[0];
+
+            // 4. Aturan Nelder-Mead standar memilih kandidat yang dipakai
+            int accepted = -1;
+            if (reflected < best) {
+                accepted = candidateCosts[1] < reflected ? 1 : 0;
+            } else if (reflected < costs[DIMENSIONS - 1]) {
+                accepted = 0;
+            } else if (reflected < worst) {
+                if (candidateCosts[2] <= reflected) accepted = 2;
+            } else if (candidateCosts[3] < worst) {
+                accepted = 3;
+            }
+
+            if (accepted >= 0) {
+                simplex[DIMENSIONS] = candidates[accepted];
+                costs[DIMENSIONS] = candidateCosts[accepted];
+            } else {
+                // 5. Shrink: semua titik mendekati titik terbaik (dievaluasi paralel)
+                double[][] shrunk = new double[DIMENSIONS][];
+                for (int i = 1; i <= DIMENSIONS; i++) {
+                    shrunk[i - 1] = towards(simplex[0], simplex[i], SHRINK);
+                }
+                double[] shrunkCosts = evaluate(shrunk);
+                for (int i = 1; i <= DIMENSIONS; i++) {
+                    simplex[i] = shrunk[i - 1];
+                    costs[i] = shrunkCosts[i - 1];
+                }
+            }
+        }
+
+        sort(simplex, costs);
+        return new Result(denormalize(simplex[0]), Math.sqrt(costs[0]), iteration,
+                simulations.get() - simulationsBefore);
+    }
+
+    /**
+     * Menghitung rata-rata kuadrat error posisi untuk satu set parameter.
+     */
+    public double meanSquaredError(PhysicsParameters parameters) {
+        return evaluate(new double[][]{normalize(parameters)})[0];
+    }
+
+    /**
+     * Mengevaluasi beberapa titik sekaligus. Setiap pasangan (titik, rekaman) menjadi satu
+     * tugas di thread pool, lalu error dijumlahkan per titik.
+     */
+    private double[] evaluate(double[][] points) {
+        List<Callable<double[]>> tasks = new ArrayList<>();
+        for (double[] point : points) {
+            PhysicsParameters parameters = denormalize(point);
+            for (RecordedTrajectory recording : recordings) {
+                tasks.add(() -> squaredError(recording, parameters));
+            }
+        }
+
+        double[] costs = new double[points.length];
+        try {
+            List<Future<double[]>> futures = executor.invokeAll(tasks);
+            for (int p = 0; p < points.length; p++) {
+                double sum = 0;
+                long count = 0;
+                for (int r = 0; r < recordings.size(); r++) {
+                    double[] partial = futures.get(p * recordings.size() + r).get();
+                    sum += partial[0];
+                    count += (long) partial[1];
+                }
+                costs[p] = count == 0 ? 0 : sum / count;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Kalibrasi dibatalkan", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulasi kalibrasi gagal", e.getCause());
+        }
+        return costs;
+    }
+
+    /**
+     * Menyimulasikan ulang satu rekaman dengan parameter tertentu.
+     *
+     * @return {jumlah kuadrat error, jumlah sampel}.
+     */
+    private double[] squaredError(RecordedTrajectory recording, PhysicsParameters parameters) {
+        simulations.incrementAndGet();
+        Simulation simulation = Simulation.fromState(recording.createStartState(),
+                recording.getTableWidth(), recording.getTableHeight(), parameters);
+        List<Ball> balls = simulation.getBalls();
+        List<Vector2D> pockets = simulation.getTable().getPockets();
+
+        double sum = 0;
+        long count = 0;
+        for (int frame = 1; frame < recording.getFrameCount(); frame++) {
+            simulation.advance(recording.getFrameTime());
+            for (int i = 0; i < balls.size(); i++) {
+                double recordedX = recording.getX(frame, i);
+                if (Double.isNaN(recordedX)) continue; // Tidak terlihat di rekaman
+                double recordedY = recording.getY(frame, i);
+
+                Ball ball = balls.get(i);
+                if (ball.isActive()) {
+                    double dx = ball.getX() - recordedX;
+                    double dy = ball.getY() - recordedY;
+                    sum += dx * dx + dy * dy;
+                } else {
+                    // Di simulasi sudah masuk lubang, di rekaman masih terlihat:
+                    // error = jarak dari lubang terdekat ke posisi rekaman
+                    sum += nearestPocketDistanceSquared(pockets, recordedX, recordedY);
+                }
+                count++;
+            }
+        }
+        return new double[]{sum, count};
+    }
+
+    private static double nearestPocketDistanceSquared(List<Vector2D> pockets, double x, double y) {
+        double nearest = Double.MAX_VALUE;
+        for (Vector2D pocket : pockets) {
+            double dx = pocket.getX() - x;
+            double dy = pocket.getY() - y;
+            nearest = Math.min(nearest, dx * dx + dy * dy);
+        }
+        return nearest;
+    }
+
+    /** Titik dari {@code from} ke arah {@code to} sejauh faktor t (negatif = menjauh), dibatasi ke [0, 1]. */
+    private static double[] towards(double[] from, double[] to, double t) {
+        double[] point = new double[DIMENSIONS];
+        for (int d = 0; d < DIMENSIONS; d++) {
+            point[d] = Math.max(0, Math.min(1, from[d] + t * (to[d] - from[d])));
+        }
+        return point;
+    }
+
+    /** Mengurutkan simplex dari error terkecil ke terbesar (insertion sort, hanya 4 titik). */
+    private static void sort(double[][] simplex, double[] costs) {
+        for (int i = 1; i < costs.length; i++) {
+            for (int j = i; j > 0 && costs[j] < costs[j - 1]; j--) {
+                double cost = costs[j];
+                costs[j] = costs[j - 1];
+                costs[j - 1] = cost;
+                double[] point = simplex[j];
+                simplex[j] = simplex[j - 1];
+                simplex[j - 1] = point;
+            }
+        }
+    }
+
+    private static double[] normalize(PhysicsParameters p) {
+        double[] values = {p.getFriction(), p.getWallRestitution(), p.getBallRestitution()};
+        for (int d = 0; d < DIMENSIONS; d++) {
+            values[d] = Math.max(0, Math.min(1, (values[d] - LOWER[d]) / (UPPER[d] - LOWER[d])));
+        }
+        return values;
+    }
+
+    private static PhysicsParameters denormalize(double[] u) {
+        return new PhysicsParameters(
+                LOWER[0] + u[0] * (UPPER[0] - LOWER[0]),
+                LOWER[1] + u[1] * (UPPER[1] - LOWER[1]),
+                LOWER[2] + u[2] * (UPPER[2] - LOWER[2]));
+    }
+
+    public void setMaxIterations(int maxIterations) { this.maxIterations = maxIterations; }
+    public void setTolerance(double tolerance) { this.tolerance = tolerance; }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path output = Path.of("physics.properties");
+        int threads = Runtime.getRuntime().availableProcessors();
+        int iterations = 200;
+        List<RecordedTrajectory> recordings = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--output" -> output = Path.of(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--iterations" -> iterations = Integer.parseInt(args[++i]);
+                default -> recordings.add(RecordedTrajectory.read(Path.of(args[i])));
+            }
+        }
+        if (recordings.isEmpty()) {
+            System.err.println("Usage: PhysicsCalibrator [--output file] [--threads N] [--iterations N] <recording.csv>...");
+            System.exit(2);
+        }
+
+        try (PhysicsCalibrator calibrator = new PhysicsCalibrator(recordings, threads)) {
+            calibrator.setMaxIterations(iterations);
+            double initialRms = Math.sqrt(calibrator.meanSquaredError(PhysicsParameters.DEFAULT));
+
+            long begin = System.nanoTime();
+            Result result = calibrator.calibrate(PhysicsParameters.DEFAULT);
+            double seconds = (System.nanoTime() - begin) / 1e9;
+
+            System.out.printf(Locale.ROOT, "Default parameters: RMS error %.3f px%n", initialRms);
+            System.out.printf(Locale.ROOT, "Calibrated %s: RMS error %.3f px (%d iterations, %d simulations, %.1f s)%n",
+                    result.getParameters(), result.getRmsError(), result.getIterations(), result.getSimulations(), seconds);
+            result.getParameters().save(output, "Calibrated from " + recordings.size() + " recording(s)");
+            System.out.println("Parameters written to " + output);
+        }
+    }
+}
@@ -20,6 +20,19 @@ public class PhysicsEngine implements GameObject {
     private Table table;
     private List<GameObject> gameObjects;
     private int playerScore = 0;
+    private int foulCount = 0;
+
+    /** Opsional: file memory-mapped tempat keadaan meja dipublikasikan setiap langkah. */
+    private SharedTableState sharedState;
+
+    /** Jika false, event pocket/foul tidak dicetak ke konsol (dipakai simulasi headless). */
+    private boolean logEvents = true;
+
+    /** Parameter fisika meja (gesekan dan restitusi). */
+    private PhysicsParameters parameters = PhysicsParameters.DEFAULT;
+
+    /** Opsional: solver tumbukan iteratif. Jika null, tumbukan diselesaikan per pasangan bola. */
+    private ContactSolver contactSolver;
 
     /**
      * Konstruktor PhysicsEngine.
@@ -45,6 +58,71 @@ public class PhysicsEngine implements GameObject {
         return playerScore;
     }
 
+    /**
+     * @return Jumlah foul (bola putih masuk lubang) sejak engine dibuat.
+     */
+    public int getFoulCount() {
+        return foulCount;
+    }
+
+    /**
+     * Mengatur skor pemain secara langsung (dipakai saat memulihkan sesi dari file).
+     *
+     * @param playerScore skor yang dipulihkan
+     */
+    public void setPlayerScore(int playerScore) {
+        this.playerScore = playerScore;
+    }
+
+    /**
+     * Mengaktifkan publikasi keadaan meja ke file memory-mapped di akhir setiap frame
+     * simulasi (lihat {@link #publishSharedState()}).
+     *
+     * @param sharedState File tujuan, atau null untuk menonaktifkan.
+     */
+    public void setSharedState(SharedTableState sharedState) {
+        this.sharedState = sharedState;
+    }
+
+    /**
+     * Mengatur apakah event pocket/foul dicetak ke konsol.
+     * Simulasi headless (AI, analisis) mematikan ini agar konsol tidak dibanjiri log.
+     */
+    public void setLogEvents(boolean logEvents) {
+        this.logEvents = logEvents;
+    }
+
+    /**
+     * Mengatur parameter fisika meja untuk engine dan semua bola yang terdaftar.
+     * Bola yang ditambahkan setelah ini tetap memakai parameternya sendiri, jadi panggil
+     * method ini setelah semua bola didaftarkan.
+     *
+     * @param parameters Parameter baru (misalnya hasil {@link PhysicsCalibrator}).
+     */
+    public void setParameters(PhysicsParameters parameters) {
+        this.parameters = parameters;
+        for (GameObject obj : gameObjects) {
+            if (obj instanceof Ball) ((Ball) obj).setParameters(parameters);
+        }
+    }
+
+    public PhysicsParameters getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Mengganti penyelesaian tumbukan per pasangan dengan solver iteratif.
+     *
+     * @param contactSolver Solver yang dipakai, atau null untuk kembali ke resolusi per pasangan.
+     */
+    public void setContactSolver(ContactSolver contactSolver) {
+        this.contactSolver = contactSolver;
+    }
+
+    public ContactSolver getContactSolver() {
+        return contactSolver;
+    }
+
     /**
      * Memperbarui simulasi fisika untuk satu frame.
      * Metode ini memeriksa interaksi setiap bola terhadap lingkungan dan bola lainnya.
@@ -53,12 +131,23 @@ public class PhysicsEngine implements GameObject {
      */
     @Override
     public void update(double deltaTime) {
-        for (GameObject obj1 : gameObjects) {
+        // Event JFR: hampir tanpa biaya jika recording tidak aktif
+        SimulationEvents.PhysicsStep stepEvent = new SimulationEvents.PhysicsStep();
+        stepEvent.begin();
+        int activeBalls = 0;
+        long pairTests = 0;
+        int contacts = 0;
+
+        // Loop berindeks (tanpa Iterator) dan matematika double biasa: langkah fisika tidak
+        // membuat objek baru sama sekali (lihat AllocationTracker)
+        for (int i = 0; i < gameObjects.size(); i++) {
+            GameObject obj1 = gameObjects.get(i);
             // Hanya proses objek yang bertipe Ball
             if (!(obj1 instanceof Ball)) continue;
             Ball b1 = (Ball) obj1;
 
             if (!b1.isActive()) continue; // Lewati bola yang tidak aktif
+            activeBalls++;
 
             // --- 1. Cek Lubang (Pocket Detection) ---
             // Cek ini dilakukan PERTAMA, karena jika bola masuk lubang,
@@ -69,18 +158,21 @@ public class PhysicsEngine implements GameObject {
                     CueBall cb = (CueBall) b1;
                     cb.setActive(false);         // Hilangkan dari meja (fisika)
                     cb.setPendingRespawn(true);  // Tandai butuh respawn nanti
-                    cb.setVelocity(new Vector2D(0,0)); // Nol-kan kecepatan
+                    cb.setVelocity(0, 0); // Nol-kan kecepatan
 
                     // Penalti Skor saat bola putih masuk lubang
                     playerScore = Math.max(0, playerScore - 10);
-                    System.out.println("Foul! Cue ball pocketed. Score penalized. Current Score: " + playerScore);
+                    foulCount++;
+                    if (logEvents) System.out.println("Foul! Cue ball pocketed. Score penalized. Current Score: " + playerScore);
+                    commitPocketEvent("CUE", true);
                 } else {
                     // Jika bola objek masuk, tandai untuk dihapus dari permainan
                     b1.setActive(false);
 
                     // Tambah skor pemain
                     playerScore += 10;
-                    System.out.println("Object ball pocketed! Current Score: " + playerScore);
+                    if (logEvents) System.out.println("Object ball pocketed! Current Score: " + playerScore);
+                    commitPocketEvent(b1 instanceof ObjectBall ? ((ObjectBall) b1).getType() : null, false);
                 }
                 continue; // Skip sisa logika fisika untuk bola ini
             }
@@ -89,7 +181,10 @@ public class PhysicsEngine implements GameObject {
             checkWallCollision(b1);
 
             // --- 3. Cek Tumbukan Antar Bola (Ball-to-Ball Collision) ---
-            for (GameObject obj2 : gameObjects) {
+            // Dengan solver iteratif, semua kontak diselesaikan bersama setelah loop ini
+            if (contactSolver != null) continue;
+            for (int j = 0; j < gameObjects.size(); j++) {
+                GameObject obj2 = gameObjects.get(j);
                 if (!(obj2 instanceof Ball)) continue;
                 Ball b2 = (Ball) obj2;
 
@@ -97,9 +192,37 @@ public class PhysicsEngine implements GameObject {
                 if (b1 == b2) continue;
 
                 // Selesaikan tumbukan jika terjadi
-                resolveBallCollision(b1, b2);
+                pairTests++;
+                if (resolveBallCollision(b1, b2)) contacts++;
             }
         }
+
+        if (contactSolver != null) {
+            contactSolver.solve(gameObjects, deltaTime, parameters.getBallRestitution());
+            pairTests = contactSolver.getPairTests();
+            contacts = contactSolver.getContactCount();
+        }
+
+        stepEvent.end();
+        if (stepEvent.shouldCommit()) {
+            stepEvent.ballCount = activeBalls;
+            stepEvent.pairTests = pairTests;
+            stepEvent.contacts = contacts;
+            stepEvent.iterativeSolver = contactSolver != null;
+            stepEvent.commit();
+        }
+    }
+
+    /**
+     * Menulis keadaan meja saat ini ke file bersama (jika diaktifkan). Dipanggil sekali di akhir
+     * frame simulasi (sistem "publish" di {@link Simulation}), setelah fisika atau pemutaran
+     * rekaman dan aturan permainan, sehingga file selalu sama dengan meja yang terlihat.
+     * Proses lain bisa membaca file ini kapan saja tanpa mengganggu simulasi.
+     */
+    public void publishSharedState() {
+        if (sharedState != null) {
+            sharedState.publish(gameObjects, playerScore);
+        }
     }
 
     @Override
@@ -107,21 +230,31 @@ public class PhysicsEngine implements GameObject {
         // PhysicsEngine adalah objek logika, tidak memiliki representasi visual.
     }
 
+    private void commitPocketEvent(String ballType, boolean foul) {
+        SimulationEvents.Pocket event = new SimulationEvents.Pocket();
+        if (event.shouldCommit()) {
+            event.ballType = ballType;
+            event.foul = foul;
+            event.score = playerScore;
+            event.commit();
+        }
+    }
+
     /**
      * Memeriksa dan menangani tumbukan bola dengan dinding meja.
      * Jika bola menabrak dinding, arah kecepatannya akan dipantulkan.
      */
     private void checkWallCollision(Ball ball) {
-        double x = ball.getPosition().getX();
-        double y = ball.getPosition().getY();
+        double x = ball.getX();
+        double y = ball.getY();
         double r = ball.getRadius();
 
-        double vx = ball.getVelocity().getX();
-        double vy = ball.getVelocity().getY();
+        double vx = ball.getVx();
+        double vy = ball.getVy();
 
         boolean collided = false;
         // Koefisien restitusi dinding (0.9 = bola kehilangan 10% energi saat memantul)
-        double wallRestitution = 0.9;
+        double wallRestitution = parameters.getWallRestitution();
 
         // Cek Dinding Kiri
         if (x - r < 0) {
@@ -151,8 +284,8 @@ public class PhysicsEngine implements GameObject {
 
         // Terapkan perubahan jika terjadi tumbukan
         if (collided) {
-            ball.setPosition(new Vector2D(x, y));
-            ball.setVelocity(new Vector2D(vx, vy));
+            ball.setPosition(x, y);
+            ball.setVelocity(vx, vy);
         }
     }
 
@@ -161,36 +294,38 @@ public class PhysicsEngine implements GameObject {
      *
      * @param b1 Bola pertama.
      * @param b2 Bola kedua.
+     * @return true jika kedua bola bersentuhan (overlap).
      */
-    private void resolveBallCollision(Ball b1, Ball b2) {
-        Vector2D posDiff = b1.getPosition().subtract(b2.getPosition());
-        double dist = posDiff.length();
+    private boolean resolveBallCollision(Ball b1, Ball b2) {
+        // Urutan operasi sama persis dengan versi Vector2D sebelumnya (hasil bit-identik)
+        double dx = b1.getX() - b2.getX();
+        double dy = b1.getY() - b2.getY();
+        double dist = Math.sqrt(dx * dx + dy * dy);
         double minDist = b1.getRadius() + b2.getRadius();
 
         // Cek apakah bola saling bersentuhan (Jarak < Jumlah Jari-jari)
-        if (dist == 0 || dist >= minDist) return;
+        if (dist == 0 || dist >= minDist) return false;
+
+        // Vektor normal tumbukan (arah dari b2 ke b1, panjang 1)
+        double nx = dx / dist;
+        double ny = dy / dist;
 
         // --- STEP A: Static Resolution (Pemisahan Posisi) ---
         // Mencegah bola saling menempel (sticking) atau tenggelam satu sama lain.
         // Kita geser kedua bola menjauh agar tidak lagi overlap.
         double overlap = 0.5 * (dist - minDist);
-        Vector2D displacement = posDiff.normalize().multiply(overlap);
+        double displacementX = nx * overlap;
+        double displacementY = ny * overlap;
 
-        b1.setPosition(b1.getPosition().subtract(displacement));
-        b2.setPosition(b2.getPosition().add(displacement));
+        b1.setPosition(b1.getX() - displacementX, b1.getY() - displacementY);
+        b2.setPosition(b2.getX() + displacementX, b2.getY() + displacementY);
 
         // --- STEP B: Dynamic Resolution (Respon Kecepatan) ---
-        // Menghitung vektor normal tumbukan
-        Vector2D normalVector = posDiff.normalize();
-
-        // Menghitung kecepatan relatif
-        Vector2D relativeVel = b1.getVelocity().subtract(b2.getVelocity());
-
-        // Kecepatan sepanjang normal (seberapa cepat mereka mendekat)
-        double speed = relativeVel.dot(normalVector);
+        // Kecepatan relatif sepanjang normal (seberapa cepat mereka mendekat)
+        double speed = (b1.getVx() - b2.getVx()) * nx + (b1.getVy() - b2.getVy()) * ny;
 
         // Jika bola sudah bergerak menjauh, jangan pantulkan lagi
-        if (speed >= 0) return;
+        if (speed >= 0) return true;
 
         // Rumus Impulse (Perubahan Momentum)
         // Impulse = -(1 + restitution) * relativeVelocity / (1/mass1 + 1/mass2)
@@ -198,17 +333,13 @@ public class PhysicsEngine implements GameObject {
         double impulse = 2 * speed / (b1.getMass() + b2.getMass());
 
         // Restitusi tumbukan bola (sedikit hilang energi)
-        double restitution = 0.9;
+        double restitution = parameters.getBallRestitution();
 
         // Terapkan impulse ke kecepatan masing-masing bola
-        b1.setVelocity(
-                b1.getVelocity().subtract(normalVector.multiply(impulse * b2.getMass()))
-                        .multiply(restitution)
-        );
-
-        b2.setVelocity(
-                b2.getVelocity().add(normalVector.multiply(impulse * b1.getMass()))
-                        .multiply(restitution)
-        );
+        double impulse1 = impulse * b2.getMass();
+        double impulse2 = impulse * b1.getMass();
+        b1.setVelocity((b1.getVx() - nx * impulse1) * restitution, (b1.getVy() - ny * impulse1) * restitution);
+        b2.setVelocity((b2.getVx() + nx * impulse2) * restitution, (b2.getVy() + ny * impulse2) * restitution);
+        return true;
     }
-}
\ No newline at end of file
+}
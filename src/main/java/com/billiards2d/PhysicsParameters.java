@@ -0,0 +1,108 @@
+package com.billiards2d;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Properties;
+
+/**
+ * Kumpulan parameter fisika meja: gesekan karpet dan koefisien restitusi.
+ * <p>
+ * Setiap meja fisik memiliki kecepatan karpet dan bantalan yang berbeda, sehingga nilai-nilai
+ * ini tidak lagi di-hardcode di {@link Ball} dan {@link PhysicsEngine}. Nilainya bisa
+ * dikalibrasi dari rekaman lintasan nyata menggunakan {@link PhysicsCalibrator} lalu disimpan
+ * ke file properties. Objek ini immutable.
+ * </p>
+ */
+public class PhysicsParameters {
+
+    /** Nilai bawaan (sama dengan nilai yang sebelumnya di-hardcode). */
+    public static final PhysicsParameters DEFAULT = new PhysicsParameters(0.992, 0.9, 0.9);
+
+    /** Koefisien gesekan per 1/60 detik (semakin dekat ke 1, semakin licin). */
+    private final double friction;
+    /** Koefisien restitusi dinding (0.9 = bola kehilangan 10% kecepatan saat memantul). */
+    private final double wallRestitution;
+    /** Koefisien restitusi tumbukan antar bola. */
+    private final double ballRestitution;
+
+    /**
+     * @param friction        Koefisien gesekan per 1/60 detik, antara 0 dan 1.
+     * @param wallRestitution Restitusi dinding, antara 0 dan 1.
+     * @param ballRestitution Restitusi antar bola, antara 0 dan 1.
+     */
+    public PhysicsParameters(double friction, double wallRestitution, double ballRestitution) {
+        checkCoefficient("friction", friction);
+        checkCoefficient("wallRestitution", wallRestitution);
+        checkCoefficient("ballRestitution", ballRestitution);
+        this.friction = friction;
+        this.wallRestitution = wallRestitution;
+        this.ballRestitution = ballRestitution;
+    }
+
+    private static void checkCoefficient(String name, double value) {
+        // Ditulis terbalik agar NaN juga ditolak
+        if (!(value >= 0 && value <= 1)) {
+            throw new IllegalArgumentException(name + " harus antara 0 dan 1: " + value);
+        }
+    }
+
+    /**
+     * Parameter meja yang dikalibrasi lewat system property, dipakai game dan semua alat
+     * headless agar menyimulasikan fisika yang sama.
+     * <p>
+     * -Dbilliards.physics=&lt;file&gt; : file properties dari {@link PhysicsCalibrator}.
+     * </p>
+     *
+     * @return Parameter dari file tersebut, atau {@link #DEFAULT} jika tidak diatur.
+     * @throws IOException              Jika file tidak bisa dibaca.
+     * @throws IllegalArgumentException Jika nilainya bukan angka atau di luar 0..1.
+     */
+    public static PhysicsParameters fromSystemProperty() throws IOException {
+        String path = System.getProperty("billiards.physics");
+        return path == null ? DEFAULT : load(Path.of(path));
+    }
+
+    /**
+     * Membaca parameter dari file properties (kunci yang tidak ada memakai nilai bawaan).
+     *
+     * @param file File dengan kunci friction, wallRestitution, ballRestitution.
+     * @throws IllegalArgumentException Jika nilainya bukan angka atau di luar 0..1.
+     */
+    public static PhysicsParameters load(Path file) throws IOException {
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            props.load(reader);
+        }
+        return new PhysicsParameters(
+                Double.parseDouble(props.getProperty("friction", String.valueOf(DEFAULT.friction))),
+                Double.parseDouble(props.getProperty("wallRestitution", String.valueOf(DEFAULT.wallRestitution))),
+                Double.parseDouble(props.getProperty("ballRestitution", String.valueOf(DEFAULT.ballRestitution))));
+    }
+
+    /**
+     * Menyimpan parameter ke file properties.
+     */
+    public void save(Path file, String comment) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("friction", String.valueOf(friction));
+        props.setProperty("wallRestitution", String.valueOf(wallRestitution));
+        props.setProperty("ballRestitution", String.valueOf(ballRestitution));
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            props.store(writer, comment);
+        }
+    }
+
+    public double getFriction() { return friction; }
+    public double getWallRestitution() { return wallRestitution; }
+    public double getBallRestitution() { return ballRestitution; }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "PhysicsParameters(friction=%.5f, wallRestitution=%.4f, ballRestitution=%.4f)",
+                friction, wallRestitution, ballRestitution);
+    }
+}
@@ -0,0 +1,418 @@
+package com.billiards2d;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+
+/**
+ * Pustaka posisi meja dalam satu file: rak khusus, pukulan terkenal, dan kasus uji untuk
+ * benchmark ({@link ThroughputHarness}) dan pengujian regresi.
+ * <p>
+ * File di-memory-map saat dibuka dan hanya header yang dibaca; setiap posisi baru di-decode saat
+ * diminta ({@link Cursor#seek(int)}), jadi korpus berisi jutaan posisi bisa diiterasi tanpa
+ * mem-parse semuanya di depan dan tanpa memenuhi heap. Keadaan meja disimpan dengan
+ * {@link TableStateCodec} (posisi dibulatkan ke 1/256 pixel).
+ * </p>
+ * Format file (little-endian):
+ * <pre>
+ * Header (32 byte)
+ *   0  int    MAGIC ("B2PL")
+ *   4  int    versi format (1)
+ *   8  int    jumlah posisi
+ *   12 int    cadangan
+ *   16 long   offset indeks
+ *   24 long   cadangan
+ * Posisi (berurutan, mulai offset 32)
+ *   short  panjang nama, byte UTF-8 nama
+ *   byte   flags (bit 0: tumbukan dengan {@link ContactSolver})
+ *   double lebar meja, tinggi meja
+ *   double gaya pukulan x, y (vektor nol = tanpa pukulan)
+ *   int    jumlah frame maksimal
+ *   data   {@link TableStateCodec}
+ * Indeks (di akhir file)
+ *   long   offset setiap posisi
+ * </pre>
+ * Objek pustaka aman dipakai banyak thread; setiap thread membuat {@link Cursor} sendiri.
+ * File maksimal 2 GB (batas satu {@link MappedByteBuffer}).
+ */
+public class PositionLibrary implements AutoCloseable {
+
+    public static final int MAGIC = 0x4232504C; // "B2PL"
+    public static final int FORMAT_VERSION = 1;
+    public static final int HEADER_SIZE = 32;
+
+    private static final int OFF_MAGIC = 0;
+    private static final int OFF_VERSION = 4;
+    private static final int OFF_COUNT = 8;
+    private static final int OFF_INDEX = 16;
+
+    private static final int FLAG_ITERATIVE_SOLVER = 1;
+    /** Ukuran bagian tetap setiap posisi setelah nama. */
+    private static final int FIXED_FIELDS_SIZE = 1 + 4 * 8 + 4;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int count;
+    private final int indexOffset;
+
+    private PositionLibrary(FileChannel channel, MappedByteBuffer buffer, int count, int indexOffset) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.count = count;
+        this.indexOffset = indexOffset;
+    }
+
+    /**
+     * Membuka file pustaka (hanya baca). Hanya header yang diperiksa; posisi di-decode saat diminta.
+     *
+     * @throws IOException Jika file tidak bisa dibuka atau bukan pustaka posisi yang valid.
+     */
+    public static PositionLibrary open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("Pustaka posisi lebih dari 2 GB: " + file);
+            if (size < HEADER_SIZE) throw new IOException("Bukan pustaka posisi: " + file);
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt(OFF_MAGIC) != MAGIC) throw new IOException("Bukan pustaka posisi: " + file);
+            if (buffer.getInt(OFF_VERSION) != FORMAT_VERSION) {
+                throw new IOException("Versi pustaka posisi tidak didukung: " + buffer.getInt(OFF_VERSION));
+            }
+            int count = buffer.getInt(OFF_COUNT);
+            long indexOffset = buffer.getLong(OFF_INDEX);
+            if (count < 0 || indexOffset < HEADER_SIZE || indexOffset + count * 8L != size) {
+                throw new IOException("Pustaka posisi rusak atau terpotong: " + file);
+            }
+            return new PositionLibrary(channel, buffer, count, (int) indexOffset);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** @return Jumlah posisi di pustaka. */
+    public int size() { return count; }
+
+    /** Offset data posisi ke-{@code index} (dengan pemeriksaan batas dari indeks). */
+    private int offsetOf(int index) {
+        if (index < 0 || index >= count) throw new IndexOutOfBoundsException("Posisi " + index + " dari " + count);
+        long offset = buffer.getLong(indexOffset + index * 8);
+        if (offset < HEADER_SIZE || offset >= indexOffset) {
+            throw new IllegalArgumentException("Offset posisi " + index + " rusak: " + offset);
+        }
+        return (int) offset;
+    }
+
+    /** @return Cursor baru untuk membaca posisi (satu cursor per thread). */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Mencari posisi berdasarkan nama (hanya nama yang dibaca, keadaan meja tidak di-decode).
+     *
+     * @return Indeks posisi, atau -1 jika tidak ada.
+     */
+    public int indexOf(String name) {
+        byte[] wanted = name.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < count; i++) {
+            int offset = offsetOf(i);
+            int length = buffer.getShort(offset) & 0xFFFF;
+            if (length != wanted.length) continue;
+            boolean match = true;
+            for (int b = 0; b < length && match; b++) {
+                match = buffer.get(offset + 2 + b) == wanted[b];
+            }
+            if (match) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @return Semua posisi sebagai {@link Scenario}, di-decode satu per satu selama iterasi
+     *         (setiap Scenario punya salinan keadaan meja sendiri).
+     */
+    public Iterable<Scenario> scenarios() {
+        return () -> new Iterator<>() {
+            private final Cursor cursor = cursor();
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public Scenario next() {
+                if (next >= count) throw new NoSuchElementException();
+                return cursor.seek(next++).toScenario();
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Mapping dilepas oleh GC; channel bisa ditutup tanpa membatalkan mapping
+        channel.close();
+    }
+
+    /**
+     * Pembaca posisi yang dipakai ulang: {@link #seek(int)} men-decode satu posisi ke objek
+     * {@link TableState} milik cursor tanpa alokasi baru (untuk jenis bola standar). Cursor
+     * tidak aman dipakai bersama antar-thread.
+     */
+    public final class Cursor {
+        private final ByteBuffer view = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        private final TableStateCodec codec = new TableStateCodec();
+        private final TableState state = new TableState(16);
+        private int index = -1;
+        private int nameOffset;
+        private int nameLength;
+        private boolean iterativeSolver;
+        private double tableWidth;
+        private double tableHeight;
+        private double shotX;
+        private double shotY;
+        private int maxFrames;
+
+        private Cursor() {
+        }
+
+        /**
+         * Men-decode posisi ke-{@code index}.
+         *
+         * @return Cursor ini.
+         * @throws IllegalArgumentException Jika data posisi rusak.
+         */
+        public Cursor seek(int index) {
+            int offset = offsetOf(index);
+            try {
+                view.limit(indexOffset).position(offset);
+                nameLength = view.getShort() & 0xFFFF;
+                nameOffset = view.position();
+                view.position(nameOffset + nameLength);
+                iterativeSolver = (view.get() & FLAG_ITERATIVE_SOLVER) != 0;
+                tableWidth = view.getDouble();
+                tableHeight = view.getDouble();
+                shotX = view.getDouble();
+                shotY = view.getDouble();
+                maxFrames = view.getInt();
+                codec.decode(view, state);
+            } catch (RuntimeException e) {
+                this.index = -1;
+                throw new IllegalArgumentException("Posisi " + index + " rusak: " + e.getMessage(), e);
+            }
+            this.index = index;
+            return this;
+        }
+
+        private void requirePosition() {
+            if (index < 0) throw new IllegalStateException("Belum ada posisi yang dibaca (panggil seek)");
+        }
+
+        /** @return Nama posisi (string baru). */
+        public String getName() {
+            requirePosition();
+            byte[] bytes = new byte[nameLength];
+            view.get(nameOffset, bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /** @return Keadaan meja posisi ini (dipakai ulang oleh seek berikutnya). */
+        public TableState getState() { requirePosition(); return state; }
+        public int getIndex() { return index; }
+        public boolean isIterativeSolver() { return iterativeSolver; }
+        public double getTableWidth() { return tableWidth; }
+        public double getTableHeight() { return tableHeight; }
+        public double getShotX() { return shotX; }
+        public double getShotY() { return shotY; }
+        public int getMaxFrames() { return maxFrames; }
+
+        /** @return Scenario dengan salinan keadaan meja posisi ini. */
+        public Scenario toScenario() {
+            requirePosition();
+            return new Scenario(getName(), tableWidth, tableHeight, state.copy(), new Vector2D(shotX, shotY),
+                    maxFrames, iterativeSolver);
+        }
+    }
+
+    // --- Penulisan ---
+
+    /**
+     * Membuat file pustaka baru secara streaming: posisi ditulis langsung ke file, hanya
+     * offset indeks (8 byte per posisi) yang disimpan di memori sampai {@link #close()}.
+     */
+    public static class Writer implements AutoCloseable {
+        private final FileChannel channel;
+        private final TableStateCodec codec = new TableStateCodec();
+        private ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        private long[] offsets = new long[1024];
+        private int count = 0;
+        /** Offset file untuk awal isi buffer; header (offset 0) baru ditulis saat close(). */
+        private long position = HEADER_SIZE;
+
+        /** @param file File tujuan (ditimpa jika sudah ada). */
+        public Writer(Path file) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        /** Menambahkan satu skenario sebagai posisi (nama, meja, pukulan, frame, keadaan awal). */
+        public void add(Scenario scenario) throws IOException {
+            add(scenario.getName(), scenario.getTableWidth(), scenario.getTableHeight(), scenario.getStart(),
+                    scenario.getShot(), scenario.getMaxFrames(), scenario.isIterativeSolver());
+        }
+
+        /**
+         * Menambahkan satu posisi.
+         *
+         * @param shot Pukulan pertama (vektor nol = tanpa pukulan).
+         */
+        public void add(String name, double tableWidth, double tableHeight, TableState state, Vector2D shot,
+                        int maxFrames, boolean iterativeSolver) throws IOException {
+            byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            if (nameBytes.length > 0xFFFF) throw new IllegalArgumentException("Nama posisi terlalu panjang: " + name);
+            int maxSize = 2 + nameBytes.length + FIXED_FIELDS_SIZE + TableStateCodec.maxEncodedSize(state);
+            if (buffer.remaining() < maxSize) {
+                flushBuffer();
+                if (buffer.capacity() < maxSize) buffer = ByteBuffer.allocate(maxSize).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            if (count == offsets.length) offsets = Arrays.copyOf(offsets, count * 2);
+            offsets[count++] = position + buffer.position();
+
+            buffer.putShort((short) nameBytes.length);
+            buffer.put(nameBytes);
+            buffer.put((byte) (iterativeSolver ? FLAG_ITERATIVE_SOLVER : 0));
+            buffer.putDouble(tableWidth);
+            buffer.putDouble(tableHeight);
+            buffer.putDouble(shot.getX());
+            buffer.putDouble(shot.getY());
+            buffer.putInt(maxFrames);
+            codec.encode(state, buffer);
+        }
+
+        /** @return Jumlah posisi yang sudah ditulis. */
+        public int getCount() { return count; }
+
+        private void flushBuffer() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) position += channel.write(buffer, position);
+            buffer.clear();
+        }
+
+        /** Menulis indeks dan header, lalu menutup file. */
+        @Override
+        public void close() throws IOException {
+            try {
+                for (int i = 0; i < count; i++) {
+                    if (buffer.remaining() < 8) flushBuffer();
+                    buffer.putLong(offsets[i]);
+                }
+                long indexOffset = position + buffer.position() - count * 8L;
+                flushBuffer();
+                if (position > Integer.MAX_VALUE) throw new IOException("Pustaka posisi lebih dari 2 GB");
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(OFF_MAGIC, MAGIC);
+                header.putInt(OFF_VERSION, FORMAT_VERSION);
+                header.putInt(OFF_COUNT, count);
+                header.putLong(OFF_INDEX, indexOffset);
+                while (header.hasRemaining()) channel.write(header, header.position());
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Menulis pustaka contoh yang deterministik: skenario standar (maksimal 1000 bola) lalu
+     * posisi acak 15 bola sampai {@code positions}. 64 posisi pertamanya adalah sumber
+     * {@code benchmark/library-baseline.csv}.
+     *
+     * @return Jumlah posisi yang ditulis.
+     */
+    public static int writeSample(Path file, int positions) throws IOException {
+        try (Writer writer = new Writer(file)) {
+            for (Scenario scenario : ScenarioGenerator.standardScenarios(42)) {
+                if (scenario.getStart().getBallCount() <= 1_000) writer.add(scenario);
+            }
+            for (int i = writer.getCount(); i < positions; i++) {
+                Scenario scatter = ScenarioGenerator.randomScatter(15, i);
+                writer.add("scatter-15-" + i, scatter.getTableWidth(), scatter.getTableHeight(),
+                        scatter.getStart(), scatter.getShot(), scatter.getMaxFrames(), false);
+            }
+            return writer.getCount();
+        }
+    }
+
+    /**
+     * Membuat pustaka contoh lalu mengukur biaya buka dan iterasinya.
+     * <pre>
+     * java -cp ... com.billiards2d.PositionLibrary write &lt;file&gt; [positions]   # skenario standar + posisi acak
+     * java -cp ... com.billiards2d.PositionLibrary list &lt;file&gt;
+     * java -cp ... com.billiards2d.PositionLibrary scan &lt;file&gt;                # buka + decode semua posisi
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: PositionLibrary write|list|scan <file> [positions]");
+            System.exit(1);
+        }
+        Path file = Path.of(args[1]);
+        switch (args[0]) {
+            case "write" -> {
+                int positions = args.length > 2 ? Integer.parseInt(args[2]) : 100_000;
+                long begin = System.nanoTime();
+                int written = writeSample(file, positions);
+                System.out.printf(Locale.ROOT, "Wrote %d positions to %s%n", written, file);
+                System.out.printf(Locale.ROOT, "%.1f MB in %.2f s%n", Files.size(file) / 1e6, (System.nanoTime() - begin) / 1e9);
+            }
+            case "list" -> {
+                try (PositionLibrary library = open(file)) {
+                    Cursor cursor = library.cursor();
+                    for (int i = 0; i < library.size(); i++) {
+                        cursor.seek(i);
+                        System.out.printf(Locale.ROOT, "%6d %-24s %4d balls %7.0fx%-5.0f shot (%.0f, %.0f) %d frames%s%n",
+                                i, cursor.getName(), cursor.getState().getBallCount(), cursor.getTableWidth(),
+                                cursor.getTableHeight(), cursor.getShotX(), cursor.getShotY(), cursor.getMaxFrames(),
+                                cursor.isIterativeSolver() ? " iterative" : "");
+                    }
+                }
+            }
+            case "scan" -> {
+                Runtime runtime = Runtime.getRuntime();
+                long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+                long begin = System.nanoTime();
+                try (PositionLibrary library = open(file)) {
+                    double openMs = (System.nanoTime() - begin) / 1e6;
+                    Cursor cursor = library.cursor();
+                    long balls = 0;
+                    long scanBegin = System.nanoTime();
+                    for (int i = 0; i < library.size(); i++) balls += cursor.seek(i).getState().getBallCount();
+                    double scanSeconds = (System.nanoTime() - scanBegin) / 1e9;
+                    long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+                    System.out.printf(Locale.ROOT,
+                            "%d positions (%d balls): open %.2f ms, decode all %.2f s (%.0f ns/position), heap growth ~%.1f MB%n",
+                            library.size(), balls, openMs, scanSeconds, scanSeconds * 1e9 / Math.max(1, library.size()),
+                            Math.max(0, heapAfter - heapBefore) / 1e6);
+                }
+            }
+            default -> {
+                System.err.println("Unknown command: " + args[0]);
+                System.exit(1);
+            }
+        }
+    }
+}
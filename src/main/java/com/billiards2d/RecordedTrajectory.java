@@ -0,0 +1,196 @@
+package com.billiards2d;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Rekaman lintasan bola dari meja nyata (misalnya hasil tracking kamera), dipakai untuk
+ * kalibrasi parameter fisika oleh {@link PhysicsCalibrator}.
+ * <p>
+ * Format file CSV:
+ * <pre>
+ * # table,&lt;lebar&gt;,&lt;tinggi&gt;
+ * # frameTime,&lt;detik per frame&gt;
+ * frame,ball,type,x,y
+ * 0,0,CUE,200.0,225.0
+ * 0,1,YELLOW,600.0,225.0
+ * ...
+ * </pre>
+ * Baris yang tidak ada berarti bola tidak terlihat di frame tersebut (masuk lubang atau
+ * tertutup) dan tidak ikut dihitung. Frame 0 harus memuat semua bola. Kecepatan awal
+ * diperkirakan dari selisih posisi frame 0 dan frame 1.
+ * </p>
+ */
+public class RecordedTrajectory {
+
+    private final String name;
+    private final double tableWidth;
+    private final double tableHeight;
+    private final double frameTime;
+    private final String[] types;
+    /** Posisi per frame per bola; NaN berarti tidak terlihat. */
+    private final double[][] x;
+    private final double[][] y;
+
+    /**
+     * @param name        Nama rekaman (untuk laporan).
+     * @param tableWidth  Lebar area permainan (koordinat yang sama dengan posisi).
+     * @param tableHeight Tinggi area permainan.
+     * @param frameTime   Selang waktu antar frame (detik).
+     * @param types       Jenis bola per indeks (null = bola putih).
+     * @param x           Posisi x [frame][bola], NaN jika tidak terlihat.
+     * @param y           Posisi y [frame][bola], NaN jika tidak terlihat.
+     */
+    public RecordedTrajectory(String name, double tableWidth, double tableHeight, double frameTime,
+                              String[] types, double[][] x, double[][] y) {
+        if (x.length < 2) throw new IllegalArgumentException(name + ": rekaman butuh minimal 2 frame");
+        this.name = name;
+        this.tableWidth = tableWidth;
+        this.tableHeight = tableHeight;
+        this.frameTime = frameTime;
+        this.types = types;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Merekam simulasi yang sedang berjalan (berguna untuk membuat data uji sintetis dengan
+     * parameter yang diketahui).
+     *
+     * @param simulation Simulasi yang sudah diberi pukulan.
+     * @param frames     Jumlah frame yang direkam (termasuk frame 0).
+     */
+    public static RecordedTrajectory record(String name, Simulation simulation, int frames) {
+        List<Ball> balls = simulation.getBalls();
+        TableState start = TableState.capture(balls, 0);
+        String[] types = new String[balls.size()];
+        for (int i = 0; i < types.length; i++) types[i] = start.getType(i);
+        double[][] x = new double[frames][balls.size()];
+        double[][] y = new double[frames][balls.size()];
+        for (int f = 0; f < frames; f++) {
+            if (f > 0) simulation.advance(ShotSimulator.FRAME_TIME);
+            for (int i = 0; i < balls.size(); i++) {
+                Ball ball = balls.get(i);
+                x[f][i] = ball.isActive() ? ball.getX() : Double.NaN;
+                y[f][i] = ball.isActive() ? ball.getY() : Double.NaN;
+            }
+        }
+        return new RecordedTrajectory(name, simulation.getTable().getWidth(), simulation.getTable().getHeight(),
+                ShotSimulator.FRAME_TIME, types, x, y);
+    }
+
+    /**
+     * Keadaan awal untuk simulasi ulang: posisi frame 0 dan kecepatan dari selisih frame 0 ke 1.
+     */
+    public TableState createStartState() {
+        TableState state = new TableState(types.length);
+        for (int i = 0; i < types.length; i++) {
+            boolean visible = !Double.isNaN(x[0][i]);
+            double vx = 0;
+            double vy = 0;
+            if (visible && !Double.isNaN(x[1][i])) {
+                vx = (x[1][i] - x[0][i]) / frameTime;
+                vy = (y[1][i] - y[0][i]) / frameTime;
+            }
+            state.setBall(i, visible ? x[0][i] : 0, visible ? y[0][i] : 0, vx, vy, visible, types[i]);
+        }
+        state.setBallCount(types.length);
+        return state;
+    }
+
+    /**
+     * Membaca rekaman dari file CSV (format lihat dokumentasi kelas).
+     */
+    public static RecordedTrajectory read(Path file) throws IOException {
+        double width = BilliardApp.GAME_WIDTH;
+        double height = BilliardApp.GAME_HEIGHT;
+        double frameTime = ShotSimulator.FRAME_TIME;
+        List<double[]> rows = new ArrayList<>();
+        List<String> types = new ArrayList<>();
+        int frames = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("frame,")) continue;
+                String[] f = line.split(",");
+                try {
+                    if (line.startsWith("#")) {
+                        String key = f[0].substring(1).trim();
+                        if (key.equals("table")) {
+                            width = Double.parseDouble(f[1].trim());
+                            height = Double.parseDouble(f[2].trim());
+                        } else if (key.equals("frameTime")) {
+                            frameTime = Double.parseDouble(f[1].trim());
+                        }
+                        continue;
+                    }
+                    int frame = Integer.parseInt(f[0].trim());
+                    int ball = Integer.parseInt(f[1].trim());
+                    String type = f[2].trim();
+                    while (types.size() <= ball) types.add("");
+                    if (types.get(ball).isEmpty()) types.set(ball, type);
+                    rows.add(new double[]{frame, ball, Double.parseDouble(f[3].trim()), Double.parseDouble(f[4].trim())});
+                    frames = Math.max(frames, frame + 1);
+                } catch (RuntimeException e) {
+                    throw new IOException(file + ":" + lineNumber + ": baris tidak valid: " + line, e);
+                }
+            }
+        }
+
+        double[][] x = new double[frames][types.size()];
+        double[][] y = new double[frames][types.size()];
+        for (double[] row : x) Arrays.fill(row, Double.NaN);
+        for (double[] row : y) Arrays.fill(row, Double.NaN);
+        for (double[] row : rows) {
+            x[(int) row[0]][(int) row[1]] = row[2];
+            y[(int) row[0]][(int) row[1]] = row[3];
+        }
+
+        String[] typeArray = new String[types.size()];
+        for (int i = 0; i < typeArray.length; i++) {
+            String type = types.get(i);
+            if (type.isEmpty()) throw new IOException(file + ": bola " + i + " tidak pernah muncul");
+            typeArray[i] = type.equalsIgnoreCase("CUE") ? null : type;
+        }
+        return new RecordedTrajectory(file.getFileName().toString(), width, height, frameTime, typeArray, x, y);
+    }
+
+    /**
+     * Menulis rekaman ke file CSV.
+     */
+    public void write(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write(String.format(Locale.ROOT, "# table,%s,%s%n", tableWidth, tableHeight));
+            writer.write(String.format(Locale.ROOT, "# frameTime,%s%n", frameTime));
+            writer.write("frame,ball,type,x,y\n");
+            for (int f = 0; f < x.length; f++) {
+                for (int i = 0; i < types.length; i++) {
+                    if (Double.isNaN(x[f][i])) continue;
+                    writer.write(String.format(Locale.ROOT, "%d,%d,%s,%.3f,%.3f%n",
+                            f, i, types[i] == null ? "CUE" : types[i], x[f][i], y[f][i]));
+                }
+            }
+        }
+    }
+
+    public String getName() { return name; }
+    public double getTableWidth() { return tableWidth; }
+    public double getTableHeight() { return tableHeight; }
+    public double getFrameTime() { return frameTime; }
+    public int getFrameCount() { return x.length; }
+    public int getBallCount() { return types.length; }
+    /** @return Posisi x bola di frame tertentu, atau NaN jika tidak terlihat. */
+    public double getX(int frame, int ball) { return x[frame][ball]; }
+    public double getY(int frame, int ball) { return y[frame][ball]; }
+}
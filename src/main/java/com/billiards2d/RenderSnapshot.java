@@ -0,0 +1,118 @@
+package com.billiards2d;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Salinan data yang dibutuhkan untuk menggambar satu frame (posisi bola, warna, skor).
+ * <p>
+ * Snapshot diisi oleh thread simulasi lalu diserahkan ke thread render melalui
+ * {@link TripleBuffer}. Setelah dipublikasikan, isinya tidak diubah lagi sampai pembaca
+ * melepasnya, sehingga render tidak pernah melihat keadaan setengah jadi.
+ * </p>
+ */
+public class RenderSnapshot {
+
+    private int ballCount;
+    private double[] x = new double[0];
+    private double[] y = new double[0];
+    private double[] radius = new double[0];
+    private boolean[] visible = new boolean[0];
+    private Color[] colors = new Color[0];
+    private int cueIndex = -1;
+
+    private int playerScore;
+    private double cueBallSpeed;
+    private boolean allBallsStopped;
+    private int subSteps;
+    private double shotLatencyMillis;
+    private double allocatedBytesPerStep;
+    private long frameNumber;
+
+    /**
+     * Mengisi snapshot dari keadaan simulasi saat ini (dipanggil oleh thread simulasi).
+     *
+     * @param simulation  Simulasi sumber.
+     * @param frameNumber Nomor frame simulasi.
+     */
+    public void captureFrom(Simulation simulation, long frameNumber) {
+        List<Ball> balls = simulation.getBalls();
+        int count = balls.size();
+        if (x.length < count) {
+            x = Arrays.copyOf(x, count);
+            y = Arrays.copyOf(y, count);
+            radius = Arrays.copyOf(radius, count);
+            visible = Arrays.copyOf(visible, count);
+            colors = Arrays.copyOf(colors, count);
+        }
+
+        CueBall cueBall = simulation.getCueBall();
+        cueIndex = -1;
+        for (int i = 0; i < count; i++) {
+            Ball ball = balls.get(i);
+            if (ball == cueBall) cueIndex = i;
+            x[i] = ball.getX();
+            y[i] = ball.getY();
+            radius[i] = ball.getRadius();
+            visible[i] = ball.isActive(); // Bola yang masuk lubang (termasuk pending respawn) tidak digambar
+            colors[i] = ball.getColor();
+        }
+        ballCount = count;
+
+        playerScore = simulation.getPhysicsEngine().getPlayerScore();
+        cueBallSpeed = simulation.getCueBall().getSpeed();
+        allBallsStopped = simulation.areAllBallsStopped();
+        subSteps = simulation.getLastSubSteps();
+        shotLatencyMillis = simulation.getLastShotLatencyMillis();
+        allocatedBytesPerStep = simulation.getLastAllocatedBytesPerStep();
+        this.frameNumber = frameNumber;
+    }
+
+    /**
+     * Menggambar semua bola yang terlihat. Koordinat gc harus sudah digeser ke area permainan.
+     */
+    public void drawBalls(GraphicsContext gc) {
+        drawBalls(gc, false);
+    }
+
+    /**
+     * Menggambar semua bola yang terlihat.
+     *
+     * @param simplified true = bola digambar sebagai kotak satu warna (lebih murah dari oval,
+     *                   dipakai saat frame melewati anggarannya).
+     */
+    public void drawBalls(GraphicsContext gc, boolean simplified) {
+        for (int i = 0; i < ballCount; i++) {
+            if (!visible[i]) continue;
+            if (simplified) {
+                gc.setFill(colors[i]);
+                gc.fillRect(x[i] - radius[i], y[i] - radius[i], radius[i] * 2, radius[i] * 2);
+            } else {
+                Ball.drawShape(gc, colors[i], x[i], y[i], radius[i]);
+            }
+        }
+    }
+
+    // --- Getter ---
+
+    public int getBallCount() { return ballCount; }
+    public double getX(int i) { return x[i]; }
+    public double getY(int i) { return y[i]; }
+    public double getRadius(int i) { return radius[i]; }
+    public boolean isVisible(int i) { return visible[i]; }
+    public Color getColor(int i) { return colors[i]; }
+    /** @return Indeks bola putih di snapshot (-1 jika tidak ada). */
+    public int getCueIndex() { return cueIndex; }
+    public int getPlayerScore() { return playerScore; }
+    public double getCueBallSpeed() { return cueBallSpeed; }
+    public boolean isAllBallsStopped() { return allBallsStopped; }
+    public int getSubSteps() { return subSteps; }
+    /** @return Jeda input-ke-eksekusi pukulan terakhir (milidetik), -1 jika belum ada pukulan. */
+    public double getShotLatencyMillis() { return shotLatencyMillis; }
+    /** @return Byte yang dialokasikan per langkah fisika (-1 jika tidak diukur). */
+    public double getAllocatedBytesPerStep() { return allocatedBytesPerStep; }
+    public long getFrameNumber() { return frameNumber; }
+}
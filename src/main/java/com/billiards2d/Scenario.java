@@ -0,0 +1,68 @@
+package com.billiards2d;
+
+/**
+ * Satu skenario fisika untuk benchmark dan pengujian headless.
+ * <p>
+ * Skenario terdiri dari ukuran meja, keadaan awal, pukulan pertama, dan jumlah frame
+ * maksimal yang dijalankan. Skenario dibuat oleh {@link ScenarioGenerator} secara
+ * deterministik (seed tetap), sehingga hasilnya bisa dibandingkan antar-run.
+ * </p>
+ */
+public class Scenario {
+
+    private final String name;
+    private final double tableWidth;
+    private final double tableHeight;
+    private final TableState start;
+    private final Vector2D shot;
+    private final int maxFrames;
+    /** true jika tumbukan diselesaikan dengan {@link ContactSolver} (bukan per pasangan). */
+    private final boolean iterativeSolver;
+
+    /**
+     * @param name        Nama unik skenario (dipakai sebagai kunci di file hasil/baseline).
+     * @param tableWidth  Lebar area permainan.
+     * @param tableHeight Tinggi area permainan.
+     * @param start       Keadaan awal meja.
+     * @param shot        Pukulan ke bola putih di awal skenario (boleh vektor nol).
+     * @param maxFrames   Jumlah frame maksimal (skenario berhenti lebih awal jika semua bola diam).
+     */
+    public Scenario(String name, double tableWidth, double tableHeight, TableState start, Vector2D shot, int maxFrames) {
+        this(name, tableWidth, tableHeight, start, shot, maxFrames, false);
+    }
+
+    /**
+     * @param iterativeSolver true untuk memakai {@link ContactSolver} di physics engine.
+     */
+    public Scenario(String name, double tableWidth, double tableHeight, TableState start, Vector2D shot,
+                    int maxFrames, boolean iterativeSolver) {
+        this.name = name;
+        this.tableWidth = tableWidth;
+        this.tableHeight = tableHeight;
+        this.start = start;
+        this.shot = shot;
+        this.maxFrames = maxFrames;
+        this.iterativeSolver = iterativeSolver;
+    }
+
+    /**
+     * Membuat simulasi baru untuk skenario ini dengan pukulan pertama sudah diterapkan.
+     */
+    public Simulation createSimulation() {
+        Simulation simulation = Simulation.fromState(start, tableWidth, tableHeight);
+        if (iterativeSolver) simulation.getPhysicsEngine().setContactSolver(new ContactSolver());
+        // Vektor nol berarti tanpa pukulan (kecepatan awal dari keadaan skenario dipakai apa adanya)
+        if (shot.length() > 0 && simulation.getCueBall() != null && simulation.getCueBall().isActive()) {
+            simulation.getCueBall().hit(shot);
+        }
+        return simulation;
+    }
+
+    public String getName() { return name; }
+    public double getTableWidth() { return tableWidth; }
+    public double getTableHeight() { return tableHeight; }
+    public TableState getStart() { return start; }
+    public Vector2D getShot() { return shot; }
+    public int getMaxFrames() { return maxFrames; }
+    public boolean isIterativeSolver() { return iterativeSolver; }
+}
@@ -0,0 +1,171 @@
+package com.billiards2d;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Pembuat skenario fisika standar untuk benchmark, pengujian regresi, dan pembuatan data.
+ * <p>
+ * Semua skenario deterministik: skenario dengan nama dan seed yang sama selalu menghasilkan
+ * keadaan awal yang identik. Bola putih selalu berada di indeks 0.
+ * </p>
+ */
+public class ScenarioGenerator {
+
+    private static final double BALL_RADIUS = 10.0;
+
+    /** Siklus warna bola objek (sama seperti susunan rack di BilliardApp). */
+    private static final String[] COLORS = {
+            "YELLOW", "BLUE", "RED", "PURPLE", "ORANGE", "GREEN", "MAROON", "BLACK"
+    };
+
+    private ScenarioGenerator() {
+        // Kelas utilitas, tidak perlu dibuat objeknya
+    }
+
+    /**
+     * Daftar skenario standar yang dijalankan oleh {@link ThroughputHarness}.
+     *
+     * @param seed Seed untuk skenario acak.
+     */
+    public static List<Scenario> standardScenarios(long seed) {
+        List<Scenario> scenarios = new ArrayList<>();
+        scenarios.add(rackBreak());
+        scenarios.add(rackBreakIterative());
+        scenarios.add(extremePowerBreak(5.0));
+        scenarios.add(randomScatter(100, seed));
+        scenarios.add(denseCluster(200, seed));
+        scenarios.add(sandbox(1_000, seed, 30));
+        scenarios.add(sandbox(10_000, seed, 10));
+        return scenarios;
+    }
+
+    /**
+     * Break standar: susunan rack dari {@code BilliardApp.setupRack}, pukulan penuh lurus ke rack.
+     */
+    public static Scenario rackBreak() {
+        return breakScenario("rack-break", 1.0);
+    }
+
+    /**
+     * Break standar dengan {@link ContactSolver}, untuk membandingkan biaya dan hasilnya
+     * dengan resolusi tumbukan per pasangan.
+     */
+    public static Scenario rackBreakIterative() {
+        Scenario base = rackBreak();
+        return new Scenario("rack-break-iterative", base.getTableWidth(), base.getTableHeight(),
+                base.getStart(), base.getShot(), base.getMaxFrames(), true);
+    }
+
+    /**
+     * Break dengan kekuatan di atas batas stik (menguji sub-stepping dan tunneling).
+     *
+     * @param powerMultiplier Kelipatan dari {@link CueStick#MAX_FORCE}.
+     */
+    public static Scenario extremePowerBreak(double powerMultiplier) {
+        return breakScenario("extreme-power-x" + (int) powerMultiplier, powerMultiplier);
+    }
+
+    private static Scenario breakScenario(String name, double powerMultiplier) {
+        double w = BilliardApp.GAME_WIDTH;
+        double h = BilliardApp.GAME_HEIGHT;
+        TableState start = TableState.capture(BilliardApp.createStandardBalls(w, h), 0);
+        return new Scenario(name, w, h, start, new Vector2D(CueStick.MAX_FORCE * powerMultiplier, 0), 1200);
+    }
+
+    /**
+     * Bola tersebar acak (tidak saling tumpang tindih) di meja standar, bola putih dipukul
+     * ke arah acak.
+     *
+     * @param count Jumlah bola objek.
+     */
+    public static Scenario randomScatter(int count, long seed) {
+        Random random = new Random(seed);
+        double w = BilliardApp.GAME_WIDTH;
+        double h = BilliardApp.GAME_HEIGHT;
+        List<Ball> balls = new ArrayList<>();
+        balls.add(new CueBall(new Vector2D(w / 4.0, h / 2.0)));
+
+        int attempts = 0;
+        while (balls.size() <= count && attempts < count * 1000) {
+            attempts++;
+            double x = BALL_RADIUS * 2 + random.nextDouble() * (w - BALL_RADIUS * 4);
+            double y = BALL_RADIUS * 2 + random.nextDouble() * (h - BALL_RADIUS * 4);
+            if (overlapsAny(balls, x, y)) continue;
+            balls.add(new ObjectBall(new Vector2D(x, y), COLORS[balls.size() % COLORS.length]));
+        }
+
+        double angle = random.nextDouble() * Math.PI * 2;
+        Vector2D shot = new Vector2D(StrictMath.cos(angle), StrictMath.sin(angle)).multiply(CueStick.MAX_FORCE);
+        return new Scenario("random-scatter-" + count, w, h, TableState.capture(balls, 0), shot, 900);
+    }
+
+    /**
+     * Kluster padat: bola disusun heksagonal rapat di tengah meja, lalu dipukul bola putih.
+     * Menguji banyak kontak sekaligus dalam satu langkah.
+     *
+     * @param count Jumlah bola objek.
+     */
+    public static Scenario denseCluster(int count, long seed) {
+        Random random = new Random(seed);
+        double diameter = BALL_RADIUS * 2 + 0.01; // Celah sangat kecil agar awalnya tidak overlap
+        int perRow = (int) Math.ceil(Math.sqrt(count));
+        double rowHeight = diameter * Math.sqrt(3) / 2;
+
+        double w = Math.max(BilliardApp.GAME_WIDTH, perRow * diameter * 3);
+        double h = Math.max(BilliardApp.GAME_HEIGHT, perRow * rowHeight * 2);
+        double originX = w / 2 - perRow * diameter / 2;
+        double originY = h / 2 - perRow * rowHeight / 2;
+
+        List<Ball> balls = new ArrayList<>();
+        balls.add(new CueBall(new Vector2D(BALL_RADIUS * 4, h / 2 + random.nextDouble() * BALL_RADIUS)));
+        for (int i = 0; i < count; i++) {
+            int row = i / perRow;
+            int col = i % perRow;
+            double x = originX + col * diameter + (row % 2 == 1 ? diameter / 2 : 0);
+            double y = originY + row * rowHeight;
+            balls.add(new ObjectBall(new Vector2D(x, y), COLORS[i % COLORS.length]));
+        }
+        return new Scenario("dense-cluster-" + count, w, h, TableState.capture(balls, 0),
+                new Vector2D(CueStick.MAX_FORCE, 0), 600);
+    }
+
+    /**
+     * Sandbox N bola: meja diperbesar sesuai jumlah bola, semua bola disusun dalam grid dan
+     * diberi kecepatan acak. Dipakai untuk mengukur skala engine (sampai 10.000 bola).
+     *
+     * @param count     Jumlah bola objek.
+     * @param maxFrames Jumlah frame yang dijalankan (engine O(n^2), jadi dibatasi untuk N besar).
+     */
+    public static Scenario sandbox(int count, long seed, int maxFrames) {
+        Random random = new Random(seed);
+        double spacing = BALL_RADIUS * 2.5;
+        int perRow = (int) Math.ceil(Math.sqrt(count + 1));
+        double w = perRow * spacing + spacing;
+        double h = w;
+
+        List<Ball> balls = new ArrayList<>();
+        for (int i = 0; i <= count; i++) {
+            double x = spacing + (i % perRow) * spacing;
+            double y = spacing + (i / perRow) * spacing;
+            Ball ball = i == 0
+                    ? new CueBall(new Vector2D(x, y))
+                    : new ObjectBall(new Vector2D(x, y), COLORS[i % COLORS.length]);
+            double angle = random.nextDouble() * Math.PI * 2;
+            double speed = 50 + random.nextDouble() * 250;
+            ball.setVelocity(new Vector2D(StrictMath.cos(angle) * speed, StrictMath.sin(angle) * speed));
+            balls.add(ball);
+        }
+        return new Scenario("sandbox-" + count, w, h, TableState.capture(balls, 0), new Vector2D(0, 0), maxFrames);
+    }
+
+    private static boolean overlapsAny(List<Ball> balls, double x, double y) {
+        for (Ball other : balls) {
+            double dx = other.getX() - x;
+            double dy = other.getY() - y;
+            if (dx * dx + dy * dy < (BALL_RADIUS * 2) * (BALL_RADIUS * 2)) return true;
+        }
+        return false;
+    }
+}
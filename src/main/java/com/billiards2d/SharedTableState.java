@@ -0,0 +1,301 @@
+package com.billiards2d;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Keadaan meja yang disimpan di luar heap, di dalam file yang di-memory-map.
+ * <p>
+ * PhysicsEngine dapat menulis posisi semua bola ke file ini di akhir setiap frame simulasi, sehingga
+ * proses JVM lain (recorder, analyzer, overlay) bisa membaca meja secara langsung tanpa
+ * serialisasi atau socket. Karena isi file tetap ada di page cache OS, sesi yang crash
+ * juga bisa dipulihkan dari file ini.
+ * </p>
+ * Format file (little-endian, ukuran tetap):
+ * <pre>
+ * Header (64 byte)
+ *   0  int    MAGIC ("B2DT")
+ *   4  int    versi format (1)
+ *   8  long   sequence (seqlock: ganjil = sedang ditulis, genap = stabil)
+ *   16 int    kapasitas (jumlah slot bola)
+ *   20 int    jumlah bola
+ *   24 int    skor pemain
+ *   28 int    flags (bit 0: bola putih pending respawn)
+ *   32 long   waktu publish terakhir (epoch millis)
+ *   40..63    cadangan
+ * Slot bola (64 byte per bola, mulai offset 64)
+ *   0  double x
+ *   8  double y
+ *   16 double vx
+ *   24 double vy
+ *   32 int    flags (bit 0: aktif, bit 1: bola putih)
+ *   36 int    cadangan
+ *   40 byte[16] tipe bola (ASCII, diisi 0)
+ *   56..63    cadangan
+ * </pre>
+ * Pembaca mengulang pembacaan jika sequence berubah atau ganjil selama membaca (seqlock),
+ * sehingga penulis tidak pernah menunggu pembaca.
+ */
+public class SharedTableState {
+
+    public static final int MAGIC = 0x42324454; // "B2DT"
+    public static final int FORMAT_VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+    public static final int SLOT_SIZE = 64;
+
+    private static final int OFF_MAGIC = 0;
+    private static final int OFF_VERSION = 4;
+    private static final int OFF_SEQUENCE = 8;
+    private static final int OFF_CAPACITY = 16;
+    private static final int OFF_COUNT = 20;
+    private static final int OFF_SCORE = 24;
+    private static final int OFF_FLAGS = 28;
+    private static final int OFF_TIMESTAMP = 32;
+
+    private static final int SLOT_X = 0;
+    private static final int SLOT_Y = 8;
+    private static final int SLOT_VX = 16;
+    private static final int SLOT_VY = 24;
+    private static final int SLOT_FLAGS = 32;
+    private static final int SLOT_TYPE = 40;
+    private static final int TYPE_LENGTH = 16;
+
+    private static final int FLAG_ACTIVE = 1;
+    private static final int FLAG_CUE = 2;
+    private static final int FLAG_PENDING_RESPAWN = 1;
+
+    /** Akses atomik ke field sequence (membutuhkan alignment 8 byte, dijamin oleh layout). */
+    private static final VarHandle SEQUENCE =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final boolean writable;
+    /**
+     * Tipe bola terakhir yang dibaca per slot, agar {@link #readInto} tidak membuat String baru
+     * setiap kali membaca. Race antar pembaca aman: String immutable dan selalu dicocokkan dulu
+     * dengan isi slot sebelum dipakai.
+     */
+    private final String[] slotTypes;
+
+    private SharedTableState(MappedByteBuffer buffer, int capacity, boolean writable) {
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.writable = writable;
+        this.slotTypes = new String[capacity];
+    }
+
+    /**
+     * Membuka (atau membuat) file keadaan meja untuk ditulis oleh engine.
+     * Jika file sudah berisi data valid dengan kapasitas yang sama, isinya dipertahankan
+     * agar bisa dipakai untuk pemulihan. Sequence ganjil (penulis crash di tengah publish)
+     * berarti datanya setengah tertulis: file dikosongkan dan {@link #hasData()} bernilai false.
+     *
+     * @param file     Lokasi file.
+     * @param capacity Jumlah maksimal bola.
+     */
+    public static SharedTableState openForWriting(Path file, int capacity) throws IOException {
+        long size = HEADER_SIZE + (long) SLOT_SIZE * capacity;
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+            boolean valid = buffer.getInt(OFF_MAGIC) == MAGIC
+                    && buffer.getInt(OFF_VERSION) == FORMAT_VERSION
+                    && buffer.getInt(OFF_CAPACITY) == capacity;
+            if (!valid) {
+                // File baru atau format berbeda: inisialisasi ulang header
+                buffer.putInt(OFF_VERSION, FORMAT_VERSION);
+                buffer.putInt(OFF_CAPACITY, capacity);
+                buffer.putInt(OFF_COUNT, 0);
+                SEQUENCE.setVolatile(buffer, OFF_SEQUENCE, 0L);
+                buffer.putInt(OFF_MAGIC, MAGIC);
+            } else {
+                long seq = (long) SEQUENCE.getVolatile(buffer, OFF_SEQUENCE);
+                if ((seq & 1) != 0) {
+                    // Penulis sebelumnya crash di tengah penulisan: isi slot setengah jadi,
+                    // jadi tidak ada data yang bisa dipulihkan. Kosongkan lalu tandai stabil.
+                    buffer.putInt(OFF_COUNT, 0);
+                    VarHandle.releaseFence();
+                    SEQUENCE.setVolatile(buffer, OFF_SEQUENCE, seq + 1);
+                }
+            }
+            return new SharedTableState(buffer, capacity, true);
+        }
+    }
+
+    /**
+     * Membuka file keadaan meja hanya untuk dibaca (dipakai oleh proses lain).
+     *
+     * @param file Lokasi file yang ditulis oleh engine.
+     * @throws IOException Jika file tidak ada atau formatnya tidak dikenali.
+     */
+    public static SharedTableState openForReading(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.size() < HEADER_SIZE || buffer.getInt(OFF_MAGIC) != MAGIC
+                    || buffer.getInt(OFF_VERSION) != FORMAT_VERSION) {
+                throw new IOException("Bukan file keadaan meja yang valid: " + file);
+            }
+            int capacity = buffer.getInt(OFF_CAPACITY);
+            if (capacity < 0 || channel.size() < HEADER_SIZE + (long) SLOT_SIZE * capacity) {
+                throw new IOException("File keadaan meja terpotong: " + file);
+            }
+            return new SharedTableState(buffer, capacity, false);
+        }
+    }
+
+    /**
+     * Menulis keadaan semua bola ke file (sisi penulis seqlock).
+     *
+     * @param objects Daftar objek game (objek non-Ball diabaikan).
+     * @param score   Skor pemain saat ini.
+     */
+    public void publish(List<? extends GameObject> objects, int score) {
+        if (!writable) throw new IllegalStateException("SharedTableState dibuka read-only");
+
+        long seq = (long) SEQUENCE.getVolatile(buffer, OFF_SEQUENCE);
+        SEQUENCE.setVolatile(buffer, OFF_SEQUENCE, seq + 1); // Ganjil: sedang menulis
+        // Sequence ganjil harus terlihat sebelum isi slot yang baru (pembaca di proses lain)
+        VarHandle.storeStoreFence();
+
+        int count = 0;
+        int flags = 0;
+        for (int i = 0; i < objects.size() && count < capacity; i++) {
+            if (!(objects.get(i) instanceof Ball)) continue;
+            Ball ball = (Ball) objects.get(i);
+            int slot = HEADER_SIZE + count * SLOT_SIZE;
+
+            buffer.putDouble(slot + SLOT_X, ball.getX());
+            buffer.putDouble(slot + SLOT_Y, ball.getY());
+            buffer.putDouble(slot + SLOT_VX, ball.getVx());
+            buffer.putDouble(slot + SLOT_VY, ball.getVy());
+
+            int ballFlags = ball.isActive() ? FLAG_ACTIVE : 0;
+            if (ball instanceof CueBall) {
+                ballFlags |= FLAG_CUE;
+                if (((CueBall) ball).isPendingRespawn()) flags |= FLAG_PENDING_RESPAWN;
+            } else {
+                writeType(slot, ((ObjectBall) ball).getType());
+            }
+            buffer.putInt(slot + SLOT_FLAGS, ballFlags);
+            count++;
+        }
+        buffer.putInt(OFF_COUNT, count);
+        buffer.putInt(OFF_SCORE, score);
+        buffer.putInt(OFF_FLAGS, flags);
+        buffer.putLong(OFF_TIMESTAMP, System.currentTimeMillis());
+
+        VarHandle.releaseFence();
+        SEQUENCE.setRelease(buffer, OFF_SEQUENCE, seq + 2); // Genap: data stabil
+    }
+
+    /**
+     * Membaca keadaan terbaru yang konsisten ke dalam TableState (sisi pembaca seqlock).
+     * Pembacaan diulang sampai didapat salinan yang tidak terpotong oleh penulis. Tipe bola
+     * yang tidak berubah sejak pembacaan sebelumnya tidak dialokasikan ulang.
+     *
+     * @param target Objek tujuan (dipakai ulang).
+     * @return Nilai sequence dari salinan yang dibaca (berguna untuk mendeteksi data baru).
+     */
+    public long readInto(TableState target) {
+        target.ensureCapacity(capacity);
+        while (true) {
+            long before = (long) SEQUENCE.getAcquire(buffer, OFF_SEQUENCE);
+            if ((before & 1) != 0) {
+                Thread.onSpinWait();
+                continue;
+            }
+
+            int count = Math.min(buffer.getInt(OFF_COUNT), capacity);
+            int flags = buffer.getInt(OFF_FLAGS);
+            int score = buffer.getInt(OFF_SCORE);
+            for (int i = 0; i < count; i++) {
+                int slot = HEADER_SIZE + i * SLOT_SIZE;
+                int ballFlags = buffer.getInt(slot + SLOT_FLAGS);
+                String type = (ballFlags & FLAG_CUE) != 0 ? null : readType(i, slot);
+                target.setBall(i,
+                        buffer.getDouble(slot + SLOT_X), buffer.getDouble(slot + SLOT_Y),
+                        buffer.getDouble(slot + SLOT_VX), buffer.getDouble(slot + SLOT_VY),
+                        (ballFlags & FLAG_ACTIVE) != 0, type);
+            }
+
+            VarHandle.loadLoadFence();
+            long after = (long) SEQUENCE.getVolatile(buffer, OFF_SEQUENCE);
+            if (before == after) {
+                target.setBallCount(count);
+                target.setPlayerScore(score);
+                target.setCuePendingRespawn((flags & FLAG_PENDING_RESPAWN) != 0);
+                return after;
+            }
+        }
+    }
+
+    /**
+     * Memaksa isi file ditulis ke disk (opsional, misalnya saat aplikasi ditutup).
+     */
+    public void flush() {
+        if (writable) buffer.force();
+    }
+
+    /** @return Nilai sequence saat ini (berubah setiap kali engine mem-publish). */
+    public long getSequence() {
+        return (long) SEQUENCE.getAcquire(buffer, OFF_SEQUENCE);
+    }
+
+    /** @return true jika file sudah pernah berisi keadaan meja (bisa dipulihkan). */
+    public boolean hasData() {
+        return getSequence() > 0 && buffer.getInt(OFF_COUNT) > 0;
+    }
+
+    public int getCapacity() { return capacity; }
+
+    /** Menulis tipe bola sebagai ASCII (dipotong ke 16 byte) tanpa membuat array byte baru. */
+    private void writeType(int slot, String type) {
+        for (int i = 0; i < TYPE_LENGTH; i++) {
+            buffer.put(slot + SLOT_TYPE + i, i < type.length() ? (byte) type.charAt(i) : 0);
+        }
+    }
+
+    /**
+     * Membaca tipe bola di slot. String dari pembacaan sebelumnya atau jenis bola standar
+     * dipakai ulang jika isinya sama; hanya tipe yang benar-benar baru membuat String.
+     */
+    private String readType(int index, int slot) {
+        int base = slot + SLOT_TYPE;
+        int length = 0;
+        while (length < TYPE_LENGTH && buffer.get(base + length) != 0) length++;
+
+        String cached = slotTypes[index];
+        if (cached != null && typeEquals(base, length, cached)) return cached;
+        for (String standard : TableStateCodec.STANDARD_TYPES) {
+            if (typeEquals(base, length, standard)) {
+                slotTypes[index] = standard;
+                return standard;
+            }
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) bytes[i] = buffer.get(base + i);
+        String type = new String(bytes, StandardCharsets.US_ASCII);
+        slotTypes[index] = type;
+        return type;
+    }
+
+    private boolean typeEquals(int base, int length, String type) {
+        if (type.length() != length) return false;
+        for (int i = 0; i < length; i++) {
+            if (buffer.get(base + i) != (byte) type.charAt(i)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,33 @@
+package com.billiards2d;
+
+/**
+ * Perintah pukulan yang dikirim oleh {@link CueStick} ke simulasi.
+ * <p>
+ * Pukulan tidak langsung diterapkan ke bola saat mouse dilepas, melainkan dimasukkan ke
+ * antrean dan dieksekusi oleh simulasi di batas langkah fisika berikutnya. Dengan begitu
+ * input tidak pernah mengubah keadaan fisika di tengah-tengah sub-step.
+ * </p>
+ */
+public class ShotCommand {
+
+    private final Vector2D force;
+    private final long timestampNanos;
+
+    /**
+     * @param force          Vektor gaya untuk {@link CueBall#hit(Vector2D)}.
+     * @param timestampNanos Waktu input yang memicu pukulan ({@link System#nanoTime()}); dipakai
+     *                       {@link Simulation} untuk mengukur jeda input-ke-eksekusi pukulan.
+     */
+    public ShotCommand(Vector2D force, long timestampNanos) {
+        this.force = force;
+        this.timestampNanos = timestampNanos;
+    }
+
+    public Vector2D getForce() { return force; }
+    public long getTimestampNanos() { return timestampNanos; }
+
+    @Override
+    public String toString() {
+        return "ShotCommand(" + force + " @ " + timestampNanos + ")";
+    }
+}
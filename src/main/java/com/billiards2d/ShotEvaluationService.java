@@ -0,0 +1,608 @@
+package com.billiards2d;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Layanan HTTP/JSON lokal untuk mengevaluasi pukulan: menerima keadaan meja dan daftar pukulan
+ * kandidat, lalu mengembalikan hasil simulasinya ({@link ShotOutcome}).
+ * <p>
+ * Server hanya mendengarkan di alamat loopback, jadi bisa dipakai tool lain di mesin yang sama
+ * (bot, skrip analisis) tanpa layanan eksternal. Endpoint:
+ * </p>
+ * <ul>
+ *   <li>{@code POST /simulate} - body {@code {"state":{...},"shots":[[fx,fy],...]}}, lihat
+ *       README untuk format lengkap.</li>
+ *   <li>{@code GET /health} - status layanan.</li>
+ *   <li>{@code GET /stats} - histogram latensi per endpoint dan statistik batch.</li>
+ * </ul>
+ * <p>
+ * Setiap koneksi ditangani di virtual thread (JDK 21+; di JDK lama memakai cached thread pool),
+ * sehingga request yang menunggu hasil simulasi tidak memblokir thread platform. Pukulan dari
+ * request-request yang datang bersamaan dikumpulkan oleh satu thread batcher selama
+ * {@code batchWindow} (micro-batching), lalu dibagi rata ke pool thread simulasi bersama.
+ * Dengan begitu banyak request kecil tetap memakai semua core, dan jumlah thread simulasi tidak
+ * ikut bertambah dengan jumlah koneksi.
+ * </p>
+ */
+public class ShotEvaluationService implements AutoCloseable {
+
+    /** Port default yang dipakai {@link #main} jika port tidak diberikan. */
+    public static final int DEFAULT_PORT = 8765;
+    /** Batas ukuran body request (byte). */
+    private static final int MAX_BODY_BYTES = 4 * 1024 * 1024;
+    /** Batas jumlah pukulan dalam satu request. */
+    private static final int MAX_SHOTS_PER_REQUEST = 10_000;
+    /** Batas jumlah bola dalam satu keadaan meja. */
+    private static final int MAX_BALLS = 256;
+    /** Batas waktu menunggu hasil simulasi satu request. */
+    private static final long REQUEST_TIMEOUT_SECONDS = 60;
+
+    /** Satu pukulan yang menunggu disimulasikan. */
+    private static final class PendingShot {
+        final ShotJob job;
+        final CompletableFuture<ShotOutcome> result = new CompletableFuture<>();
+
+        PendingShot(ShotJob job) {
+            this.job = job;
+        }
+    }
+
+    private final ShotSimulator simulator;
+    private final HttpServer server;
+    private final ExecutorService connectionExecutor;
+    private final boolean virtualThreads;
+    private final ExecutorService simulationPool;
+    private final int simulationThreads;
+    private final Thread batcher;
+    private final LinkedBlockingQueue<PendingShot> queue = new LinkedBlockingQueue<>();
+    private final long batchWindowNanos;
+    private final int maxBatchSize;
+    private volatile boolean running = true;
+
+    private final Map<String, LatencyHistogram> latencies = new LinkedHashMap<>();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong batchedShots = new AtomicLong();
+    private final AtomicLong largestBatch = new AtomicLong();
+
+    /**
+     * Membuat dan langsung menjalankan layanan.
+     *
+     * @param port              Port loopback (0 = pilih port bebas, lihat {@link #getPort()}).
+     * @param simulationThreads Jumlah thread simulasi bersama.
+     * @param batchWindowMillis Lama batcher mengumpulkan pukulan sebelum menjalankan batch.
+     * @param maxBatchSize      Jumlah pukulan maksimal per batch.
+     */
+    public ShotEvaluationService(int port, int simulationThreads, double batchWindowMillis, int maxBatchSize) throws IOException {
+        this(new ShotSimulator(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT), port, simulationThreads,
+                batchWindowMillis, maxBatchSize);
+    }
+
+    /**
+     * Membuat dan langsung menjalankan layanan dengan simulator tertentu (misalnya dengan
+     * parameter fisika meja yang dikalibrasi).
+     */
+    public ShotEvaluationService(ShotSimulator simulator, int port, int simulationThreads,
+                                 double batchWindowMillis, int maxBatchSize) throws IOException {
+        this.simulator = simulator;
+        this.simulationThreads = Math.max(1, simulationThreads);
+        this.batchWindowNanos = (long) (Math.max(0, batchWindowMillis) * 1_000_000);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+
+        this.simulationPool = Executors.newFixedThreadPool(this.simulationThreads, r -> {
+            Thread t = new Thread(r, "shot-service-sim");
+            t.setDaemon(true);
+            return t;
+        });
+        this.connectionExecutor = newConnectionExecutor();
+        this.virtualThreads = !(connectionExecutor instanceof ThreadPoolExecutor);
+
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(connectionExecutor);
+        register("/simulate", this::handleSimulate);
+        register("/health", this::handleHealth);
+        register("/stats", this::handleStats);
+
+        this.batcher = new Thread(this::runBatcher, "shot-service-batcher");
+        batcher.setDaemon(true);
+        batcher.start();
+        server.start();
+    }
+
+    /**
+     * Executor koneksi: virtual thread per request jika JVM mendukung (JDK 21+), jika tidak
+     * cached thread pool biasa. Dicari lewat refleksi agar tetap bisa dikompilasi di JDK 17.
+     */
+    private static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "shot-service-http");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    /** Handler endpoint yang mengembalikan body JSON (status 200). */
+    private interface JsonHandler {
+        String handle(HttpExchange exchange) throws IOException, RequestException;
+    }
+
+    /** Exception untuk request yang salah, dikirim sebagai status HTTP dengan pesan error. */
+    private static final class RequestException extends Exception {
+        private static final long serialVersionUID = 1L;
+
+        final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private void register(String path, JsonHandler handler) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        latencies.put(path, histogram);
+        server.createContext(path, exchange -> {
+            long started = System.nanoTime();
+            try {
+                String body;
+                int status = 200;
+                try {
+                    if (!path.equals(exchange.getRequestURI().getPath())) {
+                        throw new RequestException(404, "Endpoint tidak ditemukan");
+                    }
+                    body = handler.handle(exchange);
+                } catch (RequestException e) {
+                    status = e.status;
+                    body = errorJson(e.getMessage());
+                } catch (IllegalArgumentException e) {
+                    status = 400;
+                    body = errorJson(e.getMessage());
+                } catch (RuntimeException e) {
+                    status = 500;
+                    body = errorJson(e.toString());
+                }
+                sendJson(exchange, status, body);
+            } finally {
+                exchange.close();
+                histogram.record(System.nanoTime() - started);
+            }
+        });
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String errorJson(String message) {
+        StringBuilder sb = new StringBuilder("{\"error\":");
+        Json.appendString(sb, message == null ? "" : message);
+        return sb.append('}').toString();
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) throws RequestException {
+        if (!method.equals(exchange.getRequestMethod())) {
+            throw new RequestException(405, "Method harus " + method);
+        }
+    }
+
+    // --- Endpoint ---
+
+    private String handleSimulate(HttpExchange exchange) throws IOException, RequestException {
+        requireMethod(exchange, "POST");
+        Map<String, Object> request = Json.asObject(Json.parse(readBody(exchange)), "request");
+        TableState start = parseState(Json.asObject(request.get("state"), "state"));
+        List<Object> shots = Json.asArray(request.get("shots"), "shots");
+        if (shots.size() > MAX_SHOTS_PER_REQUEST) {
+            throw new IllegalArgumentException("Maksimal " + MAX_SHOTS_PER_REQUEST + " pukulan per request");
+        }
+        boolean includeFinalState = Json.getBoolean(request, "includeFinalState", true);
+
+        List<PendingShot> pending = new ArrayList<>(shots.size());
+        for (int i = 0; i < shots.size(); i++) {
+            List<Object> shot = Json.asArray(shots.get(i), "shots[" + i + "]");
+            if (shot.size() != 2) throw new IllegalArgumentException("shots[" + i + "] harus berupa [fx, fy]");
+            double fx = Json.asNumber(shot.get(0), "shots[" + i + "][0]");
+            double fy = Json.asNumber(shot.get(1), "shots[" + i + "][1]");
+            pending.add(new PendingShot(new ShotJob(start, new Vector2D(fx, fy))));
+        }
+        queue.addAll(pending);
+
+        StringBuilder sb = new StringBuilder(256 + pending.size() * (includeFinalState ? 1024 : 96));
+        sb.append("{\"outcomes\":[");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(REQUEST_TIMEOUT_SECONDS);
+        try {
+            for (int i = 0; i < pending.size(); i++) {
+                ShotOutcome outcome = await(pending.get(i), deadline);
+                if (i > 0) sb.append(',');
+                appendOutcome(sb, outcome, includeFinalState);
+            }
+        } catch (RuntimeException e) {
+            cancel(pending);
+            throw e;
+        }
+        return sb.append("]}").toString();
+    }
+
+    /**
+     * Membatalkan pukulan request yang gagal atau melewati batas waktu: yang masih di antrean
+     * dibuang, yang sudah masuk batch dilewati thread simulasi (hasilnya sudah selesai).
+     */
+    private void cancel(List<PendingShot> pending) {
+        queue.removeAll(pending);
+        for (PendingShot shot : pending) shot.result.cancel(false);
+    }
+
+    private static ShotOutcome await(PendingShot shot, long deadline) {
+        try {
+            return shot.result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Request dibatalkan");
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Simulasi melebihi batas waktu " + REQUEST_TIMEOUT_SECONDS + " detik");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulasi gagal: " + e.getCause(), e.getCause());
+        }
+    }
+
+    private String handleHealth(HttpExchange exchange) throws RequestException {
+        requireMethod(exchange, "GET");
+        StringBuilder sb = new StringBuilder("{\"status\":\"ok\",\"simulationThreads\":");
+        sb.append(simulationThreads).append(",\"virtualThreads\":")
+                .append(virtualThreads)
+                .append(",\"queuedShots\":").append(queue.size());
+        return sb.append('}').toString();
+    }
+
+    private String handleStats(HttpExchange exchange) throws RequestException {
+        requireMethod(exchange, "GET");
+        StringBuilder sb = new StringBuilder("{\"endpoints\":{");
+        boolean first = true;
+        for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+            if (!first) sb.append(',');
+            first = false;
+            Json.appendString(sb, entry.getKey()).append(':');
+            entry.getValue().appendJson(sb);
+        }
+        long batchCount = batches.get();
+        long shotCount = batchedShots.get();
+        sb.append("},\"batching\":{\"batches\":").append(batchCount)
+                .append(",\"shots\":").append(shotCount)
+                .append(",\"meanBatchSize\":");
+        Json.appendNumber(sb, batchCount == 0 ? 0 : Math.round(shotCount * 100.0 / batchCount) / 100.0);
+        sb.append(",\"largestBatch\":").append(largestBatch.get())
+                .append(",\"windowMillis\":");
+        Json.appendNumber(sb, batchWindowNanos / 1e6);
+        return sb.append("}}").toString();
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                if (out.size() + read > MAX_BODY_BYTES) {
+                    throw new IllegalArgumentException("Body request melebihi " + MAX_BODY_BYTES + " byte");
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    // --- Konversi JSON <-> TableState ---
+
+    /**
+     * Membaca keadaan meja:
+     * {@code {"score":0,"cuePendingRespawn":false,"balls":[{"type":"CUE","x":..,"y":..,"vx":0,"vy":0,"active":true},...]}}.
+     * Tipe {@code "CUE"} (atau tanpa tipe) berarti bola putih.
+     */
+    static TableState parseState(Map<String, Object> json) {
+        List<Object> balls = Json.asArray(json.get("balls"), "state.balls");
+        if (balls.size() > MAX_BALLS) throw new IllegalArgumentException("Maksimal " + MAX_BALLS + " bola");
+
+        TableState state = new TableState(balls.size());
+        state.setBallCount(balls.size());
+        int cueCount = 0;
+        for (int i = 0; i < balls.size(); i++) {
+            Map<String, Object> ball = Json.asObject(balls.get(i), "state.balls[" + i + "]");
+            Object type = ball.get("type");
+            if (type != null && !(type instanceof String)) {
+                throw new IllegalArgumentException("'type' bola " + i + " harus berupa string");
+            }
+            boolean cue = type == null || "CUE".equals(type);
+            if (cue) cueCount++;
+            state.setBall(i,
+                    Json.asNumber(ball.get("x"), "state.balls[" + i + "].x"),
+                    Json.asNumber(ball.get("y"), "state.balls[" + i + "].y"),
+                    Json.getNumber(ball, "vx", 0),
+                    Json.getNumber(ball, "vy", 0),
+                    Json.getBoolean(ball, "active", true),
+                    cue ? null : (String) type);
+        }
+        if (cueCount > 1) throw new IllegalArgumentException("Hanya boleh ada satu bola putih");
+        state.setPlayerScore((int) Json.getNumber(json, "score", 0));
+        state.setCuePendingRespawn(Json.getBoolean(json, "cuePendingRespawn", false));
+        return state;
+    }
+
+    /** Menulis keadaan meja dengan format yang sama seperti {@link #parseState}. */
+    static void appendState(StringBuilder sb, TableState state) {
+        sb.append("{\"score\":").append(state.getPlayerScore())
+                .append(",\"cuePendingRespawn\":").append(state.isCuePendingRespawn())
+                .append(",\"balls\":[");
+        for (int i = 0; i < state.getBallCount(); i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"type\":");
+            Json.appendString(sb, state.isCue(i) ? "CUE" : state.getType(i));
+            sb.append(",\"x\":");
+            Json.appendNumber(sb, state.getX(i));
+            sb.append(",\"y\":");
+            Json.appendNumber(sb, state.getY(i));
+            sb.append(",\"vx\":");
+            Json.appendNumber(sb, state.getVx(i));
+            sb.append(",\"vy\":");
+            Json.appendNumber(sb, state.getVy(i));
+            sb.append(",\"active\":").append(state.isActive(i)).append('}');
+        }
+        sb.append("]}");
+    }
+
+    private static void appendOutcome(StringBuilder sb, ShotOutcome outcome, boolean includeFinalState) {
+        sb.append("{\"pocketed\":[");
+        int[] pocketed = outcome.getPocketedBalls();
+        for (int i = 0; i < pocketed.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(pocketed[i]);
+        }
+        sb.append("],\"foul\":").append(outcome.isFoul())
+                .append(",\"scoreDelta\":").append(outcome.getScoreDelta())
+                .append(",\"simulatedTime\":");
+        Json.appendNumber(sb, outcome.getSimulatedTime());
+        sb.append(",\"steps\":").append(outcome.getSteps());
+        if (includeFinalState) {
+            sb.append(",\"finalState\":");
+            appendState(sb, outcome.getFinalState());
+        }
+        sb.append('}');
+    }
+
+    // --- Micro-batching ---
+
+    /**
+     * Loop batcher: menunggu pukulan pertama, mengumpulkan pukulan lain yang datang dalam
+     * {@code batchWindow} (atau sampai {@code maxBatchSize}), lalu membagi batch menjadi
+     * potongan untuk setiap thread simulasi. Batcher tidak menunggu batch selesai, jadi batch
+     * berikutnya sudah bisa dikumpulkan selama batch sebelumnya berjalan.
+     */
+    private void runBatcher() {
+        List<PendingShot> batch = new ArrayList<>();
+        while (running) {
+            try {
+                PendingShot first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                long deadline = System.nanoTime() + batchWindowNanos;
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingShot next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            dispatch(batch);
+            batch.clear();
+        }
+        // Pukulan yang tersisa saat layanan ditutup
+        PendingShot leftover;
+        while ((leftover = queue.poll()) != null) {
+            leftover.result.completeExceptionally(new IllegalStateException("Layanan ditutup"));
+        }
+    }
+
+    private void dispatch(List<PendingShot> batch) {
+        batches.incrementAndGet();
+        batchedShots.addAndGet(batch.size());
+        largestBatch.accumulateAndGet(batch.size(), Math::max);
+
+        int chunks = Math.min(simulationThreads, batch.size());
+        for (int c = 0; c < chunks; c++) {
+            // Potongan berselang-seling: pukulan dari satu request tersebar ke semua thread
+            List<PendingShot> chunk = new ArrayList<>(batch.size() / chunks + 1);
+            for (int i = c; i < batch.size(); i += chunks) chunk.add(batch.get(i));
+            simulationPool.execute(() -> {
+                for (PendingShot shot : chunk) {
+                    if (shot.result.isDone()) continue; // Request-nya sudah dibatalkan
+                    try {
+                        shot.result.complete(simulator.simulate(shot.job.getStart(), shot.job.getShot()));
+                    } catch (RuntimeException e) {
+                        shot.result.completeExceptionally(e);
+                    }
+                }
+            });
+        }
+    }
+
+    /** @return Port tempat layanan mendengarkan. */
+    public int getPort() { return server.getAddress().getPort(); }
+    /** @return Simulator bersama (misalnya untuk memasang {@link ShotOutcomeCache}). */
+    public ShotSimulator getSimulator() { return simulator; }
+    /** @return Histogram latensi endpoint, atau null jika endpoint tidak ada. */
+    public LatencyHistogram getLatency(String path) { return latencies.get(path); }
+    public long getBatchCount() { return batches.get(); }
+    public long getBatchedShotCount() { return batchedShots.get(); }
+
+    @Override
+    public void close() {
+        running = false;
+        server.stop(0);
+        batcher.interrupt();
+        try {
+            batcher.join(2000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        simulationPool.shutdownNow();
+        connectionExecutor.shutdownNow();
+    }
+
+    /**
+     * Histogram latensi log-linear (4 sub-bucket per pangkat dua, resolusi +-12,5%) dengan
+     * counter atomik, sehingga bisa dicatat dari banyak thread tanpa lock.
+     */
+    public static class LatencyHistogram {
+        private static final int SUB_BUCKETS = 4;
+        private static final int BUCKETS = 42 * SUB_BUCKETS; // Sampai ~2^42 us
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong totalMicros = new AtomicLong();
+        private final AtomicLong maxMicros = new AtomicLong();
+
+        /** Mencatat satu latensi (nanodetik). */
+        public void record(long nanos) {
+            long micros = Math.max(0, nanos / 1000);
+            counts.incrementAndGet(bucket(micros));
+            count.incrementAndGet();
+            totalMicros.addAndGet(micros);
+            maxMicros.accumulateAndGet(micros, Math::max);
+        }
+
+        private static int bucket(long micros) {
+            if (micros < SUB_BUCKETS) return (int) micros;
+            int msb = 63 - Long.numberOfLeadingZeros(micros);
+            int sub = (int) ((micros >>> (msb - 2)) & (SUB_BUCKETS - 1));
+            return Math.min(BUCKETS - 1, (msb - 1) * SUB_BUCKETS + sub);
+        }
+
+        /** @return Batas atas bucket (mikrodetik). */
+        private static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) return bucket;
+            int msb = bucket / SUB_BUCKETS + 1;
+            int sub = bucket % SUB_BUCKETS;
+            return ((long) (SUB_BUCKETS + sub + 1) << (msb - 2)) - 1;
+        }
+
+        /**
+         * @param quantile Kuantil 0..1 (misalnya 0.99).
+         * @return Perkiraan latensi pada kuantil tersebut (milidetik), 0 jika belum ada data.
+         */
+        public double getPercentileMillis(double quantile) {
+            long total = count.get();
+            if (total == 0) return 0;
+            long target = Math.max(1, (long) Math.ceil(quantile * total));
+            long seen = 0;
+            for (int b = 0; b < BUCKETS; b++) {
+                seen += counts.get(b);
+                if (seen >= target) return Math.min(upperBound(b), maxMicros.get()) / 1000.0;
+            }
+            return maxMicros.get() / 1000.0;
+        }
+
+        public long getCount() { return count.get(); }
+        public double getMeanMillis() { long n = count.get(); return n == 0 ? 0 : totalMicros.get() / 1000.0 / n; }
+        public double getMaxMillis() { return maxMicros.get() / 1000.0; }
+
+        void appendJson(StringBuilder sb) {
+            sb.append("{\"count\":").append(getCount());
+            appendMillis(sb, "mean", getMeanMillis());
+            appendMillis(sb, "p50", getPercentileMillis(0.50));
+            appendMillis(sb, "p90", getPercentileMillis(0.90));
+            appendMillis(sb, "p99", getPercentileMillis(0.99));
+            appendMillis(sb, "max", getMaxMillis());
+            sb.append(",\"buckets\":[");
+            boolean first = true;
+            for (int b = 0; b < BUCKETS; b++) {
+                long n = counts.get(b);
+                if (n == 0) continue;
+                if (!first) sb.append(',');
+                first = false;
+                // [batas atas bucket dalam ms, jumlah]
+                sb.append('[');
+                Json.appendNumber(sb, upperBound(b) / 1000.0);
+                sb.append(',').append(n).append(']');
+            }
+            sb.append("]}");
+        }
+
+        private static void appendMillis(StringBuilder sb, String key, double millis) {
+            sb.append(",\"").append(key).append("Ms\":");
+            Json.appendNumber(sb, Math.round(millis * 1000) / 1000.0);
+        }
+    }
+
+    /**
+     * Menjalankan layanan sampai proses dihentikan.
+     * <pre>
+     * java -cp ... com.billiards2d.ShotEvaluationService [port] [threads]
+     * </pre>
+     * VM option: {@code -Dbilliards.serviceBatchMs} (jendela batch, default 2),
+     * {@code -Dbilliards.serviceMaxBatch} (default 256), dan {@code -Dbilliards.shotCache=file}
+     * untuk memakai {@link ShotOutcomeCache} bersama. Parameter fisika meja dan solver tumbukan
+     * diambil dari {@code -Dbilliards.physics} dan {@code -Dbilliards.solver}, sama seperti game.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        double batchMillis = Double.parseDouble(System.getProperty("billiards.serviceBatchMs", "2"));
+        int maxBatch = Integer.getInteger("billiards.serviceMaxBatch", 256);
+
+        ShotSimulator simulator = ShotSimulator.fromSystemProperties(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT);
+        ShotEvaluationService service = new ShotEvaluationService(simulator, port, threads, batchMillis, maxBatch);
+        String cachePath = System.getProperty("billiards.shotCache");
+        if (cachePath != null) {
+            ShotOutcomeCache cache = ShotOutcomeCache.open(Path.of(cachePath),
+                    Integer.getInteger("billiards.shotCacheMB", 64) * 1024L * 1024L, service.getSimulator());
+            service.getSimulator().setOutcomeCache(cache);
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            service.close();
+            ShotOutcomeCache cache = service.getSimulator().getOutcomeCache();
+            if (cache != null) {
+                try {
+                    cache.close();
+                } catch (IOException e) {
+                    System.err.println("Gagal menutup shot cache: " + e.getMessage());
+                }
+            }
+        }));
+        System.out.printf("Shot evaluation service on http://127.0.0.1:%d (%d simulation threads, %s batch window)%n",
+                service.getPort(), threads, batchMillis + " ms");
+    }
+}
@@ -0,0 +1,35 @@
+package com.billiards2d;
+
+/**
+ * Satu pekerjaan simulasi pukulan: keadaan awal meja dan vektor gaya pukulan.
+ * <p>
+ * Dipakai oleh {@link SimulationWorkerPool} untuk membagi sapuan pukulan (shot sweep) ke
+ * beberapa proses worker. Banyak job boleh memakai objek {@link TableState} yang sama;
+ * keadaan yang sama hanya dikirim sekali per batch.
+ * </p>
+ */
+public class ShotJob {
+
+    private final TableState start;
+    private final double forceX;
+    private final double forceY;
+
+    /**
+     * @param start Keadaan awal meja (tidak diubah selama simulasi).
+     * @param shot  Vektor gaya pukulan untuk {@link CueBall#hit(Vector2D)}.
+     */
+    public ShotJob(TableState start, Vector2D shot) {
+        this(start, shot.getX(), shot.getY());
+    }
+
+    ShotJob(TableState start, double forceX, double forceY) {
+        this.start = start;
+        this.forceX = forceX;
+        this.forceY = forceY;
+    }
+
+    public TableState getStart() { return start; }
+    public Vector2D getShot() { return new Vector2D(forceX, forceY); }
+    public double getForceX() { return forceX; }
+    public double getForceY() { return forceY; }
+}
@@ -0,0 +1,46 @@
+package com.billiards2d;
+
+/**
+ * Hasil dari satu pukulan yang disimulasikan secara headless oleh {@link ShotSimulator}.
+ * <p>
+ * Berisi keadaan akhir meja setelah semua bola berhenti, daftar bola yang masuk lubang,
+ * status foul (bola putih masuk), dan perubahan skor.
+ * </p>
+ */
+public class ShotOutcome {
+
+    private final TableState finalState;
+    private final int[] pocketedBalls;
+    private final boolean foul;
+    private final int scoreDelta;
+    private final double simulatedTime;
+    private final int steps;
+
+    /**
+     * Konstruktor ShotOutcome.
+     *
+     * @param finalState    Keadaan meja setelah semua bola berhenti.
+     * @param pocketedBalls Indeks bola objek yang masuk lubang selama pukulan ini.
+     * @param foul          true jika bola putih masuk lubang.
+     * @param scoreDelta    Perubahan skor akibat pukulan ini.
+     * @param simulatedTime Lama waktu permainan yang disimulasikan (detik).
+     * @param steps         Jumlah langkah fisika (sub-step) yang dijalankan.
+     */
+    public ShotOutcome(TableState finalState, int[] pocketedBalls, boolean foul,
+                       int scoreDelta, double simulatedTime, int steps) {
+        this.finalState = finalState;
+        this.pocketedBalls = pocketedBalls;
+        this.foul = foul;
+        this.scoreDelta = scoreDelta;
+        this.simulatedTime = simulatedTime;
+        this.steps = steps;
+    }
+
+    public TableState getFinalState() { return finalState; }
+    public int[] getPocketedBalls() { return pocketedBalls; }
+    public int getPocketedCount() { return pocketedBalls.length; }
+    public boolean isFoul() { return foul; }
+    public int getScoreDelta() { return scoreDelta; }
+    public double getSimulatedTime() { return simulatedTime; }
+    public int getSteps() { return steps; }
+}
@@ -0,0 +1,407 @@
+package com.billiards2d;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache hasil pukulan yang persisten di file memory-mapped, dipakai bersama oleh AI
+ * ({@link ShotPlanner}) dan analisis sapuan pukulan ({@link SimulationWorkerPool}) lewat
+ * {@link ShotSimulator#setOutcomeCache(ShotOutcomeCache)}.
+ * <p>
+ * Pukulan yang sama (break, posisi standar) sering disimulasikan ulang di setiap sesi. Cache ini
+ * adalah hash table di dalam file berukuran tetap dengan kunci hash keadaan meja yang
+ * dikuantisasi ({@link TableState#quantisedHash(double)}) ditambah vektor pukulan yang
+ * dikuantisasi. Tabel dibagi menjadi set berisi {@link #WAYS} entri; jika set penuh, entri
+ * dikeluarkan dengan algoritma CLOCK (entri yang dipakai sejak putaran jarum terakhir diberi
+ * kesempatan kedua), sehingga ukuran file tidak pernah bertambah.
+ * </p>
+ * Format file (little-endian):
+ * <pre>
+ * Header (64 byte)
+ *   0  int    MAGIC ("B2SC")
+ *   4  int    versi format (1)
+ *   8  int    jumlah set
+ *   12 int    jumlah entri per set
+ *   16 int    ukuran entri (byte)
+ *   20 int    cadangan
+ *   24 long   fingerprint konfigurasi (ukuran meja, parameter fisika, solver tumbukan, kuantisasi)
+ *   32..63    cadangan
+ * Entri ({@link #ENTRY_SIZE} byte, mulai offset 64)
+ *   0  long   kunci (0 = kosong)
+ *   8  long   hash pemeriksa (mendeteksi tabrakan kunci)
+ *   16 byte   bit referensi CLOCK
+ *   17 byte   jumlah bola
+ *   18 byte   flags (bit 0: foul, bit 1: bola putih pending respawn)
+ *   19 byte   cadangan
+ *   20 short  perubahan skor
+ *   22 short  bitmask bola aktif di akhir pukulan
+ *   24 float  waktu simulasi
+ *   28 int    jumlah langkah fisika
+ *   32        per bola: x (double), y (double), vx (float), vy (float)
+ * </pre>
+ * Jika fingerprint atau ukuran file berbeda (misalnya parameter fisika atau solver berubah), isi cache
+ * dianggap tidak valid dan dikosongkan. Hanya satu proses yang boleh membuka file yang sama
+ * (dijaga dengan file lock). Semua method aman dipanggil dari banyak thread.
+ */
+public class ShotOutcomeCache implements AutoCloseable {
+
+    public static final int MAGIC = 0x42325343; // "B2SC"
+    public static final int FORMAT_VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+
+    /** Jumlah bola maksimal per keadaan meja (1 bola putih + 15 bola objek). */
+    public static final int MAX_BALLS = 16;
+    /** Jumlah entri per set (asosiativitas). */
+    public static final int WAYS = 8;
+    public static final int ENTRY_SIZE = 32 + MAX_BALLS * 24;
+
+    /** Ukuran sel kuantisasi posisi bola (pixel). */
+    public static final double POSITION_QUANTUM = 0.5;
+    /** Ukuran sel kuantisasi komponen vektor gaya pukulan. */
+    public static final double SHOT_QUANTUM = 1.0;
+
+    private static final int OFF_MAGIC = 0;
+    private static final int OFF_VERSION = 4;
+    private static final int OFF_SETS = 8;
+    private static final int OFF_WAYS = 12;
+    private static final int OFF_ENTRY_SIZE = 16;
+    private static final int OFF_FINGERPRINT = 24;
+
+    private static final int E_KEY = 0;
+    private static final int E_CHECK = 8;
+    private static final int E_REFERENCED = 16;
+    private static final int E_BALLS = 17;
+    private static final int E_FLAGS = 18;
+    private static final int E_SCORE = 20;
+    private static final int E_ACTIVE = 22;
+    private static final int E_TIME = 24;
+    private static final int E_STEPS = 28;
+    private static final int E_BALL_DATA = 32;
+
+    private static final int FLAG_FOUL = 1;
+    private static final int FLAG_PENDING_RESPAWN = 2;
+
+    private final FileChannel channel;
+    private final FileLock lock;
+    private final MappedByteBuffer buffer;
+    private final int setCount;
+    /** Posisi jarum CLOCK per set (tidak perlu disimpan di file). */
+    private final byte[] hands;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong stores = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private ShotOutcomeCache(FileChannel channel, FileLock lock, MappedByteBuffer buffer, int setCount) {
+        this.channel = channel;
+        this.lock = lock;
+        this.buffer = buffer;
+        this.setCount = setCount;
+        this.hands = new byte[setCount];
+    }
+
+    /**
+     * Membuka (atau membuat) file cache untuk simulator tertentu.
+     *
+     * @param file      Lokasi file.
+     * @param maxBytes  Ukuran file maksimal (dibulatkan ke bawah ke jumlah set pangkat dua),
+     *                  minimal {@link #minimumBytes()}.
+     * @param simulator Simulator yang hasilnya di-cache (ukuran meja dan batas waktunya
+     *                  menjadi bagian dari fingerprint).
+     * @throws IOException Jika file tidak bisa dibuka atau sedang dipakai proses lain.
+     * @throws IllegalArgumentException Jika {@code maxBytes} lebih kecil dari header dan satu set.
+     */
+    public static ShotOutcomeCache open(Path file, long maxBytes, ShotSimulator simulator) throws IOException {
+        if (maxBytes < minimumBytes()) {
+            throw new IllegalArgumentException("Ukuran cache minimal " + minimumBytes() + " byte: " + maxBytes);
+        }
+        long setBytes = (long) ENTRY_SIZE * WAYS;
+        // Offset entri memakai int (batas MappedByteBuffer), jadi file maksimal 2 GB
+        long maxSets = Math.min((maxBytes - HEADER_SIZE) / setBytes, (Integer.MAX_VALUE - HEADER_SIZE) / setBytes);
+        int setCount = Integer.highestOneBit((int) Math.max(1, maxSets));
+        long size = HEADER_SIZE + setBytes * setCount;
+        long fingerprint = fingerprint(simulator);
+
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileLock lock = channel.tryLock();
+            if (lock == null) throw new IOException("File cache sedang dipakai proses lain: " + file);
+
+            // Header dibaca tanpa map, karena file yang sedang di-map tidak bisa dipotong di semua OS
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            boolean valid = channel.size() == size && channel.read(header, 0) == HEADER_SIZE
+                    && header.getInt(OFF_MAGIC) == MAGIC
+                    && header.getInt(OFF_VERSION) == FORMAT_VERSION
+                    && header.getInt(OFF_SETS) == setCount
+                    && header.getInt(OFF_WAYS) == WAYS
+                    && header.getInt(OFF_ENTRY_SIZE) == ENTRY_SIZE
+                    && header.getLong(OFF_FINGERPRINT) == fingerprint;
+            if (!valid) channel.truncate(0); // File baru atau konfigurasi berbeda: kosongkan
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            if (!valid) {
+                // File yang diperpanjang oleh map() berisi 0, jadi semua entri kosong
+                buffer.putInt(OFF_VERSION, FORMAT_VERSION);
+                buffer.putInt(OFF_SETS, setCount);
+                buffer.putInt(OFF_WAYS, WAYS);
+                buffer.putInt(OFF_ENTRY_SIZE, ENTRY_SIZE);
+                buffer.putLong(OFF_FINGERPRINT, fingerprint);
+                buffer.putInt(OFF_MAGIC, MAGIC);
+            }
+            return new ShotOutcomeCache(channel, lock, buffer, setCount);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** @return Ukuran file terkecil yang valid: header ditambah satu set. */
+    public static long minimumBytes() {
+        return HEADER_SIZE + (long) ENTRY_SIZE * WAYS;
+    }
+
+    /**
+     * Hash dari semua hal yang memengaruhi hasil simulasi selain keadaan meja dan pukulan,
+     * diambil dari konfigurasi simulator yang benar-benar dipakai.
+     */
+    private static long fingerprint(ShotSimulator simulator) {
+        PhysicsParameters parameters = simulator.getParameters();
+        long hash = 0xcbf29ce484222325L;
+        hash = mix(hash, Double.doubleToLongBits(simulator.getTableWidth()));
+        hash = mix(hash, Double.doubleToLongBits(simulator.getTableHeight()));
+        hash = mix(hash, Double.doubleToLongBits(simulator.getMaxSimulatedTime()));
+        hash = mix(hash, Double.doubleToLongBits(parameters.getFriction()));
+        hash = mix(hash, Double.doubleToLongBits(parameters.getWallRestitution()));
+        hash = mix(hash, Double.doubleToLongBits(parameters.getBallRestitution()));
+        ContactSolver solver = simulator.getContactSolver();
+        if (solver != null) {
+            hash = mix(hash, solver.getVelocityIterations());
+            hash = mix(hash, solver.getPositionIterations());
+            hash = mix(hash, Double.doubleToLongBits(solver.getWarmStartFactor()));
+        } else {
+            hash = mix(hash, -1L); // Tumbukan per pasangan
+        }
+        hash = mix(hash, Double.doubleToLongBits(POSITION_QUANTUM));
+        hash = mix(hash, Double.doubleToLongBits(SHOT_QUANTUM));
+        return hash;
+    }
+
+    /**
+     * Mencari hasil pukulan di cache.
+     *
+     * @param start Keadaan awal meja.
+     * @param shot  Vektor gaya pukulan.
+     * @return Hasil yang tersimpan untuk sel kuantisasi yang sama, atau null jika belum ada.
+     */
+    public synchronized ShotOutcome get(TableState start, Vector2D shot) {
+        if (start.getBallCount() > MAX_BALLS) {
+            misses.incrementAndGet();
+            return null;
+        }
+        long key = key(start, shot);
+        long check = checkHash(start, shot);
+        int base = setOffset(key);
+        for (int way = 0; way < WAYS; way++) {
+            int entry = base + way * ENTRY_SIZE;
+            if (buffer.getLong(entry + E_KEY) == key && buffer.getLong(entry + E_CHECK) == check
+                    && buffer.get(entry + E_BALLS) == start.getBallCount()) {
+                buffer.put(entry + E_REFERENCED, (byte) 1);
+                hits.incrementAndGet();
+                return readOutcome(entry, start);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Menyimpan hasil pukulan. Jika set penuh, satu entri lama dikeluarkan (CLOCK).
+     *
+     * @param start   Keadaan awal meja.
+     * @param shot    Vektor gaya pukulan.
+     * @param outcome Hasil simulasi dari keadaan dan pukulan tersebut.
+     */
+    public synchronized void put(TableState start, Vector2D shot, ShotOutcome outcome) {
+        if (start.getBallCount() > MAX_BALLS) return;
+        long key = key(start, shot);
+        long check = checkHash(start, shot);
+        int set = (int) (key & (setCount - 1));
+        int base = setOffset(key);
+
+        int target = -1;
+        for (int way = 0; way < WAYS && target < 0; way++) {
+            int entry = base + way * ENTRY_SIZE;
+            long existing = buffer.getLong(entry + E_KEY);
+            if (existing == 0 || (existing == key && buffer.getLong(entry + E_CHECK) == check)) target = entry;
+        }
+        if (target < 0) {
+            // CLOCK: lewati (dan hapus bit referensi) entri yang baru dipakai
+            int hand = hands[set];
+            while (true) {
+                int entry = base + hand * ENTRY_SIZE;
+                hand = (hand + 1) % WAYS;
+                if (buffer.get(entry + E_REFERENCED) != 0) {
+                    buffer.put(entry + E_REFERENCED, (byte) 0);
+                } else {
+                    target = entry;
+                    break;
+                }
+            }
+            hands[set] = (byte) hand;
+            evictions.incrementAndGet();
+        }
+        writeOutcome(target, key, check, start, outcome);
+        stores.incrementAndGet();
+    }
+
+    /**
+     * Menulis entri supaya file tetap konsisten jika proses atau OS berhenti di tengah jalan:
+     * kunci lama dihapus (dan di-flush) sebelum isi entri ditimpa, lalu isi di-flush sebelum
+     * kunci baru ditulis paling akhir. Entri yang belum selesai ditulis selalu terlihat kosong.
+     */
+    private void writeOutcome(int entry, long key, long check, TableState start, ShotOutcome outcome) {
+        if (buffer.getLong(entry + E_KEY) != 0) {
+            buffer.putLong(entry + E_KEY, 0);
+            buffer.force(entry + E_KEY, 8);
+        }
+        TableState end = outcome.getFinalState();
+        int count = start.getBallCount();
+        int activeMask = 0;
+        for (int i = 0; i < count; i++) {
+            int ball = entry + E_BALL_DATA + i * 24;
+            buffer.putDouble(ball, end.getX(i));
+            buffer.putDouble(ball + 8, end.getY(i));
+            buffer.putFloat(ball + 16, (float) end.getVx(i));
+            buffer.putFloat(ball + 20, (float) end.getVy(i));
+            if (end.isActive(i)) activeMask |= 1 << i;
+        }
+        int flags = (outcome.isFoul() ? FLAG_FOUL : 0) | (end.isCuePendingRespawn() ? FLAG_PENDING_RESPAWN : 0);
+        buffer.put(entry + E_BALLS, (byte) count);
+        buffer.put(entry + E_FLAGS, (byte) flags);
+        buffer.putShort(entry + E_SCORE, (short) outcome.getScoreDelta());
+        buffer.putShort(entry + E_ACTIVE, (short) activeMask);
+        buffer.putFloat(entry + E_TIME, (float) outcome.getSimulatedTime());
+        buffer.putInt(entry + E_STEPS, outcome.getSteps());
+        buffer.put(entry + E_REFERENCED, (byte) 0);
+        buffer.putLong(entry + E_CHECK, check);
+        buffer.force(entry, E_BALL_DATA + count * 24);
+        buffer.putLong(entry + E_KEY, key);
+    }
+
+    /** Membangun ulang ShotOutcome dari entri (tipe bola diambil dari keadaan awal). */
+    private ShotOutcome readOutcome(int entry, TableState start) {
+        int count = start.getBallCount();
+        int activeMask = buffer.getShort(entry + E_ACTIVE) & 0xFFFF;
+        int flags = buffer.get(entry + E_FLAGS);
+        int scoreDelta = buffer.getShort(entry + E_SCORE);
+
+        TableState end = new TableState(count);
+        int pocketedCount = 0;
+        for (int i = 0; i < count; i++) {
+            int ball = entry + E_BALL_DATA + i * 24;
+            boolean active = (activeMask & (1 << i)) != 0;
+            end.setBall(i, buffer.getDouble(ball), buffer.getDouble(ball + 8),
+                    buffer.getFloat(ball + 16), buffer.getFloat(ball + 20), active, start.getType(i));
+            if (!start.isCue(i) && start.isActive(i) && !active) pocketedCount++;
+        }
+        end.setBallCount(count);
+        end.setPlayerScore(start.getPlayerScore() + scoreDelta);
+        end.setCuePendingRespawn((flags & FLAG_PENDING_RESPAWN) != 0);
+
+        int[] pocketed = new int[pocketedCount];
+        for (int i = 0, n = 0; i < count; i++) {
+            if (!start.isCue(i) && start.isActive(i) && !end.isActive(i)) pocketed[n++] = i;
+        }
+        return new ShotOutcome(end, pocketed, (flags & FLAG_FOUL) != 0, scoreDelta,
+                buffer.getFloat(entry + E_TIME), buffer.getInt(entry + E_STEPS));
+    }
+
+    private int setOffset(long key) {
+        return HEADER_SIZE + (int) (key & (setCount - 1)) * ENTRY_SIZE * WAYS;
+    }
+
+    private static long key(TableState start, Vector2D shot) {
+        long hash = start.quantisedHash(POSITION_QUANTUM);
+        hash = mix(hash, Math.round(shot.getX() / SHOT_QUANTUM));
+        hash = mix(hash, Math.round(shot.getY() / SHOT_QUANTUM));
+        return hash == 0 ? 1 : hash; // 0 dipakai sebagai penanda entri kosong
+    }
+
+    /** Hash kedua dengan basis berbeda (dan tipe bola), untuk membedakan kunci yang bertabrakan. */
+    private static long checkHash(TableState start, Vector2D shot) {
+        long hash = 0x84222325cbf29ce4L;
+        hash = mix(hash, start.getBallCount());
+        hash = mix(hash, start.isCuePendingRespawn() ? 1 : 0);
+        for (int i = 0; i < start.getBallCount(); i++) {
+            hash = mix(hash, start.isCue(i) ? -1 : start.getType(i).hashCode());
+            hash = mix(hash, start.isActive(i) ? 1 : 0);
+            if (!start.isActive(i)) continue;
+            hash = mix(hash, Math.round(start.getX(i) / POSITION_QUANTUM));
+            hash = mix(hash, Math.round(start.getY(i) / POSITION_QUANTUM));
+            hash = mix(hash, Math.round(start.getVx(i) / POSITION_QUANTUM));
+            hash = mix(hash, Math.round(start.getVy(i) / POSITION_QUANTUM));
+        }
+        hash = mix(hash, Math.round(shot.getX() / SHOT_QUANTUM));
+        return mix(hash, Math.round(shot.getY() / SHOT_QUANTUM));
+    }
+
+    private static long mix(long hash, long value) {
+        hash ^= value;
+        hash *= 0x100000001b3L; // FNV-1a prime
+        return hash ^ (hash >>> 29);
+    }
+
+    /** Menghapus semua entri dan statistik. */
+    public synchronized void clear() {
+        int end = HEADER_SIZE + setCount * WAYS * ENTRY_SIZE;
+        for (int entry = HEADER_SIZE; entry < end; entry += ENTRY_SIZE) buffer.putLong(entry + E_KEY, 0);
+        Arrays.fill(hands, (byte) 0);
+        hits.set(0);
+        misses.set(0);
+        stores.set(0);
+        evictions.set(0);
+    }
+
+    /** Memaksa isi cache ditulis ke disk. */
+    public synchronized void flush() {
+        buffer.force();
+    }
+
+    /** Menulis isi cache ke disk lalu melepas file lock. */
+    @Override
+    public synchronized void close() throws IOException {
+        buffer.force();
+        lock.release();
+        channel.close();
+    }
+
+    // --- Statistik ---
+
+    public long getHitCount() { return hits.get(); }
+    public long getMissCount() { return misses.get(); }
+    public long getStoreCount() { return stores.get(); }
+    public long getEvictionCount() { return evictions.get(); }
+
+    /** @return Rasio hit dari semua pencarian sejak dibuka (0 jika belum ada pencarian). */
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /** @return Jumlah entri maksimal yang bisa disimpan. */
+    public int getEntryCapacity() { return setCount * WAYS; }
+    /** @return Ukuran file cache (byte). */
+    public long getFileSize() { return HEADER_SIZE + (long) ENTRY_SIZE * WAYS * setCount; }
+}
@@ -0,0 +1,485 @@
+package com.billiards2d;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AI perencana pukulan beruntun (run-out planning) menggunakan Beam Search.
+ * <p>
+ * Untuk setiap posisi, planner membuat kandidat pukulan (arah ke setiap bola objek dan
+ * sejumlah arah merata, dengan beberapa tingkat kekuatan), lalu menyimulasikan semuanya
+ * secara paralel dengan {@link ShotSimulator}. Hanya {@code beamWidth} urutan terbaik yang
+ * dilanjutkan ke kedalaman berikutnya, dan sebuah urutan hanya dilanjutkan jika pukulan
+ * terakhirnya memasukkan bola tanpa foul.
+ * </p>
+ * Hasil simulasi disimpan di transposition table yang dikunci dengan hash keadaan meja
+ * yang dikuantisasi ditambah pukulan yang dikuantisasi, sehingga posisi yang setara hanya
+ * disimulasikan sekali dalam satu pencarian. Setiap entri juga menyimpan hash verifikasi
+ * kedua (termasuk jenis bola), sehingga tabrakan kunci tidak mengembalikan hasil posisi lain.
+ * Tabel dikosongkan di awal setiap pencarian dan dibatasi {@link #MAX_TRANSPOSITION_ENTRIES}
+ * entri. Pencarian berhenti saat batas waktu habis dan mengembalikan
+ * pukulan pertama terbaik yang sudah ditemukan; simulasi yang masih berjalan saat itu
+ * dihentikan lewat interrupt ({@link ShotSimulator#simulate(TableState, Vector2D)} memeriksanya
+ * setiap frame), sehingga planner tidak memakai CPU setelah batas waktunya.
+ * <p>
+ * Hasil yang bergantung pada batas waktu berbeda antar mesin. Untuk hasil yang deterministik,
+ * batasi jumlah simulasi presisi penuh per pencarian ({@link #setSimulationBudget(int)}) dan
+ * beri batas waktu yang longgar: kandidat dipotong sesuai urutan pembuatannya, bukan urutan
+ * selesai, sehingga pukulan yang dipilih selalu sama untuk keadaan meja yang sama.
+ * </p>
+ * <p>
+ * Kandidat disaring dulu dengan {@link CoarseShotSimulator} (jauh lebih murah), lalu hanya
+ * {@code screeningTopK} kandidat terbaik per kedalaman yang disimulasikan ulang dengan presisi
+ * penuh dan dipakai untuk kedalaman berikutnya. Kecocokan hasil kedua tingkat dicatat
+ * ({@link #getTierAgreement()}). Dengan {@code screeningTopK} = 0 semua kandidat langsung
+ * disimulasikan dengan presisi penuh.
+ * </p>
+ * Jika {@link ShotOutcomeCache} dipasang,
+ * simulasi yang tidak ada di transposition table dicari dulu di cache persisten tersebut,
+ * sehingga posisi yang sama tidak disimulasikan ulang di sesi berikutnya.
+ */
+public class ShotPlanner implements AutoCloseable {
+
+    /** Ukuran sel kuantisasi posisi bola untuk hash keadaan meja (pixel). */
+    private static final double STATE_CELL_SIZE = 2.0;
+    /** Resolusi kuantisasi sudut pukulan (radian, kira-kira 0.5 derajat). */
+    private static final double ANGLE_QUANTUM = Math.toRadians(0.5);
+    /** Resolusi kuantisasi kekuatan pukulan. */
+    private static final double POWER_QUANTUM = 10.0;
+    /** Jumlah maksimum entri transposition table per pencarian; setelah penuh hasil baru tidak disimpan. */
+    public static final int MAX_TRANSPOSITION_ENTRIES = 50_000;
+
+    private final ShotSimulator simulator;
+    private final CoarseShotSimulator coarseSimulator;
+    private final ExecutorService executor;
+    private final Map<Long, Entry> transpositionTable = new ConcurrentHashMap<>();
+
+    // --- Parameter Pencarian ---
+    private int depth = 3;
+    private int beamWidth = 6;
+    private int angleSamples = 36;
+    private double[] powerLevels = {0.3, 0.55, 0.8};
+    private int screeningTopK = 24;
+    private int simulationBudget = 0;
+
+    // --- Statistik ---
+    private final AtomicLong simulations = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheCollisions = new AtomicLong();
+    private final AtomicLong coarseSimulations = new AtomicLong();
+    private final CoarseShotSimulator.Agreement tierAgreement = new CoarseShotSimulator.Agreement();
+
+    /** Entri transposition table: hasil simulasi dan hash verifikasi posisinya. */
+    private static class Entry {
+        final long check;
+        final ShotOutcome outcome;
+
+        Entry(long check, ShotOutcome outcome) {
+            this.check = check;
+            this.outcome = outcome;
+        }
+    }
+
+    /**
+     * Satu urutan pukulan dalam beam: pukulan pertama, keadaan setelah pukulan terakhir,
+     * dan nilai kumulatifnya.
+     */
+    private static class Node {
+        final Vector2D firstShot;
+        final TableState state;
+        final double value;
+        final boolean expandable;
+
+        // Hanya untuk node hasil penyaringan kasar: asal node dan hasil kasarnya
+        final Node parent;
+        final Vector2D shot;
+        final ShotOutcome coarseOutcome;
+
+        Node(Vector2D firstShot, TableState state, double value, boolean expandable) {
+            this(firstShot, state, value, expandable, null, null, null);
+        }
+
+        Node(Vector2D firstShot, TableState state, double value, boolean expandable,
+             Node parent, Vector2D shot, ShotOutcome coarseOutcome) {
+            this.firstShot = firstShot;
+            this.state = state;
+            this.value = value;
+            this.expandable = expandable;
+            this.parent = parent;
+            this.shot = shot;
+            this.coarseOutcome = coarseOutcome;
+        }
+    }
+
+    /**
+     * Konstruktor ShotPlanner yang memakai semua core CPU.
+     *
+     * @param tableWidth  Lebar area permainan.
+     * @param tableHeight Tinggi area permainan.
+     */
+    public ShotPlanner(double tableWidth, double tableHeight) {
+        this(tableWidth, tableHeight, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Konstruktor ShotPlanner dengan jumlah thread tertentu.
+     */
+    public ShotPlanner(double tableWidth, double tableHeight, int threads) {
+        this(new ShotSimulator(tableWidth, tableHeight), threads);
+    }
+
+    /**
+     * Konstruktor ShotPlanner dengan simulator tertentu (parameter fisika meja yang dikalibrasi,
+     * cache hasil pukulan). Tahap penyaringan kasar memakai parameter fisika yang sama.
+     */
+    public ShotPlanner(ShotSimulator simulator, int threads) {
+        this.simulator = simulator;
+        this.coarseSimulator = new CoarseShotSimulator(simulator.getTableWidth(), simulator.getTableHeight(),
+                simulator.getParameters());
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "shot-planner");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Mencari pukulan berikutnya yang terbaik dalam batas waktu tertentu.
+     *
+     * @param state        Keadaan meja saat ini (semua bola diam).
+     * @param timeBudgetMs Batas waktu pencarian (milidetik).
+     * @return Vektor gaya untuk {@link CueBall#hit(Vector2D)}.
+     */
+    public Vector2D planNextShot(TableState state, long timeBudgetMs) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMs);
+        transpositionTable.clear(); // Posisi dari pencarian sebelumnya hampir tidak pernah muncul lagi
+        int remainingSimulations = simulationBudget > 0 ? simulationBudget : Integer.MAX_VALUE;
+
+        Node best = null;
+        Node bestCoarse = null; // Cadangan jika batas waktu habis sebelum ada simulasi penuh
+        List<Node> beam = new ArrayList<>();
+        beam.add(new Node(null, state, 0, true));
+
+        for (int level = 0; level < depth && remainingSimulations > 0; level++) {
+            List<Node> children = new ArrayList<>();
+            for (Node node : beam) {
+                if (!node.expandable) children.add(node); // Urutan yang sudah selesai tetap ikut bersaing
+            }
+
+            boolean screening = screeningTopK > 0;
+            List<Callable<Node>> tasks = new ArrayList<>();
+            for (Node node : beam) {
+                if (!node.expandable) continue;
+                for (Vector2D shot : generateCandidates(node.state)) {
+                    tasks.add(screening ? () -> expandCoarse(node, shot) : () -> expand(node, shot));
+                }
+            }
+            if (tasks.isEmpty()) break;
+
+            List<Node> expanded;
+            if (screening) {
+                List<Node> screened = runWithDeadline(tasks, deadline);
+                if (level == 0) bestCoarse = bestNode(screened);
+                int limit = Math.min(screeningTopK, remainingSimulations);
+                remainingSimulations -= Math.min(limit, screened.size());
+                expanded = refine(screened, limit, deadline);
+            } else {
+                if (tasks.size() > remainingSimulations) tasks = tasks.subList(0, remainingSimulations);
+                remainingSimulations -= tasks.size();
+                expanded = runWithDeadline(tasks, deadline);
+            }
+            children.addAll(expanded);
+            if (children.isEmpty()) break;
+
+            children.sort(Comparator.comparingDouble((Node n) -> n.value).reversed());
+            beam = new ArrayList<>(children.subList(0, Math.min(beamWidth, children.size())));
+
+            if (beam.get(0).firstShot != null && (best == null || beam.get(0).value > best.value)) {
+                best = beam.get(0);
+            }
+            if (System.nanoTime() >= deadline) break;
+        }
+
+        if (best != null) return best.firstShot;
+        if (bestCoarse != null) return bestCoarse.firstShot;
+        return fallbackShot(state);
+    }
+
+    /** @return Node dengan nilai tertinggi (yang pertama jika sama), atau null jika kosong. */
+    private static Node bestNode(List<Node> nodes) {
+        Node best = null;
+        for (Node node : nodes) {
+            if (best == null || node.value > best.value) best = node;
+        }
+        return best;
+    }
+
+    /** Menyimulasikan satu pukulan dari sebuah node dan membuat node anaknya. */
+    private Node expand(Node parent, Vector2D shot) {
+        return toNode(parent, shot, simulateCached(parent.state, shot));
+    }
+
+    /** Sama seperti {@link #expand}, tetapi dengan simulasi kasar (untuk penyaringan). */
+    private Node expandCoarse(Node parent, Vector2D shot) {
+        ShotOutcome outcome = coarseSimulator.simulate(parent.state, shot);
+        coarseSimulations.incrementAndGet();
+        Node node = toNode(parent, shot, outcome);
+        return new Node(node.firstShot, node.state, node.value, node.expandable, parent, shot, outcome);
+    }
+
+    /**
+     * Menyimulasikan ulang {@code limit} node kasar terbaik dengan presisi penuh.
+     * Node kasar lainnya dibuang, karena keadaan mejanya hanya perkiraan.
+     */
+    private List<Node> refine(List<Node> screened, int limit, long deadline) {
+        screened.sort(Comparator.comparingDouble((Node n) -> n.value).reversed());
+        List<Callable<Node>> tasks = new ArrayList<>();
+        for (Node candidate : screened.subList(0, Math.min(limit, screened.size()))) {
+            tasks.add(() -> {
+                ShotOutcome outcome = simulateCached(candidate.parent.state, candidate.shot);
+                tierAgreement.record(candidate.coarseOutcome, outcome);
+                return toNode(candidate.parent, candidate.shot, outcome);
+            });
+        }
+        return runWithDeadline(tasks, deadline);
+    }
+
+    private Node toNode(Node parent, Vector2D shot, ShotOutcome outcome) {
+        double value = parent.value + outcome.getScoreDelta() + positionBonus(outcome.getFinalState());
+        boolean expandable = outcome.getPocketedCount() > 0 && !outcome.isFoul();
+        Vector2D firstShot = parent.firstShot != null ? parent.firstShot : shot;
+        return new Node(firstShot, outcome.getFinalState(), value, expandable);
+    }
+
+    /**
+     * Mengambil hasil simulasi dari transposition table, atau menyimulasikan jika belum ada.
+     * Entri dengan kunci sama tetapi hash verifikasi berbeda dianggap tabrakan (tidak dipakai).
+     */
+    public ShotOutcome simulateCached(TableState state, Vector2D shot) {
+        long key = mix(state.quantisedHash(STATE_CELL_SIZE), quantiseShot(shot));
+        long check = checkHash(state, shot);
+        Entry cached = transpositionTable.get(key);
+        if (cached != null) {
+            if (cached.check == check) {
+                cacheHits.incrementAndGet();
+                return cached.outcome;
+            }
+            cacheCollisions.incrementAndGet();
+        }
+        ShotOutcome outcome = simulator.simulate(state, shot);
+        simulations.incrementAndGet();
+        if (cached == null && transpositionTable.size() < MAX_TRANSPOSITION_ENTRIES) {
+            transpositionTable.putIfAbsent(key, new Entry(check, outcome));
+        }
+        return outcome;
+    }
+
+    /** Menjalankan tugas simulasi secara paralel, hasil yang belum selesai saat deadline dibuang. */
+    private List<Node> runWithDeadline(List<Callable<Node>> tasks, long deadline) {
+        List<Node> results = new ArrayList<>();
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) return results;
+        try {
+            for (Future<Node> future : executor.invokeAll(tasks, remaining, TimeUnit.NANOSECONDS)) {
+                if (future.isCancelled()) continue;
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    // Simulasi yang gagal dilewati saja, kandidat lain tetap dipakai
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return results;
+    }
+
+    /**
+     * Membuat kandidat pukulan: arah langsung ke setiap bola objek aktif ditambah arah merata
+     * di sekeliling bola putih, masing-masing dengan beberapa tingkat kekuatan.
+     */
+    private List<Vector2D> generateCandidates(TableState state) {
+        List<Vector2D> candidates = new ArrayList<>();
+        int cue = findCueIndex(state);
+        if (cue < 0 || !state.isActive(cue)) return candidates;
+
+        List<Double> angles = new ArrayList<>();
+        for (int i = 0; i < state.getBallCount(); i++) {
+            if (state.isCue(i) || !state.isActive(i)) continue;
+            angles.add(Math.atan2(state.getY(i) - state.getY(cue), state.getX(i) - state.getX(cue)));
+        }
+        for (int i = 0; i < angleSamples; i++) {
+            angles.add(2 * Math.PI * i / angleSamples);
+        }
+
+        for (double angle : angles) {
+            for (double power : powerLevels) {
+                double force = power * CueStick.MAX_FORCE;
+                candidates.add(new Vector2D(Math.cos(angle) * force, Math.sin(angle) * force));
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Bonus kecil untuk posisi bola putih yang dekat dengan bola objek berikutnya,
+     * sehingga urutan dengan "posisi" yang lebih baik dipilih saat skor sama.
+     */
+    private double positionBonus(TableState state) {
+        int cue = findCueIndex(state);
+        if (cue < 0) return 0;
+        double diagonal = Math.hypot(simulator.getTableWidth(), simulator.getTableHeight());
+        double nearest = diagonal;
+        for (int i = 0; i < state.getBallCount(); i++) {
+            if (state.isCue(i) || !state.isActive(i)) continue;
+            nearest = Math.min(nearest, Math.hypot(state.getX(i) - state.getX(cue), state.getY(i) - state.getY(cue)));
+        }
+        return 2.0 * (1.0 - nearest / diagonal);
+    }
+
+    /** Pukulan cadangan jika tidak ada simulasi yang selesai: arah ke bola terdekat, kekuatan sedang. */
+    private Vector2D fallbackShot(TableState state) {
+        int cue = findCueIndex(state);
+        if (cue < 0) return new Vector2D(0, 0);
+        int target = -1;
+        double nearest = Double.MAX_VALUE;
+        for (int i = 0; i < state.getBallCount(); i++) {
+            if (state.isCue(i) || !state.isActive(i)) continue;
+            double d = Math.hypot(state.getX(i) - state.getX(cue), state.getY(i) - state.getY(cue));
+            if (d < nearest) {
+                nearest = d;
+                target = i;
+            }
+        }
+        if (target < 0) return new Vector2D(0, 0);
+        Vector2D dir = new Vector2D(state.getX(target) - state.getX(cue), state.getY(target) - state.getY(cue)).normalize();
+        return dir.multiply(0.5 * CueStick.MAX_FORCE);
+    }
+
+    private static long quantiseShot(Vector2D shot) {
+        long angle = Math.round(Math.atan2(shot.getY(), shot.getX()) / ANGLE_QUANTUM);
+        long power = Math.round(shot.length() / POWER_QUANTUM);
+        return angle * 1_000_003L + power;
+    }
+
+    /**
+     * Hash verifikasi entri transposition table: basis berbeda dari kunci, ditambah jenis bola,
+     * dengan kuantisasi yang sama (posisi setara tetap cocok).
+     */
+    private static long checkHash(TableState state, Vector2D shot) {
+        long hash = 0x84222325cbf29ce4L;
+        hash = mix(hash, state.getBallCount());
+        hash = mix(hash, state.isCuePendingRespawn() ? 1 : 0);
+        for (int i = 0; i < state.getBallCount(); i++) {
+            hash = mix(hash, state.isCue(i) ? -1 : state.getType(i).hashCode());
+            hash = mix(hash, state.isActive(i) ? 1 : 0);
+            if (!state.isActive(i)) continue;
+            hash = mix(hash, Math.round(state.getX(i) / STATE_CELL_SIZE));
+            hash = mix(hash, Math.round(state.getY(i) / STATE_CELL_SIZE));
+            hash = mix(hash, Math.round(state.getVx(i) / STATE_CELL_SIZE));
+            hash = mix(hash, Math.round(state.getVy(i) / STATE_CELL_SIZE));
+        }
+        return mix(hash, quantiseShot(shot));
+    }
+
+    private static long mix(long hash, long value) {
+        hash ^= value;
+        hash *= 0x100000001b3L; // FNV-1a prime
+        return hash ^ (hash >>> 29);
+    }
+
+    private static int findCueIndex(TableState state) {
+        for (int i = 0; i < state.getBallCount(); i++) {
+            if (state.isCue(i)) return i;
+        }
+        return -1;
+    }
+
+    /** Menghentikan thread pool planner. */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Memainkan run-out dari posisi break standar: setiap giliran planner memilih pukulan,
+     * pukulan disimulasikan, lalu meja diganti dengan keadaan akhirnya. Berhenti saat pukulan
+     * tidak memasukkan bola, terjadi foul, atau meja kosong. Parameter fisika dan solver
+     * kontak dibaca dari {@code billiards.physics} / {@code billiards.solver}.
+     * <p>
+     * Argumen: {@code [budgetMs] [shots] [simulationBudget]} (default 500, 8, 0).
+     * </p>
+     */
+    public static void main(String[] args) throws IOException {
+        long budgetMs = args.length > 0 ? Long.parseLong(args[0]) : 500;
+        int shots = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int simulationBudget = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        ShotSimulator simulator = ShotSimulator.fromSystemProperties(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT);
+        TableState state = TableState.capture(BilliardApp.createStandardBalls(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT), 0);
+        try (ShotPlanner planner = new ShotPlanner(simulator, Runtime.getRuntime().availableProcessors())) {
+            planner.setSimulationBudget(simulationBudget);
+            for (int turn = 1; turn <= shots; turn++) {
+                long begin = System.nanoTime();
+                Vector2D shot = planner.planNextShot(state, budgetMs);
+                double planMs = (System.nanoTime() - begin) / 1e6;
+                ShotOutcome outcome = simulator.simulate(state, shot);
+                System.out.printf(Locale.ROOT, "%2d. shot (%.1f, %.1f) planned in %.0f ms: pocketed %s%s, score %+d%n",
+                        turn, shot.getX(), shot.getY(), planMs, Arrays.toString(outcome.getPocketedBalls()),
+                        outcome.isFoul() ? " (foul)" : "", outcome.getScoreDelta());
+                state = outcome.getFinalState();
+                if (outcome.getPocketedCount() == 0 || outcome.isFoul() || !hasObjectBall(state)) break;
+            }
+            System.out.printf(Locale.ROOT, "simulations: %d full, %d coarse; final score %d%n",
+                    planner.getSimulationCount(), planner.getCoarseSimulationCount(), state.getPlayerScore());
+        }
+    }
+
+    private static boolean hasObjectBall(TableState state) {
+        for (int i = 0; i < state.getBallCount(); i++) {
+            if (!state.isCue(i) && state.isActive(i)) return true;
+        }
+        return false;
+    }
+
+    // --- Getter dan Setter Parameter ---
+
+    public int getDepth() { return depth; }
+    public void setDepth(int depth) { this.depth = depth; }
+    public int getBeamWidth() { return beamWidth; }
+    public void setBeamWidth(int beamWidth) { this.beamWidth = beamWidth; }
+    public int getAngleSamples() { return angleSamples; }
+    public void setAngleSamples(int angleSamples) { this.angleSamples = angleSamples; }
+    public double[] getPowerLevels() { return powerLevels; }
+    public void setPowerLevels(double[] powerLevels) { this.powerLevels = powerLevels; }
+    public int getScreeningTopK() { return screeningTopK; }
+    /** @param screeningTopK Jumlah kandidat per kedalaman yang disimulasikan penuh (0 = tanpa penyaringan). */
+    public void setScreeningTopK(int screeningTopK) { this.screeningTopK = Math.max(0, screeningTopK); }
+    public int getSimulationBudget() { return simulationBudget; }
+    /** @param simulationBudget Jumlah maksimum simulasi presisi penuh per pencarian (0 = hanya dibatasi waktu). */
+    public void setSimulationBudget(int simulationBudget) { this.simulationBudget = Math.max(0, simulationBudget); }
+    public long getSimulationCount() { return simulations.get(); }
+    public long getCoarseSimulationCount() { return coarseSimulations.get(); }
+    /** @return Kecocokan hasil simulasi kasar dengan presisi penuh untuk kandidat yang disimulasikan ulang. */
+    public CoarseShotSimulator.Agreement getTierAgreement() { return tierAgreement; }
+    public long getCacheHitCount() { return cacheHits.get(); }
+    /** @return Jumlah pencarian transposition table yang kuncinya cocok tetapi hash verifikasinya tidak. */
+    public long getCacheCollisionCount() { return cacheCollisions.get(); }
+    public int getTranspositionTableSize() { return transpositionTable.size(); }
+    public void clearTranspositionTable() { transpositionTable.clear(); }
+    public ShotOutcomeCache getOutcomeCache() { return simulator.getOutcomeCache(); }
+    public void setOutcomeCache(ShotOutcomeCache outcomeCache) { simulator.setOutcomeCache(outcomeCache); }
+}
@@ -0,0 +1,224 @@
+package com.billiards2d;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Simulator headless untuk menjalankan satu pukulan sampai semua bola berhenti.
+ * <p>
+ * Simulator ini memakai kelas yang sama dengan permainan ({@link Ball}, {@link PhysicsEngine},
+ * {@link Table}) dengan langkah waktu tetap seperti Game Loop (60 frame per detik, sub-step adaptif),
+ * tetapi tanpa rendering dan tanpa menunggu waktu nyata. Setiap panggilan membuat salinan
+ * objeknya sendiri, sehingga aman dipanggil dari banyak thread sekaligus.
+ * </p>
+ * Jika {@link ShotOutcomeCache} dipasang, {@link #simulate(TableState, Vector2D)} memeriksa
+ * cache terlebih dahulu dan menyimpan hasil simulasi baru ke cache. Untuk simulasi batch,
+ * {@link #setSinglePrecision(boolean)} menjalankan pukulan dengan {@link FloatSimulation}.
+ * Parameter fisika meja ({@link #getParameters()}) dipakai oleh semua jalur simulasi, termasuk
+ * float32, dan oleh {@link CoarseShotSimulator} yang dibuat pemanggil dari simulator ini.
+ * Jika simulator dibuat dengan {@link ContactSolver}, setiap simulasi mendapat salinan
+ * pengaturannya sendiri; mode float32 tidak mendukung solver ini, jadi simulasi tetap presisi ganda.
+ */
+public class ShotSimulator {
+
+    /** Waktu satu frame simulasi (detik), sama seperti Game Loop pada 60 FPS. */
+    public static final double FRAME_TIME = 1.0 / 60.0;
+
+    /**
+     * Callback yang dipanggil setelah setiap frame simulasi (misalnya untuk merekam lintasan).
+     */
+    @FunctionalInterface
+    public interface FrameListener {
+        /**
+         * @param frame Nomor frame (mulai dari 0 untuk keadaan awal sebelum pukulan).
+         * @param balls Daftar bola simulasi (jangan disimpan, isinya terus berubah).
+         */
+        void onFrame(int frame, List<Ball> balls);
+    }
+
+    private final double tableWidth;
+    private final double tableHeight;
+    /** Parameter fisika meja (gesekan dan restitusi). */
+    private final PhysicsParameters parameters;
+    /** Pengaturan solver tumbukan iteratif, atau null untuk tumbukan per pasangan. */
+    private final ContactSolver solverSettings;
+
+    /** Batas waktu simulasi agar pukulan yang tidak pernah berhenti tidak berjalan selamanya. */
+    private double maxSimulatedTime = 30.0;
+
+    /** Cache hasil pukulan persisten (opsional). */
+    private volatile ShotOutcomeCache outcomeCache;
+
+    /** true untuk menjalankan {@link #simulate(TableState, Vector2D)} dengan fisika float32. */
+    private volatile boolean singlePrecision = false;
+
+    /**
+     * Konstruktor ShotSimulator.
+     *
+     * @param tableWidth  Lebar area permainan.
+     * @param tableHeight Tinggi area permainan.
+     */
+    public ShotSimulator(double tableWidth, double tableHeight) {
+        this(tableWidth, tableHeight, PhysicsParameters.DEFAULT);
+    }
+
+    /**
+     * @param parameters Parameter fisika meja (misalnya hasil {@link PhysicsParameters#fromSystemProperty()}).
+     */
+    public ShotSimulator(double tableWidth, double tableHeight, PhysicsParameters parameters) {
+        this(tableWidth, tableHeight, parameters, null);
+    }
+
+    /**
+     * @param parameters    Parameter fisika meja.
+     * @param contactSolver Pengaturan solver tumbukan iteratif (disalin), atau null untuk per pasangan.
+     */
+    public ShotSimulator(double tableWidth, double tableHeight, PhysicsParameters parameters, ContactSolver contactSolver) {
+        this.tableWidth = tableWidth;
+        this.tableHeight = tableHeight;
+        this.parameters = parameters;
+        this.solverSettings = contactSolver == null ? null : contactSolver.copySettings();
+    }
+
+    /**
+     * Simulator dengan konfigurasi fisika yang sama seperti game: parameter dari
+     * {@code -Dbilliards.physics} dan solver dari {@code -Dbilliards.solver}.
+     */
+    public static ShotSimulator fromSystemProperties(double tableWidth, double tableHeight) throws IOException {
+        return new ShotSimulator(tableWidth, tableHeight,
+                PhysicsParameters.fromSystemProperty(), ContactSolver.fromSystemProperty());
+    }
+
+    /**
+     * Menyimulasikan pukulan dari keadaan awal tertentu sampai semua bola berhenti.
+     *
+     * @param start Keadaan awal meja (tidak diubah).
+     * @param shot  Vektor gaya pukulan untuk {@link CueBall#hit(Vector2D)}.
+     * @return Hasil pukulan.
+     * @throws java.util.concurrent.CancellationException Jika thread di-interrupt selama simulasi.
+     */
+    public ShotOutcome simulate(TableState start, Vector2D shot) {
+        // Hasil float tidak disimpan di cache (cache berisi hasil presisi ganda)
+        if (singlePrecision && solverSettings == null) {
+            return FloatSimulation.simulateShot(start, shot, tableWidth, tableHeight, parameters, maxSimulatedTime);
+        }
+        ShotOutcomeCache cache = outcomeCache;
+        if (cache == null) return simulate(start, shot, null);
+
+        ShotOutcome cached = cache.get(start, shot);
+        if (cached != null) return cached;
+        ShotOutcome outcome = simulate(start, shot, null);
+        cache.put(start, shot, outcome);
+        return outcome;
+    }
+
+    /**
+     * Menyimulasikan pukulan sambil memanggil listener setiap frame (selalu disimulasikan,
+     * tanpa memeriksa cache).
+     *
+     * @param start    Keadaan awal meja (tidak diubah).
+     * @param shot     Vektor gaya pukulan.
+     * @param listener Listener per frame, atau null.
+     * @return Hasil pukulan.
+     */
+    public ShotOutcome simulate(TableState start, Vector2D shot, FrameListener listener) {
+        // Logika frame yang sama persis dengan permainan (termasuk respawn bola putih)
+        Simulation simulation = Simulation.fromState(start, tableWidth, tableHeight, parameters);
+        if (solverSettings != null) simulation.getPhysicsEngine().setContactSolver(solverSettings.copySettings());
+        return simulate(simulation, start, shot, listener);
+    }
+
+    /**
+     * Menjalankan pukulan pada simulasi headless yang sudah disiapkan pemanggil (misalnya dengan
+     * parameter fisika atau solver tumbukan tertentu).
+     *
+     * @param simulation Simulasi baru dari {@link Simulation#fromState} dengan keadaan {@code start}.
+     * @param start      Keadaan awal meja (untuk menentukan bola yang masuk dan selisih skor).
+     * @param shot       Vektor gaya pukulan.
+     * @param listener   Listener per frame, atau null.
+     * @return Hasil pukulan.
+     */
+    ShotOutcome simulate(Simulation simulation, TableState start, Vector2D shot, FrameListener listener) {
+        List<Ball> balls = simulation.getBalls();
+        PhysicsEngine engine = simulation.getPhysicsEngine();
+
+        CueBall cueBall = simulation.getCueBall();
+        if (cueBall != null && cueBall.isActive()) {
+            cueBall.hit(shot);
+        }
+        if (listener != null) listener.onFrame(0, balls);
+
+        int frame = 0;
+        int maxFrames = (int) Math.ceil(maxSimulatedTime / FRAME_TIME);
+        while (frame < maxFrames) {
+            checkCancelled();
+            simulation.advance(FRAME_TIME);
+            frame++;
+            if (listener != null) listener.onFrame(frame, balls);
+
+            if (simulation.areAllBallsStopped() && (cueBall == null || !cueBall.isPendingRespawn())) break;
+        }
+        int steps = (int) simulation.getTotalSubSteps();
+        boolean foul = engine.getFoulCount() > 0;
+
+        List<Integer> pocketed = new ArrayList<>();
+        for (int i = 0; i < balls.size(); i++) {
+            if (!start.isCue(i) && start.isActive(i) && !balls.get(i).isActive()) {
+                pocketed.add(i);
+            }
+        }
+        int[] pocketedBalls = new int[pocketed.size()];
+        for (int i = 0; i < pocketedBalls.length; i++) pocketedBalls[i] = pocketed.get(i);
+
+        TableState finalState = TableState.capture(balls, engine.getPlayerScore());
+        return new ShotOutcome(finalState, pocketedBalls, foul,
+                engine.getPlayerScore() - start.getPlayerScore(), frame * FRAME_TIME, steps);
+    }
+
+    /**
+     * Menghentikan simulasi yang thread-nya sudah di-interrupt (misalnya future yang dibatalkan
+     * saat batas waktu {@link ShotPlanner} habis), agar tidak terus memakai CPU. Hasil setengah
+     * jadi tidak pernah dikembalikan atau disimpan ke cache.
+     *
+     * @throws CancellationException Jika thread saat ini di-interrupt (status interrupt tetap diset).
+     */
+    static void checkCancelled() {
+        if (Thread.currentThread().isInterrupted()) throw new CancellationException("Simulasi pukulan dibatalkan");
+    }
+
+    /** Helper: cari bola putih di dalam daftar bola. */
+    static CueBall findCueBall(List<? extends Ball> balls) {
+        for (Ball ball : balls) {
+            if (ball instanceof CueBall) return (CueBall) ball;
+        }
+        return null;
+    }
+
+    /** Helper: sama seperti pengecekan di CueStick dan Game Loop. */
+    static boolean areAllBallsStopped(List<? extends Ball> balls) {
+        for (int i = 0; i < balls.size(); i++) {
+            Ball ball = balls.get(i);
+            if (ball.isActive() && ball.getSpeed() > 0.1) return false;
+        }
+        return true;
+    }
+
+    public double getTableWidth() { return tableWidth; }
+    public double getTableHeight() { return tableHeight; }
+    public PhysicsParameters getParameters() { return parameters; }
+    /** @return Salinan pengaturan solver tumbukan iteratif, atau null untuk tumbukan per pasangan. */
+    public ContactSolver getContactSolver() { return solverSettings == null ? null : solverSettings.copySettings(); }
+    public double getMaxSimulatedTime() { return maxSimulatedTime; }
+    public void setMaxSimulatedTime(double maxSimulatedTime) { this.maxSimulatedTime = maxSimulatedTime; }
+    public ShotOutcomeCache getOutcomeCache() { return outcomeCache; }
+    /** @param outcomeCache Cache hasil pukulan, atau null untuk selalu menyimulasikan. */
+    public void setOutcomeCache(ShotOutcomeCache outcomeCache) { this.outcomeCache = outcomeCache; }
+    public boolean isSinglePrecision() { return singlePrecision; }
+    /**
+     * @param singlePrecision true untuk menyimulasikan pukulan dengan {@link FloatSimulation}
+     *                        (lebih cepat, akurasinya lihat laporan {@code FloatSimulation.main}).
+     */
+    public void setSinglePrecision(boolean singlePrecision) { this.singlePrecision = singlePrecision; }
+}
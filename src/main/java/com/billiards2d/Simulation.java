@@ -0,0 +1,353 @@
+package com.billiards2d;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Logika simulasi satu frame permainan, dipisahkan dari Game Loop JavaFX.
+ * <p>
+ * Kelas ini menjalankan urutan yang sama seperti sebelumnya ada di dalam {@code GameLoop}:
+ * eksekusi perintah pukulan, sub-stepping fisika, lalu logika respawn bola putih. Setiap bagian
+ * adalah sistem di {@link SystemScheduler} milik simulasi ini ("shots", "integration",
+ * "collisions", "respawn", "publish"), sehingga sistem lain bisa ditambahkan per fase lewat
+ * {@link #getScheduler()}.
+ * <p>
+ * Dalam mode resolve-ahead ({@link #setResolveAhead(boolean)}), pukulan langsung disimulasikan
+ * headless sampai selesai ({@link TrajectoryPlayback}); frame berikutnya hanya memutar ulang
+ * rekaman itu (sistem "playback") tanpa langkah fisika, lalu keadaan akhir yang persis
+ * diterapkan ke meja. Sistem "publish" tetap berjalan di setiap frame rekaman, sehingga file
+ * keadaan meja bersama (dan pemulihan setelah crash) mengikuti posisi dan skor yang diputar.
+ * </p>
+ * Karena tidak bergantung pada JavaFX, kelas ini bisa dijalankan di JavaFX Application Thread
+ * maupun di thread simulasi tersendiri ({@link SimulationThread}).
+ * </p>
+ */
+public class Simulation {
+
+    private final Table table;
+    private final CueBall cueBall;
+    private final List<Ball> balls;
+    private final List<GameObject> gameObjects;
+    private final PhysicsEngine physicsEngine;
+    private final Queue<ShotCommand> shotQueue;
+
+    // --- Adaptive Sub-stepping ---
+    // Jumlah sub-step dipilih setiap frame dari kecepatan bola tercepat (mirip syarat CFL):
+    // dalam satu sub-step, tidak ada bola yang boleh berpindah lebih dari
+    // (MAX_TRAVEL_RATIO * radius), agar bola tidak tembus bola lain atau dinding.
+    private static final double MAX_TRAVEL_RATIO = 0.5;
+
+    // volatile: rentang bisa diubah dari thread UI (FrameBudgetGovernor) saat simulasi berjalan
+    // di thread sendiri.
+    /** Batas bawah sub-step per frame (0 = frame diam boleh tanpa langkah fisika sama sekali). */
+    private volatile int minSubSteps = 1;
+    /** Batas atas sub-step per frame (pengaman untuk pukulan sangat keras / frame sangat panjang). */
+    private volatile int maxSubSteps = 16;
+
+    /** Jumlah sub-step yang dipakai di frame terakhir (untuk HUD/statistik). */
+    private int lastSubSteps = 0;
+    /** Total sub-step sejak simulasi dibuat. */
+    private long totalSubSteps = 0;
+    /** Jeda dari input pukulan (lepas mouse) sampai pukulan terakhir dieksekusi (-1 = belum ada). */
+    private long lastShotLatencyNanos = -1;
+
+    // --- Resolve-ahead ---
+    private boolean resolveAhead = false;
+    /** Simulator untuk menyelesaikan pukulan di depan (dibuat saat mode diaktifkan). */
+    private ShotSimulator resolver;
+    /** Rekaman pukulan yang sedang diputar, atau null. */
+    private TrajectoryPlayback playback;
+    private double playbackTime;
+    /** Rekaman pukulan terakhir (tetap tersedia setelah selesai diputar). */
+    private TrajectoryPlayback lastPlayback;
+
+    /** Penjadwal sistem simulasi (fase INPUT, PHYSICS, RULES). */
+    private final SystemScheduler scheduler = new SystemScheduler();
+
+    /** Opsional: pengukur alokasi memori per frame simulasi (null = tidak diukur). */
+    private AllocationTracker allocationTracker;
+    /** Byte yang dialokasikan per sub-step di frame terakhir yang bergerak (-1 jika tidak diukur). */
+    private double lastAllocatedBytesPerStep = -1;
+
+    /**
+     * Konstruktor Simulation.
+     *
+     * @param table         Meja permainan.
+     * @param cueBall       Bola putih.
+     * @param balls         Semua bola (putih + warna).
+     * @param gameObjects   Objek yang di-update setiap sub-step (bola + PhysicsEngine).
+     * @param physicsEngine Physics engine (untuk skor).
+     * @param shotQueue     Antrean perintah pukulan dari stik.
+     */
+    public Simulation(Table table, CueBall cueBall, List<Ball> balls, List<GameObject> gameObjects,
+                      PhysicsEngine physicsEngine, Queue<ShotCommand> shotQueue) {
+        this.table = table;
+        this.cueBall = cueBall;
+        this.balls = balls;
+        this.gameObjects = gameObjects;
+        this.physicsEngine = physicsEngine;
+        this.shotQueue = shotQueue;
+        registerSystems();
+    }
+
+    /**
+     * Mendaftarkan sistem simulasi bawaan. Pocket, dinding, dan tumbukan antar bola tetap satu
+     * sistem ("collisions") karena {@link PhysicsEngine} memprosesnya bergantian per bola;
+     * memisahkannya akan mengubah urutan resolusi dan hasil simulasi.
+     */
+    private void registerSystems() {
+        scheduler.register("shots", SystemScheduler.Phase.INPUT, SystemScheduler.PER_FRAME, dt -> executeShots())
+                .reads("shotQueue").writes("balls");
+        scheduler.register("integration", SystemScheduler.Phase.PHYSICS, SystemScheduler.PER_SUB_STEP, this::integrate)
+                .writes("balls");
+        scheduler.register("playback", SystemScheduler.Phase.PHYSICS, SystemScheduler.PER_FRAME, this::advancePlayback)
+                .writes("balls", "score");
+        if (physicsEngine != null) {
+            scheduler.register("collisions", SystemScheduler.Phase.PHYSICS, SystemScheduler.PER_SUB_STEP, physicsEngine::update)
+                    .reads("table").writes("balls", "score");
+        }
+        scheduler.register("respawn", SystemScheduler.Phase.RULES, SystemScheduler.PER_FRAME, dt -> handleCueBallRespawn())
+                .reads("table").writes("balls");
+        if (physicsEngine != null) {
+            // Terakhir di frame: keadaan akhir (termasuk respawn) sampai ke file bersama
+            scheduler.register("publish", SystemScheduler.Phase.RULES, SystemScheduler.PER_FRAME, dt -> physicsEngine.publishSharedState())
+                    .reads("balls", "score").writes("sharedState");
+        }
+    }
+
+    /**
+     * Membuat simulasi headless baru dari keadaan meja tersimpan.
+     * Semua objek (meja, bola, engine) dibuat baru, dan log event engine dimatikan.
+     *
+     * @param state       Keadaan awal meja (tidak diubah).
+     * @param tableWidth  Lebar area permainan.
+     * @param tableHeight Tinggi area permainan.
+     * @return Simulasi yang siap di-{@link #advance(double)}.
+     */
+    public static Simulation fromState(TableState state, double tableWidth, double tableHeight) {
+        return fromState(state, tableWidth, tableHeight, PhysicsParameters.DEFAULT);
+    }
+
+    /**
+     * Sama seperti {@link #fromState(TableState, double, double)}, dengan parameter fisika tertentu.
+     *
+     * @param parameters Parameter fisika meja (gesekan dan restitusi).
+     */
+    public static Simulation fromState(TableState state, double tableWidth, double tableHeight,
+                                       PhysicsParameters parameters) {
+        Table table = new Table(tableWidth, tableHeight);
+        List<Ball> balls = state.toBalls();
+
+        List<GameObject> objects = new ArrayList<>(balls);
+        PhysicsEngine engine = new PhysicsEngine(table, objects);
+        engine.setLogEvents(false);
+        engine.setPlayerScore(state.getPlayerScore());
+        engine.setParameters(parameters);
+        objects.add(engine);
+
+        return new Simulation(table, ShotSimulator.findCueBall(balls), balls, objects, engine, new ArrayDeque<>());
+    }
+
+    /**
+     * Memajukan simulasi sebanyak satu frame.
+     *
+     * @param deltaTime Waktu frame (detik), sudah dibatasi oleh pemanggil.
+     */
+    public void advance(double deltaTime) {
+        scheduler.beginFrame();
+        // Eksekusi pukulan di batas langkah fisika, bukan di tengah sub-step
+        scheduler.runPhase(SystemScheduler.Phase.INPUT, deltaTime, 0);
+
+        // Physics Sub-stepping: Memecah satu update besar menjadi beberapa langkah kecil
+        // untuk meningkatkan akurasi deteksi tabrakan dan mencegah bola tembus dinding.
+        // Selama rekaman pukulan diputar, tidak ada langkah fisika
+        int subSteps = playback != null ? 0 : computeSubSteps(deltaTime);
+        if (allocationTracker != null) allocationTracker.begin();
+        scheduler.runPhase(SystemScheduler.Phase.PHYSICS, deltaTime, subSteps);
+        if (allocationTracker != null) {
+            long bytes = allocationTracker.end();
+            // Frame idle (tanpa sub-step) tidak mengubah angka terakhir
+            if (subSteps > 0) lastAllocatedBytesPerStep = bytes < 0 ? -1 : (double) bytes / subSteps;
+        }
+        lastSubSteps = subSteps;
+        totalSubSteps += subSteps;
+
+        scheduler.runPhase(SystemScheduler.Phase.RULES, deltaTime, 0);
+    }
+
+    private void executeShots() {
+        ShotCommand shot;
+        while ((shot = shotQueue.poll()) != null) {
+            if (cueBall == null) continue;
+            lastShotLatencyNanos = System.nanoTime() - shot.getTimestampNanos();
+            if (resolveAhead && physicsEngine != null) {
+                startPlayback(shot.getForce());
+            } else {
+                cueBall.hit(shot.getForce());
+            }
+        }
+    }
+
+    /** Menyelesaikan pukulan sampai semua bola berhenti, lalu mulai memutar rekamannya. */
+    private void startPlayback(Vector2D force) {
+        if (playback != null) finishPlayback(); // Pukulan baru sebelum rekaman lama selesai
+        TableState start = TableState.capture(balls, physicsEngine.getPlayerScore());
+        playback = TrajectoryPlayback.resolve(start, force, resolver, this);
+        lastPlayback = playback;
+        playbackTime = 0;
+        playback.applyTo(0, balls);
+    }
+
+    /** Sistem "playback": memajukan rekaman pukulan (tidak melakukan apa pun tanpa rekaman). */
+    private void advancePlayback(double deltaTime) {
+        if (playback == null) return;
+        playbackTime += deltaTime;
+        if (playback.isFinished(playbackTime)) {
+            finishPlayback();
+            return;
+        }
+        playback.applyTo(playbackTime, balls);
+        physicsEngine.setPlayerScore(playback.getScoreAt(playbackTime));
+    }
+
+    /** Menerapkan keadaan akhir pukulan yang persis (bukan hasil interpolasi float). */
+    private void finishPlayback() {
+        TableState finalState = playback.getOutcome().getFinalState();
+        finalState.applyTo(balls);
+        physicsEngine.setPlayerScore(finalState.getPlayerScore());
+        playback = null;
+    }
+
+    /** Sistem "integration": update posisi semua objek selain engine fisika. */
+    private void integrate(double subDeltaTime) {
+        for (int i = 0; i < gameObjects.size(); i++) {
+            GameObject obj = gameObjects.get(i);
+            if (obj != physicsEngine) obj.update(subDeltaTime);
+        }
+    }
+
+    /**
+     * Menghitung jumlah sub-step untuk frame ini dari kecepatan bola tercepat relatif
+     * terhadap radiusnya. Frame diam memakai {@link #minSubSteps}, pukulan keras mendapat
+     * langkah lebih banyak sampai {@link #maxSubSteps}.
+     *
+     * @param deltaTime Waktu frame (detik).
+     * @return Jumlah sub-step.
+     */
+    int computeSubSteps(double deltaTime) {
+        double maxTravelRatio = 0; // Perpindahan terjauh per frame dibanding radius bola
+        for (int i = 0; i < balls.size(); i++) {
+            Ball ball = balls.get(i);
+            if (!ball.isActive()) continue;
+            double travel = ball.getSpeed() * deltaTime / ball.getRadius();
+            if (travel > maxTravelRatio) maxTravelRatio = travel;
+        }
+
+        int steps = (int) Math.ceil(maxTravelRatio / MAX_TRAVEL_RATIO);
+        return Math.max(minSubSteps, Math.min(maxSubSteps, steps));
+    }
+
+    /**
+     * Memunculkan kembali bola putih di Head Spot setelah foul,
+     * tetapi hanya jika semua bola lain sudah berhenti.
+     */
+    private void handleCueBallRespawn() {
+        if (cueBall == null || !cueBall.isPendingRespawn()) return;
+
+        // Cek apakah semua bola LAIN (selain cueball) sudah berhenti
+        for (Ball b : balls) {
+            if (b != cueBall && b.isActive() && b.getSpeed() > 0.1) {
+                return;
+            }
+        }
+
+        // Jika semua sudah berhenti, baru munculkan bola putih
+        cueBall.setPosition(table.getHeadSpot()); // Posisi Reset
+        cueBall.setVelocity(0, 0);
+        cueBall.setPendingRespawn(false);
+        cueBall.setActive(true); // Aktifkan kembali fisikanya
+    }
+
+    /** @return true jika semua bola aktif sudah berhenti. */
+    public boolean areAllBallsStopped() {
+        return ShotSimulator.areAllBallsStopped(balls);
+    }
+
+    /**
+     * Mengecek apakah meja benar-benar diam: tidak ada pukulan yang menunggu, bola putih
+     * tidak menunggu respawn, dan semua bola berhenti. Pada keadaan ini {@link #advance(double)}
+     * tidak mengubah apapun, sehingga frame boleh dilewati sama sekali.
+     *
+     * @return true jika simulasi sedang idle.
+     */
+    public boolean isIdle() {
+        return shotQueue.isEmpty()
+                && playback == null
+                && (cueBall == null || !cueBall.isPendingRespawn())
+                && areAllBallsStopped();
+    }
+
+    // --- Getter dan Setter ---
+
+    public Table getTable() { return table; }
+    public CueBall getCueBall() { return cueBall; }
+    public List<Ball> getBalls() { return balls; }
+    public List<GameObject> getGameObjects() { return gameObjects; }
+    public PhysicsEngine getPhysicsEngine() { return physicsEngine; }
+    public int getMinSubSteps() { return minSubSteps; }
+    public int getMaxSubSteps() { return maxSubSteps; }
+    public int getLastSubSteps() { return lastSubSteps; }
+    public long getTotalSubSteps() { return totalSubSteps; }
+    /** @return Jeda input-ke-eksekusi pukulan terakhir (milidetik), -1 jika belum ada pukulan. */
+    public double getLastShotLatencyMillis() {
+        return lastShotLatencyNanos < 0 ? -1 : lastShotLatencyNanos / 1_000_000.0;
+    }
+    public AllocationTracker getAllocationTracker() { return allocationTracker; }
+    public SystemScheduler getScheduler() { return scheduler; }
+    public boolean isResolveAhead() { return resolveAhead; }
+    /** @return true selama rekaman pukulan sedang diputar. */
+    public boolean isPlayingBack() { return playback != null; }
+    /** @return Rekaman pukulan terakhir dalam mode resolve-ahead (hasilnya sudah final), atau null. */
+    public TrajectoryPlayback getLastPlayback() { return lastPlayback; }
+
+    /**
+     * Mengaktifkan mode resolve-ahead: setiap pukulan dari antrean langsung disimulasikan sampai
+     * selesai, lalu diputar ulang dengan interpolasi. Hasil pukulan tersedia lewat
+     * {@link #getLastPlayback()} sejak frame pukulan.
+     *
+     * @param resolveAhead true untuk mengaktifkan.
+     */
+    public void setResolveAhead(boolean resolveAhead) {
+        this.resolveAhead = resolveAhead;
+        if (resolveAhead && resolver == null) resolver = new ShotSimulator(table.getWidth(), table.getHeight());
+    }
+    /** @return Byte per sub-step di frame terakhir, atau -1 jika tidak diukur. */
+    public double getLastAllocatedBytesPerStep() { return lastAllocatedBytesPerStep; }
+
+    /**
+     * Mengaktifkan pengukuran alokasi memori per langkah fisika. Tracker dipakai di thread yang
+     * menjalankan {@link #advance(double)}.
+     *
+     * @param allocationTracker Tracker, atau null untuk menonaktifkan.
+     */
+    public void setAllocationTracker(AllocationTracker allocationTracker) {
+        this.allocationTracker = allocationTracker;
+        if (allocationTracker == null) lastAllocatedBytesPerStep = -1;
+    }
+
+    /**
+     * Mengatur batas jumlah sub-step per frame. Nilai min == max berarti jumlah sub-step tetap.
+     *
+     * @param minSubSteps Batas bawah (boleh 0 agar frame diam melewati fisika).
+     * @param maxSubSteps Batas atas (minimal 1).
+     */
+    public void setSubStepRange(int minSubSteps, int maxSubSteps) {
+        if (minSubSteps < 0 || maxSubSteps < 1 || minSubSteps > maxSubSteps) {
+            throw new IllegalArgumentException("Rentang sub-step tidak valid: " + minSubSteps + ".." + maxSubSteps);
+        }
+        this.minSubSteps = minSubSteps;
+        this.maxSubSteps = maxSubSteps;
+    }
+}
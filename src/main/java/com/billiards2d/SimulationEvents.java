@@ -0,0 +1,131 @@
+package com.billiards2d;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Event Java Flight Recorder (JFR) untuk pipeline simulasi dan render.
+ * <p>
+ * Event ini bisa direkam di produksi dengan overhead kecil, misalnya:
+ * <pre>
+ * java -XX:StartFlightRecording=filename=billiards.jfr,settings=profile ...
+ * </pre>
+ * lalu dibuka di JDK Mission Control bersama event GC dan JIT bawaan untuk melihat dari mana
+ * lonjakan latensi berasal. Jika recording tidak aktif, {@code shouldCommit()} bernilai false
+ * dan JIT menghapus objek event-nya, jadi biayanya hampir nol. Stack trace dimatikan pada
+ * event yang sering terjadi agar overhead tetap kecil.
+ * </p>
+ */
+final class SimulationEvents {
+
+    private SimulationEvents() {
+        // Hanya wadah kelas event
+    }
+
+    /** Satu langkah fisika (satu sub-step {@link PhysicsEngine#update(double)}). */
+    @Name("com.billiards2d.PhysicsStep")
+    @Label("Physics Step")
+    @Category({"Billiards 2D", "Physics"})
+    @Description("One physics sub-step: pocket, wall and ball-ball collision checks")
+    @StackTrace(false)
+    static class PhysicsStep extends Event {
+        @Label("Active Balls")
+        int ballCount;
+
+        @Label("Pair Tests")
+        @Description("Ball-ball pairs checked for overlap")
+        long pairTests;
+
+        @Label("Contacts")
+        @Description("Ball-ball pairs that were touching or overlapping")
+        int contacts;
+
+        @Label("Iterative Solver")
+        boolean iterativeSolver;
+    }
+
+    /** Bola masuk lubang (termasuk foul bola putih). */
+    @Name("com.billiards2d.Pocket")
+    @Label("Ball Pocketed")
+    @Category({"Billiards 2D", "Physics"})
+    @StackTrace(false)
+    static class Pocket extends Event {
+        @Label("Ball Type")
+        String ballType;
+
+        @Label("Foul")
+        boolean foul;
+
+        @Label("Score After")
+        int score;
+    }
+
+    /** Satu pulse Game Loop (input, simulasi inline, dan render). */
+    @Name("com.billiards2d.Frame")
+    @Label("Frame")
+    @Category({"Billiards 2D", "Render"})
+    @StackTrace(false)
+    static class Frame extends Event {
+        @Label("Frame Number")
+        long frameNumber;
+
+        @Label("Input Events")
+        boolean hadInput;
+
+        @Label("Simulated Inline")
+        @Description("Physics ran on the JavaFX thread in this frame")
+        boolean simulated;
+
+        @Label("Sub-steps")
+        int subSteps;
+    }
+
+    /** Satu fase render (meja, bola, stik, HUD, atau rasterisasi/encoding offline). */
+    @Name("com.billiards2d.RenderPhase")
+    @Label("Render Phase")
+    @Category({"Billiards 2D", "Render"})
+    @StackTrace(false)
+    static class RenderPhase extends Event {
+        @Label("Phase")
+        String phase;
+
+        @Label("Frame Number")
+        long frameNumber;
+    }
+
+    /** Perhitungan garis prediksi di {@link CueStick}. */
+    @Name("com.billiards2d.Prediction")
+    @Label("Shot Prediction")
+    @Category({"Billiards 2D", "Input"})
+    @StackTrace(false)
+    static class Prediction extends Event {
+        @Label("Balls Tested")
+        int ballsTested;
+
+        @Label("Hits Ball")
+        boolean hitsBall;
+
+        @Label("Distance")
+        @Description("Distance from the cue ball to the predicted impact point (pixels)")
+        double distance;
+    }
+
+    /** Satu frame yang ditulis {@link HeadlessRenderer} ke PNG. */
+    @Name("com.billiards2d.EncodedFrame")
+    @Label("Encoded Frame")
+    @Category({"Billiards 2D", "Render"})
+    @StackTrace(false)
+    static class EncodedFrame extends Event {
+        @Label("Frame Index")
+        int index;
+
+        @Label("File Size")
+        @DataAmount
+        long bytes;
+    }
+}
@@ -0,0 +1,120 @@
+package com.billiards2d;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Thread khusus yang menjalankan {@link Simulation} dengan laju tetap, terpisah dari
+ * JavaFX Application Thread.
+ * <p>
+ * Setelah setiap frame simulasi, keadaan meja disalin ke {@link RenderSnapshot} dan
+ * dipublikasikan lewat {@link TripleBuffer}. Game Loop JavaFX hanya membaca snapshot terbaru,
+ * sehingga langkah fisika yang berat tidak menunda render dan sebaliknya.
+ * </p>
+ * Selama meja diam ({@link Simulation#isIdle()}), thread ini tidak menjalankan fisika dan
+ * tidak mempublikasikan snapshot. Saat simulasi aktif kembali (ada pukulan), callback
+ * {@link #setOnResume(Runnable)} dipanggil agar Game Loop yang sedang berhenti dibangunkan.
+ */
+public class SimulationThread extends Thread {
+
+    private final Simulation simulation;
+    private final TripleBuffer<RenderSnapshot> snapshots;
+    private final long frameNanos;
+
+    private volatile boolean running = true;
+    private long frameNumber = 0;
+
+    /**
+     * Status idle frame terakhir. Ditulis thread ini, dibaca Game Loop: true hanya setelah
+     * snapshot terakhir dipublikasikan, jadi tidak ada snapshot baru yang akan datang.
+     */
+    private volatile boolean idle = false;
+    /** Dipanggil dari thread simulasi saat berpindah dari idle ke aktif. */
+    private volatile Runnable onResume;
+
+    /**
+     * @param simulation Simulasi yang dijalankan.
+     * @param snapshots  Buffer tujuan snapshot render.
+     * @param frameRate  Jumlah frame simulasi per detik (misalnya 60).
+     */
+    public SimulationThread(Simulation simulation, TripleBuffer<RenderSnapshot> snapshots, int frameRate) {
+        super("simulation");
+        setDaemon(true);
+        this.simulation = simulation;
+        this.snapshots = snapshots;
+        this.frameNanos = TimeUnit.SECONDS.toNanos(1) / frameRate;
+    }
+
+    @Override
+    public void run() {
+        long next = System.nanoTime();
+        long last = next;
+        while (running) {
+            long now = System.nanoTime();
+            double deltaTime = (now - last) / 1_000_000_000.0;
+            last = now;
+            // Safety Cap yang sama seperti Game Loop agar fisika tidak "meledak"
+            if (deltaTime > 0.05) deltaTime = 0.05;
+
+            if (simulation.isIdle()) {
+                // Meja diam: tidak ada yang perlu dihitung atau digambar ulang
+                idle = true;
+            } else {
+                if (idle) {
+                    idle = false;
+                    Runnable callback = onResume;
+                    if (callback != null) callback.run();
+                }
+                simulation.advance(deltaTime);
+
+                RenderSnapshot snapshot = snapshots.getWriteBuffer();
+                snapshot.captureFrom(simulation, frameNumber++);
+                snapshots.publish();
+            }
+
+            // Tunggu sampai jadwal frame berikutnya (jika tertinggal, langsung lanjut)
+            next += frameNanos;
+            long sleep = next - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(sleep);
+            } else {
+                next = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Mengatur callback yang dipanggil (dari thread simulasi) saat meja mulai bergerak
+     * setelah idle.
+     */
+    public void setOnResume(Runnable onResume) {
+        this.onResume = onResume;
+    }
+
+    /**
+     * @return true jika meja sedang diam dan thread ini tidak mempublikasikan snapshot lagi
+     *         sampai ada pukulan (saat itu {@link #setOnResume(Runnable) onResume} dipanggil).
+     */
+    public boolean isIdle() {
+        return idle;
+    }
+
+    /** Menghentikan thread simulasi di akhir frame yang sedang berjalan (tanpa menunggu). */
+    public void shutdown() {
+        running = false;
+        LockSupport.unpark(this);
+    }
+
+    /**
+     * Menghentikan thread simulasi dan menunggu frame yang sedang berjalan selesai, sehingga
+     * bola tidak lagi diubah oleh thread ini setelah method ini mengembalikan true.
+     *
+     * @param timeoutMillis Batas waktu menunggu (milidetik).
+     * @return true jika thread sudah berhenti dalam batas waktu.
+     */
+    public boolean shutdownAndWait(long timeoutMillis) throws InterruptedException {
+        shutdown();
+        join(timeoutMillis);
+        return !isAlive();
+    }
+}
@@ -0,0 +1,76 @@
+package com.billiards2d;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.List;
+
+/**
+ * Proses worker untuk {@link SimulationWorkerPool}.
+ * <p>
+ * Worker terhubung ke koordinator lewat socket loopback, menerima batch {@link ShotJob},
+ * menyimulasikannya dengan {@link ShotSimulator}, lalu mengirim balik hasilnya. Setiap worker
+ * adalah JVM terpisah dengan heap dan GC sendiri. Worker berhenti saat menerima SHUTDOWN
+ * atau saat koneksi ke koordinator terputus.
+ * </p>
+ * Dijalankan otomatis oleh koordinator:
+ * <pre>
+ * java -cp ... com.billiards2d.SimulationWorker &lt;port&gt; &lt;index&gt;
+ * </pre>
+ */
+public class SimulationWorker {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: SimulationWorker <port> <index>");
+            System.exit(2);
+        }
+        int port = Integer.parseInt(args[0]);
+        int index = Integer.parseInt(args[1]);
+
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+
+            out.writeInt(WorkerProtocol.MAGIC);
+            out.writeInt(WorkerProtocol.VERSION);
+            out.writeInt(index);
+            out.flush();
+
+            double tableWidth = in.readDouble();
+            double tableHeight = in.readDouble();
+            double maxSimulatedTime = in.readDouble();
+            PhysicsParameters parameters = new PhysicsParameters(in.readDouble(), in.readDouble(), in.readDouble());
+            ContactSolver solver = null;
+            if (in.readBoolean()) {
+                solver = new ContactSolver();
+                solver.setVelocityIterations(in.readInt());
+                solver.setPositionIterations(in.readInt());
+                solver.setWarmStartFactor(in.readDouble());
+            }
+            ShotSimulator simulator = new ShotSimulator(tableWidth, tableHeight, parameters, solver);
+            simulator.setMaxSimulatedTime(maxSimulatedTime);
+
+            while (true) {
+                byte message = in.readByte();
+                if (message == WorkerProtocol.SHUTDOWN) break;
+                if (message != WorkerProtocol.BATCH) throw new IOException("Pesan tidak dikenal: " + message);
+
+                List<ShotJob> jobs = WorkerProtocol.readBatch(in);
+                out.writeInt(jobs.size());
+                for (ShotJob job : jobs) {
+                    WorkerProtocol.writeOutcome(out, simulator.simulate(job.getStart(), job.getShot()));
+                }
+                out.flush();
+            }
+        } catch (EOFException e) {
+            // Koordinator menutup koneksi: berhenti dengan tenang
+        }
+    }
+}
@@ -0,0 +1,439 @@
+package com.billiards2d;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Koordinator yang membagi sapuan pukulan (shot sweep) besar ke beberapa proses JVM worker
+ * di host yang sama.
+ * <p>
+ * Koordinator membuka {@link ServerSocket} di alamat loopback, menjalankan sejumlah proses
+ * {@link SimulationWorker} yang terhubung balik ke port tersebut, lalu membagi job menjadi
+ * batch. Setiap worker mengambil batch berikutnya segera setelah batch sebelumnya selesai,
+ * jadi worker yang cepat mendapat lebih banyak pekerjaan. Keadaan meja dikirim dalam format
+ * biner ringkas ({@link WorkerProtocol}). Karena setiap worker punya heap sendiri, sapuan yang
+ * sangat besar tidak dibatasi GC satu JVM.
+ * </p>
+ * Dengan satu worker (atau kurang), tidak ada proses yang dijalankan: job disimulasikan
+ * langsung di proses ini. Jika sebuah worker mati di tengah jalan, batch yang hilang
+ * disimulasikan ulang di proses ini, jadi hasil tetap lengkap.
+ * <p>
+ * Jika {@link ShotOutcomeCache} dipasang, job yang hasilnya sudah ada di cache tidak dikirim
+ * ke worker sama sekali, dan hasil baru dari worker disimpan ke cache di proses koordinator.
+ * </p>
+ */
+public class SimulationWorkerPool implements AutoCloseable {
+
+    /** Jumlah job per batch yang dikirim ke worker. */
+    private static final int DEFAULT_BATCH_SIZE = 32;
+    /** Batas waktu menunggu worker terhubung setelah prosesnya dijalankan. */
+    private static final int CONNECT_TIMEOUT_MS = 30_000;
+
+    /** Satu koneksi ke proses worker. */
+    private static class WorkerConnection {
+        final Process process;
+        final Socket socket;
+        final DataInputStream in;
+        final DataOutputStream out;
+        boolean alive = true;
+
+        WorkerConnection(Process process, Socket socket, DataInputStream in) throws IOException {
+            this.process = process;
+            this.socket = socket;
+            this.in = in;
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+        }
+    }
+
+    private final ShotSimulator localSimulator;
+    private final CoarseShotSimulator coarseSimulator;
+    private final CoarseShotSimulator.Agreement tierAgreement = new CoarseShotSimulator.Agreement();
+    private final List<WorkerConnection> workers = new ArrayList<>();
+    private final ExecutorService dispatchers;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /** Jumlah batch yang terpaksa disimulasikan di proses ini karena worker gagal. */
+    private final AtomicInteger fallbackBatches = new AtomicInteger();
+
+    /**
+     * Konstruktor dengan opsi JVM worker default.
+     *
+     * @param tableWidth  Lebar area permainan.
+     * @param tableHeight Tinggi area permainan.
+     * @param workerCount Jumlah proses worker (1 atau kurang = simulasi di proses ini).
+     */
+    public SimulationWorkerPool(double tableWidth, double tableHeight, int workerCount) throws IOException {
+        this(tableWidth, tableHeight, workerCount, List.of());
+    }
+
+    /**
+     * @param tableWidth  Lebar area permainan.
+     * @param tableHeight Tinggi area permainan.
+     * @param workerCount Jumlah proses worker (1 atau kurang = simulasi di proses ini).
+     * @param jvmOptions  Opsi tambahan untuk JVM worker (misalnya "-Xmx512m").
+     */
+    public SimulationWorkerPool(double tableWidth, double tableHeight, int workerCount,
+                                List<String> jvmOptions) throws IOException {
+        this(new ShotSimulator(tableWidth, tableHeight), workerCount, jvmOptions);
+    }
+
+    /**
+     * @param simulator   Simulator lokal; ukuran meja, batas waktu, parameter fisika, dan solver
+     *                    tumbukannya dikirim ke setiap worker saat handshake.
+     * @param workerCount Jumlah proses worker (1 atau kurang = simulasi di proses ini).
+     * @param jvmOptions  Opsi tambahan untuk JVM worker (misalnya "-Xmx512m").
+     */
+    public SimulationWorkerPool(ShotSimulator simulator, int workerCount, List<String> jvmOptions) throws IOException {
+        this.localSimulator = simulator;
+        this.coarseSimulator = new CoarseShotSimulator(simulator.getTableWidth(), simulator.getTableHeight(),
+                simulator.getParameters());
+        if (workerCount <= 1) {
+            this.dispatchers = null;
+            return;
+        }
+
+        this.dispatchers = Executors.newFixedThreadPool(workerCount, r -> {
+            Thread t = new Thread(r, "worker-dispatch");
+            t.setDaemon(true);
+            return t;
+        });
+        List<Process> processes = new ArrayList<>();
+        try (ServerSocket server = new ServerSocket(0, workerCount, InetAddress.getLoopbackAddress())) {
+            server.setSoTimeout(CONNECT_TIMEOUT_MS);
+            for (int i = 0; i < workerCount; i++) {
+                processes.add(startWorker(server.getLocalPort(), i, jvmOptions));
+            }
+            // Worker terhubung dalam urutan apapun: pasangkan socket dengan prosesnya lewat indeks
+            // yang dikirim worker saat handshake (proses yang salah bisa dimatikan saat gagal)
+            boolean[] paired = new boolean[workerCount];
+            for (int i = 0; i < workerCount; i++) {
+                Socket socket = server.accept();
+                try {
+                    socket.setTcpNoDelay(true);
+                    socket.setSoTimeout(CONNECT_TIMEOUT_MS);
+                    DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+                    int index = readHello(in);
+                    if (index < 0 || index >= workerCount || paired[index]) {
+                        throw new IOException("Indeks worker tidak valid: " + index);
+                    }
+                    paired[index] = true;
+                    socket.setSoTimeout(0);
+                    WorkerConnection worker = new WorkerConnection(processes.get(index), socket, in);
+                    sendConfiguration(worker);
+                    workers.add(worker);
+                } catch (IOException e) {
+                    socket.close();
+                    throw e;
+                }
+            }
+        } catch (IOException e) {
+            close();
+            for (Process process : processes) process.destroyForcibly(); // Termasuk yang belum terhubung
+            throw e;
+        }
+    }
+
+    private static Process startWorker(int port, int index, List<String> jvmOptions) throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        // Saat dijalankan lewat Gradle, JavaFX (dipakai ObjectBall untuk warna) ada di module path
+        String modulePath = System.getProperty("jdk.module.path");
+        if (modulePath != null && !modulePath.isEmpty()) {
+            command.add("--module-path");
+            command.add(modulePath);
+            command.add("--add-modules");
+            command.add("javafx.graphics");
+        }
+        command.add(SimulationWorker.class.getName());
+        command.add(String.valueOf(port));
+        command.add(String.valueOf(index));
+
+        return new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    /** Membaca salam worker (MAGIC, VERSION, indeks) dan mengembalikan indeks worker. */
+    private static int readHello(DataInputStream in) throws IOException {
+        int magic = in.readInt();
+        int version = in.readInt();
+        if (magic != WorkerProtocol.MAGIC || version != WorkerProtocol.VERSION) {
+            throw new IOException("Worker tidak cocok: magic=" + Integer.toHexString(magic) + " version=" + version);
+        }
+        return in.readInt();
+    }
+
+    /** Mengirim konfigurasi simulator lokal (meja, batas waktu, fisika, solver) ke worker. */
+    private void sendConfiguration(WorkerConnection worker) throws IOException {
+        worker.out.writeDouble(localSimulator.getTableWidth());
+        worker.out.writeDouble(localSimulator.getTableHeight());
+        worker.out.writeDouble(localSimulator.getMaxSimulatedTime());
+        PhysicsParameters parameters = localSimulator.getParameters();
+        worker.out.writeDouble(parameters.getFriction());
+        worker.out.writeDouble(parameters.getWallRestitution());
+        worker.out.writeDouble(parameters.getBallRestitution());
+        ContactSolver solver = localSimulator.getContactSolver();
+        worker.out.writeBoolean(solver != null);
+        if (solver != null) {
+            worker.out.writeInt(solver.getVelocityIterations());
+            worker.out.writeInt(solver.getPositionIterations());
+            worker.out.writeDouble(solver.getWarmStartFactor());
+        }
+        worker.out.flush();
+    }
+
+    /**
+     * Menyimulasikan semua job dan mengembalikan hasilnya dalam urutan yang sama.
+     *
+     * @param jobs Daftar job.
+     * @return Hasil per job, indeks sama dengan {@code jobs}.
+     */
+    public List<ShotOutcome> simulateAll(List<ShotJob> jobs) {
+        ShotOutcomeCache cache = localSimulator.getOutcomeCache();
+        if (cache == null) return simulateUncached(jobs);
+
+        ShotOutcome[] results = new ShotOutcome[jobs.size()];
+        List<ShotJob> misses = new ArrayList<>();
+        List<Integer> missIndices = new ArrayList<>();
+        for (int i = 0; i < results.length; i++) {
+            ShotJob job = jobs.get(i);
+            results[i] = cache.get(job.getStart(), job.getShot());
+            if (results[i] == null) {
+                misses.add(job);
+                missIndices.add(i);
+            }
+        }
+        if (!misses.isEmpty()) {
+            List<ShotOutcome> simulated = simulateUncached(misses);
+            for (int k = 0; k < simulated.size(); k++) {
+                ShotJob job = misses.get(k);
+                cache.put(job.getStart(), job.getShot(), simulated.get(k));
+                results[missIndices.get(k)] = simulated.get(k);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Sapuan bertingkat: semua job disimulasikan kasar di proses ini ({@link CoarseShotSimulator}),
+     * lalu hanya {@code topK} job dengan nilai tertinggi disimulasikan ulang dengan presisi penuh
+     * lewat {@link #simulateAll(List)}. Kecocokan kedua tingkat dicatat di {@link #getTierAgreement()}.
+     *
+     * @param jobs   Daftar job.
+     * @param scorer Nilai sebuah hasil (semakin besar semakin baik).
+     * @param topK   Jumlah job yang disimulasikan penuh.
+     * @return Hasil per job, indeks sama dengan {@code jobs}: presisi penuh untuk {@code topK}
+     *         job terbaik, hasil kasar untuk sisanya.
+     */
+    public List<ShotOutcome> simulateScreened(List<ShotJob> jobs, ToDoubleFunction<ShotOutcome> scorer, int topK) {
+        ShotOutcome[] results = new ShotOutcome[jobs.size()];
+        Integer[] order = new Integer[jobs.size()];
+        for (int i = 0; i < results.length; i++) {
+            ShotJob job = jobs.get(i);
+            results[i] = coarseSimulator.simulate(job.getStart(), job.getShot());
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(scorer.applyAsDouble(results[b]), scorer.applyAsDouble(results[a])));
+
+        List<ShotJob> selected = new ArrayList<>();
+        for (int k = 0; k < Math.min(topK, order.length); k++) selected.add(jobs.get(order[k]));
+        List<ShotOutcome> full = simulateAll(selected);
+        for (int k = 0; k < full.size(); k++) {
+            tierAgreement.record(results[order[k]], full.get(k));
+            results[order[k]] = full.get(k);
+        }
+        return Arrays.asList(results);
+    }
+
+    /** Membagi job ke worker tanpa memeriksa cache. */
+    private List<ShotOutcome> simulateUncached(List<ShotJob> jobs) {
+        ShotOutcome[] results = new ShotOutcome[jobs.size()];
+        int batchCount = (jobs.size() + batchSize - 1) / batchSize;
+        AtomicInteger nextBatch = new AtomicInteger();
+
+        List<Future<?>> running = new ArrayList<>();
+        for (WorkerConnection worker : workers) {
+            if (!worker.alive) continue;
+            running.add(dispatchers.submit(() -> dispatchLoop(worker, jobs, results, batchCount, nextBatch)));
+        }
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Simulasi dibatalkan", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Dispatcher worker gagal", e.getCause());
+            }
+        }
+
+        // Mode in-process, atau batch yang tidak sempat diambil karena semua worker mati
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                ShotJob job = jobs.get(i);
+                results[i] = localSimulator.simulate(job.getStart(), job.getShot(), null); // Cache sudah diperiksa
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /** Loop satu dispatcher: ambil batch, kirim ke worker, tunggu hasil, ulangi. */
+    private void dispatchLoop(WorkerConnection worker, List<ShotJob> jobs, ShotOutcome[] results,
+                              int batchCount, AtomicInteger nextBatch) {
+        int batch;
+        while ((batch = nextBatch.getAndIncrement()) < batchCount) {
+            int from = batch * batchSize;
+            int to = Math.min(jobs.size(), from + batchSize);
+            try {
+                WorkerProtocol.writeBatch(worker.out, jobs.subList(from, to));
+                worker.out.flush();
+                int count = worker.in.readInt();
+                if (count != to - from) throw new IOException("Jumlah hasil " + count + " != " + (to - from));
+                for (int i = from; i < to; i++) {
+                    results[i] = WorkerProtocol.readOutcome(worker.in);
+                }
+            } catch (IOException e) {
+                // Worker mati/rusak: berhenti memakainya. Batch ini (dan yang tersisa jika semua
+                // worker mati) disimulasikan ulang di proses koordinator.
+                System.err.println("Worker failed, falling back to in-process: " + e.getMessage());
+                worker.alive = false;
+                closeQuietly(worker);
+                for (int i = from; i < to; i++) results[i] = null;
+                fallbackBatches.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /** @return Jumlah worker yang masih hidup (0 = mode in-process). */
+    public int getLiveWorkerCount() {
+        int count = 0;
+        for (WorkerConnection worker : workers) if (worker.alive) count++;
+        return count;
+    }
+
+    public int getFallbackBatches() { return fallbackBatches.get(); }
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = Math.max(1, batchSize); }
+    public ShotOutcomeCache getOutcomeCache() { return localSimulator.getOutcomeCache(); }
+    /** @return Kecocokan hasil kasar dan presisi penuh dari {@link #simulateScreened}. */
+    public CoarseShotSimulator.Agreement getTierAgreement() { return tierAgreement; }
+    public void setOutcomeCache(ShotOutcomeCache outcomeCache) { localSimulator.setOutcomeCache(outcomeCache); }
+
+    private static void closeQuietly(WorkerConnection worker) {
+        try {
+            worker.socket.close();
+        } catch (IOException e) {
+            // Sudah tertutup
+        }
+        worker.process.destroy();
+    }
+
+    @Override
+    public void close() {
+        for (WorkerConnection worker : workers) {
+            if (worker.alive) {
+                try {
+                    worker.out.writeByte(WorkerProtocol.SHUTDOWN);
+                    worker.out.flush();
+                } catch (IOException e) {
+                    // Worker sudah mati, tetap lanjut menutup
+                }
+            }
+            try {
+                worker.socket.close();
+            } catch (IOException e) {
+                // Sudah tertutup
+            }
+            try {
+                if (!worker.process.waitFor(2, TimeUnit.SECONDS)) worker.process.destroyForcibly();
+            } catch (InterruptedException e) {
+                worker.process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+            worker.alive = false;
+        }
+        if (dispatchers != null) dispatchers.shutdownNow();
+    }
+
+    /**
+     * Demo/benchmark: sapuan pukulan break ke banyak arah.
+     * <pre>
+     * java -cp ... com.billiards2d.SimulationWorkerPool [workers] [shots] [topK]
+     * </pre>
+     * Dengan {@code topK}, sapuan memakai {@link #simulateScreened} (nilai = perubahan skor).
+     * Dengan VM option {@code -Dbilliards.shotCache=file} hasil disimpan di
+     * {@link ShotOutcomeCache} (ukuran dengan {@code -Dbilliards.shotCacheMB}, default 64),
+     * sehingga run berikutnya tidak perlu menyimulasikan ulang. Parameter fisika meja dan solver
+     * tumbukan diambil dari {@code -Dbilliards.physics} dan {@code -Dbilliards.solver}, sama
+     * seperti game, lalu dikirim ke worker saat handshake.
+     */
+    public static void main(String[] args) throws IOException {
+        int workerCount = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int shots = args.length > 1 ? Integer.parseInt(args[1]) : 720;
+        int topK = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        TableState start = TableState.capture(
+                BilliardApp.createStandardBalls(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT), 0);
+        List<ShotJob> jobs = new ArrayList<>();
+        for (int i = 0; i < shots; i++) {
+            double angle = 2 * Math.PI * i / shots;
+            jobs.add(new ShotJob(start, new Vector2D(Math.cos(angle), Math.sin(angle)).multiply(CueStick.MAX_FORCE)));
+        }
+
+        long begin = System.nanoTime();
+        String cachePath = System.getProperty("billiards.shotCache");
+        ShotSimulator simulator = ShotSimulator.fromSystemProperties(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT);
+        try (SimulationWorkerPool pool = new SimulationWorkerPool(simulator, workerCount, List.of())) {
+            ShotOutcomeCache cache = null;
+            if (cachePath != null) {
+                cache = ShotOutcomeCache.open(Path.of(cachePath),
+                        Integer.getInteger("billiards.shotCacheMB", 64) * 1024L * 1024L, pool.localSimulator);
+                pool.setOutcomeCache(cache);
+            }
+            long started = System.nanoTime();
+            List<ShotOutcome> outcomes = topK > 0
+                    ? pool.simulateScreened(jobs, ShotOutcome::getScoreDelta, topK)
+                    : pool.simulateAll(jobs);
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            int pocketed = 0;
+            for (ShotOutcome outcome : outcomes) pocketed += outcome.getPocketedCount();
+            System.out.printf("%d shots on %d worker(s) in %.2f s (startup %.2f s): %.0f shots/s, %d balls pocketed%n",
+                    shots, Math.max(1, pool.getLiveWorkerCount()), seconds, (started - begin) / 1e9,
+                    shots / seconds, pocketed);
+            if (topK > 0) {
+                System.out.printf("Screened: %d of %d shots at full fidelity, tier agreement %.1f%%%n",
+                        Math.min(topK, shots), shots, pool.getTierAgreement().getRate() * 100);
+            }
+            if (cache != null) {
+                System.out.printf("Shot cache: %d hits, %d misses (hit rate %.1f%%), %d evictions, %d entries max%n",
+                        cache.getHitCount(), cache.getMissCount(), cache.getHitRate() * 100,
+                        cache.getEvictionCount(), cache.getEntryCapacity());
+                cache.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.billiards2d;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Application;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.stage.Stage;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Layar penonton: satu window yang menampilkan banyak meja yang bermain sendiri.
+ * <p>
+ * Semua meja disimulasikan di satu thread latar belakang (60 frame per detik). Setiap meja
+ * yang sudah diam memukul bola putih ke arah acak setelah jeda singkat, dan rak baru disusun
+ * saat bola warna hampir habis. Keadaan semua meja dikirim ke JavaFX thread lewat
+ * {@link TripleBuffer}, lalu digambar sekaligus oleh {@link MosaicRenderer}.
+ * </p>
+ * Opsi (VM option):
+ * <pre>
+ * -Dbilliards.wallTables=64   Jumlah meja (default 64)
+ * -Dbilliards.wallWidth=1600  Lebar canvas (default 1600)
+ * -Dbilliards.wallHeight=900  Tinggi canvas (default 900)
+ * </pre>
+ */
+public class SpectatorWall extends Application {
+
+    /** Lama meja menunggu dengan stik terlihat sebelum memukul (detik). */
+    private static final double AIM_PAUSE = 1.0;
+    /** Rak baru disusun jika bola warna aktif kurang dari jumlah ini. */
+    private static final int MIN_OBJECT_BALLS = 3;
+
+    /** Isi satu buffer: keadaan semua meja pada satu frame simulasi. */
+    static class WallFrame {
+        final TableState[] states;
+        final double[] aimAngles;
+        long frameNumber;
+
+        WallFrame(int tableCount) {
+            states = new TableState[tableCount];
+            for (int i = 0; i < tableCount; i++) states[i] = new TableState(16);
+            aimAngles = new double[tableCount];
+        }
+    }
+
+    private WallThread wallThread;
+
+    @Override
+    public void start(Stage primaryStage) {
+        int tableCount = Integer.getInteger("billiards.wallTables", 64);
+        double width = Integer.getInteger("billiards.wallWidth", 1600);
+        double height = Integer.getInteger("billiards.wallHeight", 900);
+
+        Table table = new Table(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT);
+        MosaicRenderer renderer = new MosaicRenderer(table);
+        Canvas canvas = new Canvas(width, height);
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+
+        StackPane root = new StackPane(canvas);
+        root.setStyle("-fx-background-color: #222;");
+        primaryStage.setTitle("Billiard Spectator Wall (" + tableCount + " tables)");
+        primaryStage.setScene(new Scene(root));
+        primaryStage.setResizable(false);
+        primaryStage.show();
+
+        TripleBuffer<WallFrame> frames = new TripleBuffer<>(() -> new WallFrame(tableCount));
+        wallThread = new WallThread(tableCount, frames);
+        wallThread.start();
+
+        renderer.layout(tableCount, width, height);
+        new AnimationTimer() {
+            private long fpsWindowStart = 0;
+            private int fpsFrames = 0;
+            private double fps = 0;
+
+            @Override
+            public void handle(long now) {
+                WallFrame frame = frames.getReadBuffer();
+                renderer.layout(tableCount, canvas.getWidth(), canvas.getHeight());
+                renderer.render(gc, frame.states, frame.aimAngles, frame.frameNumber);
+
+                // Hitung FPS render per detik
+                fpsFrames++;
+                if (fpsWindowStart == 0) fpsWindowStart = now;
+                if (now - fpsWindowStart >= TimeUnit.SECONDS.toNanos(1)) {
+                    fps = fpsFrames * 1e9 / (now - fpsWindowStart);
+                    fpsFrames = 0;
+                    fpsWindowStart = now;
+                }
+                gc.setFill(Color.WHITE);
+                gc.fillText(String.format("FPS: %.1f | Tables: %d (%dx%d)", fps, tableCount,
+                        renderer.getColumns(), renderer.getRows()), 8, height - 8);
+            }
+        }.start();
+    }
+
+    @Override
+    public void stop() {
+        if (wallThread != null) wallThread.shutdown();
+    }
+
+    /**
+     * Thread yang menyimulasikan semua meja dan mem-publish keadaannya setiap frame.
+     */
+    private static class WallThread extends Thread {
+
+        private final Simulation[] tables;
+        private final double[] idleTime;
+        private final double[] aimAngles;
+        private final TripleBuffer<WallFrame> frames;
+        private final Random random = new Random();
+        private final long frameNanos = TimeUnit.SECONDS.toNanos(1) / 60;
+        private volatile boolean running = true;
+        private long frameNumber = 0;
+
+        WallThread(int tableCount, TripleBuffer<WallFrame> frames) {
+            super("spectator-simulation");
+            setDaemon(true);
+            this.frames = frames;
+            this.tables = new Simulation[tableCount];
+            this.idleTime = new double[tableCount];
+            this.aimAngles = new double[tableCount];
+            for (int i = 0; i < tableCount; i++) rerack(i);
+        }
+
+        @Override
+        public void run() {
+            long next = System.nanoTime();
+            long last = next;
+            while (running) {
+                long now = System.nanoTime();
+                double deltaTime = Math.min(0.05, (now - last) / 1_000_000_000.0);
+                last = now;
+
+                WallFrame frame = frames.getWriteBuffer();
+                for (int i = 0; i < tables.length; i++) {
+                    step(i, deltaTime);
+                    Simulation simulation = tables[i];
+                    frame.states[i].captureFrom(simulation.getGameObjects(),
+                            simulation.getPhysicsEngine().getPlayerScore());
+                    frame.aimAngles[i] = aimAngles[i];
+                }
+                frame.frameNumber = frameNumber++;
+                frames.publish();
+
+                next += frameNanos;
+                long sleep = next - System.nanoTime();
+                if (sleep > 0) {
+                    LockSupport.parkNanos(sleep);
+                } else {
+                    next = System.nanoTime();
+                }
+            }
+        }
+
+        /** Memajukan satu meja, atau menunggu lalu memukul jika meja diam. */
+        private void step(int i, double deltaTime) {
+            Simulation simulation = tables[i];
+            if (!simulation.isIdle()) {
+                simulation.advance(deltaTime);
+                return;
+            }
+
+            if (Double.isNaN(aimAngles[i])) {
+                if (countObjectBalls(simulation.getBalls()) < MIN_OBJECT_BALLS) {
+                    rerack(i);
+                    simulation = tables[i];
+                }
+                aimAngles[i] = random.nextDouble() * Math.PI * 2;
+                idleTime[i] = 0;
+            }
+
+            idleTime[i] += deltaTime;
+            if (idleTime[i] >= AIM_PAUSE) {
+                // Stik mengarah dari bola ke pangkal stik, jadi pukulan berlawanan arah
+                double power = (0.4 + random.nextDouble() * 0.6) * CueStick.MAX_FORCE;
+                simulation.getCueBall().hit(new Vector2D(-Math.cos(aimAngles[i]) * power,
+                        -Math.sin(aimAngles[i]) * power));
+                aimAngles[i] = Double.NaN;
+                simulation.advance(deltaTime);
+            }
+        }
+
+        private void rerack(int i) {
+            List<Ball> balls = BilliardApp.createStandardBalls(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT);
+            tables[i] = Simulation.fromState(TableState.capture(balls, 0),
+                    BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT);
+            aimAngles[i] = Double.NaN;
+        }
+
+        private static int countObjectBalls(List<Ball> balls) {
+            int count = 0;
+            for (Ball ball : balls) {
+                if (ball instanceof ObjectBall && ball.isActive()) count++;
+            }
+            return count;
+        }
+
+        void shutdown() {
+            running = false;
+            LockSupport.unpark(this);
+        }
+    }
+
+    public static void main(String[] args) {
+        launch(args);
+    }
+}
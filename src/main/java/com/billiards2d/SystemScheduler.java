@@ -0,0 +1,432 @@
+package com.billiards2d;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Penjadwal sistem per fase untuk satu frame permainan.
+ * <p>
+ * Setiap sistem (integrasi, tumbukan, aturan/respawn, input, prediksi, HUD, ...) didaftarkan
+ * dengan {@link Phase fase}, laju ({@link #PER_SUB_STEP}, {@link #PER_FRAME}, atau setiap N
+ * frame), dan data yang dibaca/ditulisnya (nama bebas, misalnya {@code "balls"}). Pemanggil
+ * menjalankan fase satu per satu dengan {@link #runPhase(Phase, double, int)}, sehingga di antara
+ * fase masih bisa ada logika lain (misalnya menghitung jumlah sub-step atau melewati frame idle).
+ * </p>
+ * Di dalam satu fase, sistem per sub-step dijalankan dulu di dalam loop sub-step, lalu sistem per
+ * frame, masing-masing sesuai urutan pendaftaran. Sistem berurutan dengan laju sama yang datanya
+ * tidak bertabrakan (tidak ada yang menulis data yang dibaca/ditulis sistem lain) membentuk satu
+ * batch; jika {@link #setExecutor(ExecutorService) executor} diatur, sistem dalam satu batch
+ * dijalankan paralel. Tanpa executor (bawaan) semuanya berjalan berurutan di thread pemanggil.
+ * <p>
+ * Waktu eksekusi setiap sistem bisa diukur ({@link #setTimingEnabled(boolean)}) dan dilaporkan
+ * dengan {@link #formatReport()}. Menjalankan fase tanpa executor tidak membuat objek baru,
+ * jadi aman dipakai di langkah fisika (lihat {@link AllocationTracker}).
+ * Satu penjadwal hanya boleh dijalankan oleh satu thread; statistiknya boleh dibaca dari thread
+ * lain (nilainya perkiraan).
+ * </p>
+ */
+public class SystemScheduler {
+
+    /** Fase dalam satu frame, dijalankan sesuai urutan deklarasi. */
+    public enum Phase {
+        /** Input pemain dan eksekusi perintah pukulan. */
+        INPUT,
+        /** Langkah fisika (integrasi, dinding, lubang, tumbukan). */
+        PHYSICS,
+        /** Aturan permainan setelah fisika (respawn bola putih, ...). */
+        RULES,
+        /** Perhitungan bantuan bidik dan data tampilan. */
+        PREDICTION,
+        /** Menggambar ke layar. */
+        RENDER
+    }
+
+    /** Laju: dijalankan di setiap sub-step fisika. */
+    public static final int PER_SUB_STEP = 0;
+    /** Laju: dijalankan sekali per frame (nilai N &gt; 1 berarti setiap N frame). */
+    public static final int PER_FRAME = 1;
+
+    /** Satu sistem yang dijadwalkan. */
+    @FunctionalInterface
+    public interface GameSystem {
+        /**
+         * @param deltaTime Waktu yang disimulasikan sistem ini (detik): panjang sub-step untuk
+         *                  sistem per sub-step, atau total waktu frame sejak eksekusi terakhir.
+         */
+        void run(double deltaTime);
+    }
+
+    /** Sistem terdaftar beserta deklarasi dan statistik waktunya. */
+    public static final class SystemEntry implements Runnable {
+        private final String name;
+        private final Phase phase;
+        private int interval;
+        private final GameSystem system;
+        private String[] reads = new String[0];
+        private String[] writes = new String[0];
+
+        private SystemScheduler owner;
+        /** Waktu frame yang belum dijalankan (untuk sistem setiap N frame). */
+        private double pendingTime;
+        /** Hasil pengecekan jatuh tempo untuk batch yang sedang dijalankan. */
+        private boolean due;
+        /** deltaTime eksekusi berikutnya (juga dipakai eksekusi paralel lewat {@link #run()}). */
+        private double runDeltaTime;
+
+        private long runs;
+        private long totalNanos;
+        private long lastNanos;
+        private long maxNanos;
+
+        private SystemEntry(String name, Phase phase, int interval, GameSystem system) {
+            this.name = name;
+            this.phase = phase;
+            this.interval = interval;
+            this.system = system;
+        }
+
+        /** Mendeklarasikan data yang dibaca sistem ini. */
+        public SystemEntry reads(String... resources) {
+            this.reads = resources.clone();
+            if (owner != null) owner.batchesDirty = true;
+            return this;
+        }
+
+        /** Mendeklarasikan data yang ditulis sistem ini. */
+        public SystemEntry writes(String... resources) {
+            this.writes = resources.clone();
+            if (owner != null) owner.batchesDirty = true;
+            return this;
+        }
+
+        /** @return true jika sistem ini dan {@code other} tidak boleh berjalan bersamaan. */
+        boolean conflictsWith(SystemEntry other) {
+            for (String w : writes) {
+                if (contains(other.reads, w) || contains(other.writes, w)) return true;
+            }
+            for (String w : other.writes) {
+                if (contains(reads, w)) return true;
+            }
+            return false;
+        }
+
+        private static boolean contains(String[] names, String name) {
+            for (String n : names) {
+                if (n.equals(name)) return true;
+            }
+            return false;
+        }
+
+        private void execute(double deltaTime, boolean timed) {
+            if (!timed) {
+                system.run(deltaTime);
+                return;
+            }
+            long begin = System.nanoTime();
+            system.run(deltaTime);
+            long nanos = System.nanoTime() - begin;
+            runs++;
+            totalNanos += nanos;
+            lastNanos = nanos;
+            if (nanos > maxNanos) maxNanos = nanos;
+        }
+
+        /** Dipakai executor saat batch dijalankan paralel. */
+        @Override
+        public void run() {
+            execute(runDeltaTime, owner.timingEnabled);
+        }
+
+        public String getName() { return name; }
+        public Phase getPhase() { return phase; }
+        /** @return {@link #PER_SUB_STEP}, {@link #PER_FRAME}, atau N untuk setiap N frame. */
+        public int getInterval() { return interval; }
+
+        /**
+         * Mengubah laju sistem per frame saat berjalan (misalnya HUD diperbarui lebih jarang
+         * ketika frame melewati anggarannya). Sistem per sub-step tidak bisa diubah.
+         *
+         * @param interval {@link #PER_FRAME} atau N untuk setiap N frame.
+         */
+        public void setInterval(int interval) {
+            if (this.interval == PER_SUB_STEP || interval < PER_FRAME) {
+                throw new IllegalArgumentException("Laju sistem tidak valid: " + interval);
+            }
+            this.interval = interval;
+        }
+        public List<String> getReads() { return List.of(reads); }
+        public List<String> getWrites() { return List.of(writes); }
+        public long getRuns() { return runs; }
+        public long getTotalNanos() { return totalNanos; }
+        public long getLastNanos() { return lastNanos; }
+        public long getMaxNanos() { return maxNanos; }
+        /** @return Rata-rata waktu per eksekusi (nanodetik). */
+        public double getAverageNanos() { return runs == 0 ? 0 : (double) totalNanos / runs; }
+
+        private void resetStats() {
+            runs = 0;
+            totalNanos = 0;
+            lastNanos = 0;
+            maxNanos = 0;
+        }
+    }
+
+    private final List<SystemEntry> systems = new ArrayList<>();
+
+    // Batch per fase, dibangun ulang saat pendaftaran berubah: [fase][batch][sistem]
+    private SystemEntry[][][] subStepBatches;
+    private SystemEntry[][][] frameBatches;
+    private boolean batchesDirty = true;
+
+    private ExecutorService executor;
+    private Future<?>[] futures = new Future<?>[4];
+
+    private boolean timingEnabled = false;
+    private long frameCount = 0;
+
+    /**
+     * Mendaftarkan sistem baru di akhir fasenya.
+     *
+     * @param name     Nama sistem (untuk laporan waktu).
+     * @param phase    Fase tempat sistem dijalankan.
+     * @param interval {@link #PER_SUB_STEP}, {@link #PER_FRAME}, atau N untuk setiap N frame.
+     * @param system   Logika sistem.
+     * @return Entri sistem, untuk mendeklarasikan {@link SystemEntry#reads} dan {@link SystemEntry#writes}.
+     */
+    public SystemEntry register(String name, Phase phase, int interval, GameSystem system) {
+        if (interval < 0) throw new IllegalArgumentException("Laju sistem tidak valid: " + interval);
+        SystemEntry entry = new SystemEntry(name, phase, interval, system);
+        entry.owner = this;
+        systems.add(entry);
+        batchesDirty = true;
+        return entry;
+    }
+
+    /** Menandai awal frame baru (menentukan sistem setiap N frame mana yang jatuh tempo). */
+    public void beginFrame() {
+        frameCount++;
+    }
+
+    /**
+     * Menjalankan semua sistem dalam satu fase.
+     *
+     * @param phase     Fase yang dijalankan.
+     * @param deltaTime Waktu frame (detik).
+     * @param subSteps  Jumlah sub-step untuk sistem {@link #PER_SUB_STEP} (0 = dilewati);
+     *                  masing-masing mendapat {@code deltaTime / subSteps}.
+     */
+    public void runPhase(Phase phase, double deltaTime, int subSteps) {
+        if (batchesDirty) rebuildBatches();
+
+        SystemEntry[][] stepBatches = subStepBatches[phase.ordinal()];
+        if (subSteps > 0 && stepBatches.length > 0) {
+            double subDeltaTime = deltaTime / subSteps;
+            for (int step = 0; step < subSteps; step++) {
+                for (SystemEntry[] batch : stepBatches) runBatch(batch, subDeltaTime, false);
+            }
+        }
+
+        for (SystemEntry[] batch : frameBatches[phase.ordinal()]) runBatch(batch, deltaTime, true);
+    }
+
+    private void runBatch(SystemEntry[] batch, double deltaTime, boolean perFrame) {
+        // Sistem setiap N frame mengumpulkan waktu frame sampai jatuh tempo
+        int dueCount = 0;
+        for (SystemEntry entry : batch) {
+            double dt = deltaTime;
+            if (perFrame) {
+                entry.pendingTime += deltaTime;
+                entry.due = entry.interval <= 1 || frameCount % entry.interval == 0;
+                if (!entry.due) continue;
+                dt = entry.pendingTime;
+                entry.pendingTime = 0;
+            } else {
+                entry.due = true;
+            }
+            entry.runDeltaTime = dt;
+            dueCount++;
+        }
+        if (dueCount == 0) return;
+
+        if (executor == null || dueCount == 1) {
+            for (SystemEntry entry : batch) {
+                if (entry.due) entry.execute(entry.runDeltaTime, timingEnabled);
+            }
+            return;
+        }
+
+        // Paralel: sistem pertama yang jatuh tempo di thread ini, sisanya di executor.
+        // Kegagalan yang dilempar adalah milik sistem pertama (urutan pendaftaran) yang gagal.
+        if (futures.length < batch.length) futures = new Future<?>[batch.length];
+        SystemEntry inline = null;
+        int submitted = 0;
+        for (SystemEntry entry : batch) {
+            if (!entry.due) continue;
+            if (inline == null) {
+                inline = entry;
+            } else {
+                futures[submitted++] = executor.submit(entry);
+            }
+        }
+        // Semua sistem batch ditunggu sampai selesai walaupun ada yang gagal, agar tidak ada
+        // sistem yang masih berjalan saat fase berikutnya dimulai
+        Throwable failure = null;
+        try {
+            inline.execute(inline.runDeltaTime, timingEnabled);
+        } catch (RuntimeException | Error e) {
+            failure = e;
+        }
+        boolean interrupted = false;
+        for (int i = 0; i < submitted; i++) {
+            try {
+                futures[i].get();
+            } catch (InterruptedException e) {
+                interrupted = true;
+                i--; // Tetap tunggu sistem ini selesai
+                continue;
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause();
+                } else {
+                    failure.addSuppressed(e.getCause());
+                }
+            }
+            futures[i] = null;
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        rethrow(failure);
+    }
+
+    /** Melempar ulang kegagalan pertama dalam batch (sesuai urutan pendaftaran), jika ada. */
+    private static void rethrow(Throwable failure) {
+        if (failure == null) return;
+        if (failure instanceof RuntimeException) throw (RuntimeException) failure;
+        if (failure instanceof Error) throw (Error) failure;
+        throw new IllegalStateException("Sistem gagal: " + failure, failure);
+    }
+
+    /** Mengelompokkan sistem setiap fase menjadi batch yang boleh berjalan bersamaan. */
+    private void rebuildBatches() {
+        int phases = Phase.values().length;
+        subStepBatches = new SystemEntry[phases][][];
+        frameBatches = new SystemEntry[phases][][];
+        for (Phase phase : Phase.values()) {
+            subStepBatches[phase.ordinal()] = buildBatches(phase, true);
+            frameBatches[phase.ordinal()] = buildBatches(phase, false);
+        }
+        batchesDirty = false;
+    }
+
+    private SystemEntry[][] buildBatches(Phase phase, boolean subStep) {
+        List<SystemEntry[]> batches = new ArrayList<>();
+        List<SystemEntry> current = new ArrayList<>();
+        for (SystemEntry entry : systems) {
+            if (entry.phase != phase || (entry.interval == PER_SUB_STEP) != subStep) continue;
+            boolean fits = true;
+            for (SystemEntry other : current) {
+                if (other.conflictsWith(entry)) {
+                    fits = false;
+                    break;
+                }
+            }
+            if (!fits) {
+                batches.add(current.toArray(new SystemEntry[0]));
+                current.clear();
+            }
+            current.add(entry);
+        }
+        if (!current.isEmpty()) batches.add(current.toArray(new SystemEntry[0]));
+        return batches.toArray(new SystemEntry[0][]);
+    }
+
+    /**
+     * Menjalankan batch sistem yang tidak saling bergantung secara paralel. {@link #runPhase}
+     * selalu menunggu semua sistem batch selesai; jika ada yang gagal, exception sistem pertama
+     * yang gagal dilempar ulang (kegagalan lainnya sebagai suppressed).
+     *
+     * @param executor Executor, atau null untuk menjalankan semuanya di thread pemanggil.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public ExecutorService getExecutor() { return executor; }
+
+    /** Mengaktifkan pengukuran waktu per sistem (dua panggilan {@code nanoTime} per eksekusi). */
+    public void setTimingEnabled(boolean timingEnabled) {
+        this.timingEnabled = timingEnabled;
+    }
+
+    public boolean isTimingEnabled() { return timingEnabled; }
+    public long getFrameCount() { return frameCount; }
+
+    /** @return Semua sistem terdaftar, sesuai urutan pendaftaran. */
+    public List<SystemEntry> getSystems() {
+        return Collections.unmodifiableList(systems);
+    }
+
+    /** @return Sistem dengan nama tersebut, atau null. */
+    public SystemEntry getSystem(String name) {
+        for (SystemEntry entry : systems) {
+            if (entry.name.equals(name)) return entry;
+        }
+        return null;
+    }
+
+    /** @return Jumlah batch di fase tersebut (untuk melihat sistem mana yang bisa paralel). */
+    public int getBatchCount(Phase phase) {
+        if (batchesDirty) rebuildBatches();
+        return subStepBatches[phase.ordinal()].length + frameBatches[phase.ordinal()].length;
+    }
+
+    /** Menghapus statistik waktu semua sistem (misalnya setelah pemanasan JIT). */
+    public void resetStats() {
+        for (SystemEntry entry : systems) entry.resetStats();
+    }
+
+    /**
+     * Ringkasan satu baris: sistem dengan total waktu per frame terbesar.
+     *
+     * @param limit Jumlah sistem yang ditampilkan.
+     * @return Misalnya {@code "collisions 0.21 ms, render 0.15 ms"} (waktu rata-rata per frame).
+     */
+    public String formatSummary(int limit) {
+        SystemEntry[] sorted = systems.toArray(new SystemEntry[0]);
+        Arrays.sort(sorted, (a, b) -> Long.compare(b.totalNanos, a.totalNanos));
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < Math.min(limit, sorted.length); i++) {
+            if (sorted[i].runs == 0) break;
+            if (sb.length() > 0) sb.append(", ");
+            sb.append(String.format(Locale.ROOT, "%s %.2f ms", sorted[i].name, millisPerFrame(sorted[i])));
+        }
+        return sb.length() == 0 ? "-" : sb.toString();
+    }
+
+    /** @return Laporan waktu semua sistem (satu baris per sistem, sesuai urutan fase). */
+    public String formatReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%-12s %-10s %-9s %10s %10s %10s %10s%n",
+                "system", "phase", "rate", "runs", "avg us", "max us", "ms/frame"));
+        for (Phase phase : Phase.values()) {
+            for (SystemEntry entry : systems) {
+                if (entry.phase != phase) continue;
+                String rate = entry.interval == PER_SUB_STEP ? "sub-step"
+                        : entry.interval == PER_FRAME ? "frame" : "1/" + entry.interval;
+                sb.append(String.format(Locale.ROOT, "%-12s %-10s %-9s %10d %10.1f %10.1f %10.3f%n",
+                        entry.name, phase, rate, entry.runs, entry.getAverageNanos() / 1e3,
+                        entry.maxNanos / 1e3, millisPerFrame(entry)));
+            }
+        }
+        return sb.toString();
+    }
+
+    private double millisPerFrame(SystemEntry entry) {
+        return frameCount == 0 ? 0 : entry.totalNanos / 1e6 / frameCount;
+    }
+}
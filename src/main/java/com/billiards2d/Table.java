@@ -34,6 +34,15 @@ public class Table implements GameObject {
      */
     private static final double POCKET_TOLERANCE = 0.875;
 
+    // --- Warna Visual Meja (dipakai juga oleh renderer offline) ---
+    static final Color FLOOR_COLOR = Color.rgb(20, 20, 20);
+    static final Color FRAME_COLOR = Color.SADDLEBROWN.darker();
+    static final Color CLOTH_COLOR = Color.web("#006400");
+    static final Color DIAMOND_COLOR = Color.BEIGE;
+    static final Color BREAK_LINE_COLOR = Color.rgb(255, 255, 255, 0.5);
+    static final double DIAMOND_SIZE = 5;
+    static final double HEAD_SPOT_SIZE = 6;
+
     /**
      * Konstruktor Meja.
      *
@@ -79,7 +88,7 @@ public class Table implements GameObject {
     @Override
     public void draw(GraphicsContext gc) {
         // 1. Gambar Background Lantai (agar tidak ada sisa frame sebelumnya di luar meja)
-        gc.setFill(Color.rgb(20, 20, 20));
+        gc.setFill(FLOOR_COLOR);
         gc.fillRect(-100, -100, width + 500, height + 500);
 
         // Simpan state grafis sebelum transformasi koordinat
@@ -88,11 +97,11 @@ public class Table implements GameObject {
         gc.translate(wallThickness, wallThickness);
 
         // 2. Gambar Frame Kayu (Bingkai Luar)
-        gc.setFill(Color.SADDLEBROWN.darker());
+        gc.setFill(FRAME_COLOR);
         gc.fillRect(-wallThickness, -wallThickness, width + wallThickness * 2, height + wallThickness * 2);
 
         // 3. Gambar Karpet Hijau (Area Permainan)
-        gc.setFill(Color.web("#006400"));
+        gc.setFill(CLOTH_COLOR);
         gc.fillRect(0, 0, width, height);
 
         // 4. Gambar Detail Visual (Diamond Sights & Garis Break)
@@ -117,13 +126,13 @@ public class Table implements GameObject {
         double breakLineX = width * 0.25; // Posisi 1/4 dari kiri meja
 
         // A. Gambar Garis Putih Tipis
-        gc.setStroke(Color.rgb(255, 255, 255, 0.5));
+        gc.setStroke(BREAK_LINE_COLOR);
         gc.setLineWidth(2);
         gc.strokeLine(breakLineX, 0, breakLineX, height);
 
         // B. Gambar Titik Head Spot (Titik tengah di garis break)
         gc.setFill(Color.WHITE);
-        double spotSize = 6;
+        double spotSize = HEAD_SPOT_SIZE;
         gc.fillOval(breakLineX - spotSize / 2, (height / 2) - spotSize / 2, spotSize, spotSize);
     }
 
@@ -131,8 +140,8 @@ public class Table implements GameObject {
      * Menggambar titik-titik penanda (Diamonds) di bingkai kayu meja.
      */
     private void drawDiamonds(GraphicsContext gc) {
-        gc.setFill(Color.BEIGE);
-        double dSize = 5;
+        gc.setFill(DIAMOND_COLOR);
+        double dSize = DIAMOND_SIZE;
         // Menggambar 3 titik di setiap sisi vertikal (kiri dan kanan)
         for (int i = 1; i < 4; i++) {
             gc.fillOval(-wallThickness / 2, (height / 4) * i, dSize, dSize);
@@ -147,10 +156,12 @@ public class Table implements GameObject {
      * @return true jika bola masuk ke dalam radius deteksi lubang, false jika tidak.
      */
     public boolean isBallInPocket(Ball ball) {
-        for (Vector2D pocketPos : pockets) {
+        // Loop berindeks: dipanggil setiap sub-step untuk setiap bola, jadi tanpa Iterator
+        for (int i = 0; i < pockets.size(); i++) {
+            Vector2D pocketPos = pockets.get(i);
             // Hitung jarak Euclidean antara pusat bola dan pusat lubang
-            double dx = ball.getPosition().getX() - pocketPos.getX();
-            double dy = ball.getPosition().getY() - pocketPos.getY();
+            double dx = ball.getX() - pocketPos.getX();
+            double dy = ball.getY() - pocketPos.getY();
             double distance = Math.sqrt(dx * dx + dy * dy);
 
             // Syarat masuk lubang: jarak < (radius lubang * toleransi)
@@ -166,4 +177,14 @@ public class Table implements GameObject {
     public double getWidth() { return width; }
     public double getHeight() { return height; }
     public double getWallThickness() { return wallThickness; }
+    public double getPocketRadius() { return pocketRadius; }
+    /** @return Jarak maksimal pusat bola ke pusat lubang agar bola dianggap masuk. */
+    public double getPocketCaptureRadius() { return pocketRadius * POCKET_TOLERANCE; }
+    public List<Vector2D> getPockets() { return pockets; }
+
+    /**
+     * Mengembalikan posisi Head Spot (titik tengah garis break), tempat bola putih
+     * diletakkan kembali setelah foul.
+     */
+    public Vector2D getHeadSpot() { return new Vector2D(width * 0.25, height / 2); }
 }
\ No newline at end of file
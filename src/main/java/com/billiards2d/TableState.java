@@ -0,0 +1,221 @@
+package com.billiards2d;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Kelas data yang menyimpan salinan keadaan meja (posisi, kecepatan, dan status semua bola).
+ * <p>
+ * Berbeda dengan objek {@link Ball} yang hidup di dalam Game Loop, kelas ini hanya berisi
+ * array primitif sehingga murah untuk disalin, dikirim antar-thread, disimpan ke file,
+ * atau dipakai sebagai titik awal simulasi headless.
+ * Urutan bola (indeks) selalu sama dengan urutan bola di daftar {@code gameObjects}.
+ * </p>
+ */
+public class TableState {
+
+    private int ballCount;
+    private double[] x;
+    private double[] y;
+    private double[] vx;
+    private double[] vy;
+    private boolean[] active;
+
+    /** Tipe bola objek (misalnya "RED"), atau null untuk bola putih. */
+    private String[] types;
+
+    private boolean cuePendingRespawn;
+    private int playerScore;
+
+    /**
+     * Konstruktor TableState kosong.
+     *
+     * @param capacity Jumlah maksimal bola yang bisa ditampung tanpa alokasi ulang.
+     */
+    public TableState(int capacity) {
+        x = new double[capacity];
+        y = new double[capacity];
+        vx = new double[capacity];
+        vy = new double[capacity];
+        active = new boolean[capacity];
+        types = new String[capacity];
+    }
+
+    /**
+     * Membuat TableState baru dari daftar objek game.
+     *
+     * @param objects Daftar objek game (objek non-Ball diabaikan).
+     * @param score   Skor pemain saat ini.
+     * @return Salinan keadaan meja.
+     */
+    public static TableState capture(List<? extends GameObject> objects, int score) {
+        TableState state = new TableState(objects.size());
+        state.captureFrom(objects, score);
+        return state;
+    }
+
+    /**
+     * Menyalin keadaan bola dari daftar objek game ke dalam objek ini (tanpa membuat objek baru
+     * selama kapasitas mencukupi).
+     */
+    public void captureFrom(List<? extends GameObject> objects, int score) {
+        int count = 0;
+        for (int i = 0; i < objects.size(); i++) {
+            if (objects.get(i) instanceof Ball) count++;
+        }
+        ensureCapacity(count);
+
+        int index = 0;
+        for (int i = 0; i < objects.size(); i++) {
+            if (!(objects.get(i) instanceof Ball)) continue;
+            Ball ball = (Ball) objects.get(i);
+            x[index] = ball.getX();
+            y[index] = ball.getY();
+            vx[index] = ball.getVx();
+            vy[index] = ball.getVy();
+            active[index] = ball.isActive();
+            if (ball instanceof CueBall) {
+                types[index] = null;
+                cuePendingRespawn = ((CueBall) ball).isPendingRespawn();
+            } else {
+                types[index] = ((ObjectBall) ball).getType();
+            }
+            index++;
+        }
+        ballCount = count;
+        playerScore = score;
+    }
+
+    /**
+     * Membuat objek-objek bola baru sesuai keadaan yang tersimpan.
+     * Dipakai oleh simulasi headless dan pemulihan sesi.
+     *
+     * @return Daftar bola baru dengan urutan yang sama seperti saat di-capture.
+     */
+    public List<Ball> toBalls() {
+        List<Ball> balls = new ArrayList<>(ballCount);
+        for (int i = 0; i < ballCount; i++) {
+            Ball ball;
+            if (types[i] == null) {
+                CueBall cueBall = new CueBall(new Vector2D(x[i], y[i]));
+                cueBall.setPendingRespawn(cuePendingRespawn);
+                ball = cueBall;
+            } else {
+                ball = new ObjectBall(new Vector2D(x[i], y[i]), types[i]);
+            }
+            ball.setVelocity(vx[i], vy[i]);
+            ball.setActive(active[i]);
+            balls.add(ball);
+        }
+        return balls;
+    }
+
+    /**
+     * Menerapkan keadaan yang tersimpan ke objek bola yang sudah ada (urutan harus sama).
+     *
+     * @param balls Daftar bola tujuan.
+     */
+    public void applyTo(List<? extends Ball> balls) {
+        int count = Math.min(ballCount, balls.size());
+        for (int i = 0; i < count; i++) {
+            Ball ball = balls.get(i);
+            ball.setPosition(x[i], y[i]);
+            ball.setVelocity(vx[i], vy[i]);
+            ball.setActive(active[i]);
+            if (ball instanceof CueBall) {
+                ((CueBall) ball).setPendingRespawn(cuePendingRespawn);
+            }
+        }
+    }
+
+    /** @return Salinan penuh (deep copy) dari keadaan ini. */
+    public TableState copy() {
+        TableState copy = new TableState(ballCount);
+        copy.copyFrom(this);
+        return copy;
+    }
+
+    /** Menyalin isi TableState lain ke objek ini (dipakai ulang tanpa alokasi). */
+    public void copyFrom(TableState other) {
+        ensureCapacity(other.ballCount);
+        System.arraycopy(other.x, 0, x, 0, other.ballCount);
+        System.arraycopy(other.y, 0, y, 0, other.ballCount);
+        System.arraycopy(other.vx, 0, vx, 0, other.ballCount);
+        System.arraycopy(other.vy, 0, vy, 0, other.ballCount);
+        System.arraycopy(other.active, 0, active, 0, other.ballCount);
+        System.arraycopy(other.types, 0, types, 0, other.ballCount);
+        ballCount = other.ballCount;
+        cuePendingRespawn = other.cuePendingRespawn;
+        playerScore = other.playerScore;
+    }
+
+    /** Memperbesar array internal jika kapasitas tidak cukup. */
+    public void ensureCapacity(int capacity) {
+        if (x.length >= capacity) return;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        vx = Arrays.copyOf(vx, capacity);
+        vy = Arrays.copyOf(vy, capacity);
+        active = Arrays.copyOf(active, capacity);
+        types = Arrays.copyOf(types, capacity);
+    }
+
+    /**
+     * Mengisi data satu bola secara langsung (dipakai oleh pembaca file/format biner).
+     */
+    public void setBall(int index, double px, double py, double pvx, double pvy, boolean isActive, String type) {
+        x[index] = px;
+        y[index] = py;
+        vx[index] = pvx;
+        vy[index] = pvy;
+        active[index] = isActive;
+        types[index] = type;
+    }
+
+    /**
+     * Menghitung hash dari keadaan meja yang sudah dikuantisasi.
+     * Dua keadaan yang posisi bolanya hanya berbeda kurang dari {@code cellSize} pixel
+     * (dan kecepatannya dibulatkan sama) menghasilkan hash yang sama, sehingga bisa
+     * dianggap sebagai posisi yang setara oleh cache/transposition table.
+     *
+     * @param cellSize Ukuran sel kuantisasi posisi (pixel).
+     * @return Hash 64-bit.
+     */
+    public long quantisedHash(double cellSize) {
+        long hash = 0xcbf29ce484222325L; // FNV-1a offset basis
+        hash = mix(hash, ballCount);
+        hash = mix(hash, cuePendingRespawn ? 1 : 0);
+        for (int i = 0; i < ballCount; i++) {
+            hash = mix(hash, active[i] ? 1 : 0);
+            if (!active[i]) continue; // Posisi bola yang sudah masuk lubang tidak relevan
+            hash = mix(hash, Math.round(x[i] / cellSize));
+            hash = mix(hash, Math.round(y[i] / cellSize));
+            hash = mix(hash, Math.round(vx[i] / cellSize));
+            hash = mix(hash, Math.round(vy[i] / cellSize));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        hash ^= value;
+        hash *= 0x100000001b3L; // FNV-1a prime
+        return hash ^ (hash >>> 29);
+    }
+
+    // --- Getter dan Setter ---
+
+    public int getBallCount() { return ballCount; }
+    public void setBallCount(int ballCount) { ensureCapacity(ballCount); this.ballCount = ballCount; }
+    public double getX(int i) { return x[i]; }
+    public double getY(int i) { return y[i]; }
+    public double getVx(int i) { return vx[i]; }
+    public double getVy(int i) { return vy[i]; }
+    public boolean isActive(int i) { return active[i]; }
+    public String getType(int i) { return types[i]; }
+    public boolean isCue(int i) { return types[i] == null; }
+    public boolean isCuePendingRespawn() { return cuePendingRespawn; }
+    public void setCuePendingRespawn(boolean cuePendingRespawn) { this.cuePendingRespawn = cuePendingRespawn; }
+    public int getPlayerScore() { return playerScore; }
+    public void setPlayerScore(int playerScore) { this.playerScore = playerScore; }
+}
@@ -0,0 +1,349 @@
+package com.billiards2d;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Format biner ringkas dan berversi untuk keadaan meja lengkap ({@link TableState}).
+ * <p>
+ * Dipakai sebagai format bersama untuk save game, snapshot yang dikirim antar-thread/proses,
+ * dan fixture. Posisi dan kecepatan disimpan sebagai fixed-point (posisi 1/{@link #POSITION_SCALE}
+ * pixel, kecepatan 1/{@link #VELOCITY_SCALE} pixel/detik) lalu ditulis sebagai varint zigzag.
+ * Posisi setiap bola ditulis sebagai selisih dari bola aktif sebelumnya, sehingga rak yang
+ * rapat hanya butuh 2 byte per koordinat. Jenis bola standar ({@link #STANDARD_TYPES}) ditulis
+ * sebagai indeks; hanya jenis lain yang namanya ikut ditulis.
+ * </p>
+ * Layout (tanpa padding, semua angka varint kecuali disebut lain):
+ * <pre>
+ * byte   VERSION
+ * jumlah bola, skor (zigzag), flags (bit 0: bola putih pending respawn)
+ * jumlah jenis bola tambahan, (panjang nama, byte ASCII nama)...
+ *   (indeks jenis 0-7 = {@link #STANDARD_TYPES}, 8 dan seterusnya = jenis tambahan)
+ * per bola: (indeks jenis &lt;&lt; 3) | flags (bit 0: aktif, bit 1: bola putih, bit 2: bergerak)
+ *           jika aktif    : dx, dy (zigzag, relatif ke bola aktif sebelumnya)
+ *           jika bergerak : vx, vy (zigzag)
+ * </pre>
+ * Posisi bola yang tidak aktif (sudah masuk lubang) tidak disimpan dan dibaca sebagai 0.
+ * <p>
+ * Encode dan decode bekerja langsung pada {@link ByteBuffer} yang dipakai ulang (mulai dari
+ * posisi buffer saat ini, jadi beberapa keadaan bisa ditulis berurutan dalam satu buffer),
+ * tanpa alokasi per bola. Keadaan yang hanya berisi jenis bola standar di-decode tanpa membuat
+ * objek baru sama sekali.
+ * Satu objek codec hanya boleh dipakai oleh satu thread.
+ * </p>
+ */
+public class TableStateCodec {
+
+    public static final int VERSION = 1;
+    /** Penanda file save ("B2DS"). */
+    public static final int FILE_MAGIC = 0x42324453;
+
+    /** Resolusi posisi: 1/256 pixel. */
+    public static final double POSITION_SCALE = 256.0;
+    /** Resolusi kecepatan: 1/16 pixel per detik (bola berhenti di bawah 5 pixel/detik). */
+    public static final double VELOCITY_SCALE = 16.0;
+
+    /** Jenis bola standar (warna rak di {@link BilliardApp#setupRack}), ditulis sebagai indeks. */
+    static final String[] STANDARD_TYPES = {"YELLOW", "BLUE", "RED", "PURPLE", "ORANGE", "GREEN", "MAROON", "BLACK"};
+
+    private static final int FLAG_ACTIVE = 1;
+    private static final int FLAG_CUE = 2;
+    private static final int FLAG_MOVING = 4;
+    private static final int FLAG_CUE_PENDING_RESPAWN = 1;
+
+    /** Panjang varint 64-bit terpanjang. */
+    private static final int MAX_VARINT_BYTES = 10;
+
+    // Kamus jenis bola (jenis standar diikuti jenis tambahan per keadaan), dipakai ulang
+    private String[] encodeTypes = Arrays.copyOf(STANDARD_TYPES, 16);
+    private int encodeTypeCount;
+    private String[] decodeTypes = Arrays.copyOf(STANDARD_TYPES, 16);
+
+    /**
+     * Ukuran maksimal hasil encode untuk sebuah keadaan (untuk menyiapkan buffer).
+     */
+    public static int maxEncodedSize(TableState state) {
+        int size = 1 + 3 * MAX_VARINT_BYTES + MAX_VARINT_BYTES;
+        for (int i = 0; i < state.getBallCount(); i++) {
+            String type = state.getType(i);
+            if (type != null) size += MAX_VARINT_BYTES + type.length(); // Batas atas kasar kamus
+            size += 5 * MAX_VARINT_BYTES;
+        }
+        return size;
+    }
+
+    /**
+     * Menulis keadaan meja mulai dari posisi buffer saat ini.
+     *
+     * @param state Keadaan yang ditulis.
+     * @param out   Buffer tujuan (sisa kapasitas minimal {@link #maxEncodedSize(TableState)}).
+     * @throws java.nio.BufferOverflowException Jika buffer tidak cukup.
+     */
+    public void encode(TableState state, ByteBuffer out) {
+        int count = state.getBallCount();
+
+        // Kamus jenis bola (biasanya hanya 8 warna standar, jadi pencarian linear cukup)
+        encodeTypeCount = STANDARD_TYPES.length;
+        for (int i = 0; i < count; i++) {
+            String type = state.getType(i);
+            if (type != null && indexOf(encodeTypes, encodeTypeCount, type) < 0) {
+                if (encodeTypeCount == encodeTypes.length) encodeTypes = Arrays.copyOf(encodeTypes, encodeTypeCount * 2);
+                encodeTypes[encodeTypeCount++] = type;
+            }
+        }
+
+        out.put((byte) VERSION);
+        putVarint(out, count);
+        putVarint(out, zigzag(state.getPlayerScore()));
+        putVarint(out, state.isCuePendingRespawn() ? FLAG_CUE_PENDING_RESPAWN : 0);
+        putVarint(out, encodeTypeCount - STANDARD_TYPES.length);
+        for (int t = STANDARD_TYPES.length; t < encodeTypeCount; t++) {
+            String name = encodeTypes[t];
+            putVarint(out, name.length());
+            for (int c = 0; c < name.length(); c++) out.put((byte) name.charAt(c)); // ASCII
+        }
+
+        long prevX = 0;
+        long prevY = 0;
+        for (int i = 0; i < count; i++) {
+            boolean cue = state.isCue(i);
+            boolean active = state.isActive(i);
+            long vx = Math.round(state.getVx(i) * VELOCITY_SCALE);
+            long vy = Math.round(state.getVy(i) * VELOCITY_SCALE);
+            boolean moving = vx != 0 || vy != 0;
+
+            int type = cue ? 0 : indexOf(encodeTypes, encodeTypeCount, state.getType(i));
+            int flags = (active ? FLAG_ACTIVE : 0) | (cue ? FLAG_CUE : 0) | (moving ? FLAG_MOVING : 0);
+            putVarint(out, ((long) type << 3) | flags);
+            if (active) {
+                long x = Math.round(state.getX(i) * POSITION_SCALE);
+                long y = Math.round(state.getY(i) * POSITION_SCALE);
+                putVarint(out, zigzag(x - prevX));
+                putVarint(out, zigzag(y - prevY));
+                prevX = x;
+                prevY = y;
+            }
+            if (moving) {
+                putVarint(out, zigzag(vx));
+                putVarint(out, zigzag(vy));
+            }
+        }
+    }
+
+    /**
+     * Membaca satu keadaan meja mulai dari posisi buffer saat ini.
+     *
+     * @param in     Buffer sumber.
+     * @param target Objek tujuan (dipakai ulang, kapasitasnya diperbesar jika perlu).
+     * @return {@code target}.
+     * @throws IllegalArgumentException Jika versi tidak didukung atau data rusak/terpotong.
+     */
+    public TableState decode(ByteBuffer in, TableState target) {
+        try {
+            int version = in.get();
+            if (version != VERSION) throw new IllegalArgumentException("Versi format tidak didukung: " + version);
+            long count64 = getVarint(in);
+            // Setiap bola minimal 1 byte: tolak jumlah yang mustahil sebelum memperbesar array
+            if (count64 < 0 || count64 > in.remaining()) throw new IllegalArgumentException("Jumlah bola tidak valid: " + count64);
+            int count = (int) count64;
+            int score = (int) unzigzag(getVarint(in));
+            int stateFlags = (int) getVarint(in);
+
+            long extraTypes = getVarint(in);
+            if (extraTypes < 0 || extraTypes > in.remaining()) throw new IllegalArgumentException("Jumlah jenis bola tidak valid: " + extraTypes);
+            int typeCount = STANDARD_TYPES.length + (int) extraTypes;
+            if (decodeTypes.length < typeCount) decodeTypes = Arrays.copyOf(decodeTypes, typeCount);
+            for (int t = STANDARD_TYPES.length; t < typeCount; t++) {
+                long length = getVarint(in);
+                if (length < 0 || length > in.remaining()) throw new BufferUnderflowException();
+                byte[] name = new byte[(int) length];
+                in.get(name);
+                decodeTypes[t] = new String(name, StandardCharsets.US_ASCII);
+            }
+
+            target.ensureCapacity(count);
+            long x = 0;
+            long y = 0;
+            for (int i = 0; i < count; i++) {
+                long header = getVarint(in);
+                int flags = (int) (header & 7);
+                int type = (int) (header >>> 3);
+                boolean active = (flags & FLAG_ACTIVE) != 0;
+                double px = 0;
+                double py = 0;
+                if (active) {
+                    x += unzigzag(getVarint(in));
+                    y += unzigzag(getVarint(in));
+                    px = x / POSITION_SCALE;
+                    py = y / POSITION_SCALE;
+                }
+                double pvx = 0;
+                double pvy = 0;
+                if ((flags & FLAG_MOVING) != 0) {
+                    pvx = unzigzag(getVarint(in)) / VELOCITY_SCALE;
+                    pvy = unzigzag(getVarint(in)) / VELOCITY_SCALE;
+                }
+                if ((flags & FLAG_CUE) == 0 && type >= typeCount) {
+                    throw new IllegalArgumentException("Indeks jenis bola tidak valid: " + type);
+                }
+                target.setBall(i, px, py, pvx, pvy, active, (flags & FLAG_CUE) != 0 ? null : decodeTypes[type]);
+            }
+            target.setBallCount(count);
+            target.setPlayerScore(score);
+            target.setCuePendingRespawn((stateFlags & FLAG_CUE_PENDING_RESPAWN) != 0);
+            return target;
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Data keadaan meja terpotong", e);
+        }
+    }
+
+    private static int indexOf(String[] names, int count, String name) {
+        for (int i = 0; i < count; i++) {
+            if (names[i].equals(name)) return i;
+        }
+        return -1;
+    }
+
+    // --- Varint (LEB128) dan zigzag ---
+
+    static void putVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long getVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IllegalArgumentException("Varint terlalu panjang");
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // --- File save ---
+
+    /**
+     * Menyimpan keadaan meja ke file (FILE_MAGIC diikuti data hasil {@link #encode}).
+     *
+     * @param file  File tujuan (ditimpa jika sudah ada).
+     * @param state Keadaan yang disimpan.
+     */
+    public void save(Path file, TableState state) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4 + maxEncodedSize(state));
+        buffer.putInt(FILE_MAGIC);
+        encode(state, buffer);
+        Files.write(file, Arrays.copyOf(buffer.array(), buffer.position()));
+    }
+
+    /**
+     * Membaca keadaan meja dari file hasil {@link #save(Path, TableState)}.
+     *
+     * @throws IOException Jika file tidak bisa dibaca atau bukan file save yang valid.
+     */
+    public TableState load(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < 4 || buffer.getInt() != FILE_MAGIC) throw new IOException("Bukan file save meja: " + file);
+        try {
+            return decode(buffer, new TableState(0));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("File save rusak: " + file + " (" + e.getMessage() + ")", e);
+        }
+    }
+
+    /**
+     * Membandingkan ukuran dan kecepatan format ini dengan format teks (satu baris CSV per bola)
+     * pada rak standar dan meja yang sedang bergerak.
+     * <pre>
+     * java -cp ... com.billiards2d.TableStateCodec [iterations]
+     * </pre>
+     */
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        double w = BilliardApp.GAME_WIDTH;
+        double h = BilliardApp.GAME_HEIGHT;
+
+        TableState rack = TableState.capture(BilliardApp.createStandardBalls(w, h), 0);
+        TableState afterShot = new ShotSimulator(w, h).simulate(rack, new Vector2D(CueStick.MAX_FORCE, 15)).getFinalState();
+        // Keadaan di tengah pukulan: jalankan beberapa frame saja
+        Simulation simulation = Simulation.fromState(rack, w, h);
+        simulation.getCueBall().hit(new Vector2D(CueStick.MAX_FORCE, 15));
+        for (int f = 0; f < 20; f++) simulation.advance(ShotSimulator.FRAME_TIME);
+        TableState midShot = TableState.capture(simulation.getBalls(), simulation.getPhysicsEngine().getPlayerScore());
+
+        TableStateCodec codec = new TableStateCodec();
+        for (TableState state : new TableState[] {rack, midShot, afterShot}) {
+            String label = state == rack ? "rack" : state == midShot ? "mid-shot" : "after shot";
+            ByteBuffer buffer = ByteBuffer.allocate(maxEncodedSize(state));
+            TableState decoded = new TableState(state.getBallCount());
+
+            String text = toText(state);
+            long begin = System.nanoTime();
+            for (int i = 0; i < iterations; i++) fromText(toText(state), decoded);
+            double textNs = (System.nanoTime() - begin) / (double) iterations;
+
+            begin = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                buffer.clear();
+                codec.encode(state, buffer);
+                buffer.flip();
+                codec.decode(buffer, decoded);
+            }
+            double binaryNs = (System.nanoTime() - begin) / (double) iterations;
+
+            buffer.clear();
+            codec.encode(state, buffer);
+            System.out.printf(Locale.ROOT, "%-10s text %5d bytes %8.0f ns | binary %4d bytes %6.0f ns | %.1fx smaller, %.1fx faster%n",
+                    label, text.length(), textNs, buffer.position(), binaryNs,
+                    (double) text.length() / buffer.position(), textNs / binaryNs);
+        }
+    }
+
+    /** Format teks pembanding: baris header lalu satu baris CSV per bola. */
+    private static String toText(TableState state) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(state.getBallCount()).append(',').append(state.getPlayerScore()).append(',')
+                .append(state.isCuePendingRespawn()).append('\n');
+        for (int i = 0; i < state.getBallCount(); i++) {
+            sb.append(state.getType(i) == null ? "CUE" : state.getType(i)).append(',')
+                    .append(state.isActive(i)).append(',')
+                    .append(String.format(Locale.ROOT, "%.3f,%.3f,%.3f,%.3f",
+                            state.getX(i), state.getY(i), state.getVx(i), state.getVy(i)))
+                    .append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static void fromText(String text, TableState target) {
+        String[] lines = text.split("\n");
+        String[] header = lines[0].split(",");
+        int count = Integer.parseInt(header[0]);
+        target.ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            String[] f = lines[i + 1].split(",");
+            target.setBall(i, Double.parseDouble(f[2]), Double.parseDouble(f[3]),
+                    Double.parseDouble(f[4]), Double.parseDouble(f[5]),
+                    Boolean.parseBoolean(f[1]), "CUE".equals(f[0]) ? null : f[0]);
+        }
+        target.setBallCount(count);
+        target.setPlayerScore(Integer.parseInt(header[1]));
+        target.setCuePendingRespawn(Boolean.parseBoolean(header[2]));
+    }
+}
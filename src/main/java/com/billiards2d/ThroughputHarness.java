@@ -0,0 +1,327 @@
+package com.billiards2d;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Harness regresi throughput untuk engine fisika.
+ * <p>
+ * Menjalankan setiap skenario dari {@link ScenarioGenerator} secara headless lalu mengukur
+ * langkah fisika per detik, nanodetik per bola per langkah, byte yang dialokasikan per langkah,
+ * dan checksum keadaan akhir. Hasil ditulis ke file CSV dan dibandingkan dengan baseline:
+ * jika throughput turun melebihi toleransi atau checksum berubah, program keluar dengan
+ * kode 1 sehingga build gagal. Setelah itu dicek juga bahwa langkah fisika dan garis prediksi
+ * tidak mengalokasikan memori sama sekali ({@link #checkSteadyStateAllocations()}).
+ * </p>
+ * Argumen:
+ * <pre>
+ * --output &lt;file&gt;        File hasil CSV (default build/benchmark/results.csv)
+ * --baseline &lt;file&gt;      File baseline CSV untuk perbandingan
+ * --update-baseline      Tulis hasil run ini sebagai baseline baru
+ * --tolerance &lt;0..1&gt;     Penurunan throughput yang masih diterima (default 0.25)
+ * --ignore-checksums     Jangan gagal jika checksum keadaan akhir berbeda
+ * --only &lt;nama&gt;          Hanya jalankan skenario dengan nama yang mengandung teks ini
+ * --skip-allocation-check Jangan cek bahwa langkah fisika dan prediksi bebas alokasi
+ * --library &lt;file&gt;       Jalankan posisi dari {@link PositionLibrary} (bukan skenario standar)
+ * </pre>
+ * Angka throughput di baseline hanya bermakna di mesin yang sama dengan mesin yang membuatnya,
+ * jadi harness ini tidak dijalankan oleh {@code ./gradlew check}. Checksum di baseline bersifat
+ * deterministik dan dicek di test unit ({@code PhysicsChecksumTest}).
+ */
+public class ThroughputHarness {
+
+    private static final String CSV_HEADER = "scenario,balls,frames,steps,stepsPerSec,nsPerBallStep,bytesPerStep,checksum";
+    private static final long SEED = 42;
+
+    /** Hasil pengukuran satu skenario. */
+    static class Result {
+        final String scenario;
+        final int balls;
+        final int frames;
+        final long steps;
+        final double stepsPerSec;
+        final double nsPerBallStep;
+        final double bytesPerStep;
+        final String checksum;
+
+        Result(String scenario, int balls, int frames, long steps, double stepsPerSec,
+               double nsPerBallStep, double bytesPerStep, String checksum) {
+            this.scenario = scenario;
+            this.balls = balls;
+            this.frames = frames;
+            this.steps = steps;
+            this.stepsPerSec = stepsPerSec;
+            this.nsPerBallStep = nsPerBallStep;
+            this.bytesPerStep = bytesPerStep;
+            this.checksum = checksum;
+        }
+
+        String toCsv() {
+            return String.format(Locale.ROOT, "%s,%d,%d,%d,%.1f,%.2f,%.1f,%s",
+                    scenario, balls, frames, steps, stepsPerSec, nsPerBallStep, bytesPerStep, checksum);
+        }
+
+        static Result fromCsv(String line) {
+            String[] f = line.split(",");
+            return new Result(f[0], Integer.parseInt(f[1]), Integer.parseInt(f[2]), Long.parseLong(f[3]),
+                    Double.parseDouble(f[4]), Double.parseDouble(f[5]), Double.parseDouble(f[6]), f[7]);
+        }
+    }
+
+    /** Total waktu pengukuran minimal per skenario; run diulang sampai batas ini agar angka stabil. */
+    private static final long MIN_MEASURE_NANOS = 1_000_000_000L;
+    private static final int MAX_REPETITIONS = 5;
+
+    /**
+     * Menjalankan satu skenario: sekali untuk pemanasan JIT, lalu beberapa kali untuk diukur.
+     * Hasil yang dilaporkan adalah run tercepat (paling sedikit terganggu noise dari OS/GC).
+     */
+    static Result run(Scenario scenario) {
+        runOnce(scenario); // Warm-up
+        Result best = null;
+        long measured = 0;
+        for (int i = 0; i < MAX_REPETITIONS && measured < MIN_MEASURE_NANOS; i++) {
+            long begin = System.nanoTime();
+            Result result = runOnce(scenario);
+            measured += System.nanoTime() - begin;
+            if (best == null || result.stepsPerSec > best.stepsPerSec) best = result;
+        }
+        return best;
+    }
+
+    /**
+     * Menjalankan skenario satu kali. Semua kolom kecuali waktu (stepsPerSec, nsPerBallStep) dan
+     * alokasi deterministik, sehingga checksum-nya bisa dicek di test unit tanpa bergantung
+     * pada kecepatan mesin.
+     */
+    static Result runOnce(Scenario scenario) {
+        Simulation simulation = scenario.createSimulation();
+        int ballCount = simulation.getBalls().size();
+
+        long allocBefore = threadAllocatedBytes();
+        long begin = System.nanoTime();
+        int frames = 0;
+        while (frames < scenario.getMaxFrames()) {
+            simulation.advance(ShotSimulator.FRAME_TIME);
+            frames++;
+            if (simulation.areAllBallsStopped()) break;
+        }
+        long elapsed = System.nanoTime() - begin;
+        long allocated = threadAllocatedBytes() - allocBefore;
+
+        long steps = Math.max(1, simulation.getTotalSubSteps());
+        TableState finalState = TableState.capture(simulation.getBalls(), simulation.getPhysicsEngine().getPlayerScore());
+        return new Result(scenario.getName(), ballCount, frames, steps,
+                steps / (elapsed / 1e9),
+                (double) elapsed / (steps * ballCount),
+                allocated < 0 ? -1 : (double) allocated / steps,
+                checksum(finalState));
+    }
+
+    /**
+     * Checksum keadaan akhir: hash dari bit persis semua posisi, kecepatan, dan status bola.
+     * Perubahan sekecil apapun pada hasil fisika akan mengubah checksum.
+     */
+    static String checksum(TableState state) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < state.getBallCount(); i++) {
+            hash = (hash ^ Double.doubleToLongBits(state.getX(i))) * 0x100000001b3L;
+            hash = (hash ^ Double.doubleToLongBits(state.getY(i))) * 0x100000001b3L;
+            hash = (hash ^ Double.doubleToLongBits(state.getVx(i))) * 0x100000001b3L;
+            hash = (hash ^ Double.doubleToLongBits(state.getVy(i))) * 0x100000001b3L;
+            hash = (hash ^ (state.isActive(i) ? 1 : 0)) * 0x100000001b3L;
+        }
+        hash = (hash ^ state.getPlayerScore()) * 0x100000001b3L;
+        return String.format("%016x", hash);
+    }
+
+    /** @return Byte yang sudah dialokasikan thread ini, atau -1 jika JVM tidak mendukung. */
+    static long threadAllocatedBytes() {
+        return AllocationTracker.threadAllocatedBytes();
+    }
+
+    /** Jumlah pukulan rack-break untuk pemanasan JIT sebelum alokasi diukur. */
+    private static final int ALLOCATION_WARMUP_SHOTS = 30;
+
+    /**
+     * Mengecek bahwa langkah fisika ({@link PhysicsEngine#update(double)} lewat
+     * {@link Simulation#advance(double)}) dan perhitungan garis prediksi
+     * ({@link CueStick#predict}) tidak mengalokasikan memori sama sekali setelah JIT panas.
+     *
+     * @return Daftar pesan kegagalan (kosong jika lolos atau JVM tidak bisa mengukur alokasi).
+     */
+    static List<String> checkSteadyStateAllocations() {
+        List<String> failures = new ArrayList<>();
+        if (!AllocationTracker.isSupported()) {
+            System.out.println("Allocation check skipped: thread allocation counters not supported");
+            return failures;
+        }
+
+        long physicsBytes = measurePhysicsAllocations(PHYSICS_ALLOCATION_FRAMES);
+        System.out.printf(Locale.ROOT, "Allocation check: physics %d bytes over %d frames%n",
+                physicsBytes, PHYSICS_ALLOCATION_FRAMES);
+        if (physicsBytes > 0) failures.add("physics step allocated " + physicsBytes + " bytes in steady state");
+
+        long predictionBytes = measurePredictionAllocations(PREDICTION_ALLOCATION_RAYCASTS);
+        System.out.printf(Locale.ROOT, "Allocation check: prediction %d bytes over %d raycasts%n",
+                predictionBytes, PREDICTION_ALLOCATION_RAYCASTS);
+        if (predictionBytes > 0) failures.add("prediction raycast allocated " + predictionBytes + " bytes");
+        return failures;
+    }
+
+    /** Jumlah frame pukulan break yang diukur alokasinya. */
+    static final int PHYSICS_ALLOCATION_FRAMES = 1200;
+    /** Jumlah raycast prediksi yang diukur alokasinya. */
+    static final int PREDICTION_ALLOCATION_RAYCASTS = 3600;
+
+    /**
+     * Mengukur alokasi langkah fisika pada pukulan break (banyak tumbukan bola, dinding, dan
+     * lubang) setelah pemanasan JIT. Juga dipakai oleh test unit.
+     *
+     * @param frames Jumlah frame yang diukur setelah pukulan dieksekusi.
+     * @return Byte yang dialokasikan thread ini selama frame tersebut.
+     */
+    static long measurePhysicsAllocations(int frames) {
+        Scenario scenario = ScenarioGenerator.rackBreak();
+        for (int i = 0; i < ALLOCATION_WARMUP_SHOTS; i++) runOnce(scenario);
+        Simulation simulation = scenario.createSimulation();
+        simulation.advance(ShotSimulator.FRAME_TIME); // Pukulan dari antrean dieksekusi di frame pertama
+        return AllocationTracker.measure(() -> simulation.advance(ShotSimulator.FRAME_TIME), frames);
+    }
+
+    /**
+     * Mengukur alokasi raycast garis prediksi ke semua arah dari bola putih di rak awal,
+     * setelah pemanasan JIT. Juga dipakai oleh test unit.
+     *
+     * @param raycasts Jumlah raycast yang diukur.
+     * @return Byte yang dialokasikan thread ini selama raycast tersebut.
+     */
+    static long measurePredictionAllocations(int raycasts) {
+        List<Ball> balls = BilliardApp.createStandardBalls(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT);
+        CueBall cueBall = ShotSimulator.findCueBall(balls);
+        CueStick cueStick = new CueStick(cueBall, balls, BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT);
+        int[] angle = {0};
+        Runnable predict = () -> {
+            double a = Math.toRadians(angle[0]++ % 360);
+            cueStick.predict(cueBall.getX(), cueBall.getY(), Math.cos(a), Math.sin(a));
+        };
+        AllocationTracker.measure(predict, 200_000); // Pemanasan JIT
+        return AllocationTracker.measure(predict, raycasts);
+    }
+
+    /**
+     * Membandingkan hasil dengan baseline.
+     *
+     * @return Daftar pesan kegagalan (kosong jika lolos).
+     */
+    static List<String> compare(List<Result> results, Map<String, Result> baseline,
+                                double tolerance, boolean ignoreChecksums) {
+        List<String> failures = new ArrayList<>();
+        for (Result r : results) {
+            Result base = baseline.get(r.scenario);
+            if (base == null) continue; // Skenario baru, belum ada baseline
+            double minimum = base.stepsPerSec * (1.0 - tolerance);
+            if (r.stepsPerSec < minimum) {
+                failures.add(String.format(Locale.ROOT, "%s: %.1f steps/s < %.1f (baseline %.1f, tolerance %.0f%%)",
+                        r.scenario, r.stepsPerSec, minimum, base.stepsPerSec, tolerance * 100));
+            }
+            if (!ignoreChecksums && !r.checksum.equals(base.checksum)) {
+                failures.add(r.scenario + ": final-state checksum " + r.checksum + " != baseline " + base.checksum);
+            }
+        }
+        return failures;
+    }
+
+    static Map<String, Result> readCsv(Path file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file)) {
+            if (line.isBlank() || line.startsWith("scenario,")) continue;
+            Result r = Result.fromCsv(line.trim());
+            results.put(r.scenario, r);
+        }
+        return results;
+    }
+
+    static void writeCsv(Path file, List<Result> results) throws IOException {
+        if (file.getParent() != null) Files.createDirectories(file.getParent());
+        List<String> lines = new ArrayList<>();
+        lines.add(CSV_HEADER);
+        for (Result r : results) lines.add(r.toCsv());
+        Files.write(file, lines);
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path output = Path.of("build", "benchmark", "results.csv");
+        Path baselineFile = null;
+        boolean updateBaseline = false;
+        boolean ignoreChecksums = false;
+        boolean checkAllocations = true;
+        double tolerance = 0.25;
+        String only = null;
+        Path libraryFile = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--output" -> output = Path.of(args[++i]);
+                case "--baseline" -> baselineFile = Path.of(args[++i]);
+                case "--update-baseline" -> updateBaseline = true;
+                case "--tolerance" -> tolerance = Double.parseDouble(args[++i]);
+                case "--ignore-checksums" -> ignoreChecksums = true;
+                case "--only" -> only = args[++i];
+                case "--skip-allocation-check" -> checkAllocations = false;
+                case "--library" -> libraryFile = Path.of(args[++i]);
+                default -> {
+                    System.err.println("Unknown argument: " + args[i]);
+                    System.exit(2);
+                }
+            }
+        }
+
+        List<Result> results = new ArrayList<>();
+        System.out.println(CSV_HEADER);
+        // Pustaka posisi di-decode satu per satu selama iterasi, jadi korpus besar tidak dimuat sekaligus
+        PositionLibrary library = libraryFile == null ? null : PositionLibrary.open(libraryFile);
+        Iterable<Scenario> scenarios = library == null ? ScenarioGenerator.standardScenarios(SEED) : library.scenarios();
+        for (Scenario scenario : scenarios) {
+            if (only != null && !scenario.getName().contains(only)) continue;
+            Result result = run(scenario);
+            results.add(result);
+            System.out.println(result.toCsv());
+        }
+        if (library != null) library.close();
+        writeCsv(output, results);
+        System.out.println("Results written to " + output);
+
+        List<String> allocationFailures = checkAllocations ? checkSteadyStateAllocations() : List.of();
+        if (!allocationFailures.isEmpty()) {
+            System.err.println("Allocation regression detected:");
+            for (String failure : allocationFailures) System.err.println("  " + failure);
+            System.exit(1);
+        }
+
+        if (baselineFile == null) return;
+        if (updateBaseline) {
+            writeCsv(baselineFile, results);
+            System.out.println("Baseline updated: " + baselineFile);
+            return;
+        }
+        if (!Files.exists(baselineFile)) {
+            System.out.println("No baseline at " + baselineFile + ", skipping comparison");
+            return;
+        }
+
+        List<String> failures = compare(results, readCsv(baselineFile), tolerance, ignoreChecksums);
+        if (!failures.isEmpty()) {
+            System.err.println("Performance regression detected:");
+            for (String failure : failures) System.err.println("  " + failure);
+            System.exit(1);
+        }
+        System.out.println("All scenarios within " + Math.round(tolerance * 100) + "% of baseline");
+    }
+}
@@ -0,0 +1,255 @@
+package com.billiards2d;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Satu chunk data latih dalam layout kolom (columnar): setiap kolom adalah array primitif
+ * yang berisi nilai semua baris secara berurutan.
+ * <p>
+ * Satu baris = satu pukulan: keadaan awal meja, vektor gaya pukulan, dan hasilnya (bola yang
+ * masuk lubang, foul, perubahan skor, dan posisi akhir). Meja selalu memakai
+ * {@link #SLOTS} slot bola dengan urutan tetap (slot 0 = bola putih), sehingga posisi bola
+ * ke-i selalu berada di kolom yang sama. Posisi bola yang tidak aktif ditulis NaN, dan
+ * status aktif/masuk lubang disimpan sebagai bitmask 16-bit (bit i = slot i).
+ * </p>
+ * Chunk diisi lalu di-encode di thread worker, sehingga thread penulis hanya menyalin byte.
+ */
+public class TrainingChunk {
+
+    /** Jumlah slot bola per meja (1 bola putih + 15 bola objek). */
+    public static final int SLOTS = 16;
+
+    // Kode tipe kolom di header file
+    static final byte TYPE_F32 = 1;
+    static final byte TYPE_I32 = 2;
+    static final byte TYPE_I16 = 3;
+    static final byte TYPE_U8 = 4;
+
+    /** Nama kolom sesuai urutan penulisan di chunk. */
+    static final List<String> COLUMN_NAMES;
+    /** Tipe kolom (TYPE_*) sesuai urutan penulisan di chunk. */
+    static final byte[] COLUMN_TYPES;
+
+    static {
+        List<String> names = new ArrayList<>();
+        List<Byte> types = new ArrayList<>();
+        for (int i = 0; i < SLOTS; i++) addColumn(names, types, "start_x_" + i, TYPE_F32);
+        for (int i = 0; i < SLOTS; i++) addColumn(names, types, "start_y_" + i, TYPE_F32);
+        addColumn(names, types, "start_active", TYPE_I16);
+        addColumn(names, types, "shot_x", TYPE_F32);
+        addColumn(names, types, "shot_y", TYPE_F32);
+        addColumn(names, types, "pocketed", TYPE_I16);
+        addColumn(names, types, "foul", TYPE_U8);
+        addColumn(names, types, "score_delta", TYPE_I16);
+        for (int i = 0; i < SLOTS; i++) addColumn(names, types, "final_x_" + i, TYPE_F32);
+        for (int i = 0; i < SLOTS; i++) addColumn(names, types, "final_y_" + i, TYPE_F32);
+        addColumn(names, types, "final_active", TYPE_I16);
+        addColumn(names, types, "sim_time", TYPE_F32);
+        addColumn(names, types, "steps", TYPE_I32);
+
+        COLUMN_NAMES = Collections.unmodifiableList(names);
+        COLUMN_TYPES = new byte[types.size()];
+        for (int i = 0; i < COLUMN_TYPES.length; i++) COLUMN_TYPES[i] = types.get(i);
+    }
+
+    private static void addColumn(List<String> names, List<Byte> types, String name, byte type) {
+        names.add(name);
+        types.add(type);
+    }
+
+    private final int capacity;
+    private int rows;
+
+    // Kolom posisi per slot: nilai slot s baris r ada di indeks s * capacity + r
+    private final float[] startX;
+    private final float[] startY;
+    private final short[] startActive;
+    private final float[] shotX;
+    private final float[] shotY;
+    private final short[] pocketed;
+    private final byte[] foul;
+    private final short[] scoreDelta;
+    private final float[] finalX;
+    private final float[] finalY;
+    private final short[] finalActive;
+    private final float[] simTime;
+    private final int[] steps;
+
+    /**
+     * @param capacity Jumlah baris maksimal di chunk ini.
+     */
+    public TrainingChunk(int capacity) {
+        this.capacity = capacity;
+        startX = new float[SLOTS * capacity];
+        startY = new float[SLOTS * capacity];
+        startActive = new short[capacity];
+        shotX = new float[capacity];
+        shotY = new float[capacity];
+        pocketed = new short[capacity];
+        foul = new byte[capacity];
+        scoreDelta = new short[capacity];
+        finalX = new float[SLOTS * capacity];
+        finalY = new float[SLOTS * capacity];
+        finalActive = new short[capacity];
+        simTime = new float[capacity];
+        steps = new int[capacity];
+    }
+
+    /**
+     * Menambahkan satu baris.
+     *
+     * @param start   Keadaan awal (tepat {@link #SLOTS} bola, slot 0 = bola putih).
+     * @param shot    Vektor gaya pukulan.
+     * @param outcome Hasil simulasi pukulan.
+     */
+    public void add(TableState start, Vector2D shot, ShotOutcome outcome) {
+        if (rows >= capacity) throw new IllegalStateException("Chunk penuh (" + capacity + " baris)");
+        if (start.getBallCount() != SLOTS) {
+            throw new IllegalArgumentException("Keadaan meja harus berisi " + SLOTS + " bola: " + start.getBallCount());
+        }
+        int row = rows++;
+        startActive[row] = writePositions(start, startX, startY, row);
+        shotX[row] = (float) shot.getX();
+        shotY[row] = (float) shot.getY();
+
+        int pocketMask = 0;
+        for (int index : outcome.getPocketedBalls()) pocketMask |= 1 << index;
+        pocketed[row] = (short) pocketMask;
+        foul[row] = (byte) (outcome.isFoul() ? 1 : 0);
+        scoreDelta[row] = (short) outcome.getScoreDelta();
+        finalActive[row] = writePositions(outcome.getFinalState(), finalX, finalY, row);
+        simTime[row] = (float) outcome.getSimulatedTime();
+        steps[row] = outcome.getSteps();
+    }
+
+    /** Menulis posisi semua slot ke kolom, lalu mengembalikan bitmask bola aktif. */
+    private short writePositions(TableState state, float[] xs, float[] ys, int row) {
+        int mask = 0;
+        for (int s = 0; s < SLOTS; s++) {
+            boolean isActive = state.isActive(s);
+            xs[s * capacity + row] = isActive ? (float) state.getX(s) : Float.NaN;
+            ys[s * capacity + row] = isActive ? (float) state.getY(s) : Float.NaN;
+            if (isActive) mask |= 1 << s;
+        }
+        return (short) mask;
+    }
+
+    /** @return Ukuran chunk dalam byte sebelum kompresi. */
+    public int encodedSize() {
+        int rowBytes = 0;
+        for (byte type : COLUMN_TYPES) rowBytes += typeSize(type);
+        return rowBytes * rows;
+    }
+
+    /**
+     * Menulis semua kolom secara berurutan (little-endian) ke buffer.
+     *
+     * @param buffer Buffer tujuan (sisa kapasitas minimal {@link #encodedSize()}).
+     */
+    public void encode(ByteBuffer buffer) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        for (int s = 0; s < SLOTS; s++) putFloats(buffer, startX, s * capacity);
+        for (int s = 0; s < SLOTS; s++) putFloats(buffer, startY, s * capacity);
+        putShorts(buffer, startActive);
+        putFloats(buffer, shotX, 0);
+        putFloats(buffer, shotY, 0);
+        putShorts(buffer, pocketed);
+        buffer.put(foul, 0, rows);
+        putShorts(buffer, scoreDelta);
+        for (int s = 0; s < SLOTS; s++) putFloats(buffer, finalX, s * capacity);
+        for (int s = 0; s < SLOTS; s++) putFloats(buffer, finalY, s * capacity);
+        putShorts(buffer, finalActive);
+        putFloats(buffer, simTime, 0);
+        buffer.asIntBuffer().put(steps, 0, rows);
+        buffer.position(buffer.position() + rows * 4);
+    }
+
+    /**
+     * Membaca chunk dari buffer hasil {@link #encode(ByteBuffer)}.
+     *
+     * @param buffer Buffer berisi data chunk.
+     * @param rows   Jumlah baris di chunk.
+     * @return Chunk baru.
+     */
+    public static TrainingChunk decode(ByteBuffer buffer, int rows) {
+        TrainingChunk chunk = new TrainingChunk(rows);
+        chunk.rows = rows;
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        for (int s = 0; s < SLOTS; s++) getFloats(buffer, chunk.startX, s * rows, rows);
+        for (int s = 0; s < SLOTS; s++) getFloats(buffer, chunk.startY, s * rows, rows);
+        getShorts(buffer, chunk.startActive, rows);
+        getFloats(buffer, chunk.shotX, 0, rows);
+        getFloats(buffer, chunk.shotY, 0, rows);
+        getShorts(buffer, chunk.pocketed, rows);
+        buffer.get(chunk.foul, 0, rows);
+        getShorts(buffer, chunk.scoreDelta, rows);
+        for (int s = 0; s < SLOTS; s++) getFloats(buffer, chunk.finalX, s * rows, rows);
+        for (int s = 0; s < SLOTS; s++) getFloats(buffer, chunk.finalY, s * rows, rows);
+        getShorts(buffer, chunk.finalActive, rows);
+        getFloats(buffer, chunk.simTime, 0, rows);
+        buffer.asIntBuffer().get(chunk.steps, 0, rows);
+        buffer.position(buffer.position() + rows * 4);
+        return chunk;
+    }
+
+    private void putFloats(ByteBuffer buffer, float[] column, int offset) {
+        buffer.asFloatBuffer().put(column, offset, rows);
+        buffer.position(buffer.position() + rows * 4);
+    }
+
+    private void putShorts(ByteBuffer buffer, short[] column) {
+        buffer.asShortBuffer().put(column, 0, rows);
+        buffer.position(buffer.position() + rows * 2);
+    }
+
+    private static void getFloats(ByteBuffer buffer, float[] column, int offset, int rows) {
+        buffer.asFloatBuffer().get(column, offset, rows);
+        buffer.position(buffer.position() + rows * 4);
+    }
+
+    private static void getShorts(ByteBuffer buffer, short[] column, int rows) {
+        buffer.asShortBuffer().get(column, 0, rows);
+        buffer.position(buffer.position() + rows * 2);
+    }
+
+    static int typeSize(byte type) {
+        switch (type) {
+            case TYPE_F32:
+            case TYPE_I32:
+                return 4;
+            case TYPE_I16:
+                return 2;
+            case TYPE_U8:
+                return 1;
+            default:
+                throw new IllegalArgumentException("Tipe kolom tidak dikenal: " + type);
+        }
+    }
+
+    /** Mengosongkan chunk agar bisa diisi ulang. */
+    public void clear() {
+        rows = 0;
+    }
+
+    // --- Getter per baris (dipakai pembaca dan pengecekan) ---
+
+    public int getRows() { return rows; }
+    public int getCapacity() { return capacity; }
+    public float getStartX(int row, int slot) { return startX[slot * capacity + row]; }
+    public float getStartY(int row, int slot) { return startY[slot * capacity + row]; }
+    public int getStartActiveMask(int row) { return startActive[row] & 0xFFFF; }
+    public float getShotX(int row) { return shotX[row]; }
+    public float getShotY(int row) { return shotY[row]; }
+    public int getPocketedMask(int row) { return pocketed[row] & 0xFFFF; }
+    public boolean isFoul(int row) { return foul[row] != 0; }
+    public int getScoreDelta(int row) { return scoreDelta[row]; }
+    public float getFinalX(int row, int slot) { return finalX[slot * capacity + row]; }
+    public float getFinalY(int row, int slot) { return finalY[slot * capacity + row]; }
+    public int getFinalActiveMask(int row) { return finalActive[row] & 0xFFFF; }
+    public float getSimulatedTime(int row) { return simTime[row]; }
+    public int getSteps(int row) { return steps[row]; }
+}
@@ -0,0 +1,252 @@
+package com.billiards2d;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Mode batch untuk membuat data latih model pemilih pukulan: jutaan baris
+ * (keadaan meja, vektor pukulan, hasil) dari simulasi headless yang berjalan paralel.
+ * <p>
+ * Setiap chunk dibuat oleh satu task di thread pool: keadaan meja acak (bola putih dan
+ * sebagian dari 15 bola rak di posisi acak yang tidak saling tumpang tindih), pukulan acak,
+ * simulasi dengan {@link ShotSimulator}, lalu chunk langsung di-encode (dan dikompres) di
+ * thread yang sama. Thread utama hanya menulis chunk yang sudah jadi ke file secara berurutan.
+ * Jumlah chunk yang sedang diproses dibatasi, sehingga memori tetap kecil berapapun jumlah
+ * barisnya. Setiap chunk memakai seed sendiri, jadi hasilnya sama untuk seed yang sama
+ * berapapun jumlah thread-nya.
+ * </p>
+ * Cara pakai dari command line:
+ * <pre>
+ * java -cp ... com.billiards2d.TrainingDataExporter --records 1000000 --output shots.b2dt [--compress]
+ *      [--threads N] [--chunk-rows N] [--shots-per-state N] [--seed N]
+ * </pre>
+ */
+public class TrainingDataExporter implements AutoCloseable {
+
+    /** Radius bola standar (sama dengan CueBall dan ObjectBall). */
+    private static final double BALL_RADIUS = 10.0;
+    /** Kekuatan pukulan minimum (relatif terhadap {@link CueStick#MAX_FORCE}). */
+    private static final double MIN_POWER = 0.1;
+
+    private final ShotSimulator simulator;
+    private final String[] slotTypes;
+    private final ExecutorService pool;
+    private final int threads;
+
+    private int chunkRows = 16384;
+    private int shotsPerState = 1;
+    private boolean compress = false;
+
+    /** Chunk yang dipakai ulang oleh setiap thread worker. */
+    private final ThreadLocal<TrainingChunk> workerChunk = ThreadLocal.withInitial(() -> new TrainingChunk(chunkRows));
+
+    /**
+     * @param threads Jumlah thread simulasi.
+     */
+    public TrainingDataExporter(int threads) {
+        this(new ShotSimulator(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT), threads);
+    }
+
+    /**
+     * @param simulator Simulator ukuran meja standar (parameter fisika dan solver meja yang disimulasikan).
+     * @param threads   Jumlah thread simulasi.
+     */
+    public TrainingDataExporter(ShotSimulator simulator, int threads) {
+        this.simulator = simulator;
+        this.threads = Math.max(1, threads);
+        this.pool = Executors.newFixedThreadPool(this.threads, r -> {
+            Thread t = new Thread(r, "training-export");
+            t.setDaemon(true);
+            return t;
+        });
+
+        List<Ball> rack = BilliardApp.createStandardBalls(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT);
+        slotTypes = new String[TrainingChunk.SLOTS];
+        for (int i = 0; i < slotTypes.length; i++) {
+            Ball ball = rack.get(i);
+            slotTypes[i] = ball instanceof ObjectBall ? ((ObjectBall) ball).getType() : null;
+        }
+    }
+
+    /**
+     * Membuat sejumlah baris dan menulisnya ke file.
+     *
+     * @param output  File tujuan.
+     * @param records Jumlah baris (pukulan).
+     * @param seed    Seed acak.
+     * @return Jumlah byte yang ditulis (header dan chunk, tanpa footer).
+     */
+    public long export(Path output, long records, long seed) throws IOException {
+        long chunkCount = (records + chunkRows - 1) / chunkRows;
+        int maxInFlight = threads * 2;
+        ArrayDeque<Future<byte[]>> inFlight = new ArrayDeque<>();
+        ArrayDeque<Integer> inFlightRows = new ArrayDeque<>();
+
+        try (TrainingDataWriter writer = new TrainingDataWriter(output,
+                BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT, slotTypes)) {
+            for (long chunk = 0; chunk < chunkCount; chunk++) {
+                int rows = (int) Math.min(chunkRows, records - chunk * chunkRows);
+                long chunkSeed = seed * 0x9E3779B97F4A7C15L + chunk;
+                inFlight.add(pool.submit(() -> generateChunk(rows, chunkSeed)));
+                inFlightRows.add(rows);
+
+                // Tulis chunk tertua jika antrean penuh (urutan file tetap sama dengan urutan chunk)
+                if (inFlight.size() >= maxInFlight) writer.writeEncodedChunk(await(inFlight.poll()), inFlightRows.poll());
+            }
+            while (!inFlight.isEmpty()) writer.writeEncodedChunk(await(inFlight.poll()), inFlightRows.poll());
+            return writer.getBytesWritten();
+        } finally {
+            for (Future<byte[]> future : inFlight) future.cancel(true);
+        }
+    }
+
+    /** Menyimulasikan satu chunk lalu meng-encode-nya (dijalankan di thread worker). */
+    private byte[] generateChunk(int rows, long seed) {
+        Random random = new Random(seed);
+        TrainingChunk chunk = workerChunk.get();
+        chunk.clear();
+
+        TableState start = null;
+        for (int row = 0; row < rows; row++) {
+            if (row % shotsPerState == 0) start = randomLayout(random);
+            double angle = random.nextDouble() * Math.PI * 2;
+            double power = (MIN_POWER + random.nextDouble() * (1 - MIN_POWER)) * CueStick.MAX_FORCE;
+            Vector2D shot = new Vector2D(Math.cos(angle) * power, Math.sin(angle) * power);
+            chunk.add(start, shot, simulator.simulate(start, shot));
+        }
+        return TrainingDataWriter.encodeChunk(chunk, compress);
+    }
+
+    /**
+     * Keadaan meja acak: bola putih selalu ada, lalu 1-15 bola rak (dipilih acak) ditempatkan
+     * acak tanpa tumpang tindih. Bola yang tidak terpilih dianggap sudah masuk lubang.
+     */
+    TableState randomLayout(Random random) {
+        int slots = TrainingChunk.SLOTS;
+        double w = BilliardApp.GAME_WIDTH;
+        double h = BilliardApp.GAME_HEIGHT;
+        TableState state = new TableState(slots);
+
+        // Pilih bola objek yang aktif (shuffle Fisher-Yates pada slot 1..15)
+        int[] order = new int[slots - 1];
+        for (int i = 0; i < order.length; i++) order[i] = i + 1;
+        for (int i = order.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        int activeObjects = 1 + random.nextInt(slots - 1);
+
+        double[] placedX = new double[slots];
+        double[] placedY = new double[slots];
+        int placed = 0;
+        for (int s = 0; s < slots; s++) state.setBall(s, 0, 0, 0, 0, false, slotTypes[s]);
+
+        for (int k = -1; k < activeObjects; k++) {
+            int slot = k < 0 ? 0 : order[k]; // Bola putih selalu ditempatkan pertama
+            double x, y;
+            int attempts = 0;
+            do {
+                x = BALL_RADIUS * 2 + random.nextDouble() * (w - BALL_RADIUS * 4);
+                y = BALL_RADIUS * 2 + random.nextDouble() * (h - BALL_RADIUS * 4);
+            } while (overlaps(placedX, placedY, placed, x, y) && ++attempts < 1000);
+            if (attempts >= 1000) continue; // Meja terlalu penuh: bola ini dianggap sudah masuk
+            placedX[placed] = x;
+            placedY[placed] = y;
+            placed++;
+            state.setBall(slot, x, y, 0, 0, true, slotTypes[slot]);
+        }
+        state.setBallCount(slots);
+        return state;
+    }
+
+    private static boolean overlaps(double[] xs, double[] ys, int count, double x, double y) {
+        double minDistance = BALL_RADIUS * 2;
+        for (int i = 0; i < count; i++) {
+            double dx = xs[i] - x;
+            double dy = ys[i] - y;
+            if (dx * dx + dy * dy < minDistance * minDistance) return true;
+        }
+        return false;
+    }
+
+    private static byte[] await(Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export dibatalkan", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Simulasi chunk gagal", e.getCause());
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.shutdownNow();
+    }
+
+    public int getChunkRows() { return chunkRows; }
+    /** Harus diatur sebelum {@link #export} pertama (chunk worker dibuat dengan ukuran ini). */
+    public void setChunkRows(int chunkRows) { this.chunkRows = chunkRows; }
+    public int getShotsPerState() { return shotsPerState; }
+    public void setShotsPerState(int shotsPerState) { this.shotsPerState = Math.max(1, shotsPerState); }
+    public boolean isCompress() { return compress; }
+    public void setCompress(boolean compress) { this.compress = compress; }
+    public boolean isSinglePrecision() { return simulator.isSinglePrecision(); }
+    /** @param singlePrecision true untuk menyimulasikan dengan fisika float32 ({@link FloatSimulation}). */
+    public void setSinglePrecision(boolean singlePrecision) { simulator.setSinglePrecision(singlePrecision); }
+
+    public static void main(String[] args) throws IOException {
+        Path output = null;
+        long records = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int chunkRows = 16384;
+        int shotsPerState = 1;
+        long seed = 42;
+        boolean compress = false;
+        boolean singlePrecision = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--output" -> output = Path.of(args[++i]);
+                case "--records" -> records = Long.parseLong(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--chunk-rows" -> chunkRows = Integer.parseInt(args[++i]);
+                case "--shots-per-state" -> shotsPerState = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--compress" -> compress = true;
+                case "--float" -> singlePrecision = true;
+                default -> throw new IllegalArgumentException("Argumen tidak dikenal: " + args[i]);
+            }
+        }
+        if (output == null || records <= 0) {
+            System.err.println("Usage: TrainingDataExporter --records N --output file [--compress] [--threads N]"
+                    + " [--chunk-rows N] [--shots-per-state N] [--seed N] [--float]");
+            System.exit(2);
+        }
+
+        try (TrainingDataExporter exporter = new TrainingDataExporter(ShotSimulator.fromSystemProperties(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT), threads)) {
+            exporter.setChunkRows(chunkRows);
+            exporter.setShotsPerState(shotsPerState);
+            exporter.setCompress(compress);
+            exporter.setSinglePrecision(singlePrecision);
+
+            long begin = System.nanoTime();
+            long bytes = exporter.export(output, records, seed);
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            System.out.printf(Locale.ROOT, "%d records on %d thread(s) in %.1f s: %.0f records/s, %.1f MB (%.1f bytes/record)%n",
+                    records, threads, seconds, records / seconds, bytes / 1e6, (double) bytes / records);
+            System.out.println("Written to " + output);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.billiards2d;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Membaca file data latih yang ditulis oleh {@link TrainingDataWriter}.
+ * <p>
+ * Indeks chunk dibaca dari footer, sehingga chunk mana pun bisa dibaca langsung tanpa
+ * membaca chunk sebelumnya (misalnya untuk membagi file ke beberapa worker pelatihan).
+ * </p>
+ */
+public class TrainingDataReader implements AutoCloseable {
+
+    private final FileChannel channel;
+    private final double tableWidth;
+    private final double tableHeight;
+    private final String[] slotTypes;
+    private final long[] chunkOffsets;
+    private final long totalRows;
+
+    /**
+     * Membuka file dan membaca header serta indeks chunk.
+     *
+     * @param path File data latih.
+     * @throws IOException Jika file tidak bisa dibaca atau formatnya tidak dikenal.
+     */
+    public TrainingDataReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            DataInputStream header = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0))));
+            if (header.readInt() != TrainingDataWriter.MAGIC) throw new IOException("Bukan file data latih: " + path);
+            int version = header.readInt();
+            if (version != TrainingDataWriter.VERSION) throw new IOException("Versi format tidak didukung: " + version);
+            tableWidth = header.readDouble();
+            tableHeight = header.readDouble();
+            slotTypes = new String[header.readUnsignedShort()];
+            for (int i = 0; i < slotTypes.length; i++) {
+                String type = header.readUTF();
+                slotTypes[i] = TrainingDataWriter.CUE_TYPE.equals(type) ? null : type;
+            }
+            int columns = header.readUnsignedShort();
+            if (columns != TrainingChunk.COLUMN_NAMES.size()) throw new IOException("Jumlah kolom tidak cocok: " + columns);
+            for (int i = 0; i < columns; i++) {
+                String name = header.readUTF();
+                byte type = header.readByte();
+                if (!name.equals(TrainingChunk.COLUMN_NAMES.get(i)) || type != TrainingChunk.COLUMN_TYPES[i]) {
+                    throw new IOException("Skema kolom tidak cocok di kolom " + i + ": " + name);
+                }
+            }
+
+            // Ekor file: offset footer (long) + MAGIC (int)
+            ByteBuffer tail = readFully(channel.size() - 12, 12);
+            long footerOffset = tail.getLong();
+            if (tail.getInt() != TrainingDataWriter.MAGIC) throw new IOException("Footer tidak ditemukan (file terpotong?)");
+
+            ByteBuffer footer = readFully(footerOffset, (int) (channel.size() - 12 - footerOffset));
+            if (footer.getInt() != 0) throw new IOException("Penanda akhir chunk tidak valid");
+            chunkOffsets = new long[footer.getInt()];
+            for (int i = 0; i < chunkOffsets.length; i++) chunkOffsets[i] = footer.getLong();
+            totalRows = footer.getLong();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Membaca dan men-decode satu chunk.
+     *
+     * @param index Indeks chunk (0 .. {@link #getChunkCount()} - 1).
+     * @return Chunk berisi semua baris di chunk tersebut.
+     */
+    public TrainingChunk readChunk(int index) throws IOException {
+        ByteBuffer header = readFully(chunkOffsets[index], TrainingDataWriter.CHUNK_HEADER_BYTES);
+        int rows = header.getInt();
+        byte codec = header.get();
+        int rawSize = header.getInt();
+        int storedSize = header.getInt();
+        ByteBuffer stored = readFully(chunkOffsets[index] + TrainingDataWriter.CHUNK_HEADER_BYTES, storedSize);
+
+        ByteBuffer raw;
+        if (codec == TrainingDataWriter.CODEC_RAW) {
+            raw = stored;
+        } else if (codec == TrainingDataWriter.CODEC_DEFLATE) {
+            Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(stored.array(), 0, storedSize);
+                byte[] bytes = new byte[rawSize];
+                int length = 0;
+                while (length < rawSize && !inflater.finished()) {
+                    int n = inflater.inflate(bytes, length, rawSize - length);
+                    if (n == 0 && inflater.needsInput()) break;
+                    length += n;
+                }
+                if (length != rawSize) throw new IOException("Chunk " + index + " terpotong");
+                raw = ByteBuffer.wrap(bytes);
+            } catch (DataFormatException e) {
+                throw new IOException("Chunk " + index + " rusak", e);
+            } finally {
+                inflater.end();
+            }
+        } else {
+            throw new IOException("Codec tidak dikenal: " + codec);
+        }
+        return TrainingChunk.decode(raw, rows);
+    }
+
+    private ByteBuffer readFully(long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) throw new IOException("File terpotong");
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public double getTableWidth() { return tableWidth; }
+    public double getTableHeight() { return tableHeight; }
+    /** @return Tipe bola per slot (null = bola putih). */
+    public String[] getSlotTypes() { return slotTypes.clone(); }
+    public int getChunkCount() { return chunkOffsets.length; }
+    public long getTotalRows() { return totalRows; }
+}
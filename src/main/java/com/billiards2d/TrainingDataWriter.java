@@ -0,0 +1,169 @@
+package com.billiards2d;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Menulis data latih (satu baris per pukulan) ke file biner berformat kolom, chunk demi chunk.
+ * <p>
+ * Format file (angka di header/footer big-endian seperti {@link DataOutputStream}, isi kolom
+ * little-endian agar bisa langsung dibaca sebagai array, misalnya dengan numpy):
+ * <pre>
+ * header : MAGIC, VERSION, lebar meja (double), tinggi meja (double),
+ *          jumlah slot (short), tipe bola per slot (UTF, "CUE" = bola putih),
+ *          jumlah kolom (short), (nama kolom UTF, tipe kolom byte)...
+ * chunk  : jumlah baris (int), codec (byte, 0 = mentah, 1 = deflate),
+ *          ukuran mentah (int), ukuran tersimpan (int), isi
+ *          (isi mentah = setiap kolom berurutan, masing-masing berisi semua baris chunk)
+ * footer : 0 (int, penanda akhir chunk), jumlah chunk (int), offset setiap chunk (long)...,
+ *          total baris (long), offset footer (long), MAGIC
+ * </pre>
+ * Chunk di-encode (dan dikompres) oleh {@link #encodeChunk(TrainingChunk, boolean)} yang
+ * aman dipanggil dari banyak thread; penulis hanya menyalin byte ke file secara berurutan,
+ * sehingga file ditulis secara streaming tanpa menahan seluruh data di memori.
+ * </p>
+ */
+public class TrainingDataWriter implements AutoCloseable {
+
+    static final int MAGIC = 0x4232544C; // "B2TL" (berbeda dari SharedTableState)
+    static final int VERSION = 1;
+
+    static final byte CODEC_RAW = 0;
+    static final byte CODEC_DEFLATE = 1;
+
+    /** Nama tipe untuk slot bola putih di header. */
+    static final String CUE_TYPE = "CUE";
+
+    /** Ukuran header per chunk: baris, codec, ukuran mentah, ukuran tersimpan. */
+    static final int CHUNK_HEADER_BYTES = 4 + 1 + 4 + 4;
+
+    private final DataOutputStream out;
+    private final List<Long> chunkOffsets = new ArrayList<>();
+    private long position = 0;
+    private long totalRows = 0;
+
+    /**
+     * Membuat file baru dan menulis header.
+     *
+     * @param path        File tujuan (ditimpa jika sudah ada).
+     * @param tableWidth  Lebar area permainan.
+     * @param tableHeight Tinggi area permainan.
+     * @param slotTypes   Tipe bola per slot ({@link TrainingChunk#SLOTS} elemen, null = bola putih).
+     */
+    public TrainingDataWriter(Path path, double tableWidth, double tableHeight, String[] slotTypes) throws IOException {
+        if (slotTypes.length != TrainingChunk.SLOTS) {
+            throw new IllegalArgumentException("Jumlah slot harus " + TrainingChunk.SLOTS + ": " + slotTypes.length);
+        }
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 20));
+
+        ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(headerBytes);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeDouble(tableWidth);
+        header.writeDouble(tableHeight);
+        header.writeShort(slotTypes.length);
+        for (String type : slotTypes) header.writeUTF(type == null ? CUE_TYPE : type);
+        header.writeShort(TrainingChunk.COLUMN_NAMES.size());
+        for (int i = 0; i < TrainingChunk.COLUMN_NAMES.size(); i++) {
+            header.writeUTF(TrainingChunk.COLUMN_NAMES.get(i));
+            header.writeByte(TrainingChunk.COLUMN_TYPES[i]);
+        }
+        header.flush();
+        writeBytes(headerBytes.toByteArray());
+    }
+
+    /**
+     * Meng-encode chunk menjadi satu record chunk lengkap (header chunk + isi).
+     * Aman dipanggil dari banyak thread sekaligus.
+     *
+     * @param chunk    Chunk yang di-encode.
+     * @param compress true untuk mengompres isi dengan deflate (level tercepat).
+     * @return Byte record chunk untuk {@link #writeEncodedChunk(byte[], int)}.
+     */
+    public static byte[] encodeChunk(TrainingChunk chunk, boolean compress) {
+        int rawSize = chunk.encodedSize();
+        ByteBuffer raw = ByteBuffer.allocate(rawSize);
+        chunk.encode(raw);
+
+        byte[] payload = raw.array();
+        int storedSize = rawSize;
+        byte codec = CODEC_RAW;
+        if (compress) {
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            deflater.setInput(payload);
+            deflater.finish();
+            byte[] compressed = new byte[rawSize + rawSize / 100 + 64];
+            int length = 0;
+            while (!deflater.finished()) {
+                if (length == compressed.length) compressed = Arrays.copyOf(compressed, length * 2);
+                length += deflater.deflate(compressed, length, compressed.length - length);
+            }
+            deflater.end();
+            // Kompresi hanya dipakai jika memang lebih kecil
+            if (length < rawSize) {
+                payload = compressed;
+                storedSize = length;
+                codec = CODEC_DEFLATE;
+            }
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(CHUNK_HEADER_BYTES + storedSize);
+        record.putInt(chunk.getRows());
+        record.put(codec);
+        record.putInt(rawSize);
+        record.putInt(storedSize);
+        record.put(payload, 0, storedSize);
+        return record.array();
+    }
+
+    /** Meng-encode lalu menulis chunk (di thread pemanggil). */
+    public void writeChunk(TrainingChunk chunk, boolean compress) throws IOException {
+        writeEncodedChunk(encodeChunk(chunk, compress), chunk.getRows());
+    }
+
+    /**
+     * Menulis chunk yang sudah di-encode ke akhir file.
+     *
+     * @param record Hasil {@link #encodeChunk(TrainingChunk, boolean)}.
+     * @param rows   Jumlah baris di chunk.
+     */
+    public void writeEncodedChunk(byte[] record, int rows) throws IOException {
+        if (rows == 0) return; // Baris 0 dipakai sebagai penanda akhir chunk
+        chunkOffsets.add(position);
+        writeBytes(record);
+        totalRows += rows;
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        out.write(bytes);
+        position += bytes.length;
+    }
+
+    /** Menulis footer (indeks chunk) lalu menutup file. */
+    @Override
+    public void close() throws IOException {
+        long footerOffset = position;
+        out.writeInt(0);
+        out.writeInt(chunkOffsets.size());
+        for (long offset : chunkOffsets) out.writeLong(offset);
+        out.writeLong(totalRows);
+        out.writeLong(footerOffset);
+        out.writeInt(MAGIC);
+        out.close();
+    }
+
+    public long getTotalRows() { return totalRows; }
+    public int getChunkCount() { return chunkOffsets.size(); }
+    /** @return Jumlah byte yang sudah ditulis (tanpa footer). */
+    public long getBytesWritten() { return position; }
+}
@@ -0,0 +1,219 @@
+package com.billiards2d;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rekaman lintasan satu pukulan yang sudah diselesaikan di depan (resolve-ahead), untuk diputar
+ * ulang di meja permainan dengan interpolasi.
+ * <p>
+ * {@link #resolve} menyimulasikan pukulan secara headless sampai semua bola berhenti (logika
+ * frame sama dengan {@link ShotSimulator}, dengan parameter fisika, solver tumbukan, dan rentang
+ * sub-step meja yang sedang dimainkan), sambil merekam posisi setiap bola per frame. Hasilnya
+ * ({@link #getOutcome()}) langsung diketahui sebelum pemutaran dimulai, misalnya untuk skor atau
+ * dikirim lewat jaringan.
+ * </p>
+ * Rekaman disimpan per bola (float x/y, bit aktif): setiap bola hanya menyimpan frame sampai
+ * bola itu berhenti berubah, sehingga bola yang tidak tersentuh cukup satu frame. Pemutaran
+ * ({@link #applyTo(double, List)}) menginterpolasi posisi di antara dua frame rekaman dan tidak
+ * membuat objek baru, sehingga biaya render tidak bergantung pada biaya fisika pukulan.
+ */
+public class TrajectoryPlayback {
+
+    private final int ballCount;
+    private final double frameTime;
+    private final ShotOutcome outcome;
+
+    /** Jumlah frame rekaman (frame 0 = keadaan awal setelah pukulan diberikan). */
+    private final int frames;
+    // Data per bola: frame ke-f bola i ada di indeks offsets[i] + min(f, lengths[i] - 1)
+    private final int[] offsets;
+    private final int[] lengths;
+    private final float[] xs;
+    private final float[] ys;
+    private final long[] activeBits;
+    /** Skor pemain per frame. */
+    private final int[] scores;
+
+    private TrajectoryPlayback(int ballCount, double frameTime, ShotOutcome outcome, int frames,
+                               int[] offsets, int[] lengths, float[] xs, float[] ys, long[] activeBits, int[] scores) {
+        this.ballCount = ballCount;
+        this.frameTime = frameTime;
+        this.outcome = outcome;
+        this.frames = frames;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.xs = xs;
+        this.ys = ys;
+        this.activeBits = activeBits;
+        this.scores = scores;
+    }
+
+    /**
+     * Menyimulasikan pukulan sampai selesai dan merekam lintasannya.
+     *
+     * @param start     Keadaan meja sebelum pukulan (tidak diubah).
+     * @param shot      Vektor gaya pukulan.
+     * @param simulator Simulator (ukuran meja dan batas waktu simulasi).
+     * @param live      Simulasi meja yang dimainkan (parameter fisika, solver tumbukan, dan rentang
+     *                  sub-step disalin, agar hasilnya sama dengan pukulan tanpa resolve-ahead).
+     * @return Rekaman siap diputar.
+     */
+    public static TrajectoryPlayback resolve(TableState start, Vector2D shot, ShotSimulator simulator, Simulation live) {
+        PhysicsEngine engine = live.getPhysicsEngine();
+        Simulation simulation = Simulation.fromState(start, simulator.getTableWidth(), simulator.getTableHeight(),
+                engine.getParameters());
+        ContactSolver solver = engine.getContactSolver();
+        if (solver != null) simulation.getPhysicsEngine().setContactSolver(solver.copySettings());
+        simulation.setSubStepRange(live.getMinSubSteps(), live.getMaxSubSteps());
+
+        Recorder recorder = new Recorder(start.getBallCount(), simulation.getPhysicsEngine());
+        ShotOutcome outcome = simulator.simulate(simulation, start, shot, recorder);
+        return recorder.finish(outcome);
+    }
+
+    /** Merekam frame (urutan frame dulu) lalu memadatkannya menjadi data per bola. */
+    private static final class Recorder implements ShotSimulator.FrameListener {
+        private final int ballCount;
+        private final PhysicsEngine engine;
+        private float[] xs;
+        private float[] ys;
+        private boolean[] active;
+        private int[] scores = new int[256];
+        private int frames = 0;
+
+        Recorder(int ballCount, PhysicsEngine engine) {
+            this.ballCount = ballCount;
+            this.engine = engine;
+            this.xs = new float[256 * ballCount];
+            this.ys = new float[256 * ballCount];
+            this.active = new boolean[256 * ballCount];
+        }
+
+        @Override
+        public void onFrame(int frame, List<Ball> balls) {
+            if (frames == scores.length) {
+                int capacity = frames * 2;
+                xs = Arrays.copyOf(xs, capacity * ballCount);
+                ys = Arrays.copyOf(ys, capacity * ballCount);
+                active = Arrays.copyOf(active, capacity * ballCount);
+                scores = Arrays.copyOf(scores, capacity);
+            }
+            int base = frames * ballCount;
+            for (int i = 0; i < ballCount; i++) {
+                Ball ball = balls.get(i);
+                xs[base + i] = (float) ball.getX();
+                ys[base + i] = (float) ball.getY();
+                active[base + i] = ball.isActive();
+            }
+            scores[frames] = engine.getPlayerScore();
+            frames++;
+        }
+
+        TrajectoryPlayback finish(ShotOutcome outcome) {
+            // Panjang rekaman tiap bola: sampai frame terakhir yang berbeda dari frame akhir
+            int[] lengths = new int[ballCount];
+            int[] offsets = new int[ballCount];
+            int total = 0;
+            for (int i = 0; i < ballCount; i++) {
+                int last = (frames - 1) * ballCount + i;
+                int length = frames;
+                while (length > 1) {
+                    int prev = (length - 2) * ballCount + i;
+                    if (xs[prev] != xs[last] || ys[prev] != ys[last] || active[prev] != active[last]) break;
+                    length--;
+                }
+                offsets[i] = total;
+                lengths[i] = length;
+                total += length;
+            }
+
+            float[] packedX = new float[total];
+            float[] packedY = new float[total];
+            long[] bits = new long[(total + 63) / 64];
+            for (int i = 0; i < ballCount; i++) {
+                for (int f = 0; f < lengths[i]; f++) {
+                    int src = f * ballCount + i;
+                    int dst = offsets[i] + f;
+                    packedX[dst] = xs[src];
+                    packedY[dst] = ys[src];
+                    if (active[src]) bits[dst >>> 6] |= 1L << dst;
+                }
+            }
+            return new TrajectoryPlayback(ballCount, ShotSimulator.FRAME_TIME, outcome, frames,
+                    offsets, lengths, packedX, packedY, bits, Arrays.copyOf(scores, frames));
+        }
+    }
+
+    /**
+     * Menerapkan keadaan hasil interpolasi pada waktu tertentu ke bola permainan: posisi, status
+     * aktif, dan kecepatan (selisih antar frame rekaman, agar pengecekan "bola berhenti" tetap
+     * benar selama pemutaran).
+     *
+     * @param time  Waktu sejak pukulan (detik).
+     * @param balls Bola permainan (urutan sama dengan keadaan awal).
+     */
+    public void applyTo(double time, List<? extends Ball> balls) {
+        double position = Math.max(0, time / frameTime);
+        int frame = (int) position;
+        if (frame >= frames - 1) {
+            frame = frames - 1;
+            position = frame;
+        }
+        double alpha = position - frame;
+        int next = Math.min(frame + 1, frames - 1);
+
+        int count = Math.min(ballCount, balls.size());
+        for (int i = 0; i < count; i++) {
+            Ball ball = balls.get(i);
+            int a = index(i, frame);
+            int b = index(i, next);
+            boolean activeA = isActive(a);
+            boolean activeB = isActive(b);
+            if (activeA != activeB) {
+                // Bola masuk lubang atau respawn: tidak diinterpolasi, pakai frame terdekat
+                int nearest = alpha < 0.5 ? a : b;
+                ball.setPosition(xs[nearest], ys[nearest]);
+                ball.setVelocity(0, 0);
+                ball.setActive(isActive(nearest));
+                continue;
+            }
+            double x = xs[a] + (xs[b] - xs[a]) * alpha;
+            double y = ys[a] + (ys[b] - ys[a]) * alpha;
+            ball.setPosition(x, y);
+            ball.setVelocity((xs[b] - xs[a]) / frameTime, (ys[b] - ys[a]) / frameTime);
+            ball.setActive(activeA);
+        }
+    }
+
+    private int index(int ball, int frame) {
+        return offsets[ball] + Math.min(frame, lengths[ball] - 1);
+    }
+
+    private boolean isActive(int index) {
+        return (activeBits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /** @return Skor pemain pada waktu tertentu sejak pukulan. */
+    public int getScoreAt(double time) {
+        int frame = (int) Math.max(0, Math.min(frames - 1, time / frameTime));
+        return scores[frame];
+    }
+
+    /** @return true jika waktu pemutaran sudah mencapai akhir rekaman. */
+    public boolean isFinished(double time) {
+        return time >= getDuration();
+    }
+
+    /** @return Durasi rekaman (detik). */
+    public double getDuration() { return (frames - 1) * frameTime; }
+    /** @return Hasil akhir pukulan (keadaan akhir persis, bola masuk, foul, skor). */
+    public ShotOutcome getOutcome() { return outcome; }
+    public int getFrames() { return frames; }
+    public int getBallCount() { return ballCount; }
+
+    /** @return Perkiraan memori data lintasan (byte). */
+    public long getTrajectoryBytes() {
+        return (long) xs.length * 8 + activeBits.length * 8L + scores.length * 4L + ballCount * 8L;
+    }
+}
@@ -0,0 +1,66 @@
+package com.billiards2d;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Triple buffer lock-free untuk mengirim data dari satu thread penulis ke satu thread pembaca.
+ * <p>
+ * Penulis selalu mengisi buffer "back", pembaca selalu membaca buffer "front", dan buffer
+ * ketiga ("middle") dipertukarkan secara atomik di antara keduanya. Penulis tidak pernah
+ * menunggu pembaca dan sebaliknya; pembaca selalu mendapat data lengkap terbaru,
+ * dan data lama yang belum sempat dibaca boleh dilewati.
+ * </p>
+ *
+ * @param <T> Tipe data di dalam buffer (diisi ulang, bukan dibuat baru setiap frame).
+ */
+public class TripleBuffer<T> {
+
+    /** Bit penanda bahwa buffer middle berisi data baru yang belum diambil pembaca. */
+    private static final int FRESH = 4;
+    private static final int INDEX_MASK = 3;
+
+    private final Object[] buffers = new Object[3];
+    private final AtomicInteger middle = new AtomicInteger(1);
+    private int back = 0;   // Hanya diakses oleh penulis
+    private int front = 2;  // Hanya diakses oleh pembaca
+
+    /**
+     * @param factory Pembuat isi buffer (dipanggil tiga kali).
+     */
+    public TripleBuffer(Supplier<T> factory) {
+        for (int i = 0; i < 3; i++) buffers[i] = factory.get();
+    }
+
+    /** @return Buffer yang sedang diisi penulis. */
+    @SuppressWarnings("unchecked")
+    public T getWriteBuffer() {
+        return (T) buffers[back];
+    }
+
+    /** Menyerahkan buffer yang baru diisi ke pembaca, lalu penulis mendapat buffer kosong lain. */
+    public void publish() {
+        int old = middle.getAndSet(back | FRESH);
+        back = old & INDEX_MASK;
+    }
+
+    /**
+     * Mengambil data terbaru yang sudah lengkap.
+     * Jika tidak ada data baru sejak panggilan terakhir, buffer yang sama dikembalikan lagi.
+     *
+     * @return Buffer milik pembaca (valid sampai panggilan berikutnya).
+     */
+    @SuppressWarnings("unchecked")
+    public T getReadBuffer() {
+        if ((middle.get() & FRESH) != 0) {
+            int old = middle.getAndSet(front);
+            front = old & INDEX_MASK;
+        }
+        return (T) buffers[front];
+    }
+
+    /** @return true jika penulis sudah mem-publish data yang belum dibaca. */
+    public boolean hasFresh() {
+        return (middle.get() & FRESH) != 0;
+    }
+}
@@ -0,0 +1,162 @@
+package com.billiards2d;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Format biner pesan antara {@link SimulationWorkerPool} (koordinator) dan
+ * {@link SimulationWorker} (proses worker).
+ * <p>
+ * Urutan pesan:
+ * <pre>
+ * worker  -&gt; koordinator : MAGIC, VERSION, indeks worker (argumen saat proses dijalankan)
+ * koordinator -&gt; worker : lebar meja, tinggi meja, batas waktu simulasi,
+ *                          gesekan, restitusi dinding, restitusi bola,
+ *                          solver iteratif (boolean) [iterasi kecepatan, iterasi posisi, warm start]
+ * koordinator -&gt; worker : BATCH [jumlah keadaan, keadaan..., jumlah job, (indeks keadaan, fx, fy)...]
+ * worker  -&gt; koordinator : jumlah hasil, hasil...
+ * koordinator -&gt; worker : SHUTDOWN
+ * </pre>
+ * Keadaan meja ditulis ringkas: posisi dan kecepatan sebagai double (hasil harus identik
+ * bit-per-bit dengan simulasi di proses sendiri), lalu satu byte flag dan satu byte indeks
+ * jenis bola per bola. Nama jenis bola ditulis sekali per keadaan sebagai kamus kecil.
+ * Job yang memakai objek keadaan yang sama hanya mengirim keadaan itu sekali per batch.
+ * </p>
+ */
+final class WorkerProtocol {
+
+    static final int MAGIC = 0x42324457; // "B2DW"
+    static final int VERSION = 3;
+
+    static final byte BATCH = 1;
+    static final byte SHUTDOWN = 2;
+
+    private static final int FLAG_ACTIVE = 1;
+    private static final int FLAG_CUE = 2;
+    private static final int FLAG_CUE_PENDING_RESPAWN = 1;
+
+    private WorkerProtocol() {
+        // Kelas utilitas, tidak perlu dibuat objeknya
+    }
+
+    /** Menulis satu batch job (keadaan yang sama dikirim sekali). */
+    static void writeBatch(DataOutputStream out, List<ShotJob> jobs) throws IOException {
+        Map<TableState, Integer> stateIndex = new IdentityHashMap<>();
+        List<TableState> states = new ArrayList<>();
+        for (ShotJob job : jobs) {
+            if (!stateIndex.containsKey(job.getStart())) {
+                stateIndex.put(job.getStart(), states.size());
+                states.add(job.getStart());
+            }
+        }
+
+        out.writeByte(BATCH);
+        out.writeInt(states.size());
+        for (TableState state : states) writeState(out, state);
+        out.writeInt(jobs.size());
+        for (ShotJob job : jobs) {
+            out.writeInt(stateIndex.get(job.getStart()));
+            out.writeDouble(job.getForceX());
+            out.writeDouble(job.getForceY());
+        }
+    }
+
+    /** Membaca isi batch (setelah byte jenis pesan). */
+    static List<ShotJob> readBatch(DataInputStream in) throws IOException {
+        int stateCount = in.readInt();
+        TableState[] states = new TableState[stateCount];
+        for (int i = 0; i < stateCount; i++) states[i] = readState(in);
+
+        int jobCount = in.readInt();
+        List<ShotJob> jobs = new ArrayList<>(jobCount);
+        for (int i = 0; i < jobCount; i++) {
+            TableState state = states[in.readInt()];
+            jobs.add(new ShotJob(state, in.readDouble(), in.readDouble()));
+        }
+        return jobs;
+    }
+
+    static void writeOutcome(DataOutputStream out, ShotOutcome outcome) throws IOException {
+        writeState(out, outcome.getFinalState());
+        int[] pocketed = outcome.getPocketedBalls();
+        out.writeShort(pocketed.length);
+        for (int index : pocketed) out.writeShort(index);
+        out.writeBoolean(outcome.isFoul());
+        out.writeInt(outcome.getScoreDelta());
+        out.writeDouble(outcome.getSimulatedTime());
+        out.writeInt(outcome.getSteps());
+    }
+
+    static ShotOutcome readOutcome(DataInputStream in) throws IOException {
+        TableState finalState = readState(in);
+        int[] pocketed = new int[in.readUnsignedShort()];
+        for (int i = 0; i < pocketed.length; i++) pocketed[i] = in.readUnsignedShort();
+        boolean foul = in.readBoolean();
+        int scoreDelta = in.readInt();
+        double simulatedTime = in.readDouble();
+        int steps = in.readInt();
+        return new ShotOutcome(finalState, pocketed, foul, scoreDelta, simulatedTime, steps);
+    }
+
+    static void writeState(DataOutputStream out, TableState state) throws IOException {
+        int count = state.getBallCount();
+
+        // Kamus jenis bola (biasanya hanya 8 warna)
+        Map<String, Integer> typeIndex = new HashMap<>();
+        List<String> typeNames = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String type = state.getType(i);
+            if (type != null && !typeIndex.containsKey(type)) {
+                typeIndex.put(type, typeNames.size());
+                typeNames.add(type);
+            }
+        }
+        if (typeNames.size() > 256) throw new IOException("Terlalu banyak jenis bola: " + typeNames.size());
+
+        out.writeInt(count);
+        out.writeInt(state.getPlayerScore());
+        out.writeByte(state.isCuePendingRespawn() ? FLAG_CUE_PENDING_RESPAWN : 0);
+        out.writeShort(typeNames.size());
+        for (String name : typeNames) out.writeUTF(name);
+
+        for (int i = 0; i < count; i++) {
+            out.writeDouble(state.getX(i));
+            out.writeDouble(state.getY(i));
+            out.writeDouble(state.getVx(i));
+            out.writeDouble(state.getVy(i));
+            int flags = (state.isActive(i) ? FLAG_ACTIVE : 0) | (state.isCue(i) ? FLAG_CUE : 0);
+            out.writeByte(flags);
+            out.writeByte(state.isCue(i) ? 0 : typeIndex.get(state.getType(i)));
+        }
+    }
+
+    static TableState readState(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        int score = in.readInt();
+        int stateFlags = in.readUnsignedByte();
+        String[] typeNames = new String[in.readUnsignedShort()];
+        for (int i = 0; i < typeNames.length; i++) typeNames[i] = in.readUTF();
+
+        TableState state = new TableState(count);
+        for (int i = 0; i < count; i++) {
+            double x = in.readDouble();
+            double y = in.readDouble();
+            double vx = in.readDouble();
+            double vy = in.readDouble();
+            int flags = in.readUnsignedByte();
+            int type = in.readUnsignedByte();
+            state.setBall(i, x, y, vx, vy, (flags & FLAG_ACTIVE) != 0,
+                    (flags & FLAG_CUE) != 0 ? null : typeNames[type]);
+        }
+        state.setBallCount(count);
+        state.setPlayerScore(score);
+        state.setCuePendingRespawn((stateFlags & FLAG_CUE_PENDING_RESPAWN) != 0);
+        return state;
+    }
+}
@@ -0,0 +1,85 @@
+package com.billiards2d;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Menguji parser dan penulis JSON minimal {@link Json}: escape string, angka, nilai bertingkat,
+ * dan penolakan input yang rusak.
+ */
+class JsonTest {
+
+    @Test
+    void parsesNestedValuesInKeyOrder() {
+        Map<String, Object> object = Json.asObject(
+                Json.parse(" {\"b\": [1, true, null], \"a\": {\"c\": false}, \"s\": \"x\"} "), "root");
+        assertEquals(Arrays.asList("b", "a", "s"), List.copyOf(object.keySet()));
+        List<Object> array = Json.asArray(object.get("b"), "b");
+        assertEquals(1.0, array.get(0));
+        assertEquals(Boolean.TRUE, array.get(1));
+        assertNull(array.get(2));
+        assertFalse(Json.getBoolean(Json.asObject(object.get("a"), "a"), "c", true));
+        assertEquals("x", object.get("s"));
+        assertTrue(Json.asObject(Json.parse("{}"), "root").isEmpty());
+        assertTrue(Json.asArray(Json.parse("[ ]"), "root").isEmpty());
+    }
+
+    @Test
+    void parsesStringEscapes() {
+        assertEquals("a\"b\\c/d\b\f\n\r\t", Json.parse("\"a\\\"b\\\\c\\/d\\b\\f\\n\\r\\t\""));
+        assertEquals("\u00e9\u20ac", Json.parse("\"\\u00e9\\u20AC\""));
+    }
+
+    @Test
+    void parsesNumbers() {
+        assertEquals(0.0, Json.parse("0"));
+        assertEquals(-12.5, Json.parse("-12.5"));
+        assertEquals(1.5e3, Json.parse("1.5e3"));
+        assertEquals(-2.5E-2, Json.parse("-2.5E-2"));
+        assertEquals(7.0, Json.getNumber(Json.asObject(Json.parse("{}"), "root"), "n", 7));
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        String[] malformed = {
+            "", "{", "[1,", "[1 2]", "{\"a\" 1}", "{a:1}", "{\"a\":1,}", "\"abc", "\"\\x\"", "\"\\u12\"",
+            "\"\\uzzzz\"", "\"a\nb\"", "tru", "nul", "-", "1.2.3", "1e", "{} {}", "@"
+        };
+        for (String text : malformed) {
+            assertThrows(IllegalArgumentException.class, () -> Json.parse(text), "Seharusnya ditolak: " + text);
+        }
+        StringBuilder deep = new StringBuilder();
+        for (int i = 0; i < 100; i++) deep.append('[');
+        assertThrows(IllegalArgumentException.class, () -> Json.parse(deep.toString()));
+    }
+
+    @Test
+    void rejectsWrongTypes() {
+        assertThrows(IllegalArgumentException.class, () -> Json.asObject(Json.parse("[]"), "x"));
+        assertThrows(IllegalArgumentException.class, () -> Json.asArray(Json.parse("{}"), "x"));
+        assertThrows(IllegalArgumentException.class, () -> Json.asNumber("1", "x"));
+        assertThrows(IllegalArgumentException.class, () -> Json.getBoolean(Json.asObject(Json.parse("{\"b\":1}"), "x"), "b", false));
+    }
+
+    @Test
+    void writtenValuesParseBack() {
+        String original = "kutip \" garis \\ baris\nbaru\ttab\r\u0001 \u00e9";
+        assertEquals(original, Json.parse(Json.appendString(new StringBuilder(), original).toString()));
+
+        double[] numbers = {0, -3, 42, 0.1, -1.25e-7, 1e20, Math.PI};
+        for (double number : numbers) {
+            assertEquals(number, (Double) Json.parse(Json.appendNumber(new StringBuilder(), number).toString()));
+        }
+        assertNull(Json.parse(Json.appendNumber(new StringBuilder(), Double.NaN).toString()));
+        assertNull(Json.parse(Json.appendNumber(new StringBuilder(), Double.POSITIVE_INFINITY).toString()));
+    }
+}
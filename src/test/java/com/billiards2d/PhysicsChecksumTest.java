@@ -0,0 +1,59 @@
+package com.billiards2d;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Regresi hasil fisika yang tidak bergantung pada mesin: setiap skenario standar dan setiap
+ * posisi pustaka contoh dijalankan sekali, lalu jumlah frame, jumlah langkah, dan checksum
+ * keadaan akhirnya dibandingkan dengan baseline di {@code benchmark/}. Angka throughput di
+ * baseline diabaikan (itu urusan {@code ./gradlew benchmark}).
+ */
+class PhysicsChecksumTest {
+
+    private static final Path BASELINE = Path.of("benchmark", "baseline.csv");
+    private static final Path LIBRARY_BASELINE = Path.of("benchmark", "library-baseline.csv");
+
+    @Test
+    void standardScenariosMatchBaseline() throws IOException {
+        Map<String, ThroughputHarness.Result> baseline = ThroughputHarness.readCsv(BASELINE);
+        int scenarios = 0;
+        for (Scenario scenario : ScenarioGenerator.standardScenarios(42)) {
+            assertMatches(baseline.get(scenario.getName()), scenario);
+            scenarios++;
+        }
+        assertEquals(baseline.size(), scenarios, "Jumlah skenario berbeda dengan baseline");
+    }
+
+    @Test
+    void sampleLibraryMatchesBaseline() throws IOException {
+        Map<String, ThroughputHarness.Result> baseline = ThroughputHarness.readCsv(LIBRARY_BASELINE);
+        Path file = Files.createTempFile("library-sample", ".b2pl");
+        try {
+            PositionLibrary.writeSample(file, baseline.size());
+            try (PositionLibrary library = PositionLibrary.open(file)) {
+                assertEquals(baseline.size(), library.size());
+                for (Scenario scenario : library.scenarios()) {
+                    assertMatches(baseline.get(scenario.getName()), scenario);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void assertMatches(ThroughputHarness.Result expected, Scenario scenario) {
+        assertNotNull(expected, "Skenario " + scenario.getName() + " tidak ada di baseline");
+        ThroughputHarness.Result actual = ThroughputHarness.runOnce(scenario);
+        assertEquals(expected.frames, actual.frames, scenario.getName() + ": jumlah frame");
+        assertEquals(expected.steps, actual.steps, scenario.getName() + ": jumlah langkah fisika");
+        assertEquals(expected.checksum, actual.checksum, scenario.getName() + ": checksum keadaan akhir");
+    }
+}
@@ -0,0 +1,88 @@
+package com.billiards2d;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Menguji round trip {@link PositionLibrary.Writer} dan {@link PositionLibrary}: tata letak file
+ * sesuai dokumentasi format (posisi pertama di offset {@link PositionLibrary#HEADER_SIZE}) dan
+ * setiap posisi terbaca kembali sama.
+ */
+class PositionLibraryTest {
+
+    @Test
+    void writtenPositionsReadBackAtDocumentedOffsets() throws IOException {
+        TableState rack = TableState.capture(BilliardApp.createStandardBalls(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT), 7);
+        TableState pocketed = rack.copy();
+        pocketed.setBall(3, pocketed.getX(3), pocketed.getY(3), 0, 0, false, pocketed.getType(3));
+        pocketed.setCuePendingRespawn(true);
+
+        Path file = Files.createTempFile("positions", ".b2pl");
+        try {
+            try (PositionLibrary.Writer writer = new PositionLibrary.Writer(file)) {
+                writer.add("break", BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT, rack, new Vector2D(1200, 20), 600, false);
+                writer.add("respawn", BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT, pocketed, new Vector2D(0, 0), 30, true);
+            }
+
+            ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+            assertEquals(PositionLibrary.MAGIC, bytes.getInt(0));
+            assertEquals(2, bytes.getInt(8));
+            long indexOffset = bytes.getLong(16);
+            assertEquals(bytes.capacity(), indexOffset + 2 * 8);
+            assertEquals(PositionLibrary.HEADER_SIZE, bytes.getLong((int) indexOffset), "Posisi pertama langsung setelah header");
+            byte[] name = "break".getBytes(StandardCharsets.UTF_8);
+            assertEquals(name.length, bytes.getShort(PositionLibrary.HEADER_SIZE));
+            for (int i = 0; i < name.length; i++) assertEquals(name[i], bytes.get(PositionLibrary.HEADER_SIZE + 2 + i));
+
+            try (PositionLibrary library = PositionLibrary.open(file)) {
+                assertEquals(2, library.size());
+                assertEquals(1, library.indexOf("respawn"));
+                assertEquals(-1, library.indexOf("missing"));
+
+                PositionLibrary.Cursor cursor = library.cursor().seek(0);
+                assertEquals("break", cursor.getName());
+                assertEquals(1200.0, cursor.getShotX());
+                assertEquals(20.0, cursor.getShotY());
+                assertEquals(600, cursor.getMaxFrames());
+                assertFalse(cursor.isIterativeSolver());
+                assertSameTable(rack, cursor.getState());
+
+                cursor.seek(1);
+                assertEquals("respawn", cursor.getName());
+                assertEquals(30, cursor.getMaxFrames());
+                assertTrue(cursor.isIterativeSolver());
+                assertSameTable(pocketed, cursor.getState());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Posisi disimpan dengan resolusi 1/256 pixel oleh {@link TableStateCodec}; posisi bola
+     * yang tidak aktif tidak disimpan.
+     */
+    private static void assertSameTable(TableState expected, TableState actual) {
+        assertEquals(expected.getBallCount(), actual.getBallCount());
+        assertEquals(expected.getPlayerScore(), actual.getPlayerScore());
+        assertEquals(expected.isCuePendingRespawn(), actual.isCuePendingRespawn());
+        for (int i = 0; i < expected.getBallCount(); i++) {
+            assertEquals(expected.isCue(i), actual.isCue(i));
+            assertEquals(expected.getType(i), actual.getType(i));
+            assertEquals(expected.isActive(i), actual.isActive(i));
+            if (!expected.isActive(i)) continue;
+            assertEquals(expected.getX(i), actual.getX(i), 1.0 / 256, "x bola " + i);
+            assertEquals(expected.getY(i), actual.getY(i), 1.0 / 256, "y bola " + i);
+        }
+    }
+}
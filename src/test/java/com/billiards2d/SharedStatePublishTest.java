@@ -0,0 +1,105 @@
+package com.billiards2d;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Memastikan file {@link SharedTableState} selalu sama dengan meja setelah setiap frame
+ * {@link Simulation}, termasuk setelah respawn bola putih (fase RULES) dan selama rekaman
+ * pukulan resolve-ahead diputar (tanpa langkah fisika).
+ */
+class SharedStatePublishTest {
+
+    private static final double FRAME_TIME = 1.0 / 60.0;
+
+    @Test
+    void respawnedCueBallIsPublishedBeforeTableGoesIdle() throws IOException {
+        TableState start = TableState.capture(BilliardApp.createStandardBalls(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT), 0);
+        start.setBall(0, 60, 60, 0, 0, true, null); // Bola putih diarahkan ke lubang kiri atas
+
+        Queue<ShotCommand> shots = new ArrayDeque<>();
+        Simulation simulation = createSimulation(start, shots);
+        Path file = Files.createTempFile("shared-state", ".b2dt");
+        try {
+            simulation.getPhysicsEngine().setSharedState(SharedTableState.openForWriting(file, start.getBallCount()));
+            shots.add(new ShotCommand(new Vector2D(-600, -600), System.nanoTime()));
+
+            int frames = 0;
+            do {
+                simulation.advance(FRAME_TIME);
+                assertPublished(simulation, file);
+            } while (!simulation.isIdle() && ++frames < 5_000);
+
+            assertTrue(simulation.getPhysicsEngine().getFoulCount() > 0, "Bola putih seharusnya masuk lubang");
+            assertTrue(simulation.getCueBall().isActive());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void resolveAheadPlaybackIsPublishedEveryFrame() throws IOException {
+        TableState start = TableState.capture(BilliardApp.createStandardBalls(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT), 0);
+        Queue<ShotCommand> shots = new ArrayDeque<>();
+        Simulation simulation = createSimulation(start, shots);
+        simulation.setResolveAhead(true);
+        Path file = Files.createTempFile("shared-state", ".b2dt");
+        try {
+            SharedTableState shared = SharedTableState.openForWriting(file, start.getBallCount());
+            simulation.getPhysicsEngine().setSharedState(shared);
+            shots.add(new ShotCommand(new Vector2D(1200, 20), System.nanoTime()));
+
+            int frames = 0;
+            long lastSequence = shared.getSequence();
+            do {
+                simulation.advance(FRAME_TIME);
+                assertTrue(shared.getSequence() > lastSequence, "Frame " + frames + " tidak dipublikasikan");
+                lastSequence = shared.getSequence();
+                assertPublished(simulation, file);
+            } while (!simulation.isIdle() && ++frames < 5_000);
+
+            assertTrue(frames > 1, "Rekaman seharusnya diputar lebih dari satu frame");
+            assertTrue(simulation.getLastShotLatencyMillis() >= 0, "Jeda input-ke-eksekusi pukulan harus tercatat");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /** Isi file harus sama persis dengan bola di meja dan skor engine. */
+    static void assertPublished(Simulation simulation, Path file) throws IOException {
+        TableState read = new TableState(simulation.getBalls().size());
+        SharedTableState.openForReading(file).readInto(read);
+        List<Ball> balls = simulation.getBalls();
+        assertEquals(balls.size(), read.getBallCount());
+        assertEquals(simulation.getPhysicsEngine().getPlayerScore(), read.getPlayerScore());
+        CueBall cueBall = simulation.getCueBall();
+        assertEquals(cueBall.isPendingRespawn(), read.isCuePendingRespawn());
+        for (int i = 0; i < balls.size(); i++) {
+            Ball ball = balls.get(i);
+            assertEquals(ball.isActive(), read.isActive(i), "Status aktif bola " + i);
+            assertEquals(ball.getX(), read.getX(i), "Posisi x bola " + i);
+            assertEquals(ball.getY(), read.getY(i), "Posisi y bola " + i);
+        }
+    }
+
+    /** Seperti {@link Simulation#fromState}, tetapi dengan antrean pukulan milik test. */
+    static Simulation createSimulation(TableState state, Queue<ShotCommand> shots) {
+        Table table = new Table(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT);
+        List<Ball> balls = state.toBalls();
+        List<GameObject> objects = new ArrayList<>(balls);
+        PhysicsEngine engine = new PhysicsEngine(table, objects);
+        engine.setLogEvents(false);
+        objects.add(engine);
+        return new Simulation(table, ShotSimulator.findCueBall(balls), balls, objects, engine, shots);
+    }
+}
@@ -0,0 +1,138 @@
+package com.billiards2d;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Menguji seqlock {@link SharedTableState}: pembaca yang berjalan bersamaan dengan penulis tidak
+ * pernah melihat keadaan meja yang setengah tertulis, dan tipe bola yang tidak berubah dibaca
+ * tanpa membuat String baru.
+ */
+class SharedTableStateTest {
+
+    private static final int BALLS = 512;
+    private static final String CUSTOM_TYPE = "STRIPE_CUSTOM";
+
+    @Test
+    void concurrentReaderNeverSeesTornState() throws Exception {
+        // Dua meja yang bergantian: jenis bola berbeda, dan setiap publish menulis nilai yang
+        // sama (nomor publish) ke semua field, sehingga campuran dua publish mudah dikenali.
+        List<Ball> standard = createBalls(false);
+        List<Ball> custom = createBalls(true);
+        Path file = Files.createTempFile("shared-state", ".b2dt");
+        try {
+            SharedTableState writer = SharedTableState.openForWriting(file, BALLS);
+            SharedTableState reader = SharedTableState.openForReading(file);
+            writer.publish(standard, 0);
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread writerThread = new Thread(() -> {
+                try {
+                    for (int value = 1; running.get(); value++) {
+                        List<Ball> balls = value % 2 == 0 ? standard : custom;
+                        for (Ball ball : balls) {
+                            ball.setPosition(value, value);
+                            ball.setVelocity(value, -value);
+                            ball.setActive(value % 3 != 0);
+                        }
+                        writer.publish(balls, value);
+                    }
+                } catch (RuntimeException e) {
+                    failure.set(e);
+                }
+            }, "shared-state-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+
+            TableState state = new TableState(BALLS);
+            long lastSequence = -1;
+            int distinctReads = 0;
+            long end = System.nanoTime() + 500_000_000L;
+            try {
+                while (System.nanoTime() < end && distinctReads < 20_000) {
+                    long sequence = reader.readInto(state);
+                    assertEquals(0, sequence & 1, "Sequence yang dibaca harus genap (stabil)");
+                    assertTrue(sequence >= lastSequence, "Sequence tidak boleh mundur");
+                    if (sequence != lastSequence) distinctReads++;
+                    lastSequence = sequence;
+                    assertConsistent(state);
+                }
+            } finally {
+                running.set(false);
+                writerThread.join(5_000);
+            }
+            assertNull(failure.get());
+            assertTrue(distinctReads > 1, "Pembaca seharusnya melihat beberapa publish");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void unchangedTypesAreReusedBetweenReads() throws IOException {
+        Path file = Files.createTempFile("shared-state", ".b2dt");
+        try {
+            SharedTableState writer = SharedTableState.openForWriting(file, BALLS);
+            SharedTableState reader = SharedTableState.openForReading(file);
+            List<Ball> balls = createBalls(true);
+            writer.publish(balls, 0);
+
+            TableState first = new TableState(BALLS);
+            TableState second = new TableState(BALLS);
+            reader.readInto(first);
+            writer.publish(balls, 1);
+            reader.readInto(second);
+            for (int i = 1; i < BALLS; i++) {
+                assertEquals(((ObjectBall) balls.get(i)).getType(), second.getType(i));
+                assertSame(first.getType(i), second.getType(i), "Tipe bola " + i + " seharusnya dipakai ulang");
+            }
+
+            writer.publish(createBalls(false), 2);
+            reader.readInto(second);
+            assertSame(TableStateCodec.STANDARD_TYPES[0], second.getType(1), "Jenis standar tidak perlu String baru");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /** Semua field harus berasal dari publish yang sama (nomor publish = skor). */
+    private static void assertConsistent(TableState state) {
+        int value = state.getPlayerScore();
+        double expected = value;
+        assertEquals(BALLS, state.getBallCount());
+        boolean expectCustom = value % 2 != 0;
+        for (int i = 0; i < BALLS; i++) {
+            if (value == 0) break; // Publish awal sebelum thread penulis mulai
+            assertEquals(expected, state.getX(i), "x bola " + i + " dari publish lain");
+            assertEquals(expected, state.getY(i), "y bola " + i + " dari publish lain");
+            assertEquals(expected, state.getVx(i), "vx bola " + i + " dari publish lain");
+            assertEquals(-expected, state.getVy(i), "vy bola " + i + " dari publish lain");
+            assertEquals(value % 3 != 0, state.isActive(i), "Status aktif bola " + i + " dari publish lain");
+            if (i > 0) assertEquals(expectCustom, state.getType(i).startsWith(CUSTOM_TYPE), "Tipe bola " + i);
+        }
+    }
+
+    private static List<Ball> createBalls(boolean customTypes) {
+        List<Ball> balls = new ArrayList<>();
+        balls.add(new CueBall(new Vector2D(0, 0)));
+        for (int i = 1; i < BALLS; i++) {
+            String type = customTypes ? CUSTOM_TYPE + i
+                    : TableStateCodec.STANDARD_TYPES[(i - 1) % TableStateCodec.STANDARD_TYPES.length];
+            balls.add(new ObjectBall(new Vector2D(0, 0), type));
+        }
+        return balls;
+    }
+}
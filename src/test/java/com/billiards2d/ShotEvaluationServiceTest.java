@@ -0,0 +1,124 @@
+package com.billiards2d;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Menguji round trip request/response {@link ShotEvaluationService}: keadaan meja dan pukulan
+ * dikirim lewat HTTP, hasilnya harus sama dengan {@link ShotSimulator} yang dipanggil langsung.
+ */
+class ShotEvaluationServiceTest {
+
+    private ShotEvaluationService service;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void startService() throws IOException {
+        service = new ShotEvaluationService(0, 2, 1.0, 64);
+    }
+
+    @AfterEach
+    void stopService() {
+        service.close();
+    }
+
+    @Test
+    void simulateMatchesDirectSimulation() throws Exception {
+        TableState start = TableState.capture(BilliardApp.createStandardBalls(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT), 3);
+        start.setBall(5, start.getX(5), start.getY(5), 0, 0, false, start.getType(5)); // Bola yang sudah masuk
+        Vector2D[] shots = {new Vector2D(1200, 20), new Vector2D(-300, 150), new Vector2D(0, 0)};
+
+        StringBuilder body = new StringBuilder("{\"state\":");
+        ShotEvaluationService.appendState(body, start);
+        body.append(",\"shots\":[");
+        for (int i = 0; i < shots.length; i++) {
+            if (i > 0) body.append(',');
+            body.append('[');
+            Json.appendNumber(body, shots[i].getX()).append(',');
+            Json.appendNumber(body, shots[i].getY()).append(']');
+        }
+        body.append("]}");
+
+        HttpResponse<String> response = post("/simulate", body.toString());
+        assertEquals(200, response.statusCode(), response.body());
+        List<Object> outcomes = Json.asArray(Json.asObject(Json.parse(response.body()), "response").get("outcomes"), "outcomes");
+        assertEquals(shots.length, outcomes.size());
+
+        ShotSimulator simulator = new ShotSimulator(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT);
+        for (int i = 0; i < shots.length; i++) {
+            ShotOutcome expected = simulator.simulate(start, shots[i]);
+            Map<String, Object> outcome = Json.asObject(outcomes.get(i), "outcomes[" + i + "]");
+            List<Object> pocketed = Json.asArray(outcome.get("pocketed"), "pocketed");
+            assertEquals(expected.getPocketedCount(), pocketed.size());
+            for (int p = 0; p < pocketed.size(); p++) {
+                assertEquals(expected.getPocketedBalls()[p], (int) Json.asNumber(pocketed.get(p), "pocketed"));
+            }
+            assertEquals(expected.isFoul(), Json.getBoolean(outcome, "foul", !expected.isFoul()));
+            assertEquals(expected.getScoreDelta(), (int) Json.getNumber(outcome, "scoreDelta", -1));
+            assertEquals(expected.getSteps(), (int) Json.getNumber(outcome, "steps", -1));
+
+            TableState expectedState = expected.getFinalState();
+            TableState finalState = ShotEvaluationService.parseState(Json.asObject(outcome.get("finalState"), "finalState"));
+            assertEquals(expectedState.getBallCount(), finalState.getBallCount());
+            assertEquals(expectedState.getPlayerScore(), finalState.getPlayerScore());
+            assertEquals(expectedState.isCuePendingRespawn(), finalState.isCuePendingRespawn());
+            for (int b = 0; b < expectedState.getBallCount(); b++) {
+                assertEquals(expectedState.isCue(b), finalState.isCue(b));
+                assertEquals(expectedState.getType(b), finalState.getType(b));
+                assertEquals(expectedState.isActive(b), finalState.isActive(b));
+                assertEquals(expectedState.getX(b), finalState.getX(b), "x bola " + b);
+                assertEquals(expectedState.getY(b), finalState.getY(b), "y bola " + b);
+            }
+        }
+    }
+
+    @Test
+    void finalStateCanBeOmitted() throws Exception {
+        String body = "{\"state\":{\"balls\":[{\"x\":200,\"y\":200},{\"type\":\"SOLID\",\"x\":400,\"y\":200}]},"
+                + "\"shots\":[[500,0]],\"includeFinalState\":false}";
+        HttpResponse<String> response = post("/simulate", body);
+        assertEquals(200, response.statusCode(), response.body());
+        Map<String, Object> outcome = Json.asObject(
+                Json.asArray(Json.asObject(Json.parse(response.body()), "response").get("outcomes"), "outcomes").get(0), "outcome");
+        assertFalse(outcome.containsKey("finalState"));
+    }
+
+    @Test
+    void malformedRequestsAreRejected() throws Exception {
+        assertError(400, post("/simulate", "{\"state\":"));
+        assertError(400, post("/simulate", "{\"state\":{\"balls\":[]},\"shots\":[[1]]}"));
+        assertError(400, post("/simulate", "{\"state\":{\"balls\":[{\"x\":1,\"y\":1},{\"x\":2,\"y\":2}]},\"shots\":[]}"));
+        assertError(405, client.send(HttpRequest.newBuilder(uri("/simulate")).GET().build(), HttpResponse.BodyHandlers.ofString()));
+        assertError(404, post("/simulate/extra", "{}"));
+    }
+
+    private static void assertError(int status, HttpResponse<String> response) {
+        assertEquals(status, response.statusCode(), response.body());
+        assertTrue(Json.asObject(Json.parse(response.body()), "response").get("error") instanceof String);
+    }
+
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + service.getPort() + path);
+    }
+}
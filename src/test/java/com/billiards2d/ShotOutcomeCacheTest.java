@@ -0,0 +1,86 @@
+package com.billiards2d;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Menguji {@link ShotOutcomeCache}: ukuran minimal file, penimpaan entri (termasuk lewat
+ * pengeluaran CLOCK), dan isi yang tetap terbaca setelah file dibuka ulang.
+ */
+class ShotOutcomeCacheTest {
+
+    private static final ShotSimulator SIMULATOR = new ShotSimulator(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT);
+    private static final TableState RACK =
+            TableState.capture(BilliardApp.createStandardBalls(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT), 0);
+
+    @Test
+    void rejectsSizeSmallerThanOneSet() throws IOException {
+        Path file = Files.createTempFile("outcomes", ".b2sc");
+        try {
+            assertThrows(IllegalArgumentException.class,
+                    () -> ShotOutcomeCache.open(file, ShotOutcomeCache.minimumBytes() - 1, SIMULATOR));
+            try (ShotOutcomeCache cache = ShotOutcomeCache.open(file, ShotOutcomeCache.minimumBytes(), SIMULATOR)) {
+                assertEquals(ShotOutcomeCache.WAYS, cache.getEntryCapacity());
+                assertEquals(ShotOutcomeCache.minimumBytes(), cache.getFileSize());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void rewrittenEntriesReadBackAfterReopen() throws IOException {
+        Path file = Files.createTempFile("outcomes", ".b2sc");
+        try {
+            int shots = ShotOutcomeCache.WAYS * 3; // Satu set: entri lama pasti ditimpa
+            Vector2D last = null;
+            ShotOutcome lastOutcome = null;
+            try (ShotOutcomeCache cache = ShotOutcomeCache.open(file, ShotOutcomeCache.minimumBytes(), SIMULATOR)) {
+                for (int i = 0; i < shots; i++) {
+                    last = new Vector2D(400 + 40 * i, 10 * i);
+                    lastOutcome = SIMULATOR.simulate(RACK, last);
+                    cache.put(RACK, last, lastOutcome);
+                    assertSameOutcome(lastOutcome, cache.get(RACK, last));
+                }
+                assertEquals(shots - ShotOutcomeCache.WAYS, cache.getEvictionCount());
+                assertNull(cache.get(RACK, new Vector2D(-1000, -1000)));
+
+                // Kunci yang sama ditimpa dengan hasil baru
+                ShotOutcome other = SIMULATOR.simulate(RACK, new Vector2D(-700, 30));
+                cache.put(RACK, last, other);
+                assertSameOutcome(other, cache.get(RACK, last));
+                cache.put(RACK, last, lastOutcome);
+            }
+            try (ShotOutcomeCache cache = ShotOutcomeCache.open(file, ShotOutcomeCache.minimumBytes(), SIMULATOR)) {
+                assertSameOutcome(lastOutcome, cache.get(RACK, last));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /** Posisi disimpan sebagai double, kecepatan dan waktu sebagai float. */
+    private static void assertSameOutcome(ShotOutcome expected, ShotOutcome actual) {
+        assertNotNull(actual);
+        assertEquals(expected.isFoul(), actual.isFoul());
+        assertEquals(expected.getScoreDelta(), actual.getScoreDelta());
+        assertEquals(expected.getSteps(), actual.getSteps());
+        assertEquals(expected.getPocketedCount(), actual.getPocketedCount());
+        TableState end = expected.getFinalState();
+        TableState read = actual.getFinalState();
+        assertEquals(end.isCuePendingRespawn(), read.isCuePendingRespawn());
+        for (int i = 0; i < end.getBallCount(); i++) {
+            assertEquals(end.isActive(i), read.isActive(i), "Status aktif bola " + i);
+            assertEquals(end.getX(i), read.getX(i), "x bola " + i);
+            assertEquals(end.getY(i), read.getY(i), "y bola " + i);
+        }
+    }
+}
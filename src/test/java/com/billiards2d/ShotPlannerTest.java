@@ -0,0 +1,59 @@
+package com.billiards2d;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Menguji batas pencarian {@link ShotPlanner}: dengan batas jumlah simulasi pukulan yang dipilih
+ * selalu sama (antar planner dan antar pemanggilan), dan batas waktu benar-benar dipatuhi
+ * karena simulasi yang masih berjalan dihentikan.
+ */
+class ShotPlannerTest {
+
+    private static final TableState RACK =
+            TableState.capture(BilliardApp.createStandardBalls(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT), 0);
+
+    @Test
+    void simulationBudgetGivesDeterministicPlan() {
+        try (ShotPlanner first = createSmallPlanner(); ShotPlanner second = createSmallPlanner()) {
+            Vector2D expected = first.planNextShot(RACK, 60_000);
+            assertNotNull(expected);
+            assertTrue(first.getSimulationCount() <= 12, "Simulasi penuh melebihi batas: " + first.getSimulationCount());
+
+            Vector2D repeated = first.planNextShot(RACK, 60_000);
+            Vector2D other = second.planNextShot(RACK, 60_000);
+            assertEquals(expected.getX(), repeated.getX());
+            assertEquals(expected.getY(), repeated.getY());
+            assertEquals(expected.getX(), other.getX());
+            assertEquals(expected.getY(), other.getY());
+        }
+    }
+
+    @Test
+    void timeBudgetIsEnforced() {
+        try (ShotPlanner planner = new ShotPlanner(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT, 1)) {
+            planner.setDepth(4);
+            planner.setAngleSamples(180);
+            long begin = System.nanoTime();
+            Vector2D shot = planner.planNextShot(RACK, 100);
+            long elapsedMs = (System.nanoTime() - begin) / 1_000_000;
+            assertNotNull(shot);
+            // Sedikit kelonggaran untuk frame simulasi yang sedang berjalan saat dibatalkan
+            assertTrue(elapsedMs < 1_000, "Pencarian melewati batas waktu: " + elapsedMs + " ms");
+        }
+    }
+
+    private static ShotPlanner createSmallPlanner() {
+        ShotPlanner planner = new ShotPlanner(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT, 2);
+        planner.setDepth(2);
+        planner.setBeamWidth(2);
+        planner.setAngleSamples(8);
+        planner.setPowerLevels(new double[] {0.5, 1.0});
+        planner.setScreeningTopK(6);
+        planner.setSimulationBudget(12);
+        return planner;
+    }
+}
@@ -0,0 +1,33 @@
+package com.billiards2d;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Memastikan langkah fisika ({@link PhysicsEngine#update(double)} lewat
+ * {@link Simulation#advance(double)}) dan raycast garis prediksi ({@link CueStick#predict})
+ * tidak mengalokasikan memori sama sekali setelah JIT panas, diukur dengan
+ * {@link AllocationTracker}.
+ */
+class SteadyStateAllocationTest {
+
+    @BeforeAll
+    static void requireAllocationCounters() {
+        assumeTrue(AllocationTracker.isSupported(), "JVM tidak mendukung penghitung alokasi per thread");
+    }
+
+    @Test
+    void physicsStepDoesNotAllocate() {
+        long bytes = ThroughputHarness.measurePhysicsAllocations(ThroughputHarness.PHYSICS_ALLOCATION_FRAMES);
+        assertEquals(0, bytes, "Langkah fisika mengalokasikan memori pada pukulan break");
+    }
+
+    @Test
+    void predictionRaycastDoesNotAllocate() {
+        long bytes = ThroughputHarness.measurePredictionAllocations(ThroughputHarness.PREDICTION_ALLOCATION_RAYCASTS);
+        assertEquals(0, bytes, "Raycast garis prediksi mengalokasikan memori");
+    }
+}
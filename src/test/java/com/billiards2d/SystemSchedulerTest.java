@@ -0,0 +1,119 @@
+package com.billiards2d;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Menguji eksekusi paralel {@link SystemScheduler}: pembagian batch berdasarkan data yang
+ * dibaca/ditulis, menunggu semua sistem batch, dan meneruskan kegagalan sistem pertama.
+ */
+class SystemSchedulerTest {
+
+    private ExecutorService executor;
+    private SystemScheduler scheduler;
+
+    @BeforeEach
+    void createScheduler() {
+        executor = Executors.newFixedThreadPool(2, r -> {
+            Thread t = new Thread(r, "system-scheduler-test");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler = new SystemScheduler();
+        scheduler.setExecutor(executor);
+    }
+
+    @AfterEach
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void independentSystemsRunConcurrently() {
+        // Kedua sistem hanya selesai jika berjalan bersamaan (masing-masing menunggu yang lain)
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        AtomicInteger finished = new AtomicInteger();
+        SystemScheduler.GameSystem rendezvous = dt -> {
+            bothStarted.countDown();
+            try {
+                if (bothStarted.await(5, TimeUnit.SECONDS)) finished.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        scheduler.register("prediction", SystemScheduler.Phase.PREDICTION, SystemScheduler.PER_FRAME, rendezvous)
+                .reads("snapshots").writes("stick");
+        scheduler.register("hudText", SystemScheduler.Phase.PREDICTION, SystemScheduler.PER_FRAME, rendezvous)
+                .reads("stats").writes("hudText");
+
+        assertEquals(1, scheduler.getBatchCount(SystemScheduler.Phase.PREDICTION));
+        scheduler.beginFrame();
+        scheduler.runPhase(SystemScheduler.Phase.PREDICTION, 1 / 60.0, 0);
+        assertEquals(2, finished.get());
+    }
+
+    @Test
+    void conflictingSystemsRunInRegistrationOrder() {
+        StringBuilder order = new StringBuilder();
+        scheduler.register("integration", SystemScheduler.Phase.PHYSICS, SystemScheduler.PER_FRAME, dt -> order.append('a'))
+                .writes("balls");
+        scheduler.register("collisions", SystemScheduler.Phase.PHYSICS, SystemScheduler.PER_FRAME, dt -> order.append('b'))
+                .writes("balls", "score");
+
+        assertEquals(2, scheduler.getBatchCount(SystemScheduler.Phase.PHYSICS));
+        scheduler.beginFrame();
+        scheduler.runPhase(SystemScheduler.Phase.PHYSICS, 1 / 60.0, 0);
+        assertEquals("ab", order.toString());
+    }
+
+    @Test
+    void failureIsRethrownAfterWholeBatchFinishes() {
+        IllegalStateException failure = new IllegalStateException("gagal");
+        AtomicBoolean slowFinished = new AtomicBoolean();
+        scheduler.register("failing", SystemScheduler.Phase.PREDICTION, SystemScheduler.PER_FRAME, dt -> {
+            throw failure;
+        }).writes("a");
+        scheduler.register("slow", SystemScheduler.Phase.PREDICTION, SystemScheduler.PER_FRAME, dt -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            slowFinished.set(true);
+        }).writes("b");
+
+        scheduler.beginFrame();
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> scheduler.runPhase(SystemScheduler.Phase.PREDICTION, 1 / 60.0, 0));
+        assertSame(failure, thrown);
+        assertTrue(slowFinished.get(), "Sistem lain dalam batch harus selesai sebelum kegagalan diteruskan");
+    }
+
+    @Test
+    void failureOnExecutorThreadIsRethrown() {
+        IllegalArgumentException failure = new IllegalArgumentException("gagal di executor");
+        scheduler.register("inline", SystemScheduler.Phase.RULES, SystemScheduler.PER_FRAME, dt -> { })
+                .writes("a");
+        scheduler.register("failing", SystemScheduler.Phase.RULES, SystemScheduler.PER_FRAME, dt -> {
+            throw failure;
+        }).writes("b");
+
+        scheduler.beginFrame();
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> scheduler.runPhase(SystemScheduler.Phase.RULES, 1 / 60.0, 0));
+        assertSame(failure, thrown);
+    }
+}
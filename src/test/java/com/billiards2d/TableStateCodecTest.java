@@ -0,0 +1,166 @@
+package com.billiards2d;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Menguji round trip encode/decode {@link TableStateCodec}: rak standar, bola yang bergerak,
+ * bola tidak aktif, flag bola putih pending respawn, jenis bola tambahan, beberapa keadaan dalam
+ * satu buffer, file save, dan penolakan data yang rusak.
+ */
+class TableStateCodecTest {
+
+    /** Kesalahan pembulatan fixed-point maksimal (setengah unit). */
+    private static final double POSITION_TOLERANCE = 0.5 / TableStateCodec.POSITION_SCALE;
+    private static final double VELOCITY_TOLERANCE = 0.5 / TableStateCodec.VELOCITY_SCALE;
+
+    private final TableStateCodec codec = new TableStateCodec();
+
+    @Test
+    void standardRackRoundTrips() {
+        TableState rack = rack();
+        assertRoundTrip(rack);
+    }
+
+    @Test
+    void inactiveBallsAndPendingRespawnRoundTrip() {
+        TableState state = rack();
+        state.setBall(0, 0, 0, 0, 0, false, null); // Bola putih masuk lubang, menunggu respawn
+        state.setCuePendingRespawn(true);
+        state.setBall(4, state.getX(4), state.getY(4), 0, 0, false, state.getType(4));
+        state.setBall(9, state.getX(9) + 12.3456, state.getY(9) - 7.891, 250.5, -31.25, true, state.getType(9));
+        state.setBall(15, state.getX(15), state.getY(15), 0, 0, false, state.getType(15));
+        state.setPlayerScore(-3);
+
+        TableState decoded = assertRoundTrip(state);
+        assertTrue(decoded.isCuePendingRespawn());
+        assertFalse(decoded.isActive(0));
+        assertTrue(decoded.isCue(0));
+        assertFalse(decoded.isActive(4));
+        assertFalse(decoded.isActive(15));
+        // Posisi bola tidak aktif tidak disimpan
+        assertEquals(0.0, decoded.getX(4));
+        assertEquals(0.0, decoded.getY(4));
+    }
+
+    @Test
+    void extraTypesAndCueAtAnyIndexRoundTrip() {
+        TableState state = new TableState(4);
+        state.setBallCount(4);
+        state.setBall(0, 100, 100, 0, 0, true, "STRIPE_9");
+        state.setBall(1, 200.5, 150.25, -10, 5, true, "RED");
+        state.setBall(2, 300, 50, 0, 0, true, null);
+        state.setBall(3, 0, 0, 0, 0, false, "STRIPE_9");
+        state.setPlayerScore(12);
+
+        TableState decoded = assertRoundTrip(state);
+        assertTrue(decoded.isCue(2));
+        assertEquals("STRIPE_9", decoded.getType(0));
+        assertEquals("STRIPE_9", decoded.getType(3));
+    }
+
+    @Test
+    void consecutiveStatesShareOneBufferAndTargetIsReused() {
+        TableState first = rack();
+        TableState second = new TableState(2);
+        second.setBallCount(2);
+        second.setBall(0, 50, 60, 0, 0, true, null);
+        second.setBall(1, 70, 80, 0, 0, false, "BLACK");
+
+        ByteBuffer buffer = ByteBuffer.allocate(TableStateCodec.maxEncodedSize(first) + TableStateCodec.maxEncodedSize(second));
+        codec.encode(first, buffer);
+        codec.encode(second, buffer);
+        buffer.flip();
+
+        TableState target = new TableState(0);
+        assertSame(target, codec.decode(buffer, target));
+        assertSameState(first, target);
+        codec.decode(buffer, target); // Keadaan yang lebih kecil menimpa keadaan besar
+        assertSameState(second, target);
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    void saveFileRoundTrips() throws IOException {
+        TableState state = rack();
+        state.setCuePendingRespawn(true);
+        Path file = Files.createTempFile("table", ".b2ds");
+        try {
+            codec.save(file, state);
+            assertSameState(state, codec.load(file));
+
+            Files.write(file, new byte[] {1, 2, 3, 4, 5});
+            assertThrows(IOException.class, () -> codec.load(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void corruptDataIsRejected() {
+        ByteBuffer buffer = ByteBuffer.allocate(TableStateCodec.maxEncodedSize(rack()));
+        codec.encode(rack(), buffer);
+        buffer.flip();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+
+        for (int length = 0; length < bytes.length; length++) {
+            ByteBuffer truncated = ByteBuffer.wrap(bytes, 0, length);
+            assertThrows(IllegalArgumentException.class, () -> codec.decode(truncated, new TableState(0)),
+                    "Data terpotong di " + length + " byte seharusnya ditolak");
+        }
+        byte[] wrongVersion = bytes.clone();
+        wrongVersion[0] = (byte) (TableStateCodec.VERSION + 1);
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(ByteBuffer.wrap(wrongVersion), new TableState(0)));
+    }
+
+    @Test
+    void varintAndZigzagRoundTripExtremes() {
+        long[] values = {0, 1, -1, 63, -64, 64, 1L << 35, Long.MAX_VALUE, Long.MIN_VALUE};
+        ByteBuffer buffer = ByteBuffer.allocate(16 * values.length);
+        for (long value : values) TableStateCodec.putVarint(buffer, TableStateCodec.zigzag(value));
+        buffer.flip();
+        for (long value : values) assertEquals(value, TableStateCodec.unzigzag(TableStateCodec.getVarint(buffer)));
+    }
+
+    private TableState assertRoundTrip(TableState state) {
+        ByteBuffer buffer = ByteBuffer.allocate(TableStateCodec.maxEncodedSize(state));
+        codec.encode(state, buffer);
+        assertTrue(buffer.position() <= TableStateCodec.maxEncodedSize(state));
+        buffer.flip();
+        TableState decoded = codec.decode(buffer, new TableState(0));
+        assertFalse(buffer.hasRemaining(), "Decode harus membaca semua byte hasil encode");
+        assertSameState(state, decoded);
+        return decoded;
+    }
+
+    private static void assertSameState(TableState expected, TableState actual) {
+        assertEquals(expected.getBallCount(), actual.getBallCount());
+        assertEquals(expected.getPlayerScore(), actual.getPlayerScore());
+        assertEquals(expected.isCuePendingRespawn(), actual.isCuePendingRespawn());
+        for (int i = 0; i < expected.getBallCount(); i++) {
+            assertEquals(expected.isCue(i), actual.isCue(i), "Bola putih " + i);
+            assertEquals(expected.getType(i), actual.getType(i), "Jenis bola " + i);
+            assertEquals(expected.isActive(i), actual.isActive(i), "Status aktif bola " + i);
+            if (!expected.isActive(i)) continue;
+            assertEquals(expected.getX(i), actual.getX(i), POSITION_TOLERANCE, "x bola " + i);
+            assertEquals(expected.getY(i), actual.getY(i), POSITION_TOLERANCE, "y bola " + i);
+            assertEquals(expected.getVx(i), actual.getVx(i), VELOCITY_TOLERANCE, "vx bola " + i);
+            assertEquals(expected.getVy(i), actual.getVy(i), VELOCITY_TOLERANCE, "vy bola " + i);
+        }
+    }
+
+    private static TableState rack() {
+        return TableState.capture(BilliardApp.createStandardBalls(BilliardApp.GAME_WIDTH, BilliardApp.GAME_HEIGHT), 5);
+    }
+}